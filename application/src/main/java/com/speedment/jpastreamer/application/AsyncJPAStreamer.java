@@ -0,0 +1,171 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * An AsyncJPAStreamer runs Streams created by a {@link JPAStreamer}
+ * on an executor and returns the results as {@link CompletionStage}s
+ * whereby the calling thread is never blocked by database work.
+ * <p>
+ * Each Stream is created, consumed by the Terminal Operation and closed
+ * on a thread provided by the executor. Exceptions thrown by the database
+ * or by any of the provided functions complete the returned stage
+ * exceptionally.
+ * <p>
+ * Here is an example of how an AsyncJPAStreamer can be used:
+ * <pre>{@code jpaStreamer.async()
+ *   .collectAsync(StreamConfiguration.of(Film.class),
+ *       s -> s.filter(Film$.rating.equal("G")),
+ *       toList())
+ *   .thenAccept(films -> ...);}</pre>
+ *
+ * @see JPAStreamer#async()
+ * @see JPAStreamerBuilder#withAsyncExecutor(java.util.concurrent.Executor)
+ */
+public interface AsyncJPAStreamer {
+
+    /**
+     * Creates a Stream according to the provided {@code streamConfiguration}
+     * and applies the provided {@code terminal} function to it asynchronously.
+     * <p>
+     * The Stream is closed after the {@code terminal} function has returned.
+     * Hence, the function must not return the Stream itself or any lazy view of it
+     * (such as an Iterator).
+     *
+     * @param <T> the element type
+     * @param <R> the result type
+     * @param streamConfiguration a configuration including an entity class
+     * @param terminal a function that applies intermediate operations and
+     *                 a Terminal Operation to the Stream
+     * @return a CompletionStage that is completed with the result of the
+     *         provided {@code terminal} function
+     */
+    <T, R> CompletionStage<R> applyAsync(StreamConfiguration<T> streamConfiguration, Function<? super Stream<T>, ? extends R> terminal);
+
+    /**
+     * Creates a Stream according to the provided {@code streamConfiguration},
+     * applies the provided {@code intermediate} operations and collects
+     * the elements asynchronously using the provided {@code collector}.
+     *
+     * @param <T> the element type
+     * @param <A> the mutable accumulation type of the collector
+     * @param <R> the result type
+     * @param streamConfiguration a configuration including an entity class
+     * @param intermediate operations to apply to the Stream
+     *                     (e.g. {@code s -> s.filter(Film$.length.greaterThan(60))})
+     * @param collector to use
+     * @return a CompletionStage that is completed with the collected result
+     */
+    default <T, A, R> CompletionStage<R> collectAsync(
+        final StreamConfiguration<T> streamConfiguration,
+        final UnaryOperator<Stream<T>> intermediate,
+        final Collector<? super T, A, R> collector
+    ) {
+        requireNonNull(intermediate);
+        requireNonNull(collector);
+        return applyAsync(streamConfiguration, s -> intermediate.apply(s).collect(collector));
+    }
+
+    /**
+     * Creates a Stream according to the provided {@code streamConfiguration},
+     * applies the provided {@code intermediate} operations and counts
+     * the elements asynchronously.
+     *
+     * @param <T> the element type
+     * @param streamConfiguration a configuration including an entity class
+     * @param intermediate operations to apply to the Stream
+     * @return a CompletionStage that is completed with the number of elements
+     */
+    default <T> CompletionStage<Long> countAsync(
+        final StreamConfiguration<T> streamConfiguration,
+        final UnaryOperator<Stream<T>> intermediate
+    ) {
+        requireNonNull(intermediate);
+        return applyAsync(streamConfiguration, s -> intermediate.apply(s).count());
+    }
+
+    /**
+     * Creates a Stream according to the provided {@code streamConfiguration},
+     * applies the provided {@code intermediate} operations and performs the
+     * provided {@code action} for each element asynchronously.
+     *
+     * @param <T> the element type
+     * @param streamConfiguration a configuration including an entity class
+     * @param intermediate operations to apply to the Stream
+     * @param action to perform for each element
+     * @return a CompletionStage that is completed when all elements
+     *         have been consumed
+     */
+    default <T> CompletionStage<Void> forEachAsync(
+        final StreamConfiguration<T> streamConfiguration,
+        final UnaryOperator<Stream<T>> intermediate,
+        final Consumer<? super T> action
+    ) {
+        requireNonNull(intermediate);
+        requireNonNull(action);
+        return applyAsync(streamConfiguration, s -> {
+            intermediate.apply(s).forEach(action);
+            return null;
+        });
+    }
+
+    /**
+     * Creates and returns a new {@link EntityFlow.Publisher} that publishes
+     * the elements of a Stream created according to the provided
+     * {@code streamConfiguration} with the provided {@code intermediate}
+     * operations applied.
+     * <p>
+     * Elements are read in pages on the executor of this AsyncJPAStreamer as
+     * demand is signalled by a Subscriber. Each page is read by a separate Stream
+     * whereby the number of elements held at any time is proportional to the
+     * outstanding demand, and never more than {@code maxPageSize}.
+     * Pages are read by appending {@code skip} and {@code limit} to the
+     * {@code intermediate} operations. If these operations are expressible in
+     * the database query, so are the pages.
+     * <p>
+     * As each page is read by a separate query, the rows of each page query
+     * are ordered by the identifier of the entities after any order imposed
+     * by the {@code intermediate} operations. Thus, pages neither overlap nor
+     * leave gaps unless the {@code intermediate} operations themselves read
+     * the elements in a nondeterministic order.
+     * <p>
+     * The returned Publisher is cold: each Subscriber receives all elements
+     * from the beginning.
+     *
+     * @param <T> the element type
+     * @param streamConfiguration a configuration including an entity class
+     * @param intermediate operations to apply to the Stream
+     *                     (e.g. {@code s -> s.sorted(Film$.filmId)})
+     * @param maxPageSize the maximum number of elements read by each Stream
+     * @return a new Publisher of the elements of the Stream
+     * @throws IllegalArgumentException if the provided {@code maxPageSize}
+     *         is less than one
+     */
+    <T> EntityFlow.Publisher<T> publisher(
+        StreamConfiguration<T> streamConfiguration,
+        UnaryOperator<Stream<T>> intermediate,
+        int maxPageSize
+    );
+
+}
@@ -0,0 +1,113 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application;
+
+/**
+ * Interrelated interfaces for publishing the elements of a Stream to
+ * subscribers that control the flow of elements by signalling demand.
+ * <p>
+ * The interfaces and their contracts mirror those of
+ * {@code java.util.concurrent.Flow} (and Reactive Streams) so that they can be
+ * adapted to any reactive library by simple delegation, while still
+ * allowing JPAstreamer to run on Java 8.
+ *
+ * @see AsyncJPAStreamer#publisher(com.speedment.jpastreamer.streamconfiguration.StreamConfiguration, java.util.function.UnaryOperator, int)
+ */
+public final class EntityFlow {
+
+    private EntityFlow() {}
+
+    /**
+     * A producer of elements that are received by {@link Subscriber}s.
+     * Each Subscriber receives the elements in the same order via
+     * {@link Subscriber#onNext(Object)} unless an error or cancellation occurs.
+     *
+     * @param <T> the element type
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        /**
+         * Adds the provided {@code subscriber} which will receive a
+         * {@link Subscription} via {@link Subscriber#onSubscribe(Subscription)}.
+         * No elements are published before demand is signalled via
+         * {@link Subscription#request(long)}.
+         *
+         * @param subscriber the subscriber
+         * @throws NullPointerException if the provided {@code subscriber} is {@code null}
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of elements. The methods of a Subscriber are invoked
+     * sequentially for each {@link Subscription}.
+     *
+     * @param <T> the element type
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * Method invoked prior to invoking any other Subscriber
+         * methods for the provided {@code subscription}.
+         *
+         * @param subscription a new subscription
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Method invoked with the next element of the Subscription.
+         *
+         * @param item the element
+         */
+        void onNext(T item);
+
+        /**
+         * Method invoked upon an unrecoverable error after which no other
+         * Subscriber methods are invoked by the Subscription.
+         *
+         * @param throwable the exception
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Method invoked when all elements have been delivered after which
+         * no other Subscriber methods are invoked by the Subscription.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Message control linking a {@link Publisher} and a {@link Subscriber}.
+     */
+    public interface Subscription {
+
+        /**
+         * Adds the provided {@code n} number of elements to the current
+         * unfulfilled demand for this subscription. If {@code n} is less
+         * than or equal to zero, the Subscriber will receive an
+         * {@link Subscriber#onError(Throwable)} signal with an
+         * {@link IllegalArgumentException}.
+         *
+         * @param n the increment of demand; a value of {@code Long.MAX_VALUE}
+         *          may be seen as effectively unbounded
+         */
+        void request(long n);
+
+        /**
+         * Causes the Subscriber to (eventually) stop receiving signals.
+         */
+        void cancel();
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application;
+
+/**
+ * Metrics for a bounded pool of EntityManagers that are leased to
+ * streams created by a {@link JPAStreamer}.
+ * <p>
+ * Values are sampled upon invocation and may be
+ * concurrently modified by streaming threads.
+ *
+ * @see JPAStreamerBuilder#withEntityManagerPoolSize(int)
+ */
+public interface EntityManagerPoolMetrics {
+
+    /**
+     * Returns the maximum number of EntityManagers that
+     * can be leased at the same time.
+     *
+     * @return the maximum number of EntityManagers that
+     *         can be leased at the same time
+     */
+    int maxSize();
+
+    /**
+     * Returns the number of EntityManagers currently leased by streams.
+     *
+     * @return the number of EntityManagers currently leased by streams
+     */
+    int leased();
+
+    /**
+     * Returns the number of EntityManagers currently idle in the pool.
+     *
+     * @return the number of EntityManagers currently idle in the pool
+     */
+    int idle();
+
+    /**
+     * Returns the total number of leases made by the pool.
+     *
+     * @return the total number of leases made by the pool
+     */
+    long leaseCount();
+
+    /**
+     * Returns the total time in nanoseconds that streams have been
+     * waiting for an EntityManager to become available.
+     *
+     * @return the total time in nanoseconds that streams have been
+     *         waiting for an EntityManager to become available
+     */
+    long totalWaitNanos();
+
+    /**
+     * Returns the longest time in nanoseconds a single stream has been
+     * waiting for an EntityManager to become available.
+     *
+     * @return the longest time in nanoseconds a single stream has been
+     *         waiting for an EntityManager to become available
+     */
+    long maxWaitNanos();
+
+    /**
+     * Returns the average time in nanoseconds that streams have been
+     * waiting for an EntityManager to become available.
+     *
+     * @return the average time in nanoseconds that streams have been
+     *         waiting for an EntityManager to become available
+     */
+    default long averageWaitNanos() {
+        final long leaseCount = leaseCount();
+        return leaseCount == 0 ? 0 : totalWaitNanos() / leaseCount;
+    }
+
+}
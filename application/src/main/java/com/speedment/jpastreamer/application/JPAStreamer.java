@@ -15,11 +15,14 @@ package com.speedment.jpastreamer.application;
 import static java.util.Objects.requireNonNull;
 
 import com.speedment.jpastreamer.projection.Projection;
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
 import com.speedment.jpastreamer.rootfactory.RootFactory;
 import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 
 import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 /**
@@ -188,6 +191,54 @@ public interface JPAStreamer {
         return stream(StreamConfiguration.of(projection.entityClass()).selecting(projection));
     }
 
+    /**
+     * Returns an {@link AsyncJPAStreamer} that runs the Streams of this
+     * JPAStreamer on the executor configured for this JPAStreamer.
+     * <p>
+     * Unless an executor was configured, a default executor is used that runs
+     * each task in a virtual thread on Java runtimes supporting virtual threads
+     * and in a pooled daemon thread otherwise.
+     *
+     * @return an AsyncJPAStreamer that runs the Streams of this
+     *         JPAStreamer on the configured executor
+     * @see JPAStreamerBuilder#withAsyncExecutor(Executor)
+     */
+    AsyncJPAStreamer async();
+
+    /**
+     * Returns an {@link AsyncJPAStreamer} that runs the Streams of this
+     * JPAStreamer on the provided {@code executor}.
+     * <p>
+     * The provided {@code executor} will <em>not</em> be shut down
+     * whenever this JPAStreamer is closed.
+     *
+     * @param executor to run Streams on
+     * @return an AsyncJPAStreamer that runs the Streams of this
+     *         JPAStreamer on the provided {@code executor}
+     */
+    AsyncJPAStreamer async(Executor executor);
+
+    /**
+     * Returns metrics for the pool of EntityManagers used by this JPAStreamer
+     * or {@link Optional#empty()} if this JPAStreamer does not use a pool.
+     *
+     * @return metrics for the pool of EntityManagers used by this JPAStreamer
+     *         or {@link Optional#empty()} if this JPAStreamer does not use a pool
+     * @see JPAStreamerBuilder#withEntityManagerPoolSize(int)
+     */
+    Optional<EntityManagerPoolMetrics> entityManagerPoolMetrics();
+
+    /**
+     * Returns metrics for the caches of compiled queries used by this JPAStreamer.
+     * <p>
+     * Each entity class has a cache of its own. The capacity is that of each
+     * cache while all other values are summed over the caches.
+     *
+     * @return metrics for the caches of compiled queries used by this JPAStreamer
+     * @see JPAStreamerBuilder#withQueryCacheCapacity(int)
+     */
+    QueryCacheMetrics queryCacheMetrics();
+
     /**
      * Closes this JPAStreamer and releases any resources potentially held.
      * <p>
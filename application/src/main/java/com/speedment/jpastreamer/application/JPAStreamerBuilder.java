@@ -12,8 +12,103 @@
  */
 package com.speedment.jpastreamer.application;
 
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
 public interface JPAStreamerBuilder {
 
+    /**
+     * Configures the JPAStreamer to lease EntityManagers from a bounded
+     * pool holding at most {@code maxSize} EntityManagers.
+     * <p>
+     * Each stream leases an EntityManager of its own for as long as the
+     * stream is open whereby streams of the same entity can be consumed by
+     * many threads concurrently. If all EntityManagers are leased,
+     * new streams will wait until an EntityManager is released or fail
+     * with an {@link IllegalStateException} once the timeout configured by
+     * {@link #withEntityManagerPoolTimeout(Duration)} has elapsed.
+     * <p>
+     * If this method is never called, a new EntityManager is created for
+     * each stream and closed when the stream is closed.
+     *
+     * @param maxSize the maximum number of EntityManagers that
+     *                can be leased at the same time
+     * @return this JPAStreamerBuilder
+     * @throws IllegalArgumentException if the provided {@code maxSize}
+     *         is less than one
+     * @see JPAStreamer#entityManagerPoolMetrics()
+     */
+    JPAStreamerBuilder withEntityManagerPoolSize(int maxSize);
+
+    /**
+     * Configures the maximum time a new stream waits for an EntityManager
+     * to be released when all EntityManagers of the pool are leased.
+     * <p>
+     * The timeout only applies if the JPAStreamer is configured to use a
+     * pool via {@link #withEntityManagerPoolSize(int)}. If this method
+     * is never called, a timeout of 30 seconds is used.
+     *
+     * @param timeout the maximum time to wait for an EntityManager
+     * @return this JPAStreamerBuilder
+     * @throws IllegalArgumentException if the provided {@code timeout}
+     *         is zero or negative
+     * @throws NullPointerException if the provided {@code timeout} is null
+     */
+    JPAStreamerBuilder withEntityManagerPoolTimeout(Duration timeout);
+
+    /**
+     * Configures the JPAStreamer to run asynchronous Terminal Operations
+     * on the provided {@code executor}.
+     * <p>
+     * The provided {@code executor} will <em>not</em> be shut down
+     * whenever a built JPAStreamer instance is closed.
+     * <p>
+     * If this method is never called, a default executor is used that runs
+     * each task in a virtual thread on Java runtimes supporting virtual threads
+     * and in a pooled daemon thread otherwise.
+     *
+     * @param executor to run asynchronous Terminal Operations on
+     * @return this JPAStreamerBuilder
+     * @throws NullPointerException if the provided {@code executor} is {@code null}
+     * @see JPAStreamer#async()
+     */
+    JPAStreamerBuilder withAsyncExecutor(Executor executor);
+
+    /**
+     * Configures the JPAStreamer to cache at most {@code capacity} compiled
+     * queries for each stream configuration without joins.
+     * <p>
+     * Streams of the same shape, only differing in the values they are
+     * filtered on, skipped or limited by, reuse a cached query instead of
+     * rendering a new one. The least recently used query is evicted
+     * whenever a cache is full.
+     * <p>
+     * If this method is never called, a default capacity is used.
+     *
+     * @param capacity the maximum number of compiled queries to cache
+     *                 for each stream configuration
+     * @return this JPAStreamerBuilder
+     * @throws IllegalArgumentException if the provided {@code capacity}
+     *         is less than one
+     * @see JPAStreamer#queryCacheMetrics()
+     */
+    JPAStreamerBuilder withQueryCacheCapacity(int capacity);
+
+    /**
+     * Configures the JPAStreamer to translate serializable lambdas used to
+     * filter and sort all streams into field predicates and comparators
+     * that can be merged into the queries.
+     * <p>
+     * If this method is never called, lambdas are only translated for
+     * streams configured to do so.
+     *
+     * @return this JPAStreamerBuilder
+     * @see StreamConfiguration#translatingLambdas()
+     */
+    JPAStreamerBuilder withLambdaTranslation();
+
     /**
      * Creates and returns a new JPAStreamer instance.
      *
@@ -14,6 +14,7 @@ module jpastreamer.application {
     requires transitive java.persistence;
     requires transitive jpastreamer.field;
     requires transitive jpastreamer.streamconfiguration;
+    requires transitive jpastreamer.renderer;
     requires jpastreamer.rootfactory;
 
     exports com.speedment.jpastreamer.application;
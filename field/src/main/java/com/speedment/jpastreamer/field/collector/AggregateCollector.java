@@ -0,0 +1,48 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.field.collector;
+
+import com.speedment.jpastreamer.field.Field;
+
+import java.util.Optional;
+import java.util.stream.Collector;
+
+/**
+ * A Collector that computes an aggregate function of the elements it
+ * collects. The aggregate can be computed by the database rather than by
+ * the collector, for example when used as a downstream collector of
+ * {@link FieldCollectors#groupingBy(com.speedment.jpastreamer.field.StringField, Collector)}.
+ *
+ * @param <T>  the entity type to be collected
+ * @param <A>  the intermediate accumulation type
+ * @param <R>  the collected result
+ */
+public interface AggregateCollector<T, A, R> extends Collector<T, A, R> {
+
+    /**
+     * Returns the aggregate function that this collector computes.
+     *
+     * @return  the aggregate function
+     */
+    AggregateType getAggregateType();
+
+    /**
+     * Returns the field that is aggregated or {@link Optional#empty()}
+     * if the aggregate does not depend on a field, as is the case for
+     * {@link AggregateType#COUNT}.
+     *
+     * @return  the aggregated field
+     */
+    Optional<Field<T>> getField();
+
+}
@@ -0,0 +1,46 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.field.collector;
+
+/**
+ * The aggregate functions that an {@link AggregateCollector} computes
+ * for the elements it collects.
+ */
+public enum AggregateType {
+
+    /**
+     * The number of elements as a {@code Long}.
+     */
+    COUNT,
+
+    /**
+     * The sum of the field values as an {@code Integer}, {@code Long} or
+     * {@code Double} depending on the field.
+     */
+    SUM,
+
+    /**
+     * The arithmetic mean of the field values as a {@code Double}.
+     */
+    AVERAGE,
+
+    /**
+     * The smallest field value as an {@code Optional}.
+     */
+    MIN,
+
+    /**
+     * The largest field value as an {@code Optional}.
+     */
+    MAX
+}
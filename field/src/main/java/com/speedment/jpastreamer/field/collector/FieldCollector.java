@@ -14,6 +14,9 @@ package com.speedment.jpastreamer.field.collector;
 
 import com.speedment.jpastreamer.field.Field;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 
 /**
@@ -33,5 +36,27 @@ public interface FieldCollector<T, A, R> extends Collector<T, A, R> {
      * @return  the field
      */
     Field<T> getField();
+
+    /**
+     * Returns the factory of the map that the groups are collected into or
+     * {@link Optional#empty()} if the groups are not keyed by the value of
+     * the field.
+     *
+     * @return  the map factory
+     */
+    default Optional<Supplier<? extends Map<?, ?>>> getMapFactory() {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the collector that is applied to the entities of each group or
+     * {@link Optional#empty()} if the groups are not keyed by the value of
+     * the field.
+     *
+     * @return  the downstream collector
+     */
+    default Optional<Collector<? super T, ?, ?>> getDownstream() {
+        return Optional.empty();
+    }
     
 }
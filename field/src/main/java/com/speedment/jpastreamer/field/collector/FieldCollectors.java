@@ -13,11 +13,13 @@
 package com.speedment.jpastreamer.field.collector;
 
 import com.speedment.jpastreamer.field.*;
+import com.speedment.jpastreamer.field.internal.collector.AggregateCollectorImpl;
 import com.speedment.jpastreamer.field.internal.collector.FieldCollectorImpl;
 
 import java.util.*;
 import java.util.function.*;
 import java.util.stream.Collector;
+import java.util.stream.Collectors;
 
 import static java.util.Collections.emptySet;
 import static java.util.Collections.unmodifiableSet;
@@ -35,102 +37,102 @@ public final class FieldCollectors {
 
     public static <ENTITY> Collector<ENTITY, ?, Map<Long, List<ENTITY>>>
     groupingBy(LongField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY> Collector<ENTITY, ?, Map<Integer, List<ENTITY>>>
     groupingBy(IntField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY> Collector<ENTITY, ?, Map<Short, List<ENTITY>>>
     groupingBy(ShortField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY> Collector<ENTITY, ?, Map<Byte, List<ENTITY>>>
     groupingBy(ByteField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY> Collector<ENTITY, ?, Map<Double, List<ENTITY>>>
     groupingBy(DoubleField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY> Collector<ENTITY, ?, Map<Float, List<ENTITY>>>
     groupingBy(FloatField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY> Collector<ENTITY, ?, Map<Boolean, List<ENTITY>>>
     groupingBy(BooleanField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
 
     public static <ENTITY> Collector<ENTITY, ?, Map<Character, List<ENTITY>>>
     groupingBy(CharField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY> Collector<ENTITY, ?, Map<String, List<ENTITY>>>
     groupingBy(StringField<ENTITY> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY, T> Collector<ENTITY, ?, Map<T, List<ENTITY>>>
     groupingBy(ReferenceField<ENTITY, T> field) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, toList());
+        return groupingBy(field, field.getter()::apply, HashMap::new, toList(), true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Long, R>>
     groupingBy(LongField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Integer, R>>
     groupingBy(IntField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Short, R>>
     groupingBy(ShortField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Byte, R>>
     groupingBy(ByteField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Double, R>>
     groupingBy(DoubleField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Float, R>>
     groupingBy(FloatField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Boolean, R>>
     groupingBy(BooleanField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<Character, R>>
     groupingBy(CharField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, A, R> Collector<ENTITY, ?, Map<String, R>>
     groupingBy(StringField<ENTITY> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <ENTITY, T, A, R> Collector<ENTITY, ?, Map<T, R>>
     groupingBy(ReferenceField<ENTITY, T> field, Collector<ENTITY, A, R> downstream) {
-        return groupingBy(field, field.getter()::apply, HashMap::new, downstream);
+        return groupingBy(field, field.getter()::apply, HashMap::new, downstream, true);
     }
     
     public static <T, K, D, A, M extends Map<K, D>>
@@ -139,6 +141,134 @@ public final class FieldCollectors {
             Function<T, K> classifier,
             Supplier<M> mapFactory,
             Collector<? super T, A, D> downstream) {
+        return groupingBy(field, classifier, mapFactory, downstream, false);
+    }
+
+    /**
+     * Returns a Collector that counts the number of elements. The count can
+     * be computed by the database when used as the downstream collector of a
+     * {@code groupingBy} collector for a field.
+     *
+     * @param <ENTITY>  the entity type
+     * @return          a Collector that counts the elements
+     */
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Long>
+    counting() {
+        return aggregate(AggregateType.COUNT, null, Collectors.counting());
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Integer>
+    summingInt(IntField<ENTITY> field) {
+        return aggregate(AggregateType.SUM, field, Collectors.summingInt(field));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Long>
+    summingLong(LongField<ENTITY> field) {
+        return aggregate(AggregateType.SUM, field, Collectors.summingLong(field));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Double>
+    summingDouble(DoubleField<ENTITY> field) {
+        return aggregate(AggregateType.SUM, field, Collectors.summingDouble(field));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Double>
+    averagingInt(IntField<ENTITY> field) {
+        return aggregate(AggregateType.AVERAGE, field, Collectors.averagingInt(field));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Double>
+    averagingLong(LongField<ENTITY> field) {
+        return aggregate(AggregateType.AVERAGE, field, Collectors.averagingLong(field));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Double>
+    averagingDouble(DoubleField<ENTITY> field) {
+        return aggregate(AggregateType.AVERAGE, field, Collectors.averagingDouble(field));
+    }
+
+    /**
+     * Returns a Collector that produces the smallest value of the provided
+     * {@code field}, rather than the element having the smallest value as
+     * does {@link Collectors#minBy(Comparator)}. The minimum can be computed
+     * by the database when used as the downstream collector of a
+     * {@code groupingBy} collector for a field.
+     *
+     * @param <ENTITY>  the entity type
+     * @param field     the field to get the smallest value of
+     * @return          a Collector that produces the smallest value
+     */
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Optional<Integer>>
+    minBy(IntField<ENTITY> field) {
+        return aggregate(AggregateType.MIN, field, Collectors.mapping(field::getAsInt, Collectors.minBy(Comparator.<Integer>naturalOrder())));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Optional<Long>>
+    minBy(LongField<ENTITY> field) {
+        return aggregate(AggregateType.MIN, field, Collectors.mapping(field::getAsLong, Collectors.minBy(Comparator.<Long>naturalOrder())));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Optional<Double>>
+    minBy(DoubleField<ENTITY> field) {
+        return aggregate(AggregateType.MIN, field, Collectors.mapping(field::getAsDouble, Collectors.minBy(Comparator.<Double>naturalOrder())));
+    }
+
+    public static <ENTITY, V extends Comparable<? super V>> AggregateCollector<ENTITY, ?, Optional<V>>
+    minBy(ComparableField<ENTITY, V> field) {
+        return aggregate(AggregateType.MIN, field, Collectors.mapping(field::get, Collectors.minBy(Comparator.<V>naturalOrder())));
+    }
+
+    /**
+     * Returns a Collector that produces the largest value of the provided
+     * {@code field}, rather than the element having the largest value as
+     * does {@link Collectors#maxBy(Comparator)}. The maximum can be computed
+     * by the database when used as the downstream collector of a
+     * {@code groupingBy} collector for a field.
+     *
+     * @param <ENTITY>  the entity type
+     * @param field     the field to get the largest value of
+     * @return          a Collector that produces the largest value
+     */
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Optional<Integer>>
+    maxBy(IntField<ENTITY> field) {
+        return aggregate(AggregateType.MAX, field, Collectors.mapping(field::getAsInt, Collectors.maxBy(Comparator.<Integer>naturalOrder())));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Optional<Long>>
+    maxBy(LongField<ENTITY> field) {
+        return aggregate(AggregateType.MAX, field, Collectors.mapping(field::getAsLong, Collectors.maxBy(Comparator.<Long>naturalOrder())));
+    }
+
+    public static <ENTITY> AggregateCollector<ENTITY, ?, Optional<Double>>
+    maxBy(DoubleField<ENTITY> field) {
+        return aggregate(AggregateType.MAX, field, Collectors.mapping(field::getAsDouble, Collectors.maxBy(Comparator.<Double>naturalOrder())));
+    }
+
+    public static <ENTITY, V extends Comparable<? super V>> AggregateCollector<ENTITY, ?, Optional<V>>
+    maxBy(ComparableField<ENTITY, V> field) {
+        return aggregate(AggregateType.MAX, field, Collectors.mapping(field::get, Collectors.maxBy(Comparator.<V>naturalOrder())));
+    }
+
+    private static <T, A, R> AggregateCollector<T, A, R> aggregate(
+            AggregateType aggregateType,
+            Field<T> field,
+            Collector<T, A, R> delegate) {
+        return new AggregateCollectorImpl<>(aggregateType, field, delegate);
+    }
+
+    /**
+     * Creates a grouping collector. If the elements are grouped by the value of
+     * the field, as indicated by {@code keyedByValue}, the map factory and the
+     * downstream collector are retained so that the groups can be computed by
+     * the database.
+     */
+    private static <T, K, D, A, M extends Map<K, D>>
+    FieldCollector<T, ?, M> groupingBy(
+            Field<T> field,
+            Function<T, K> classifier,
+            Supplier<M> mapFactory,
+            Collector<? super T, A, D> downstream,
+            boolean keyedByValue) {
 
         Supplier<A> downstreamSupplier = downstream.supplier();
         BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
@@ -152,21 +282,26 @@ public final class FieldCollectors {
         Supplier<Map<K, A>> mangledFactory = (Supplier<Map<K, A>>) mapFactory;
 
         if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
-            return new FieldCollectorImpl<>(field, mangledFactory, accumulator, merger, CH_ID);
+            return new FieldCollectorImpl<>(field, mangledFactory, accumulator, merger, castingIdentity(), CH_ID,
+                keyedByValue ? mapFactory : null, keyedByValue ? downstream : null);
         }
         else {
-            @SuppressWarnings("unchecked")
-            UnaryOperator<A> downstreamFinisher = (UnaryOperator<A>) downstream.finisher();
+            Function<A, D> downstreamFinisher = downstream.finisher();
             Function<Map<K, A>, M> finisher = intermediate -> {
-                intermediate.replaceAll((k, v) -> downstreamFinisher.apply(v));
-                @SuppressWarnings("unchecked")
-                M castResult = (M) intermediate;
-                return castResult;
+                M result = mapFactory.get();
+                intermediate.forEach((k, v) -> result.put(k, downstreamFinisher.apply(v)));
+                return result;
             };
-            return new FieldCollectorImpl<>(field, mangledFactory, accumulator, merger, finisher, CH_NOID);
+            return new FieldCollectorImpl<>(field, mangledFactory, accumulator, merger, finisher, CH_NOID,
+                keyedByValue ? mapFactory : null, keyedByValue ? downstream : null);
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static <I, R> Function<I, R> castingIdentity() {
+        return i -> (R) i;
+    }
+
     private static <K, V, M extends Map<K,V>>
     BinaryOperator<M> mapMerger(BinaryOperator<V> mergeFunction) {
         return (m1, m2) -> {
@@ -0,0 +1,88 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.field.internal.collector;
+
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.field.collector.AggregateCollector;
+import com.speedment.jpastreamer.field.collector.AggregateType;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An AggregateCollector that collects elements using a delegate
+ * Collector computing the same aggregate.
+ *
+ * @param <T>  the entity type to be collected
+ * @param <A>  the intermediate accumulation type
+ * @param <R>  the collected result
+ */
+public final class AggregateCollectorImpl<T, A, R>
+implements AggregateCollector<T, A, R> {
+
+    private final AggregateType aggregateType;
+    private final Field<T> field;
+    private final Collector<T, A, R> delegate;
+
+    public AggregateCollectorImpl(
+            AggregateType aggregateType,
+            Field<T> field,
+            Collector<T, A, R> delegate) {
+
+        this.aggregateType = requireNonNull(aggregateType);
+        this.field         = field; // Nullable
+        this.delegate      = requireNonNull(delegate);
+    }
+
+    @Override
+    public AggregateType getAggregateType() {
+        return aggregateType;
+    }
+
+    @Override
+    public Optional<Field<T>> getField() {
+        return Optional.ofNullable(field);
+    }
+
+    @Override
+    public Supplier<A> supplier() {
+        return delegate.supplier();
+    }
+
+    @Override
+    public BiConsumer<A, T> accumulator() {
+        return delegate.accumulator();
+    }
+
+    @Override
+    public BinaryOperator<A> combiner() {
+        return delegate.combiner();
+    }
+
+    @Override
+    public Function<A, R> finisher() {
+        return delegate.finisher();
+    }
+
+    @Override
+    public Set<Collector.Characteristics> characteristics() {
+        return delegate.characteristics();
+    }
+}
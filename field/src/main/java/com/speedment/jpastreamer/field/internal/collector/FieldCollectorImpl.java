@@ -15,6 +15,8 @@ package com.speedment.jpastreamer.field.internal.collector;
 import com.speedment.jpastreamer.field.collector.FieldCollector;
 import com.speedment.jpastreamer.field.Field;
 
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -42,6 +44,8 @@ implements FieldCollector<T, A, R> {
     private final BinaryOperator<A> combiner;
     private final Function<A, R> finisher;
     private final Set<Collector.Characteristics> characteristics;
+    private final Supplier<? extends Map<?, ?>> mapFactory;
+    private final Collector<? super T, ?, ?> downstream;
 
     public FieldCollectorImpl(
                 Field<T> field,
@@ -49,7 +53,9 @@ implements FieldCollector<T, A, R> {
                 BiConsumer<A, T> accumulator,
                 BinaryOperator<A> combiner,
                 Function<A, R> finisher,
-                Set<Collector.Characteristics> characteristics) {
+                Set<Collector.Characteristics> characteristics,
+                Supplier<? extends Map<?, ?>> mapFactory,
+                Collector<? super T, ?, ?> downstream) {
         
         this.field           = requireNonNull(field);
         this.supplier        = requireNonNull(supplier);
@@ -57,6 +63,19 @@ implements FieldCollector<T, A, R> {
         this.combiner        = requireNonNull(combiner);
         this.finisher        = requireNonNull(finisher);
         this.characteristics = requireNonNull(characteristics);
+        this.mapFactory      = mapFactory; // Nullable
+        this.downstream      = downstream; // Nullable
+    }
+
+    public FieldCollectorImpl(
+                Field<T> field,
+                Supplier<A> supplier,
+                BiConsumer<A, T> accumulator,
+                BinaryOperator<A> combiner,
+                Function<A, R> finisher,
+                Set<Collector.Characteristics> characteristics) {
+
+        this(field, supplier, accumulator, combiner, finisher, characteristics, null, null);
     }
 
     public FieldCollectorImpl(
@@ -74,6 +93,16 @@ implements FieldCollector<T, A, R> {
         return field;
     }
 
+    @Override
+    public Optional<Supplier<? extends Map<?, ?>>> getMapFactory() {
+        return Optional.ofNullable(mapFactory);
+    }
+
+    @Override
+    public Optional<Collector<? super T, ?, ?>> getDownstream() {
+        return Optional.ofNullable(downstream);
+    }
+
     @Override
     public BiConsumer<A, T> accumulator() {
         return accumulator;
@@ -0,0 +1,148 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.field.collector;
+
+import com.speedment.jpastreamer.field.DoubleField;
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.field.StringField;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class FieldCollectorsTest {
+
+    private static final StringField<Film> TITLE = StringField.create(Film.class, "title", Film::getTitle, false);
+    private static final IntField<Film> LENGTH = IntField.create(Film.class, "length", Film::getLength, false);
+    private static final DoubleField<Film> RATE = DoubleField.create(Film.class, "rate", Film::getRate, false);
+
+    private static final List<Film> FILMS = Arrays.asList(
+        new Film("A", 90, 0.99),
+        new Film("B", 120, 2.99),
+        new Film("A", 60, 4.99),
+        new Film("C", 75, 0.99),
+        new Film("A", 105, 2.99)
+    );
+
+    @Test
+    void counting() {
+        assertGrouping(FieldCollectors.counting(), Collectors.counting(), AggregateType.COUNT);
+    }
+
+    @Test
+    void summing() {
+        assertGrouping(FieldCollectors.summingInt(LENGTH), Collectors.summingInt(Film::getLength), AggregateType.SUM);
+        assertGrouping(FieldCollectors.summingDouble(RATE), Collectors.summingDouble(Film::getRate), AggregateType.SUM);
+    }
+
+    @Test
+    void averaging() {
+        assertGrouping(FieldCollectors.averagingInt(LENGTH), Collectors.averagingInt(Film::getLength), AggregateType.AVERAGE);
+        assertGrouping(FieldCollectors.averagingDouble(RATE), Collectors.averagingDouble(Film::getRate), AggregateType.AVERAGE);
+    }
+
+    @Test
+    void minMax() {
+        assertGrouping(
+            FieldCollectors.minBy(LENGTH),
+            Collectors.mapping(Film::getLength, Collectors.minBy(Comparator.<Integer>naturalOrder())),
+            AggregateType.MIN
+        );
+        assertGrouping(
+            FieldCollectors.maxBy(RATE),
+            Collectors.mapping(Film::getRate, Collectors.maxBy(Comparator.<Double>naturalOrder())),
+            AggregateType.MAX
+        );
+        assertGrouping(
+            FieldCollectors.maxBy(TITLE),
+            Collectors.mapping(Film::getTitle, Collectors.maxBy(Comparator.<String>naturalOrder())),
+            AggregateType.MAX
+        );
+    }
+
+    @Test
+    void identityFinish() {
+        assertEquals(
+            FILMS.stream().collect(Collectors.groupingBy(Film::getTitle)),
+            FILMS.stream().collect(FieldCollectors.groupingBy(TITLE))
+        );
+    }
+
+    @Test
+    void classifier() {
+        final FieldCollector<Film, ?, TreeMap<Integer, Long>> collector = FieldCollectors.groupingBy(
+            LENGTH,
+            film -> film.getLength() / 60,
+            TreeMap::new,
+            Collectors.counting()
+        );
+
+        assertEquals(
+            FILMS.stream().collect(Collectors.groupingBy(film -> film.getLength() / 60, TreeMap::new, Collectors.counting())),
+            FILMS.stream().collect(collector)
+        );
+        // The groups are not keyed by the value of the field
+        assertFalse(collector.getMapFactory().isPresent());
+        assertFalse(collector.getDownstream().isPresent());
+    }
+
+    private static <R> void assertGrouping(
+        final AggregateCollector<Film, ?, R> downstream,
+        final Collector<Film, ?, R> expected,
+        final AggregateType aggregateType
+    ) {
+        final Collector<Film, ?, Map<String, R>> collector = FieldCollectors.groupingBy(TITLE, downstream);
+
+        assertEquals(
+            FILMS.stream().collect(Collectors.groupingBy(Film::getTitle, expected)),
+            FILMS.stream().collect(collector)
+        );
+
+        final FieldCollector<?, ?, ?> fieldCollector = (FieldCollector<?, ?, ?>) collector;
+        assertSame(TITLE, fieldCollector.getField());
+        assertTrue(fieldCollector.getMapFactory().isPresent());
+        assertSame(downstream, fieldCollector.getDownstream().orElse(null));
+        assertEquals(aggregateType, downstream.getAggregateType());
+    }
+
+    private static final class Film {
+        private final String title;
+        private final int length;
+        private final double rate;
+
+        private Film(final String title, final int length, final double rate) {
+            this.title = title;
+            this.length = length;
+            this.rate = rate;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+    }
+}
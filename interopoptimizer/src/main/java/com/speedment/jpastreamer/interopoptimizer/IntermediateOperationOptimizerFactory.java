@@ -12,10 +12,24 @@
  */
 package com.speedment.jpastreamer.interopoptimizer;
 
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
 import java.util.stream.Stream;
 
 public interface IntermediateOperationOptimizerFactory {
 
     Stream<IntermediateOperationOptimizer> stream();
 
+    /**
+     * Returns the optimizers to apply to the pipelines of streams
+     * having the provided {@code streamConfiguration}.
+     *
+     * @param streamConfiguration of the streams to optimize
+     * @return the optimizers to apply to the pipelines of streams
+     *         having the provided {@code streamConfiguration}
+     */
+    default Stream<IntermediateOperationOptimizer> stream(final StreamConfiguration<?> streamConfiguration) {
+        return stream();
+    }
+
 }
@@ -12,6 +12,7 @@
  */
 module jpastreamer.interopoptimizer {
     requires transitive jpastreamer.pipeline;
+    requires transitive jpastreamer.streamconfiguration;
 
     exports com.speedment.jpastreamer.interopoptimizer;
 }
@@ -0,0 +1,52 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class AsyncExecutors {
+
+    private AsyncExecutors() {}
+
+    /**
+     * Creates and returns a new ExecutorService that runs each task in a new
+     * virtual thread if supported by the Java runtime or else in a pooled daemon
+     * thread.
+     * <p>
+     * As tasks are expected to block on database work, the pool of platform threads
+     * is not bounded by the number of processors.
+     *
+     * @return a new ExecutorService for asynchronous Terminal Operations
+     */
+    static ExecutorService createDefault() {
+        try {
+            // Resolved reflectively as this module is compiled for Java 8
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return Executors.newCachedThreadPool(daemonThreadFactory());
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "jpastreamer-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.application.EntityFlow;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Publisher that reads elements in pages as demand is signalled
+ * by its Subscribers.
+ * <p>
+ * Pages are read on the provided executor and are never larger than the
+ * outstanding demand or the maximum page size. Signals to a Subscriber are
+ * serialized by a work-in-progress counter so that at most one thread drains
+ * a subscription at any time.
+ *
+ * @param <T> element type
+ */
+final class PagingPublisher<T> implements EntityFlow.Publisher<T> {
+
+    @FunctionalInterface
+    interface PageReader<T> {
+
+        /**
+         * Reads and returns at most {@code size} elements starting at
+         * the provided {@code offset}.
+         *
+         * @param offset the number of elements to skip
+         * @param size the maximum number of elements to read
+         * @return a page of elements
+         */
+        List<T> read(long offset, int size);
+    }
+
+    private final PageReader<T> pageReader;
+    private final int maxPageSize;
+    private final Executor executor;
+
+    PagingPublisher(final PageReader<T> pageReader, final int maxPageSize, final Executor executor) {
+        if (maxPageSize < 1) {
+            throw new IllegalArgumentException("The page size must be positive: " + maxPageSize);
+        }
+        this.pageReader = requireNonNull(pageReader);
+        this.maxPageSize = maxPageSize;
+        this.executor = requireNonNull(executor);
+    }
+
+    @Override
+    public void subscribe(final EntityFlow.Subscriber<? super T> subscriber) {
+        requireNonNull(subscriber);
+        final PagingSubscription subscription = new PagingSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private final class PagingSubscription implements EntityFlow.Subscription {
+
+        private final EntityFlow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand;
+        private final AtomicInteger workInProgress;
+        private volatile boolean cancelled;
+        private volatile Throwable illegalRequest;
+        private boolean done; // only accessed by the draining thread
+        private long offset; // only accessed by the draining thread
+
+        private PagingSubscription(final EntityFlow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            this.demand = new AtomicLong();
+            this.workInProgress = new AtomicInteger();
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                illegalRequest = new IllegalArgumentException("The requested number of elements must be positive: " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, increment) -> current + increment < 0 ? Long.MAX_VALUE : current + increment);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void schedule() {
+            if (workInProgress.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // The executor rejected the task
+                    cancelled = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!done && !cancelled) {
+                    if (illegalRequest != null) {
+                        terminate();
+                        subscriber.onError(illegalRequest);
+                    } else {
+                        drainPages();
+                    }
+                }
+                missed = workInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainPages() {
+            long requested;
+            while (!done && !cancelled && illegalRequest == null && (requested = demand.get()) > 0) {
+                final int pageSize = (int) Math.min(requested, maxPageSize);
+                final List<T> page;
+                try {
+                    page = pageReader.read(offset, pageSize);
+                } catch (RuntimeException e) {
+                    terminate();
+                    subscriber.onError(e);
+                    return;
+                }
+                for (T element : page) {
+                    if (cancelled) {
+                        return;
+                    }
+                    offset++;
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(element);
+                }
+                if (page.size() < pageSize) {
+                    terminate();
+                    if (!cancelled) {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void terminate() {
+            done = true;
+            demand.set(0);
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+import com.speedment.jpastreamer.application.AsyncJPAStreamer;
+import com.speedment.jpastreamer.application.EntityFlow;
+import com.speedment.jpastreamer.application.JPAStreamer;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+final class StandardAsyncJPAStreamer implements AsyncJPAStreamer {
+
+    private final JPAStreamer jpaStreamer;
+    private final Executor executor;
+
+    StandardAsyncJPAStreamer(final JPAStreamer jpaStreamer, final Executor executor) {
+        this.jpaStreamer = requireNonNull(jpaStreamer);
+        this.executor = requireNonNull(executor);
+    }
+
+    @Override
+    public <T, R> CompletionStage<R> applyAsync(final StreamConfiguration<T> streamConfiguration, final Function<? super Stream<T>, ? extends R> terminal) {
+        requireNonNull(streamConfiguration);
+        requireNonNull(terminal);
+        return CompletableFuture.supplyAsync(() -> {
+            try (Stream<T> stream = jpaStreamer.stream(streamConfiguration)) {
+                return terminal.apply(stream);
+            }
+        }, executor);
+    }
+
+    @Override
+    public <T> EntityFlow.Publisher<T> publisher(
+        final StreamConfiguration<T> streamConfiguration,
+        final UnaryOperator<Stream<T>> intermediate,
+        final int maxPageSize
+    ) {
+        requireNonNull(streamConfiguration);
+        requireNonNull(intermediate);
+        // Skip and limit are merged into the query as first and max results whenever possible,
+        // in which case the rows are also ordered by the identifier so that the pages are stable
+        final StreamConfiguration<T> pageConfiguration = streamConfiguration.orderingById();
+        return new PagingPublisher<>((offset, size) -> {
+            try (Stream<T> stream = jpaStreamer.stream(pageConfiguration)) {
+                return intermediate.apply(stream)
+                    .skip(offset)
+                    .limit(size)
+                    .collect(toList());
+            }
+        }, maxPageSize, executor);
+    }
+
+}
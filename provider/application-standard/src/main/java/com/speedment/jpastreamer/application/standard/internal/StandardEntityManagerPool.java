@@ -0,0 +1,192 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.application.EntityManagerPoolMetrics;
+import com.speedment.jpastreamer.renderer.EntityManagerPool;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded and thread-safe pool of EntityManagers.
+ * <p>
+ * At most {@code maxSize} EntityManagers are leased at any given time.
+ * Released EntityManagers are cleared and retained for subsequent leases.
+ * A lease that is not granted within the acquire timeout fails rather
+ * than waiting forever for streams that are never closed.
+ */
+final class StandardEntityManagerPool implements EntityManagerPool, EntityManagerPoolMetrics, AutoCloseable {
+
+    static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int maxSize;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final Deque<EntityManager> idleEntityManagers;
+    private final AtomicInteger leased;
+    private final LongAdder leaseCount;
+    private final LongAdder totalWaitNanos;
+    private final AtomicLong maxWaitNanos;
+    private volatile boolean closed;
+
+    StandardEntityManagerPool(final EntityManagerFactory entityManagerFactory, final int maxSize) {
+        this(entityManagerFactory, maxSize, DEFAULT_ACQUIRE_TIMEOUT);
+    }
+
+    StandardEntityManagerPool(final EntityManagerFactory entityManagerFactory, final int maxSize, final Duration acquireTimeout) {
+        this.entityManagerFactory = requireNonNull(entityManagerFactory);
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The pool size must be positive: " + maxSize);
+        }
+        if (requireNonNull(acquireTimeout).isNegative() || acquireTimeout.isZero()) {
+            throw new IllegalArgumentException("The acquire timeout must be positive: " + acquireTimeout);
+        }
+        this.maxSize = maxSize;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxSize, true);
+        this.idleEntityManagers = new ConcurrentLinkedDeque<>();
+        this.leased = new AtomicInteger();
+        this.leaseCount = new LongAdder();
+        this.totalWaitNanos = new LongAdder();
+        this.maxWaitNanos = new AtomicLong();
+    }
+
+    @Override
+    public EntityManager acquire() {
+        if (closed) {
+            throw new IllegalStateException("The EntityManager pool is closed");
+        }
+        final long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException(String.format(
+                    "No EntityManager became available within %d ms as all %d EntityManagers of the pool are leased. " +
+                        "Make sure streams are closed after use or increase the pool size.",
+                    acquireTimeout.toMillis(),
+                    maxSize
+                ));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an EntityManager", e);
+        }
+        final long waitNanos = System.nanoTime() - start;
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        leaseCount.increment();
+        leased.incrementAndGet();
+
+        try {
+            EntityManager entityManager;
+            while ((entityManager = idleEntityManagers.pollFirst()) != null) {
+                if (entityManager.isOpen()) {
+                    return entityManager;
+                }
+            }
+            return entityManagerFactory.createEntityManager();
+        } catch (RuntimeException e) {
+            leased.decrementAndGet();
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(final EntityManager entityManager) {
+        requireNonNull(entityManager);
+        try {
+            if (entityManager.isOpen()) {
+                if (closed) {
+                    entityManager.close();
+                } else {
+                    // Detach all entities so the next lease starts with an empty persistence context
+                    entityManager.clear();
+                    idleEntityManagers.offerFirst(entityManager);
+                    if (closed && idleEntityManagers.remove(entityManager)) {
+                        entityManager.close();
+                    }
+                }
+            }
+        } finally {
+            leased.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int leased() {
+        return leased.get();
+    }
+
+    @Override
+    public int idle() {
+        return idleEntityManagers.size();
+    }
+
+    @Override
+    public long leaseCount() {
+        return leaseCount.sum();
+    }
+
+    @Override
+    public long totalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    @Override
+    public long maxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        EntityManager entityManager;
+        while ((entityManager = idleEntityManagers.pollFirst()) != null) {
+            if (entityManager.isOpen()) {
+                entityManager.close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StandardEntityManagerPool{" +
+                "maxSize=" + maxSize +
+                ", acquireTimeout=" + acquireTimeout +
+                ", leased=" + leased() +
+                ", idle=" + idle() +
+                ", leaseCount=" + leaseCount() +
+                ", averageWaitNanos=" + averageWaitNanos() +
+                ", maxWaitNanos=" + maxWaitNanos() +
+                '}';
+    }
+
+}
@@ -18,28 +18,57 @@ import com.speedment.jpastreamer.analytics.AnalyticsReporter;
 import com.speedment.jpastreamer.analytics.AnalyticsReporterFactory;
 import com.speedment.jpastreamer.announcer.Announcer;
 import com.speedment.jpastreamer.appinfo.ApplicationInformation;
+import com.speedment.jpastreamer.application.AsyncJPAStreamer;
+import com.speedment.jpastreamer.application.EntityManagerPoolMetrics;
 import com.speedment.jpastreamer.application.JPAStreamer;
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
 import com.speedment.jpastreamer.rootfactory.RootFactory;
 import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 
 import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
 final class StandardJPAStreamer implements JPAStreamer {
 
     private final EntityManagerFactory entityManagerFactory;
     private final boolean closeEntityManager;
+    private final StandardEntityManagerPool entityManagerPool; // null means no pooling
     private final Map<StreamConfiguration<?>, Streamer<?>> streamerCache;
     private final AnalyticsReporter analyticsReporter;
+    private final Executor asyncExecutor; // null means the default executor
+    private final int queryCacheCapacity; // 0 means the default capacity
+    private final QueryCacheMetrics queryCacheMetrics;
+    private final boolean translateLambdas;
+    private ExecutorService defaultAsyncExecutor; // lazily created and guarded by this
 
-    StandardJPAStreamer(final EntityManagerFactory entityManagerFactory, final boolean closeEntityManager) {
+    StandardJPAStreamer(
+        final EntityManagerFactory entityManagerFactory,
+        final boolean closeEntityManager,
+        final int entityManagerPoolSize,
+        final Duration entityManagerPoolTimeout,
+        final Executor asyncExecutor,
+        final int queryCacheCapacity,
+        final boolean translateLambdas
+    ) {
         this.closeEntityManager = closeEntityManager;
+        this.asyncExecutor = asyncExecutor;
+        this.queryCacheCapacity = queryCacheCapacity;
+        this.translateLambdas = translateLambdas;
         this.entityManagerFactory = requireNonNull(entityManagerFactory);
+        this.entityManagerPool = entityManagerPoolSize == 0
+                ? null
+                : new StandardEntityManagerPool(entityManagerFactory, entityManagerPoolSize, entityManagerPoolTimeout);
         streamerCache = new ConcurrentHashMap<>();
+        // Streamers of configurations with joins are created for a single stream and are not accounted for
+        queryCacheMetrics = new StreamerQueryCacheMetrics(streamerCache.values());
         final ApplicationInformation applicationInformation = RootFactory.getOrThrow(ApplicationInformation.class, ServiceLoader::load);
         final AnalyticsReporterFactory analyticsReporterFactory = RootFactory.getOrThrow(AnalyticsReporterFactory.class, ServiceLoader::load);
 
@@ -52,30 +81,74 @@ final class StandardJPAStreamer implements JPAStreamer {
 
     @Override
     @SuppressWarnings("unchecked")
-    public <T> Stream<T> stream(final StreamConfiguration<T> streamConfiguration) {
-        requireNonNull(streamConfiguration);
+    public <T> Stream<T> stream(final StreamConfiguration<T> configuration) {
+        requireNonNull(configuration);
+        final StreamConfiguration<T> streamConfiguration = translateLambdas
+                ? configuration.translatingLambdas()
+                : configuration;
         if (streamConfiguration.joins().isEmpty()) {
             // Only cache simple configurations to limit the number of objects held
             // See https://github.com/speedment/jpa-streamer/issues/56
             return (Stream<T>) streamerCache
-                    .computeIfAbsent(streamConfiguration, ec -> new StandardStreamer<>(streamConfiguration, entityManagerFactory))
+                    .computeIfAbsent(streamConfiguration, ec -> createStreamer(streamConfiguration))
                     .stream();
         } else {
-            final Streamer<T> streamer = new StandardStreamer<>(streamConfiguration, entityManagerFactory);
+            final Streamer<T> streamer = createStreamer(streamConfiguration);
             return streamer.stream()
                     .onClose(streamer::close);
         }
     }
 
+    @Override
+    public AsyncJPAStreamer async() {
+        return new StandardAsyncJPAStreamer(this, asyncExecutor == null ? defaultAsyncExecutor() : asyncExecutor);
+    }
+
+    @Override
+    public AsyncJPAStreamer async(final Executor executor) {
+        return new StandardAsyncJPAStreamer(this, executor);
+    }
+
+    @Override
+    public Optional<EntityManagerPoolMetrics> entityManagerPoolMetrics() {
+        return Optional.ofNullable(entityManagerPool);
+    }
+
+    @Override
+    public QueryCacheMetrics queryCacheMetrics() {
+        return queryCacheMetrics;
+    }
+
     @Override
     public void close() {
+        synchronized (this) {
+            if (defaultAsyncExecutor != null) {
+                defaultAsyncExecutor.shutdown();
+            }
+        }
         streamerCache.values().forEach(Streamer::close);
+        if (entityManagerPool != null) {
+            entityManagerPool.close();
+        }
         analyticsReporter.stop();
         if (closeEntityManager) {
             entityManagerFactory.close();
         }
     }
 
+    private synchronized Executor defaultAsyncExecutor() {
+        if (defaultAsyncExecutor == null) {
+            defaultAsyncExecutor = AsyncExecutors.createDefault();
+        }
+        return defaultAsyncExecutor;
+    }
+
+    private <T> Streamer<T> createStreamer(final StreamConfiguration<T> streamConfiguration) {
+        return entityManagerPool == null
+                ? new StandardStreamer<>(streamConfiguration, entityManagerFactory, queryCacheCapacity)
+                : new StandardStreamer<>(streamConfiguration, entityManagerPool, queryCacheCapacity);
+    }
+
     private void printGreeting(final ApplicationInformation info) {
         final String greeting = String.format("%s%n" +
                         ":: %s %s :: %s%n" +
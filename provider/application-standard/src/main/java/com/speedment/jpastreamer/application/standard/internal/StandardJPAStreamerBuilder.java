@@ -17,6 +17,8 @@ import com.speedment.jpastreamer.application.JPAStreamerBuilder;
 
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import java.time.Duration;
+import java.util.concurrent.Executor;
 
 import static java.util.Objects.requireNonNull;
 
@@ -24,6 +26,11 @@ public final class StandardJPAStreamerBuilder implements JPAStreamerBuilder {
 
     private final EntityManagerFactory entityManagerFactory;
     private final boolean closeEntityManager;
+    private int entityManagerPoolSize; // 0 means no pooling
+    private Duration entityManagerPoolTimeout = StandardEntityManagerPool.DEFAULT_ACQUIRE_TIMEOUT;
+    private Executor asyncExecutor; // null means the default executor
+    private int queryCacheCapacity; // 0 means the default capacity
+    private boolean translateLambdas;
 
     public StandardJPAStreamerBuilder(final String persistenceUnitName) {
         this.closeEntityManager = true;
@@ -35,9 +42,48 @@ public final class StandardJPAStreamerBuilder implements JPAStreamerBuilder {
         this.entityManagerFactory = requireNonNull(entityManagerFactory);
     }
 
+    @Override
+    public JPAStreamerBuilder withEntityManagerPoolSize(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The pool size must be positive: " + maxSize);
+        }
+        this.entityManagerPoolSize = maxSize;
+        return this;
+    }
+
+    @Override
+    public JPAStreamerBuilder withEntityManagerPoolTimeout(final Duration timeout) {
+        if (requireNonNull(timeout).isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("The pool timeout must be positive: " + timeout);
+        }
+        this.entityManagerPoolTimeout = timeout;
+        return this;
+    }
+
+    @Override
+    public JPAStreamerBuilder withAsyncExecutor(final Executor executor) {
+        this.asyncExecutor = requireNonNull(executor);
+        return this;
+    }
+
+    @Override
+    public JPAStreamerBuilder withQueryCacheCapacity(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The query cache capacity must be positive: " + capacity);
+        }
+        this.queryCacheCapacity = capacity;
+        return this;
+    }
+
+    @Override
+    public JPAStreamerBuilder withLambdaTranslation() {
+        this.translateLambdas = true;
+        return this;
+    }
+
     @Override
     public JPAStreamer build() {
-        return new StandardJPAStreamer(entityManagerFactory, closeEntityManager);
+        return new StandardJPAStreamer(entityManagerFactory, closeEntityManager, entityManagerPoolSize, entityManagerPoolTimeout, asyncExecutor, queryCacheCapacity, translateLambdas);
     }
 
 }
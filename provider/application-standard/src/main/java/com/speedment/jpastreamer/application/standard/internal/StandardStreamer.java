@@ -16,12 +16,15 @@ import static java.util.Objects.requireNonNull;
 
 import com.speedment.jpastreamer.autoclose.AutoCloseFactory;
 import com.speedment.jpastreamer.builder.BuilderFactory;
+import com.speedment.jpastreamer.renderer.EntityManagerPool;
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
 import com.speedment.jpastreamer.renderer.Renderer;
 import com.speedment.jpastreamer.renderer.RendererFactory;
 import com.speedment.jpastreamer.rootfactory.RootFactory;
 import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 
 import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.stream.Stream;
 
@@ -32,13 +35,23 @@ final class StandardStreamer<T> implements Streamer<T> {
     private final AutoCloseFactory autoCloseFactory;
     private final StreamConfiguration<T> streamConfiguration;
 
-    StandardStreamer(final StreamConfiguration<T> streamConfiguration, final EntityManagerFactory entityManagerFactory) {
+    StandardStreamer(final StreamConfiguration<T> streamConfiguration, final EntityManagerFactory entityManagerFactory, final int queryCacheCapacity) {
+        this(streamConfiguration, queryCacheCapacity == 0
+                ? rendererFactory().createRenderer(requireNonNull(entityManagerFactory))
+                : rendererFactory().createRenderer(requireNonNull(entityManagerFactory), queryCacheCapacity));
+    }
+
+    StandardStreamer(final StreamConfiguration<T> streamConfiguration, final EntityManagerPool entityManagerPool, final int queryCacheCapacity) {
+        this(streamConfiguration, queryCacheCapacity == 0
+                ? rendererFactory().createRenderer(requireNonNull(entityManagerPool))
+                : rendererFactory().createRenderer(requireNonNull(entityManagerPool), queryCacheCapacity));
+    }
+
+    private StandardStreamer(final StreamConfiguration<T> streamConfiguration, final Renderer renderer) {
         this.streamConfiguration = requireNonNull(streamConfiguration);
-        requireNonNull(entityManagerFactory);
         this.builderFactory = RootFactory.getOrThrow(BuilderFactory.class, ServiceLoader::load);
         this.autoCloseFactory = RootFactory.getOrThrow(AutoCloseFactory.class, ServiceLoader::load);
-        this.renderer = RootFactory.getOrThrow(RendererFactory.class, ServiceLoader::load)
-            .createRenderer(entityManagerFactory);
+        this.renderer = requireNonNull(renderer);
     }
 
     @Override
@@ -46,9 +59,18 @@ final class StandardStreamer<T> implements Streamer<T> {
         return autoCloseFactory.createAutoCloseStream(builderFactory.createBuilder(streamConfiguration, renderer));
     }
 
+    @Override
+    public Optional<QueryCacheMetrics> queryCacheMetrics() {
+        return renderer.queryCacheMetrics();
+    }
+
     @Override
     public void close() {
         //System.out.println("Closing Streamer<" + entityClass.getSimpleName() + ">");
         renderer.close();
     }
+
+    private static RendererFactory rendererFactory() {
+        return RootFactory.getOrThrow(RendererFactory.class, ServiceLoader::load);
+    }
 }
@@ -12,11 +12,16 @@
  */
 package com.speedment.jpastreamer.application.standard.internal;
 
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
+
+import java.util.Optional;
 import java.util.stream.Stream;
 
 interface Streamer<E> {
 
     Stream<E> stream();
 
+    Optional<QueryCacheMetrics> queryCacheMetrics();
+
     void close();
 }
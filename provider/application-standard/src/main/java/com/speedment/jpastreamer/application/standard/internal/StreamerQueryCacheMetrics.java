@@ -0,0 +1,87 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * QueryCacheMetrics summing the metrics of the query caches of a live
+ * collection of {@link Streamer}s. All the caches have the same capacity,
+ * which is reported as is.
+ */
+final class StreamerQueryCacheMetrics implements QueryCacheMetrics {
+
+    private final Collection<? extends Streamer<?>> streamers;
+
+    StreamerQueryCacheMetrics(final Collection<? extends Streamer<?>> streamers) {
+        this.streamers = requireNonNull(streamers);
+    }
+
+    @Override
+    public int capacity() {
+        return metrics()
+                .mapToInt(QueryCacheMetrics::capacity)
+                .max()
+                .orElse(0);
+    }
+
+    @Override
+    public int size() {
+        return (int) sum(QueryCacheMetrics::size);
+    }
+
+    @Override
+    public long hitCount() {
+        return sum(QueryCacheMetrics::hitCount);
+    }
+
+    @Override
+    public long missCount() {
+        return sum(QueryCacheMetrics::missCount);
+    }
+
+    @Override
+    public long evictionCount() {
+        return sum(QueryCacheMetrics::evictionCount);
+    }
+
+    private long sum(final ToLongFunction<QueryCacheMetrics> metric) {
+        return metrics()
+                .mapToLong(metric)
+                .sum();
+    }
+
+    private Stream<QueryCacheMetrics> metrics() {
+        return streamers.stream()
+                .map(Streamer::queryCacheMetrics)
+                .flatMap(oMetrics -> oMetrics.map(Stream::of).orElseGet(Stream::empty));
+    }
+
+    @Override
+    public String toString() {
+        return "StreamerQueryCacheMetrics{" +
+                "capacity=" + capacity() +
+                ", size=" + size() +
+                ", hits=" + hitCount() +
+                ", misses=" + missCount() +
+                ", evictions=" + evictionCount() +
+                '}';
+    }
+
+}
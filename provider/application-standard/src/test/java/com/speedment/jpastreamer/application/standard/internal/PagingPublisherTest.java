@@ -0,0 +1,145 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.speedment.jpastreamer.application.EntityFlow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+final class PagingPublisherTest {
+
+    private static final int SIZE = 10;
+
+    private List<Integer> pageSizes;
+    private PagingPublisher.PageReader<Integer> pageReader;
+
+    @BeforeEach
+    void setup() {
+        pageSizes = new ArrayList<>();
+        pageReader = (offset, size) -> {
+            pageSizes.add(size);
+            return IntStream.range(0, SIZE).boxed().skip(offset).limit(size).collect(toList());
+        };
+    }
+
+    @Test
+    void pagesFollowDemand() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(s -> {});
+        new PagingPublisher<>(pageReader, 4, Runnable::run).subscribe(subscriber);
+
+        assertTrue(pageSizes.isEmpty());
+
+        subscriber.subscription.request(3);
+        assertEquals(Arrays.asList(0, 1, 2), subscriber.items);
+        assertEquals(Arrays.asList(3), pageSizes);
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(100);
+        assertEquals(IntStream.range(0, SIZE).boxed().collect(toList()), subscriber.items);
+        assertEquals(Arrays.asList(3, 4, 4), pageSizes);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void reentrantRequests() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(s -> s.request(1));
+        new PagingPublisher<>(pageReader, 100, Runnable::run).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        assertEquals(IntStream.range(0, SIZE).boxed().collect(toList()), subscriber.items);
+        assertTrue(subscriber.completed);
+        assertTrue(pageSizes.stream().allMatch(size -> size == 1));
+    }
+
+    @Test
+    void cancel() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(EntityFlow.Subscription::cancel);
+        new PagingPublisher<>(pageReader, 100, Runnable::run).subscribe(subscriber);
+
+        subscriber.subscription.request(5);
+        assertEquals(Arrays.asList(0), subscriber.items);
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void illegalRequest() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(s -> {});
+        new PagingPublisher<>(pageReader, 100, Runnable::run).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(pageSizes.isEmpty());
+    }
+
+    @Test
+    void readError() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(s -> {});
+        new PagingPublisher<Integer>((offset, size) -> {
+            throw new IllegalStateException();
+        }, 100, Runnable::run).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.error instanceof IllegalStateException);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void illegalPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> new PagingPublisher<>(pageReader, 0, Runnable::run));
+    }
+
+    private static final class RecordingSubscriber implements EntityFlow.Subscriber<Integer> {
+
+        private final Consumer<EntityFlow.Subscription> onNextAction;
+        private final List<Integer> items = new ArrayList<>();
+        private EntityFlow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        private RecordingSubscriber(final Consumer<EntityFlow.Subscription> onNextAction) {
+            this.onNextAction = onNextAction;
+        }
+
+        @Override
+        public void onSubscribe(final EntityFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final Integer item) {
+            items.add(item);
+            onNextAction.accept(subscription);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+}
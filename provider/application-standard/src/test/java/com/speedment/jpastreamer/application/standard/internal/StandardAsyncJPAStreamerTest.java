@@ -0,0 +1,169 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.speedment.jpastreamer.application.AsyncJPAStreamer;
+import com.speedment.jpastreamer.application.EntityFlow;
+import com.speedment.jpastreamer.application.JPAStreamer;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+final class StandardAsyncJPAStreamerTest {
+
+    private StreamConfiguration<Integer> streamConfiguration;
+    private AtomicInteger closed;
+    private JPAStreamer jpaStreamer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        streamConfiguration = mock(StreamConfiguration.class);
+        closed = new AtomicInteger();
+        jpaStreamer = mock(JPAStreamer.class);
+        when(jpaStreamer.stream(streamConfiguration)).thenAnswer(invocation -> Stream.of(1, 2, 3, 4).onClose(closed::incrementAndGet));
+    }
+
+    @Test
+    void collectAsync() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final AsyncJPAStreamer async = new StandardAsyncJPAStreamer(jpaStreamer, executor);
+            final List<Integer> result = async.collectAsync(streamConfiguration, s -> s.filter(i -> i % 2 == 0), toList())
+                .toCompletableFuture()
+                .get();
+            assertEquals(Arrays.asList(2, 4), result);
+            assertEquals(1, closed.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void runsOnExecutor() throws Exception {
+        final AtomicReference<Thread> executorThread = new AtomicReference<>();
+        final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable);
+            executorThread.set(thread);
+            return thread;
+        });
+        try {
+            final AtomicReference<Thread> streamThread = new AtomicReference<>();
+            final long count = new StandardAsyncJPAStreamer(jpaStreamer, executor)
+                .applyAsync(streamConfiguration, s -> {
+                    streamThread.set(Thread.currentThread());
+                    return s.count();
+                })
+                .toCompletableFuture()
+                .get();
+            assertEquals(4, count);
+            assertSame(executorThread.get(), streamThread.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void countAsync() throws Exception {
+        final long count = new StandardAsyncJPAStreamer(jpaStreamer, Runnable::run)
+            .countAsync(streamConfiguration, s -> s.filter(i -> i > 1))
+            .toCompletableFuture()
+            .get();
+        assertEquals(3, count);
+    }
+
+    @Test
+    void completesExceptionally() {
+        final AsyncJPAStreamer async = new StandardAsyncJPAStreamer(jpaStreamer, Runnable::run);
+        final CompletableFuture<Void> future = async.forEachAsync(streamConfiguration, s -> s, i -> {
+            throw new IllegalStateException();
+        }).toCompletableFuture();
+
+        final ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publisherPages() {
+        final List<Integer> source = IntStream.range(0, 10).boxed().collect(toList());
+        final StreamConfiguration<Integer> configuration = mock(StreamConfiguration.class);
+        final StreamConfiguration<Integer> pageConfiguration = mock(StreamConfiguration.class);
+        // The pages are read by queries ordered by the identifier
+        when(configuration.orderingById()).thenReturn(pageConfiguration);
+        when(jpaStreamer.stream(pageConfiguration)).thenAnswer(invocation -> source.stream().onClose(closed::incrementAndGet));
+
+        final List<Integer> items = new ArrayList<>();
+        final AtomicBoolean completed = new AtomicBoolean();
+        new StandardAsyncJPAStreamer(jpaStreamer, Runnable::run)
+            .publisher(configuration, s -> s.filter(i -> i != 4), 3)
+            .subscribe(new EntityFlow.Subscriber<Integer>() {
+                @Override
+                public void onSubscribe(final EntityFlow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(final Integer item) {
+                    items.add(item);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    fail(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.set(true);
+                }
+            });
+
+        // The pages neither overlap nor leave gaps
+        assertEquals(source.stream().filter(i -> i != 4).collect(toList()), items);
+        assertTrue(completed.get());
+        // Each page is read by a stream of its own
+        assertEquals(4, closed.get());
+    }
+
+    @Test
+    void defaultExecutor() throws Exception {
+        final ExecutorService executor = AsyncExecutors.createDefault();
+        try {
+            final AtomicReference<Thread> thread = new AtomicReference<>();
+            executor.submit(() -> thread.set(Thread.currentThread())).get();
+            assertNotSame(Thread.currentThread(), thread.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class StandardEntityManagerPoolTest {
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setup() {
+        entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.createEntityManager()).thenAnswer(invocation -> {
+            final EntityManager entityManager = mock(EntityManager.class);
+            when(entityManager.isOpen()).thenReturn(true);
+            return entityManager;
+        });
+    }
+
+    @Test
+    void illegalSize() {
+        assertThrows(IllegalArgumentException.class, () -> new StandardEntityManagerPool(entityManagerFactory, 0));
+        assertThrows(NullPointerException.class, () -> new StandardEntityManagerPool(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new StandardEntityManagerPool(entityManagerFactory, 1, Duration.ZERO));
+    }
+
+    @Test
+    void reusesReleasedEntityManagers() {
+        final StandardEntityManagerPool pool = new StandardEntityManagerPool(entityManagerFactory, 2);
+
+        final EntityManager first = pool.acquire();
+        assertEquals(1, pool.leased());
+        pool.release(first);
+        verify(first).clear();
+        assertEquals(0, pool.leased());
+        assertEquals(1, pool.idle());
+
+        assertSame(first, pool.acquire());
+        assertEquals(2, pool.leaseCount());
+        verify(entityManagerFactory, times(1)).createEntityManager();
+    }
+
+    @Test
+    void leasesDistinctEntityManagers() {
+        final StandardEntityManagerPool pool = new StandardEntityManagerPool(entityManagerFactory, 2);
+        assertNotSame(pool.acquire(), pool.acquire());
+        assertEquals(2, pool.leased());
+        assertEquals(0, pool.idle());
+    }
+
+    @Test
+    void blocksWhenExhausted() throws InterruptedException {
+        final StandardEntityManagerPool pool = new StandardEntityManagerPool(entityManagerFactory, 1);
+        final EntityManager leased = pool.acquire();
+
+        final AtomicReference<EntityManager> acquired = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            acquired.set(pool.acquire());
+            done.countDown();
+        });
+        thread.start();
+
+        assertFalse(done.await(50, TimeUnit.MILLISECONDS));
+        pool.release(leased);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(leased, acquired.get());
+        assertTrue(pool.maxWaitNanos() > 0);
+        assertTrue(pool.totalWaitNanos() >= pool.maxWaitNanos());
+    }
+
+    @Test
+    void failsWhenExhausted() {
+        final StandardEntityManagerPool pool = new StandardEntityManagerPool(entityManagerFactory, 2, Duration.ofMillis(50));
+        pool.acquire();
+        final EntityManager leased = pool.acquire();
+
+        final IllegalStateException e = assertThrows(IllegalStateException.class, pool::acquire);
+        assertTrue(e.getMessage().contains("all 2 EntityManagers"), e.getMessage());
+        assertEquals(2, pool.leased());
+        assertEquals(2, pool.leaseCount());
+
+        // The pool is usable again once a lease is released
+        pool.release(leased);
+        assertSame(leased, pool.acquire());
+    }
+
+    @Test
+    void close() {
+        final StandardEntityManagerPool pool = new StandardEntityManagerPool(entityManagerFactory, 2);
+        final EntityManager idle = pool.acquire();
+        final EntityManager leased = pool.acquire();
+        pool.release(idle);
+
+        pool.close();
+        verify(idle).close();
+        assertEquals(0, pool.idle());
+
+        pool.release(leased);
+        verify(leased).close();
+        assertEquals(0, pool.idle());
+        assertThrows(IllegalStateException.class, pool::acquire);
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.application.standard.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+final class StreamerQueryCacheMetricsTest {
+
+    @Test
+    void empty() {
+        final StreamerQueryCacheMetrics metrics = new StreamerQueryCacheMetrics(new ArrayList<>());
+
+        assertEquals(0, metrics.capacity());
+        assertEquals(0, metrics.hitCount());
+        assertEquals(0, metrics.hitRatio());
+    }
+
+    @Test
+    void sumsStreamers() {
+        final List<Streamer<?>> streamers = new ArrayList<>();
+        final StreamerQueryCacheMetrics metrics = new StreamerQueryCacheMetrics(streamers);
+
+        streamers.add(streamer(metrics(16, 2, 3, 1, 0)));
+        streamers.add(streamer(null));
+        streamers.add(streamer(metrics(16, 16, 5, 7, 4)));
+
+        // Each cache has the same capacity
+        assertEquals(16, metrics.capacity());
+        assertEquals(18, metrics.size());
+        assertEquals(8, metrics.hitCount());
+        assertEquals(8, metrics.missCount());
+        assertEquals(4, metrics.evictionCount());
+        assertEquals(0.5, metrics.hitRatio());
+    }
+
+    private static Streamer<?> streamer(final QueryCacheMetrics queryCacheMetrics) {
+        final Streamer<?> streamer = mock(Streamer.class);
+        when(streamer.queryCacheMetrics()).thenReturn(Optional.ofNullable(queryCacheMetrics));
+        return streamer;
+    }
+
+    private static QueryCacheMetrics metrics(
+        final int capacity,
+        final int size,
+        final long hitCount,
+        final long missCount,
+        final long evictionCount
+    ) {
+        final QueryCacheMetrics metrics = mock(QueryCacheMetrics.class);
+        when(metrics.capacity()).thenReturn(capacity);
+        when(metrics.size()).thenReturn(size);
+        when(metrics.hitCount()).thenReturn(hitCount);
+        when(metrics.missCount()).thenReturn(missCount);
+        when(metrics.evictionCount()).thenReturn(evictionCount);
+        return metrics;
+    }
+
+}
@@ -51,7 +51,7 @@ abstract class BaseStreamBuilder<E, T, S extends BaseStream<T, S>> implements Ba
 
     @Override
     public S sequential() {
-        baseState.pipeline().parallel();
+        baseState.pipeline().sequential();
         return self();
     }
 
@@ -78,8 +78,9 @@ abstract class BaseStreamBuilder<E, T, S extends BaseStream<T, S>> implements Ba
         // Close can be called even though the
         // stream is consumed.
         //
-        // The stream has never been started so
-        // we just run the close handlers.
+        // If the stream was rendered, the close handlers
+        // also close the rendered stream and thereby
+        // release its underlying resources.
         closed();
         StreamBuilderUtil.runAll(baseState.pipeline().closeHandlers());
         baseState.pipeline().closeHandlers().clear(); // Only run once
@@ -180,7 +181,9 @@ abstract class BaseStreamBuilder<E, T, S extends BaseStream<T, S>> implements Ba
     }
 
     private RenderResult<E, ?, ?> renderResult() {
-        return baseState.renderer().render(baseState.pipeline(), baseState.streamConfiguration());
+        final RenderResult<E, ?, ?> renderResult = baseState.renderer().render(baseState.pipeline(), baseState.streamConfiguration());
+        baseState.pipeline().closeHandlers().add(renderResult.stream()::close);
+        return renderResult;
     }
 
     @SuppressWarnings("unchecked")
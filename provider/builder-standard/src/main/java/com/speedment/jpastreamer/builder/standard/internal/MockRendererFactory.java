@@ -14,6 +14,7 @@ package com.speedment.jpastreamer.builder.standard.internal;
 
 import com.speedment.jpastreamer.pipeline.Pipeline;
 import com.speedment.jpastreamer.renderer.RenderResult;
+import com.speedment.jpastreamer.renderer.EntityManagerPool;
 import com.speedment.jpastreamer.renderer.Renderer;
 import com.speedment.jpastreamer.renderer.RendererFactory;
 import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
@@ -35,6 +36,21 @@ public final class MockRendererFactory implements RendererFactory {
         return new MockRenderer();
     }
 
+    @Override
+    public Renderer createRenderer(EntityManagerPool entityManagerPool) {
+        return new MockRenderer();
+    }
+
+    @Override
+    public Renderer createRenderer(EntityManagerFactory entityManagerFactory, int queryCacheCapacity) {
+        return new MockRenderer();
+    }
+
+    @Override
+    public Renderer createRenderer(EntityManagerPool entityManagerPool, int queryCacheCapacity) {
+        return new MockRenderer();
+    }
+
     private final class MockRenderer implements Renderer {
 
         @Override
@@ -221,6 +221,11 @@ abstract class BaseStreamBuilderTest<T, S extends BaseStream<T, S>> {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public StreamConfiguration<T> joining(Field<T> field, JoinStrategy joinStrategy) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public Optional<Projection<T>> selections() {
             return Optional.ofNullable(projection);
@@ -230,6 +235,81 @@ abstract class BaseStreamBuilderTest<T, S extends BaseStream<T, S>> {
         public StreamConfiguration<T> selecting(Projection<T> projection) {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public OptionalInt chunkSize() {
+            return OptionalInt.empty();
+        }
+
+        @Override
+        public StreamConfiguration<T> chunking(int chunkSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OptionalInt clearInterval() {
+            return OptionalInt.empty();
+        }
+
+        @Override
+        public StreamConfiguration<T> clearing(int clearInterval) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OptionalInt prefetchDepth() {
+            return OptionalInt.empty();
+        }
+
+        @Override
+        public StreamConfiguration<T> prefetching(int prefetchDepth) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OptionalInt spillThreshold() {
+            return OptionalInt.empty();
+        }
+
+        @Override
+        public StreamConfiguration<T> spilling(int spillThreshold) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean translatesLambdas() {
+            return false;
+        }
+
+        @Override
+        public StreamConfiguration<T> translatingLambdas() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean ordersById() {
+            return false;
+        }
+
+        @Override
+        public StreamConfiguration<T> orderingById() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<GraphConfiguration<T>> graph() {
+            return Optional.empty();
+        }
+
+        @Override
+        public StreamConfiguration<T> withGraph(GraphType graphType, Set<Field<T>> fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public StreamConfiguration<T> withGraph(GraphType graphType, String graphName) {
+            throw new UnsupportedOperationException();
+        }
     }
 
 }
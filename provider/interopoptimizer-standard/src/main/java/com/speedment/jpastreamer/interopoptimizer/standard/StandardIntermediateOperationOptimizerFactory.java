@@ -15,6 +15,7 @@ package com.speedment.jpastreamer.interopoptimizer.standard;
 import com.speedment.jpastreamer.interopoptimizer.standard.internal.InternalIntermediateOperationOptimizerFactory;
 import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizerFactory;
 import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizer;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 
 import java.util.stream.Stream;
 
@@ -27,4 +28,9 @@ public final class StandardIntermediateOperationOptimizerFactory implements Inte
         return delegate.stream();
     }
 
+    @Override
+    public Stream<IntermediateOperationOptimizer> stream(final StreamConfiguration<?> streamConfiguration) {
+        return delegate.stream(streamConfiguration);
+    }
+
 }
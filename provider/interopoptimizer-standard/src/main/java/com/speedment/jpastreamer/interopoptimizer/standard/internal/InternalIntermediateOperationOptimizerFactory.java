@@ -16,14 +16,22 @@ import static java.util.Objects.requireNonNull;
 
 import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizer;
 import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizerFactory;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.HoistFilters;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.HoistSkipAndLimit;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.NormalizePredicates;
 import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.RemoveOrderAffectingOperations;
 import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.SquashDistinct;
 import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.SquashFilter;
 import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.SquashLimit;
 import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.SquashSkip;
 import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.SquashSorted;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.TranslateLambdas;
+import com.speedment.jpastreamer.pipeline.intermediate.DoubleIntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntIntermediateOperationFactory;
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.LongIntermediateOperationFactory;
 import com.speedment.jpastreamer.rootfactory.RootFactory;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 
 import java.util.ArrayList;
 import java.util.EnumMap;
@@ -36,10 +44,17 @@ import java.util.stream.Stream;
 public final class InternalIntermediateOperationOptimizerFactory implements IntermediateOperationOptimizerFactory {
 
     private final Map<Priority, List<IntermediateOperationOptimizer>> intermediateOperationOptimizers = new EnumMap<>(Priority.class);
+    private final IntermediateOperationOptimizer translateLambdas;
 
     public InternalIntermediateOperationOptimizerFactory() {
         final IntermediateOperationFactory intermediateOperationFactory = RootFactory
             .getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+        final IntIntermediateOperationFactory intIntermediateOperationFactory = RootFactory
+            .getOrThrow(IntIntermediateOperationFactory.class, ServiceLoader::load);
+        final LongIntermediateOperationFactory longIntermediateOperationFactory = RootFactory
+            .getOrThrow(LongIntermediateOperationFactory.class, ServiceLoader::load);
+        final DoubleIntermediateOperationFactory doubleIntermediateOperationFactory = RootFactory
+            .getOrThrow(DoubleIntermediateOperationFactory.class, ServiceLoader::load);
 
         intermediateOperationOptimizers.put(Priority.HIGHEST, new ArrayList<>());
         intermediateOperationOptimizers.put(Priority.HIGH, new ArrayList<>());
@@ -47,12 +62,22 @@ public final class InternalIntermediateOperationOptimizerFactory implements Inte
         intermediateOperationOptimizers.put(Priority.LOW, new ArrayList<>());
         intermediateOperationOptimizers.put(Priority.LOWEST, new ArrayList<>());
 
+        // Lambdas are only translated for streams configured to do so and precede all other optimizers
+        translateLambdas = new TranslateLambdas(intermediateOperationFactory);
         registerOptimizer(new RemoveOrderAffectingOperations(), Priority.HIGH);
+        registerOptimizer(new HoistFilters(), Priority.HIGH);
+        registerOptimizer(new HoistSkipAndLimit(
+            intermediateOperationFactory,
+            intIntermediateOperationFactory,
+            longIntermediateOperationFactory,
+            doubleIntermediateOperationFactory
+        ), Priority.HIGH);
         registerOptimizer(new SquashSkip(intermediateOperationFactory));
         registerOptimizer(new SquashLimit(intermediateOperationFactory));
         registerOptimizer(new SquashFilter<>(intermediateOperationFactory));
         registerOptimizer(new SquashSorted<>(intermediateOperationFactory));
         registerOptimizer(new SquashDistinct(intermediateOperationFactory));
+        registerOptimizer(new NormalizePredicates(intermediateOperationFactory), Priority.LOW);
     }
 
     @Override
@@ -62,6 +87,14 @@ public final class InternalIntermediateOperationOptimizerFactory implements Inte
             .flatMap(x -> x.getValue().stream());
     }
 
+    @Override
+    public Stream<IntermediateOperationOptimizer> stream(final StreamConfiguration<?> streamConfiguration) {
+        requireNonNull(streamConfiguration);
+        return streamConfiguration.translatesLambdas()
+            ? Stream.concat(Stream.of(translateLambdas), stream())
+            : stream();
+    }
+
     private void registerOptimizer(final IntermediateOperationOptimizer operationOptimizer) {
         requireNonNull(operationOptimizer);
 
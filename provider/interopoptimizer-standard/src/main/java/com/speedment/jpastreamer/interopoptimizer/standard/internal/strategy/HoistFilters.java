@@ -0,0 +1,85 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy;
+
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.MODIFIES_ORDER;
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.MODIFIES_SIDE_EFFECT;
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.MODIFIES_SORTED;
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.PRESERVES_STREAM_TYPE;
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.PRESERVES_TYPE;
+import static com.speedment.jpastreamer.pipeline.intermediate.Verb.MODIFIES;
+
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
+import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizer;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.pipeline.intermediate.Statement;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves filter operations with a {@link SpeedmentPredicate} ahead of preceding
+ * operations that only modify the order of the elements or cause side effects,
+ * such as {@code sorted} and {@code peek}, so that the filters can be merged
+ * into the query.
+ * <p>
+ * Filtering before rather than after a stable sort yields the same elements in
+ * the same order. A peek operation is no longer invoked for elements that are
+ * filtered out, which the stream specification permits as such elements do
+ * not contribute to the result.
+ */
+public final class HoistFilters implements IntermediateOperationOptimizer {
+
+    @Override
+    public <T> Pipeline<T> optimize(Pipeline<T> pipeline) {
+        final LinkedList<IntermediateOperation<?, ?>> intermediateOperations = pipeline.intermediateOperations();
+
+        for (int i = 1; i < intermediateOperations.size(); i++) {
+            final IntermediateOperation<?, ?> intermediateOperation = intermediateOperations.get(i);
+
+            if (intermediateOperation.type() != IntermediateOperationType.FILTER
+                || !(intermediateOperation.arguments()[0] instanceof SpeedmentPredicate)
+            ) {
+                continue;
+            }
+
+            int target = i;
+            while (target > 0 && isCommutable(intermediateOperations.get(target - 1).type())) {
+                target--;
+            }
+
+            if (target != i) {
+                intermediateOperations.remove(i);
+                intermediateOperations.add(target, intermediateOperation);
+            }
+        }
+
+        return pipeline;
+    }
+
+    private static boolean isCommutable(final IntermediateOperationType intermediateOperationType) {
+        final List<Statement> modifyingStatements = intermediateOperationType.statements().stream()
+            .filter(statement -> statement.verb() == MODIFIES)
+            .collect(Collectors.toList());
+
+        return !modifyingStatements.isEmpty()
+            && intermediateOperationType.statements().contains(PRESERVES_TYPE)
+            && intermediateOperationType.statements().contains(PRESERVES_STREAM_TYPE)
+            && modifyingStatements.stream()
+                .allMatch(statement -> statement == MODIFIES_ORDER || statement == MODIFIES_SORTED || statement == MODIFIES_SIDE_EFFECT);
+    }
+
+}
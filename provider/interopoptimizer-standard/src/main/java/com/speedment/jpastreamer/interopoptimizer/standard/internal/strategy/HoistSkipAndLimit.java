@@ -0,0 +1,115 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy;
+
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.PRESERVES_ORDER;
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.PRESERVES_SIZE;
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizer;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.intermediate.DoubleIntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntIntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.pipeline.intermediate.LongIntermediateOperationFactory;
+
+import java.util.LinkedList;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Moves skip and limit operations ahead of preceding operations that preserve
+ * both the number and the order of the elements, such as {@code map} and
+ * {@code peek}, so that the skip and limit operations can be merged into the
+ * query. For example, {@code map(Film::toDto).limit(20)} is optimized into
+ * {@code limit(20).map(Film::toDto)}.
+ * <p>
+ * A skip or limit operation moved ahead of an operation changing the stream
+ * type is replaced by an equivalent operation of the preceding stream type.
+ */
+public final class HoistSkipAndLimit implements IntermediateOperationOptimizer {
+
+    private final IntermediateOperationFactory intermediateOperationFactory;
+    private final IntIntermediateOperationFactory intIntermediateOperationFactory;
+    private final LongIntermediateOperationFactory longIntermediateOperationFactory;
+    private final DoubleIntermediateOperationFactory doubleIntermediateOperationFactory;
+
+    public HoistSkipAndLimit(
+        final IntermediateOperationFactory intermediateOperationFactory,
+        final IntIntermediateOperationFactory intIntermediateOperationFactory,
+        final LongIntermediateOperationFactory longIntermediateOperationFactory,
+        final DoubleIntermediateOperationFactory doubleIntermediateOperationFactory
+    ) {
+        this.intermediateOperationFactory = requireNonNull(intermediateOperationFactory);
+        this.intIntermediateOperationFactory = requireNonNull(intIntermediateOperationFactory);
+        this.longIntermediateOperationFactory = requireNonNull(longIntermediateOperationFactory);
+        this.doubleIntermediateOperationFactory = requireNonNull(doubleIntermediateOperationFactory);
+    }
+
+    @Override
+    public <T> Pipeline<T> optimize(Pipeline<T> pipeline) {
+        final LinkedList<IntermediateOperation<?, ?>> intermediateOperations = pipeline.intermediateOperations();
+
+        for (int i = 1; i < intermediateOperations.size(); i++) {
+            final IntermediateOperation<?, ?> intermediateOperation = intermediateOperations.get(i);
+            final IntermediateOperationType intermediateOperationType = intermediateOperation.type();
+
+            if ((intermediateOperationType != IntermediateOperationType.SKIP && intermediateOperationType != IntermediateOperationType.LIMIT)
+                || intermediateOperation.arguments().length != 1
+                || !(intermediateOperation.arguments()[0] instanceof Long)
+            ) {
+                continue;
+            }
+
+            int target = i;
+            while (target > 0 && isSizeAndOrderPreserving(intermediateOperations.get(target - 1).type())) {
+                target--;
+            }
+
+            if (target != i) {
+                final Class<?> streamType = intermediateOperations.get(target).streamType();
+                intermediateOperations.remove(i);
+                intermediateOperations.add(target, streamType == intermediateOperation.streamType()
+                    ? intermediateOperation
+                    : create(intermediateOperationType, (Long) intermediateOperation.arguments()[0], streamType)
+                );
+            }
+        }
+
+        return pipeline;
+    }
+
+    private static boolean isSizeAndOrderPreserving(final IntermediateOperationType intermediateOperationType) {
+        return intermediateOperationType.statements().contains(PRESERVES_SIZE)
+            && intermediateOperationType.statements().contains(PRESERVES_ORDER);
+    }
+
+    private IntermediateOperation<?, ?> create(final IntermediateOperationType intermediateOperationType, final long value, final Class<?> streamType) {
+        final boolean skip = intermediateOperationType == IntermediateOperationType.SKIP;
+
+        if (streamType == Stream.class) {
+            return skip ? intermediateOperationFactory.createSkip(value) : intermediateOperationFactory.createLimit(value);
+        }
+        if (streamType == IntStream.class) {
+            return skip ? intIntermediateOperationFactory.createSkip(value) : intIntermediateOperationFactory.createLimit(value);
+        }
+        if (streamType == LongStream.class) {
+            return skip ? longIntermediateOperationFactory.createSkip(value) : longIntermediateOperationFactory.createLimit(value);
+        }
+        return skip ? doubleIntermediateOperationFactory.createSkip(value) : doubleIntermediateOperationFactory.createLimit(value);
+    }
+
+}
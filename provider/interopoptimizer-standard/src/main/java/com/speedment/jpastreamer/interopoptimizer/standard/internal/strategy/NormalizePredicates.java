@@ -0,0 +1,395 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.field.predicate.CombinedPredicate;
+import com.speedment.jpastreamer.field.predicate.FieldPredicate;
+import com.speedment.jpastreamer.field.predicate.Inclusion;
+import com.speedment.jpastreamer.field.predicate.PredicateType;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
+import com.speedment.jpastreamer.field.trait.HasArg0;
+import com.speedment.jpastreamer.field.trait.HasComparableOperators;
+import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizer;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Simplifies the field predicates of filter operations so that they are
+ * rendered as shorter queries.
+ * <p>
+ * Always true and always false predicates are folded into the predicates
+ * combining them, a disjunction of equalities on the same field is replaced
+ * by a single {@code IN} predicate and a conjunction of numeric or temporal
+ * bounds on the same field is replaced by its tightest bound or by a single
+ * {@code BETWEEN} predicate. A filter that always holds is removed and a filter that never
+ * holds is replaced by a {@code limit(0)} operation, which allows the
+ * pipeline to be rendered without a query.
+ */
+public final class NormalizePredicates implements IntermediateOperationOptimizer {
+
+    private static final Predicate<Object> TRUE = entity -> true;
+    private static final Predicate<Object> FALSE = entity -> false;
+
+    private final IntermediateOperationFactory intermediateOperationFactory;
+
+    public NormalizePredicates(final IntermediateOperationFactory intermediateOperationFactory) {
+        this.intermediateOperationFactory = requireNonNull(intermediateOperationFactory);
+    }
+
+    @Override
+    public <T> Pipeline<T> optimize(final Pipeline<T> pipeline) {
+        requireNonNull(pipeline);
+
+        final LinkedList<IntermediateOperation<?, ?>> intermediateOperations = pipeline.intermediateOperations();
+
+        // Elements must still reach a peek operation that precedes a filter that never holds
+        boolean peeked = false;
+        for (int i = 0; i < intermediateOperations.size(); i++) {
+            final IntermediateOperation<?, ?> intermediateOperation = intermediateOperations.get(i);
+
+            if (intermediateOperation.type() == IntermediateOperationType.PEEK) {
+                peeked = true;
+            }
+
+            if (intermediateOperation.type() != IntermediateOperationType.FILTER
+                || !(intermediateOperation.arguments()[0] instanceof SpeedmentPredicate)
+            ) {
+                continue;
+            }
+
+            final Predicate<?> predicate = (Predicate<?>) intermediateOperation.arguments()[0];
+            final Predicate<?> normalized = normalize(predicate);
+
+            if (normalized == TRUE) {
+                intermediateOperations.remove(i--);
+            } else if (normalized == FALSE) {
+                if (!peeked) {
+                    intermediateOperations.set(i, intermediateOperationFactory.createLimit(0));
+                }
+            } else if (normalized != predicate) {
+                intermediateOperations.set(i, intermediateOperationFactory.createFilter(normalized));
+            }
+        }
+
+        return pipeline;
+    }
+
+    /**
+     * Returns a predicate that is equivalent to the provided {@code predicate},
+     * which is {@link #TRUE} or {@link #FALSE} if it always or never holds or
+     * the provided predicate itself if it can not be simplified.
+     */
+    private static Predicate<?> normalize(final Predicate<?> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            final PredicateType predicateType = ((FieldPredicate<?>) predicate).getPredicateType();
+            if (predicateType == PredicateType.ALWAYS_TRUE) {
+                return TRUE;
+            }
+            if (predicateType == PredicateType.ALWAYS_FALSE) {
+                return FALSE;
+            }
+            return predicate;
+        }
+
+        if (!(predicate instanceof CombinedPredicate)) {
+            return predicate;
+        }
+
+        final CombinedPredicate<?> combinedPredicate = (CombinedPredicate<?>) predicate;
+        final CombinedPredicate.Type type = combinedPredicate.getType();
+        final Predicate<?> identity = type == CombinedPredicate.Type.AND ? TRUE : FALSE;
+        final Predicate<?> absorbing = type == CombinedPredicate.Type.AND ? FALSE : TRUE;
+
+        final List<Predicate<?>> operands = new ArrayList<>();
+        boolean changed = flatten(combinedPredicate, type, operands);
+
+        final List<Predicate<?>> normalizedOperands = new ArrayList<>();
+        for (Predicate<?> operand : operands) {
+            final Predicate<?> normalized = normalize(operand);
+            if (normalized == absorbing) {
+                return absorbing;
+            }
+            if (normalized != identity) {
+                normalizedOperands.add(normalized);
+            }
+            changed |= normalized != operand;
+        }
+
+        final List<Predicate<?>> merged = type == CombinedPredicate.Type.AND
+            ? mergeBounds(normalizedOperands)
+            : mergeEqualities(normalizedOperands);
+        if (merged == null) {
+            return absorbing;
+        }
+        changed |= merged.size() != normalizedOperands.size();
+
+        if (merged.isEmpty()) {
+            return identity;
+        }
+        if (!changed) {
+            return predicate;
+        }
+        if (merged.size() == 1) {
+            return merged.get(0);
+        }
+        return combine(type, merged);
+    }
+
+    /**
+     * Adds the operands of the provided {@code combinedPredicate} to the provided
+     * list, replacing any operand that combines predicates in the same way by
+     * its operands, and returns if any operand was replaced.
+     */
+    private static boolean flatten(
+        final CombinedPredicate<?> combinedPredicate,
+        final CombinedPredicate.Type type,
+        final List<Predicate<?>> operands
+    ) {
+        boolean flattened = false;
+        for (Predicate<?> operand : combinedPredicate.stream().collect(Collectors.toList())) {
+            if (operand instanceof CombinedPredicate && ((CombinedPredicate<?>) operand).getType() == type) {
+                flatten((CombinedPredicate<?>) operand, type, operands);
+                flattened = true;
+            } else {
+                operands.add(operand);
+            }
+        }
+        return flattened;
+    }
+
+    /**
+     * Returns the provided disjunction {@code operands} with any equalities and
+     * {@code IN} predicates on the same field replaced by a single {@code IN}
+     * predicate at the position of the first of them.
+     */
+    private static List<Predicate<?>> mergeEqualities(final List<Predicate<?>> operands) {
+        final Map<Field<?>, Set<Object>> valuesByField = new LinkedHashMap<>();
+        final Map<Field<?>, Integer> countsByField = new LinkedHashMap<>();
+        for (Predicate<?> operand : operands) {
+            equalityValues(operand).ifPresent(values -> {
+                final Field<?> field = ((FieldPredicate<?>) operand).getField();
+                valuesByField.computeIfAbsent(field, f -> new LinkedHashSet<>()).addAll(values);
+                countsByField.merge(field, 1, Integer::sum);
+            });
+        }
+
+        final List<Predicate<?>> result = new ArrayList<>(operands.size());
+        for (Predicate<?> operand : operands) {
+            if (!equalityValues(operand).isPresent()) {
+                result.add(operand);
+                continue;
+            }
+            final Field<?> field = ((FieldPredicate<?>) operand).getField();
+            if (countsByField.get(field) == 1) {
+                result.add(operand);
+            } else if (valuesByField.containsKey(field)) {
+                result.add(in(field, valuesByField.remove(field)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values that the field of the provided {@code predicate} is
+     * compared to if it is an equality or an {@code IN} predicate that may be
+     * merged with others or {@link Optional#empty()} otherwise.
+     */
+    private static Optional<Collection<?>> equalityValues(final Predicate<?> predicate) {
+        if (!(predicate instanceof FieldPredicate) || !(predicate instanceof HasArg0)) {
+            return Optional.empty();
+        }
+        final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+        if (!(fieldPredicate.getField() instanceof HasComparableOperators)) {
+            return Optional.empty();
+        }
+
+        final Object value = ((HasArg0<?>) predicate).get0();
+        final Collection<?> values;
+        if (fieldPredicate.getPredicateType() == PredicateType.EQUAL) {
+            values = Collections.singleton(value);
+        } else if (fieldPredicate.getPredicateType() == PredicateType.IN && value instanceof Collection) {
+            values = (Collection<?>) value;
+        } else {
+            return Optional.empty();
+        }
+
+        // A null value is matched by an equality in memory but not in a query
+        return values.contains(null) ? Optional.empty() : Optional.of(values);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate<?> in(final Field<?> field, final Set<Object> values) {
+        return ((HasComparableOperators) field).in(values);
+    }
+
+    /**
+     * Returns the provided conjunction {@code operands} with any lower and upper
+     * bounds on the same field replaced by their tightest bounds at the position
+     * of the first of them or {@code null} if the bounds contradict each other.
+     */
+    private static List<Predicate<?>> mergeBounds(final List<Predicate<?>> operands) {
+        final Map<Field<?>, Bounds> boundsByField = new LinkedHashMap<>();
+        for (Predicate<?> operand : operands) {
+            if (isBound(operand)) {
+                final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) operand;
+                boundsByField.computeIfAbsent(fieldPredicate.getField(), f -> new Bounds()).add(fieldPredicate);
+            }
+        }
+
+        final List<Predicate<?>> result = new ArrayList<>(operands.size());
+        for (Predicate<?> operand : operands) {
+            if (!isBound(operand)) {
+                result.add(operand);
+                continue;
+            }
+            final Field<?> field = ((FieldPredicate<?>) operand).getField();
+            final Bounds bounds = boundsByField.get(field);
+            if (bounds.count == 1) {
+                result.add(operand);
+            } else if (!bounds.merged) {
+                if (bounds.isEmpty()) {
+                    return null;
+                }
+                bounds.merged = true;
+                result.add(bounds.toPredicate(field));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBound(final Predicate<?> predicate) {
+        if (!(predicate instanceof FieldPredicate) || !(predicate instanceof HasArg0)) {
+            return false;
+        }
+        final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+        switch (fieldPredicate.getPredicateType()) {
+            case GREATER_THAN:
+            case GREATER_OR_EQUAL:
+            case LESS_THAN:
+            case LESS_OR_EQUAL:
+                break;
+            default:
+                return false;
+        }
+        final Object value = ((HasArg0<?>) predicate).get0();
+        return fieldPredicate.getField() instanceof HasComparableOperators
+            && isOrderedAlike(value)
+            // NaN is ordered by compareTo but is not comparable to any value in memory
+            && !(value instanceof Double && ((Double) value).isNaN())
+            && !(value instanceof Float && ((Float) value).isNaN());
+    }
+
+    /**
+     * Returns if the provided bound {@code value} is ordered by {@code compareTo}
+     * in the same way as by the database. Strings are ordered by the collation of
+     * the column and enums may be stored by their names rather than by their ordinals.
+     */
+    private static boolean isOrderedAlike(final Object value) {
+        return value instanceof Comparable
+            && (value instanceof Number || value instanceof Temporal || value instanceof Date);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate<?> combine(final CombinedPredicate.Type type, final List<Predicate<?>> operands) {
+        final List predicates = operands;
+        return type == CombinedPredicate.Type.AND
+            ? CombinedPredicate.and((List<Predicate<? super Object>>) predicates)
+            : CombinedPredicate.or((List<Predicate<? super Object>>) predicates);
+    }
+
+    /**
+     * The tightest lower and upper bounds on the values of a field.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class Bounds {
+
+        private Comparable lower;
+        private boolean lowerInclusive;
+        private Comparable upper;
+        private boolean upperInclusive;
+        private int count;
+        private boolean merged;
+
+        void add(final FieldPredicate<?> predicate) {
+            final Comparable value = (Comparable) ((HasArg0<?>) predicate).get0();
+            count++;
+            switch (predicate.getPredicateType()) {
+                case GREATER_THAN:
+                case GREATER_OR_EQUAL: {
+                    final boolean inclusive = predicate.getPredicateType() == PredicateType.GREATER_OR_EQUAL;
+                    final int comparison = lower == null ? 1 : value.compareTo(lower);
+                    if (comparison > 0 || (comparison == 0 && !inclusive)) {
+                        lower = value;
+                        lowerInclusive = inclusive;
+                    }
+                    break;
+                }
+                default: {
+                    final boolean inclusive = predicate.getPredicateType() == PredicateType.LESS_OR_EQUAL;
+                    final int comparison = upper == null ? -1 : value.compareTo(upper);
+                    if (comparison < 0 || (comparison == 0 && !inclusive)) {
+                        upper = value;
+                        upperInclusive = inclusive;
+                    }
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            if (lower == null || upper == null) {
+                return false;
+            }
+            final int comparison = lower.compareTo(upper);
+            return comparison > 0 || (comparison == 0 && !(lowerInclusive && upperInclusive));
+        }
+
+        Predicate<?> toPredicate(final Field<?> field) {
+            final HasComparableOperators operators = (HasComparableOperators) field;
+            if (upper == null) {
+                return lowerInclusive ? operators.greaterOrEqual(lower) : operators.greaterThan(lower);
+            }
+            if (lower == null) {
+                return upperInclusive ? operators.lessOrEqual(upper) : operators.lessThan(upper);
+            }
+            return operators.between(lower, upper, inclusion(lowerInclusive, upperInclusive));
+        }
+
+        private static Inclusion inclusion(final boolean lowerInclusive, final boolean upperInclusive) {
+            if (lowerInclusive) {
+                return upperInclusive ? Inclusion.START_INCLUSIVE_END_INCLUSIVE : Inclusion.START_INCLUSIVE_END_EXCLUSIVE;
+            }
+            return upperInclusive ? Inclusion.START_EXCLUSIVE_END_INCLUSIVE : Inclusion.START_EXCLUSIVE_END_EXCLUSIVE;
+        }
+    }
+
+}
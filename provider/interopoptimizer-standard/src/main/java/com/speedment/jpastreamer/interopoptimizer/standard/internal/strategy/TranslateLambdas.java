@@ -0,0 +1,97 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.field.comparator.FieldComparator;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
+import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizer;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.LambdaTranslator;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Replaces lambdas passed to filter and sorted operations operating directly
+ * on the entities of the pipeline with equivalent field predicates and
+ * comparators, allowing them to be rendered as part of the query.
+ * <p>
+ * Lambdas that cannot be translated are left as is and applied in memory.
+ *
+ * @see LambdaTranslator
+ */
+public final class TranslateLambdas implements IntermediateOperationOptimizer {
+
+    private final IntermediateOperationFactory intermediateOperationFactory;
+
+    public TranslateLambdas(final IntermediateOperationFactory intermediateOperationFactory) {
+        this.intermediateOperationFactory = requireNonNull(intermediateOperationFactory);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Pipeline<T> optimize(final Pipeline<T> pipeline) {
+        requireNonNull(pipeline);
+
+        final LinkedList<IntermediateOperation<?, ?>> intermediateOperations = pipeline.intermediateOperations();
+
+        for (int i = 0; i < intermediateOperations.size(); i++) {
+            final IntermediateOperation<?, ?> intermediateOperation = intermediateOperations.get(i);
+
+            // Operations following a change of element type do not operate on the entities
+            if (intermediateOperation.streamType() != Stream.class || intermediateOperation.returnType() != Stream.class) {
+                break;
+            }
+
+            switch (intermediateOperation.type()) {
+                case FILTER: {
+                    final Object predicate = intermediateOperation.arguments()[0];
+                    if (!(predicate instanceof SpeedmentPredicate)) {
+                        final int index = i;
+                        LambdaTranslator.toPredicate((Predicate<? super T>) predicate, pipeline.root())
+                            .ifPresent(p -> intermediateOperations.set(index, intermediateOperationFactory.createFilter(p)));
+                    }
+                    break;
+                }
+                case SORTED: {
+                    if (intermediateOperation.arguments().length == 0) {
+                        break;
+                    }
+                    final Object comparator = intermediateOperation.arguments()[0];
+                    if (!(comparator instanceof FieldComparator)) {
+                        final int index = i;
+                        LambdaTranslator.toComparator((Comparator<? super T>) comparator, pipeline.root())
+                            .ifPresent(c -> intermediateOperations.set(index, intermediateOperationFactory.createSorted(c)));
+                    }
+                    break;
+                }
+                case DISTINCT:
+                case SKIP:
+                case LIMIT:
+                case PEEK:
+                    break;
+                default:
+                    return pipeline;
+            }
+        }
+
+        return pipeline;
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A boolean formula over conditions on properties of an entity. Negations
+ * are only applied to atoms.
+ */
+abstract class Formula {
+
+    static final Formula TRUE = new Literal(true);
+    static final Formula FALSE = new Literal(false);
+
+    private Formula() {}
+
+    abstract Formula negate();
+
+    static Formula of(final boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    static Formula and(final Formula first, final Formula second) {
+        if (first == FALSE || second == FALSE) {
+            return FALSE;
+        }
+        if (first == TRUE) {
+            return second;
+        }
+        if (second == TRUE) {
+            return first;
+        }
+        return new And(first, second);
+    }
+
+    static Formula or(final Formula first, final Formula second) {
+        if (first == TRUE || second == TRUE) {
+            return TRUE;
+        }
+        if (first == FALSE) {
+            return second;
+        }
+        if (second == FALSE) {
+            return first;
+        }
+        return new Or(first, second);
+    }
+
+    /**
+     * Returns a formula that is {@code whenTrue} if the provided {@code condition}
+     * holds and {@code whenFalse} otherwise.
+     */
+    static Formula ifThenElse(final Formula condition, final Formula whenTrue, final Formula whenFalse) {
+        if (whenTrue == whenFalse) {
+            return whenTrue;
+        }
+        if (whenFalse == FALSE) {
+            return and(condition, whenTrue);
+        }
+        if (whenTrue == FALSE) {
+            return and(condition.negate(), whenFalse);
+        }
+        if (whenTrue == TRUE) {
+            return or(condition, whenFalse);
+        }
+        if (whenFalse == TRUE) {
+            return or(condition.negate(), whenTrue);
+        }
+        return or(and(condition, whenTrue), and(condition.negate(), whenFalse));
+    }
+
+    static final class Literal extends Formula {
+
+        private final boolean value;
+
+        private Literal(final boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        Formula negate() {
+            return of(!value);
+        }
+    }
+
+    /**
+     * A condition on a single property of an entity.
+     */
+    static final class Atom extends Formula {
+
+        enum Kind {
+            EQUAL,
+            LESS_THAN,
+            LESS_OR_EQUAL,
+            GREATER_THAN,
+            GREATER_OR_EQUAL,
+            /** Equality that holds for no value if the property is {@code null} */
+            NULL_SAFE_EQUAL,
+            EQUAL_IGNORE_CASE,
+            IS_NULL,
+            IS_TRUE,
+            IS_EMPTY,
+            STARTS_WITH,
+            ENDS_WITH,
+            CONTAINS
+        }
+
+        private final Kind kind;
+        private final Symbol.Getter getter;
+        private final Object value;
+        private final boolean negated;
+
+        Atom(final Kind kind, final Symbol.Getter getter, final Object value) {
+            this(kind, getter, value, false);
+        }
+
+        private Atom(final Kind kind, final Symbol.Getter getter, final Object value, final boolean negated) {
+            this.kind = requireNonNull(kind);
+            this.getter = requireNonNull(getter);
+            this.value = value;
+            this.negated = negated;
+        }
+
+        Kind kind() {
+            return kind;
+        }
+
+        Symbol.Getter getter() {
+            return getter;
+        }
+
+        /**
+         * Returns the value the property is compared to or {@code null} if the
+         * kind of condition has no value.
+         */
+        Object value() {
+            return value;
+        }
+
+        boolean isNegated() {
+            return negated;
+        }
+
+        @Override
+        Formula negate() {
+            return new Atom(kind, getter, value, !negated);
+        }
+    }
+
+    static final class And extends Formula {
+
+        private final Formula first;
+        private final Formula second;
+
+        private And(final Formula first, final Formula second) {
+            this.first = requireNonNull(first);
+            this.second = requireNonNull(second);
+        }
+
+        Formula first() {
+            return first;
+        }
+
+        Formula second() {
+            return second;
+        }
+
+        @Override
+        Formula negate() {
+            return or(first.negate(), second.negate());
+        }
+    }
+
+    static final class Or extends Formula {
+
+        private final Formula first;
+        private final Formula second;
+
+        private Or(final Formula first, final Formula second) {
+            this.first = requireNonNull(first);
+            this.second = requireNonNull(second);
+        }
+
+        Formula first() {
+            return first;
+        }
+
+        Formula second() {
+            return second;
+        }
+
+        @Override
+        Formula negate() {
+            return and(first.negate(), second.negate());
+        }
+    }
+}
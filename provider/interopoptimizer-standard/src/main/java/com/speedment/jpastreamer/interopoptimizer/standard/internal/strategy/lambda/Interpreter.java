@@ -0,0 +1,651 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.Formula.Atom;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.MethodCode.MemberRef;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.Symbol.Comparison;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.Symbol.Condition;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.Symbol.Constant;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.Symbol.Entity;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.Symbol.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Symbolically interprets the bytecode of a method computing a predicate or
+ * comparison of entities. Only a small set of instructions operating on
+ * constants and on properties of the entities is supported; any other
+ * instruction results in an {@link UnsupportedOperationException}.
+ */
+final class Interpreter {
+
+    private static final int MAX_INSTRUCTIONS = 2_000;
+
+    private static final int ACONST_NULL = 1;
+    private static final int ICONST_M1 = 2;
+    private static final int ICONST_5 = 8;
+    private static final int LCONST_0 = 9;
+    private static final int LCONST_1 = 10;
+    private static final int FCONST_0 = 11;
+    private static final int FCONST_2 = 13;
+    private static final int DCONST_0 = 14;
+    private static final int DCONST_1 = 15;
+    private static final int BIPUSH = 16;
+    private static final int SIPUSH = 17;
+    private static final int LDC = 18;
+    private static final int LDC_W = 19;
+    private static final int LDC2_W = 20;
+    private static final int ILOAD = 21;
+    private static final int ALOAD = 25;
+    private static final int ILOAD_0 = 26;
+    private static final int ALOAD_3 = 45;
+    private static final int I2L = 133;
+    private static final int I2F = 134;
+    private static final int I2D = 135;
+    private static final int L2F = 137;
+    private static final int L2D = 138;
+    private static final int F2D = 141;
+    private static final int LCMP = 148;
+    private static final int DCMPG = 152;
+    private static final int IFEQ = 153;
+    private static final int IFNE = 154;
+    private static final int IFLT = 155;
+    private static final int IFGE = 156;
+    private static final int IFGT = 157;
+    private static final int IFLE = 158;
+    private static final int IF_ICMPEQ = 159;
+    private static final int IF_ICMPLE = 164;
+    private static final int GOTO = 167;
+    private static final int IRETURN = 172;
+    private static final int GETSTATIC = 178;
+    private static final int GETFIELD = 180;
+    private static final int INVOKEVIRTUAL = 182;
+    private static final int INVOKESTATIC = 184;
+    private static final int INVOKEINTERFACE = 185;
+    private static final int CHECKCAST = 192;
+    private static final int IFNULL = 198;
+    private static final int IFNONNULL = 199;
+    private static final int GOTO_W = 200;
+
+    private static final Set<String> WRAPPERS = new HashSet<>(Arrays.asList(
+        "java/lang/Integer", "java/lang/Long", "java/lang/Short", "java/lang/Byte",
+        "java/lang/Double", "java/lang/Float", "java/lang/Character", "java/lang/Boolean"
+    ));
+
+    private static final Set<String> COMPARABLES = new HashSet<>(Arrays.asList(
+        "java/lang/String", "java/math/BigDecimal", "java/math/BigInteger"
+    ));
+
+    private final MethodCode methodCode;
+    private final byte[] code;
+    private final Symbol[] locals;
+    private final ClassLoader classLoader;
+    private int instructions;
+
+    /**
+     * Creates an Interpreter of the provided {@code methodCode} invoked with the
+     * provided {@code locals}, indexed by local variable slot, using the provided
+     * {@code classLoader} to resolve referenced classes.
+     */
+    Interpreter(final MethodCode methodCode, final Symbol[] locals, final ClassLoader classLoader) {
+        this.methodCode = requireNonNull(methodCode);
+        this.code = methodCode.code();
+        this.locals = requireNonNull(locals);
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Returns the formula that is equivalent to the boolean returned by the method.
+     */
+    Formula evaluatePredicate() {
+        return evaluate(0, new ArrayList<>());
+    }
+
+    /**
+     * Returns the value returned by a method that has no branches.
+     */
+    Symbol evaluateResult() {
+        final List<Symbol> stack = new ArrayList<>();
+        int pc = 0;
+        while (opcode(pc) != IRETURN) {
+            pc = step(pc, stack);
+        }
+        return pop(stack);
+    }
+
+    private Formula evaluate(final int start, final List<Symbol> stack) {
+        int pc = start;
+        while (true) {
+            final int opcode = opcode(pc);
+            if (opcode == IRETURN) {
+                return toFormula(pop(stack));
+            }
+            if (opcode >= IFEQ && opcode <= IFLE) {
+                final Formula condition = compareToZero(opcode, pop(stack));
+                return branch(condition, pc + s2(pc + 1), pc + 3, stack);
+            }
+            if (opcode >= IF_ICMPEQ && opcode <= IF_ICMPLE) {
+                final Symbol right = pop(stack);
+                final Symbol left = pop(stack);
+                final Formula condition = relation(opcode - IF_ICMPEQ + IFEQ, left, right);
+                return branch(condition, pc + s2(pc + 1), pc + 3, stack);
+            }
+            if (opcode == IFNULL || opcode == IFNONNULL) {
+                final Formula isNull = isNull(pop(stack));
+                final Formula condition = opcode == IFNULL ? isNull : isNull.negate();
+                return branch(condition, pc + s2(pc + 1), pc + 3, stack);
+            }
+            pc = step(pc, stack);
+        }
+    }
+
+    private Formula branch(final Formula condition, final int target, final int next, final List<Symbol> stack) {
+        if (condition == Formula.TRUE) {
+            return evaluate(target, stack);
+        }
+        if (condition == Formula.FALSE) {
+            return evaluate(next, stack);
+        }
+        final Formula whenTrue = evaluate(target, new ArrayList<>(stack));
+        final Formula whenFalse = evaluate(next, stack);
+        return Formula.ifThenElse(condition, whenTrue, whenFalse);
+    }
+
+    /**
+     * Executes the instruction at the provided {@code pc} that does not branch
+     * conditionally and returns the position of the next instruction.
+     */
+    private int step(final int pc, final List<Symbol> stack) {
+        if (++instructions > MAX_INSTRUCTIONS) {
+            throw unsupported("Method is too long");
+        }
+
+        final int opcode = opcode(pc);
+
+        if (opcode == ACONST_NULL) {
+            stack.add(new Constant(null));
+            return pc + 1;
+        }
+        if (opcode >= ICONST_M1 && opcode <= ICONST_5) {
+            stack.add(new Constant(opcode - ICONST_M1 - 1));
+            return pc + 1;
+        }
+        if (opcode == LCONST_0 || opcode == LCONST_1) {
+            stack.add(new Constant((long) (opcode - LCONST_0)));
+            return pc + 1;
+        }
+        if (opcode >= FCONST_0 && opcode <= FCONST_2) {
+            stack.add(new Constant((float) (opcode - FCONST_0)));
+            return pc + 1;
+        }
+        if (opcode == DCONST_0 || opcode == DCONST_1) {
+            stack.add(new Constant((double) (opcode - DCONST_0)));
+            return pc + 1;
+        }
+        if (opcode >= ILOAD && opcode <= ALOAD) {
+            stack.add(local(u1(pc + 1)));
+            return pc + 2;
+        }
+        if (opcode >= ILOAD_0 && opcode <= ALOAD_3) {
+            stack.add(local((opcode - ILOAD_0) % 4));
+            return pc + 1;
+        }
+        if (opcode >= LCMP && opcode <= DCMPG) {
+            final Symbol right = pop(stack);
+            final Symbol left = pop(stack);
+            stack.add(new Comparison(left, right));
+            return pc + 1;
+        }
+
+        switch (opcode) {
+            case BIPUSH:
+                stack.add(new Constant((int) code[pc + 1]));
+                return pc + 2;
+            case SIPUSH:
+                stack.add(new Constant(s2(pc + 1)));
+                return pc + 3;
+            case LDC:
+                stack.add(new Constant(methodCode.constant(u1(pc + 1))));
+                return pc + 2;
+            case LDC_W:
+            case LDC2_W:
+                stack.add(new Constant(methodCode.constant(u2(pc + 1))));
+                return pc + 3;
+            case I2L:
+                stack.add(convert(pop(stack), "J", true));
+                return pc + 1;
+            case I2D:
+            case F2D:
+                stack.add(convert(pop(stack), "D", true));
+                return pc + 1;
+            case I2F:
+                stack.add(convert(pop(stack), "F", false));
+                return pc + 1;
+            case L2F:
+                stack.add(convert(pop(stack), "F", false));
+                return pc + 1;
+            case L2D:
+                stack.add(convert(pop(stack), "D", false));
+                return pc + 1;
+            case GOTO:
+                return pc + s2(pc + 1);
+            case GOTO_W:
+                return pc + s4(pc + 1);
+            case CHECKCAST:
+                return pc + 3;
+            case GETFIELD: {
+                final MemberRef ref = methodCode.memberRef(u2(pc + 1));
+                final Symbol receiver = pop(stack);
+                if (!(receiver instanceof Entity)) {
+                    throw unsupported("Field of " + ref.owner());
+                }
+                stack.add(new Getter(((Entity) receiver).parameter(), ref.name(), true, ref.descriptor(), ref.descriptor()));
+                return pc + 3;
+            }
+            case GETSTATIC: {
+                stack.add(new Constant(enumConstant(methodCode.memberRef(u2(pc + 1)))));
+                return pc + 3;
+            }
+            case INVOKEVIRTUAL:
+            case INVOKEINTERFACE:
+            case INVOKESTATIC: {
+                final MemberRef ref = methodCode.memberRef(u2(pc + 1));
+                final List<String> argumentTypes = argumentTypes(ref.descriptor());
+                final String returnType = returnType(ref.descriptor());
+                final Symbol[] arguments = new Symbol[argumentTypes.size()];
+                for (int i = arguments.length - 1; i >= 0; i--) {
+                    arguments[i] = pop(stack);
+                }
+                stack.add(opcode == INVOKESTATIC
+                    ? invokeStatic(ref, arguments, returnType)
+                    : invokeVirtual(ref, pop(stack), arguments, returnType)
+                );
+                return pc + (opcode == INVOKEINTERFACE ? 5 : 3);
+            }
+            default:
+                throw unsupported("Instruction " + opcode);
+        }
+    }
+
+    private Symbol invokeVirtual(final MemberRef ref, final Symbol receiver, final Symbol[] arguments, final String returnType) {
+        final String owner = ref.owner();
+        final String name = ref.name();
+
+        if (receiver instanceof Entity && arguments.length == 0 && !"V".equals(returnType)) {
+            return new Getter(((Entity) receiver).parameter(), name, false, returnType, returnType);
+        }
+
+        if ((WRAPPERS.contains(owner) || "java/lang/Number".equals(owner)) && name.endsWith("Value") && arguments.length == 0) {
+            // Unboxing
+            return convert(receiver, returnType, true);
+        }
+
+        if ("equals".equals(name) && "(Ljava/lang/Object;)Z".equals(ref.descriptor())) {
+            final Symbol argument = arguments[0];
+            if (receiver instanceof Getter && isValueOf((Getter) receiver, argument)) {
+                return new Condition(new Atom(Atom.Kind.EQUAL, (Getter) receiver, ((Constant) argument).value()));
+            }
+            if (argument instanceof Getter && isValueOf((Getter) argument, receiver)) {
+                return new Condition(new Atom(Atom.Kind.NULL_SAFE_EQUAL, (Getter) argument, ((Constant) receiver).value()));
+            }
+            throw unsupported("Equality of " + owner);
+        }
+
+        if ("compareTo".equals(name) && "I".equals(returnType) && arguments.length == 1
+            && (WRAPPERS.contains(owner) || COMPARABLES.contains(owner))
+        ) {
+            return new Comparison(receiver, arguments[0]);
+        }
+
+        if ("java/lang/String".equals(owner) && receiver instanceof Getter) {
+            final Getter getter = (Getter) receiver;
+            if (arguments.length == 0 && "isEmpty".equals(name)) {
+                return new Condition(new Atom(Atom.Kind.IS_EMPTY, getter, null));
+            }
+            if (arguments.length == 1 && arguments[0] instanceof Constant && ((Constant) arguments[0]).value() instanceof String) {
+                final Object value = ((Constant) arguments[0]).value();
+                switch (name) {
+                    case "equalsIgnoreCase":
+                        return new Condition(new Atom(Atom.Kind.EQUAL_IGNORE_CASE, getter, value));
+                    case "startsWith":
+                        return new Condition(new Atom(Atom.Kind.STARTS_WITH, getter, value));
+                    case "endsWith":
+                        return new Condition(new Atom(Atom.Kind.ENDS_WITH, getter, value));
+                    case "contains":
+                        return new Condition(new Atom(Atom.Kind.CONTAINS, getter, value));
+                    default:
+                }
+            }
+        }
+
+        throw unsupported("Method " + owner + "." + name);
+    }
+
+    private Symbol invokeStatic(final MemberRef ref, final Symbol[] arguments, final String returnType) {
+        final String owner = ref.owner();
+        final String name = ref.name();
+
+        if (WRAPPERS.contains(owner) && "valueOf".equals(name) && arguments.length == 1 && isPrimitive(argumentTypes(ref.descriptor()).get(0))) {
+            // Boxing
+            return convert(arguments[0], returnType, true);
+        }
+
+        if (WRAPPERS.contains(owner) && "compare".equals(name) && arguments.length == 2) {
+            return new Comparison(arguments[0], arguments[1]);
+        }
+
+        if ("java/util/Objects".equals(owner)) {
+            if (("isNull".equals(name) || "nonNull".equals(name)) && arguments.length == 1) {
+                final Formula isNull = isNull(arguments[0]);
+                return new Condition("isNull".equals(name) ? isNull : isNull.negate());
+            }
+            if ("equals".equals(name) && arguments.length == 2 && (arguments[0] instanceof Getter || arguments[1] instanceof Getter)) {
+                final Getter getter = (Getter) (arguments[0] instanceof Getter ? arguments[0] : arguments[1]);
+                final Symbol other = arguments[0] instanceof Getter ? arguments[1] : arguments[0];
+                if (other instanceof Constant && ((Constant) other).value() == null) {
+                    return new Condition(isNull(getter));
+                }
+                if (isValueOf(getter, other)) {
+                    return new Condition(new Atom(Atom.Kind.NULL_SAFE_EQUAL, getter, ((Constant) other).value()));
+                }
+            }
+        }
+
+        throw unsupported("Method " + owner + "." + name);
+    }
+
+    private Formula toFormula(final Symbol symbol) {
+        if (symbol instanceof Constant && ((Constant) symbol).value() instanceof Integer) {
+            return Formula.of((Integer) ((Constant) symbol).value() != 0);
+        }
+        if (symbol instanceof Condition) {
+            return ((Condition) symbol).formula();
+        }
+        if (symbol instanceof Getter && "Z".equals(((Getter) symbol).type())) {
+            return new Atom(Atom.Kind.IS_TRUE, (Getter) symbol, null);
+        }
+        throw unsupported("Result");
+    }
+
+    private Formula compareToZero(final int opcode, final Symbol value) {
+        if (value instanceof Comparison) {
+            return relation(opcode, ((Comparison) value).left(), ((Comparison) value).right());
+        }
+        if (value instanceof Condition || (value instanceof Getter && "Z".equals(((Getter) value).type()))) {
+            final Formula formula = toFormula(value);
+            switch (opcode) {
+                case IFEQ:
+                    return formula.negate();
+                case IFNE:
+                    return formula;
+                default:
+                    throw unsupported("Ordering of a boolean");
+            }
+        }
+        return relation(opcode, value, new Constant(0));
+    }
+
+    /**
+     * Returns the formula that holds if the provided operands are related as
+     * given by the provided {@code opcode} in the range {@code IFEQ} to {@code IFLE}.
+     */
+    private Formula relation(final int opcode, final Symbol left, final Symbol right) {
+        if (left instanceof Constant && right instanceof Constant) {
+            final int comparison = compare(((Constant) left).value(), ((Constant) right).value());
+            switch (opcode) {
+                case IFEQ: return Formula.of(comparison == 0);
+                case IFNE: return Formula.of(comparison != 0);
+                case IFLT: return Formula.of(comparison < 0);
+                case IFGE: return Formula.of(comparison >= 0);
+                case IFGT: return Formula.of(comparison > 0);
+                default: return Formula.of(comparison <= 0);
+            }
+        }
+        if (left instanceof Getter && right instanceof Constant) {
+            return atom(opcode, (Getter) left, ((Constant) right).value());
+        }
+        if (left instanceof Constant && right instanceof Getter) {
+            return atom(flip(opcode), (Getter) right, ((Constant) left).value());
+        }
+        throw unsupported("Relation");
+    }
+
+    private Formula atom(final int opcode, final Getter getter, final Object value) {
+        if (!(value instanceof Number || value instanceof String || value instanceof Character)) {
+            throw unsupported("Relation to " + value);
+        }
+        switch (opcode) {
+            case IFEQ: return new Atom(Atom.Kind.EQUAL, getter, value);
+            case IFNE: return new Atom(Atom.Kind.EQUAL, getter, value).negate();
+            case IFLT: return new Atom(Atom.Kind.LESS_THAN, getter, value);
+            case IFGE: return new Atom(Atom.Kind.GREATER_OR_EQUAL, getter, value);
+            case IFGT: return new Atom(Atom.Kind.GREATER_THAN, getter, value);
+            default: return new Atom(Atom.Kind.LESS_OR_EQUAL, getter, value);
+        }
+    }
+
+    private static int flip(final int opcode) {
+        switch (opcode) {
+            case IFLT: return IFGT;
+            case IFGE: return IFLE;
+            case IFGT: return IFLT;
+            case IFLE: return IFGE;
+            default: return opcode;
+        }
+    }
+
+    private Formula isNull(final Symbol symbol) {
+        if (symbol instanceof Constant) {
+            return Formula.of(((Constant) symbol).value() == null);
+        }
+        if (symbol instanceof Getter && !isPrimitive(((Getter) symbol).type())) {
+            return new Atom(Atom.Kind.IS_NULL, (Getter) symbol, null);
+        }
+        throw unsupported("Null check");
+    }
+
+    /**
+     * Returns if the provided {@code symbol} is a non-null constant that may be
+     * equal to the value of the provided {@code getter}.
+     */
+    private boolean isValueOf(final Getter getter, final Symbol symbol) {
+        if (!(symbol instanceof Constant) || ((Constant) symbol).value() == null) {
+            return false;
+        }
+        final Object value = ((Constant) symbol).value();
+        final String type = getter.type();
+        if (isPrimitive(type)) {
+            return false;
+        }
+        final Class<?> valueClass = value.getClass();
+        if (valueClass.isEnum() || (valueClass.getSuperclass() != null && valueClass.getSuperclass().isEnum())) {
+            return type.equals("L" + value.getClass().getName().replace('.', '/') + ";")
+                || type.equals("L" + ((Enum<?>) value).getDeclaringClass().getName().replace('.', '/') + ";");
+        }
+        // The equals method of strings and wrappers only holds for values of the same class
+        return type.equals("L" + valueClass.getName().replace('.', '/') + ";");
+    }
+
+    /**
+     * Returns the provided {@code symbol} converted to the provided primitive or
+     * wrapper {@code type}. A property may only be converted if {@code exact} is
+     * {@code true}, as its value must be preserved by the conversion.
+     */
+    private Symbol convert(final Symbol symbol, final String type, final boolean exact) {
+        if (symbol instanceof Getter) {
+            final Getter getter = (Getter) symbol;
+            if (!exact || !isWidening(primitive(getter.type()), primitive(type))) {
+                throw unsupported("Conversion of " + getter.name());
+            }
+            return getter.withType(type);
+        }
+        if (symbol instanceof Constant && ((Constant) symbol).value() != null) {
+            final Object value = ((Constant) symbol).value();
+            if (value instanceof Boolean) {
+                return "Z".equals(primitive(type)) ? symbol : new Constant((Boolean) value ? 1 : 0);
+            }
+            final Number number = value instanceof Character ? (int) (Character) value : (Number) value;
+            switch (primitive(type)) {
+                case "I": return new Constant(number.intValue());
+                case "J": return new Constant(number.longValue());
+                case "F": return new Constant(number.floatValue());
+                case "D": return new Constant(number.doubleValue());
+                case "S": return new Constant(number.shortValue());
+                case "B": return new Constant(number.byteValue());
+                case "C": return new Constant((char) number.intValue());
+                case "Z": return new Constant(number.intValue() != 0);
+                default:
+            }
+        }
+        throw unsupported("Conversion");
+    }
+
+    private static boolean isWidening(final String from, final String to) {
+        if (from.equals(to)) {
+            return true;
+        }
+        switch (from) {
+            case "B": return "SIJD".contains(to);
+            case "S":
+            case "C": return "IJD".contains(to);
+            case "I": return "JD".contains(to);
+            case "F": return "D".equals(to);
+            default: return false;
+        }
+    }
+
+    private Object enumConstant(final MemberRef ref) {
+        try {
+            final Class<?> owner = Class.forName(ref.owner().replace('/', '.'), true, classLoader);
+            final java.lang.reflect.Field field = owner.getField(ref.name());
+            if (field.isEnumConstant()) {
+                return field.get(null);
+            }
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw unsupported("Static field " + ref.name());
+        }
+        throw unsupported("Static field " + ref.name());
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int compare(final Object left, final Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            final double a = ((Number) left).doubleValue();
+            final double b = ((Number) right).doubleValue();
+            if (Double.isNaN(a) || Double.isNaN(b)) {
+                throw unsupported("Comparison of NaN");
+            }
+            if (left instanceof Double || left instanceof Float || right instanceof Double || right instanceof Float) {
+                return Double.compare(a, b);
+            }
+            return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+        }
+        if (left instanceof Comparable && right != null && left.getClass() == right.getClass()) {
+            return ((Comparable) left).compareTo(right);
+        }
+        throw unsupported("Comparison");
+    }
+
+    /**
+     * Returns the primitive descriptor corresponding to the provided primitive or wrapper descriptor.
+     */
+    static String primitive(final String type) {
+        switch (type) {
+            case "Ljava/lang/Integer;": return "I";
+            case "Ljava/lang/Long;": return "J";
+            case "Ljava/lang/Short;": return "S";
+            case "Ljava/lang/Byte;": return "B";
+            case "Ljava/lang/Double;": return "D";
+            case "Ljava/lang/Float;": return "F";
+            case "Ljava/lang/Character;": return "C";
+            case "Ljava/lang/Boolean;": return "Z";
+            default: return type;
+        }
+    }
+
+    static boolean isPrimitive(final String type) {
+        return type.length() == 1;
+    }
+
+    /**
+     * Returns the descriptors of the parameter types of the provided method {@code descriptor}.
+     */
+    static List<String> argumentTypes(final String descriptor) {
+        final List<String> types = new ArrayList<>();
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            final int start = i;
+            while (descriptor.charAt(i) == '[') {
+                i++;
+            }
+            if (descriptor.charAt(i) == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            i++;
+            types.add(descriptor.substring(start, i));
+        }
+        return types;
+    }
+
+    static String returnType(final String descriptor) {
+        return descriptor.substring(descriptor.indexOf(')') + 1);
+    }
+
+    private Symbol local(final int index) {
+        if (index >= locals.length || locals[index] == null) {
+            throw unsupported("Local variable " + index);
+        }
+        return locals[index];
+    }
+
+    private static Symbol pop(final List<Symbol> stack) {
+        if (stack.isEmpty()) {
+            throw unsupported("Empty stack");
+        }
+        return stack.remove(stack.size() - 1);
+    }
+
+    private int opcode(final int pc) {
+        if (pc < 0 || pc >= code.length) {
+            throw unsupported("Instruction outside of method");
+        }
+        return code[pc] & 0xFF;
+    }
+
+    private int u1(final int index) {
+        return code[index] & 0xFF;
+    }
+
+    private int u2(final int index) {
+        return ((code[index] & 0xFF) << 8) | (code[index + 1] & 0xFF);
+    }
+
+    private int s2(final int index) {
+        return (short) u2(index);
+    }
+
+    private int s4(final int index) {
+        return (u2(index) << 16) | u2(index + 2);
+    }
+
+    private static UnsupportedOperationException unsupported(final String what) {
+        return new UnsupportedOperationException(what + " is not supported");
+    }
+}
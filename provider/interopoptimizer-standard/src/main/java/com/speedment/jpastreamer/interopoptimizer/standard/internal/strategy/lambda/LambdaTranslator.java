@@ -0,0 +1,373 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.field.comparator.FieldComparator;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
+import com.speedment.jpastreamer.field.trait.HasBooleanOperators;
+import com.speedment.jpastreamer.field.trait.HasComparableOperators;
+import com.speedment.jpastreamer.field.trait.HasReferenceOperators;
+import com.speedment.jpastreamer.field.trait.HasStringOperators;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda.Formula.Atom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Translates serializable lambdas into equivalent {@link SpeedmentPredicate}
+ * and {@link FieldComparator} instances by interpreting the bytecode of their
+ * implementation methods.
+ * <p>
+ * Only lambdas comparing properties of an entity, read using getters or fields
+ * represented in the generated metamodel of the entity, to constants or
+ * captured values are translated. For example,
+ * {@code f -> f.getLength() > 120 && "PG".equals(f.getRating())} is translated
+ * into {@code Film$.length.greaterThan(120).and(Film$.rating.equal("PG"))}.
+ * <p>
+ * The bytecode of a lambda can only be located if the lambda is serializable
+ * as this is the only way of identifying its implementation method.
+ */
+public final class LambdaTranslator {
+
+    // All instances of a lambda class share the same implementation method
+    private static final ClassValue<AtomicReference<MethodCode>> METHOD_CODES = new ClassValue<AtomicReference<MethodCode>>() {
+        @Override
+        protected AtomicReference<MethodCode> computeValue(final Class<?> lambdaClass) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private LambdaTranslator() {}
+
+    /**
+     * Returns a SpeedmentPredicate over entities of the provided {@code entityClass}
+     * that is equivalent to the provided {@code predicate} or {@link Optional#empty()}
+     * if the predicate cannot be translated.
+     */
+    public static <T> Optional<SpeedmentPredicate<T>> toPredicate(final Predicate<? super T> predicate, final Class<T> entityClass) {
+        requireNonNull(predicate);
+        requireNonNull(entityClass);
+
+        try {
+            return interpreter(predicate, entityClass, 1)
+                .map(Interpreter::evaluatePredicate)
+                .filter(formula -> !(formula instanceof Formula.Literal))
+                .map(formula -> LambdaTranslator.<T>predicate(formula, Metamodel.of(entityClass)));
+        } catch (RuntimeException e) {
+            // The lambda does something that has no equivalent predicate
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a FieldComparator of entities of the provided {@code entityClass}
+     * that is equivalent to the provided {@code comparator} or {@link Optional#empty()}
+     * if the comparator cannot be translated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Optional<FieldComparator<T>> toComparator(final Comparator<? super T> comparator, final Class<T> entityClass) {
+        requireNonNull(comparator);
+        requireNonNull(entityClass);
+
+        try {
+            return interpreter(comparator, entityClass, 2)
+                .map(Interpreter::evaluateResult)
+                .filter(Symbol.Comparison.class::isInstance)
+                .map(Symbol.Comparison.class::cast)
+                .filter(comparison -> comparison.left() instanceof Symbol.Getter && comparison.right() instanceof Symbol.Getter)
+                .<FieldComparator<T>>flatMap(comparison -> {
+                    final Symbol.Getter left = (Symbol.Getter) comparison.left();
+                    final Symbol.Getter right = (Symbol.Getter) comparison.right();
+                    final Metamodel metamodel = Metamodel.of(entityClass);
+                    final Optional<Field<?>> oField = metamodel.field(left);
+                    if (!oField.isPresent()
+                        || !oField.equals(metamodel.field(right))
+                        || left.parameter() == right.parameter()
+                        || !(oField.get() instanceof HasComparableOperators)
+                    ) {
+                        return Optional.empty();
+                    }
+                    final FieldComparator<T> fieldComparator = ((HasComparableOperators<T, ?>) oField.get()).comparator();
+                    return Optional.of(left.parameter() == 0 ? fieldComparator : fieldComparator.reversed());
+                });
+        } catch (RuntimeException e) {
+            // The lambda does something that has no equivalent comparator
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns an Interpreter of the implementation method of the provided
+     * {@code lambda} taking the provided number of entities of the provided
+     * {@code entityClass} as parameters.
+     */
+    private static Optional<Interpreter> interpreter(final Object lambda, final Class<?> entityClass, final int entities) {
+        final Optional<SerializedLambda> oSerializedLambda = serializedLambda(lambda);
+        if (!oSerializedLambda.isPresent()) {
+            return Optional.empty();
+        }
+        final SerializedLambda serializedLambda = oSerializedLambda.get();
+
+        final String entityType = "L" + entityClass.getName().replace('.', '/') + ";";
+        final List<String> functionalTypes = Interpreter.argumentTypes(serializedLambda.getInstantiatedMethodType());
+        if (functionalTypes.size() != entities || functionalTypes.stream().anyMatch(type -> !type.equals(entityType))) {
+            return Optional.empty();
+        }
+
+        final ClassLoader classLoader = lambda.getClass().getClassLoader();
+        final Optional<MethodCode> oMethodCode = methodCode(lambda.getClass(), serializedLambda, classLoader);
+        if (!oMethodCode.isPresent()) {
+            return Optional.empty();
+        }
+
+        final int capturedArgs = serializedLambda.getCapturedArgCount();
+        final List<String> implTypes = Interpreter.argumentTypes(serializedLambda.getImplMethodSignature());
+        final boolean isStatic = serializedLambda.getImplMethodKind() == MethodHandleInfo.REF_invokeStatic;
+        if (!isStatic
+            && serializedLambda.getImplMethodKind() != MethodHandleInfo.REF_invokeVirtual
+            && serializedLambda.getImplMethodKind() != MethodHandleInfo.REF_invokeInterface
+            && serializedLambda.getImplMethodKind() != MethodHandleInfo.REF_invokeSpecial
+        ) {
+            return Optional.empty();
+        }
+
+        // The receiver of an instance method is either captured or the first entity
+        final int values = implTypes.size() + (isStatic ? 0 : 1);
+        if (values != capturedArgs + entities) {
+            return Optional.empty();
+        }
+
+        final Symbol[] locals = new Symbol[2 * values];
+        int slot = 0;
+        for (int i = 0; i < values; i++) {
+            locals[slot] = i < capturedArgs
+                ? new Symbol.Constant(serializedLambda.getCapturedArg(i))
+                : new Symbol.Entity(i - capturedArgs);
+            final int implIndex = isStatic ? i : i - 1;
+            final String type = implIndex < 0 ? "L;" : implTypes.get(implIndex);
+            slot += "J".equals(type) || "D".equals(type) ? 2 : 1;
+        }
+
+        return Optional.of(new Interpreter(oMethodCode.get(), locals, classLoader));
+    }
+
+    private static <T> SpeedmentPredicate<T> predicate(final Formula formula, final Metamodel metamodel) {
+        if (formula instanceof Formula.And) {
+            final Formula.And and = (Formula.And) formula;
+            return LambdaTranslator.<T>predicate(and.first(), metamodel).and(LambdaTranslator.<T>predicate(and.second(), metamodel));
+        }
+        if (formula instanceof Formula.Or) {
+            final Formula.Or or = (Formula.Or) formula;
+            return LambdaTranslator.<T>predicate(or.first(), metamodel).or(LambdaTranslator.<T>predicate(or.second(), metamodel));
+        }
+        if (formula instanceof Atom) {
+            return atom((Atom) formula, metamodel);
+        }
+        throw new UnsupportedOperationException("Formula " + formula + " is not supported");
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static <T> SpeedmentPredicate<T> atom(final Atom atom, final Metamodel metamodel) {
+        final Field<?> field = metamodel.field(atom.getter())
+            .orElseThrow(() -> new UnsupportedOperationException("Property " + atom.getter().name() + " has no field"));
+        final boolean negated = atom.isNegated();
+
+        switch (atom.kind()) {
+            case IS_NULL: {
+                final HasReferenceOperators<T> f = cast(field, HasReferenceOperators.class);
+                return negated ? f.isNotNull() : f.isNull();
+            }
+            case IS_TRUE: {
+                if (field instanceof HasBooleanOperators) {
+                    final HasBooleanOperators<T> f = (HasBooleanOperators<T>) field;
+                    return negated ? f.isFalse() : f.isTrue();
+                }
+                final HasComparableOperators<T, Boolean> f = cast(field, HasComparableOperators.class);
+                return f.equal(!negated);
+            }
+            case IS_EMPTY: {
+                final HasStringOperators<T> f = cast(field, HasStringOperators.class);
+                return negated ? f.isNotEmpty() : f.isEmpty();
+            }
+            case EQUAL_IGNORE_CASE: {
+                final HasStringOperators<T> f = cast(field, HasStringOperators.class);
+                final String value = (String) atom.value();
+                return negated ? f.notEqualIgnoreCase(value) : f.equalIgnoreCase(value);
+            }
+            case STARTS_WITH: {
+                final HasStringOperators<T> f = cast(field, HasStringOperators.class);
+                final String value = (String) atom.value();
+                return negated ? f.notStartsWith(value) : f.startsWith(value);
+            }
+            case ENDS_WITH: {
+                final HasStringOperators<T> f = cast(field, HasStringOperators.class);
+                final String value = (String) atom.value();
+                return negated ? f.notEndsWith(value) : f.endsWith(value);
+            }
+            case CONTAINS: {
+                final HasStringOperators<T> f = cast(field, HasStringOperators.class);
+                final String value = (String) atom.value();
+                return negated ? f.notContains(value) : f.contains(value);
+            }
+            default:
+        }
+
+        // The value has been converted to the type of the field
+        final HasComparableOperators f = cast(field, HasComparableOperators.class);
+        final Comparable value = (Comparable) valueOf(atom.value(), atom.getter().declaredType());
+        switch (atom.kind()) {
+            case EQUAL:
+                return negated ? f.notEqual(value) : f.equal(value);
+            case NULL_SAFE_EQUAL:
+                if (!negated) {
+                    return f.equal(value);
+                }
+                // A constant is never equal to null
+                return field instanceof HasReferenceOperators
+                    ? ((HasReferenceOperators<T>) field).isNull().or(f.notEqual(value))
+                    : f.notEqual(value);
+            case LESS_THAN:
+                return negated ? f.greaterOrEqual(value) : f.lessThan(value);
+            case LESS_OR_EQUAL:
+                return negated ? f.greaterThan(value) : f.lessOrEqual(value);
+            case GREATER_THAN:
+                return negated ? f.lessOrEqual(value) : f.greaterThan(value);
+            case GREATER_OR_EQUAL:
+                return negated ? f.lessThan(value) : f.greaterOrEqual(value);
+            default:
+                throw new UnsupportedOperationException("Condition " + atom.kind() + " is not supported");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <F> F cast(final Field<?> field, final Class<?> trait) {
+        if (!trait.isInstance(field)) {
+            throw new UnsupportedOperationException("Field " + field.columnName() + " is not a " + trait.getSimpleName());
+        }
+        return (F) field;
+    }
+
+    /**
+     * Returns the provided {@code value} converted to the type of a property
+     * declared with the provided {@code type} descriptor, provided that the
+     * conversion is exact.
+     */
+    private static Object valueOf(final Object value, final String type) {
+        final String primitive = Interpreter.primitive(type);
+        if (!Interpreter.isPrimitive(primitive)) {
+            return requireNonNull(value);
+        }
+        if ("Z".equals(primitive)) {
+            if (value instanceof Boolean) {
+                return value;
+            }
+            final int bit = ((Number) value).intValue();
+            if (bit != 0 && bit != 1) {
+                throw new UnsupportedOperationException("Boolean " + value + " is not supported");
+            }
+            return bit == 1;
+        }
+
+        // The arithmetic methods of BigDecimal throw an ArithmeticException if the value is not preserved
+        final BigDecimal exact;
+        if (value instanceof Character) {
+            exact = BigDecimal.valueOf((Character) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            exact = new BigDecimal(((Number) value).doubleValue());
+        } else {
+            exact = BigDecimal.valueOf(((Number) value).longValue());
+        }
+
+        switch (primitive) {
+            case "I": return exact.intValueExact();
+            case "J": return exact.longValueExact();
+            case "S": return exact.shortValueExact();
+            case "B": return exact.byteValueExact();
+            case "C": {
+                final int c = exact.intValueExact();
+                if (c < Character.MIN_VALUE || c > Character.MAX_VALUE) {
+                    throw new ArithmeticException("Character out of range");
+                }
+                return (char) c;
+            }
+            case "F": {
+                final float f = exact.floatValue();
+                if (new BigDecimal(f).compareTo(exact) != 0) {
+                    throw new ArithmeticException("Float out of precision");
+                }
+                return f;
+            }
+            case "D": {
+                final double d = exact.doubleValue();
+                if (new BigDecimal(d).compareTo(exact) != 0) {
+                    throw new ArithmeticException("Double out of precision");
+                }
+                return d;
+            }
+            default:
+                throw new UnsupportedOperationException("Type " + type + " is not supported");
+        }
+    }
+
+    private static Optional<SerializedLambda> serializedLambda(final Object lambda) {
+        if (!(lambda instanceof Serializable)) {
+            return Optional.empty();
+        }
+        try {
+            final Method writeReplace = lambda.getClass().getDeclaredMethod("writeReplace");
+            writeReplace.setAccessible(true);
+            final Object replacement = writeReplace.invoke(lambda);
+            return replacement instanceof SerializedLambda
+                ? Optional.of((SerializedLambda) replacement)
+                : Optional.empty();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not a lambda or not accessible
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<MethodCode> methodCode(final Class<?> lambdaClass, final SerializedLambda serializedLambda, final ClassLoader classLoader) {
+        final AtomicReference<MethodCode> cached = METHOD_CODES.get(lambdaClass);
+        if (cached.get() != null) {
+            return Optional.of(cached.get());
+        }
+
+        final String resource = serializedLambda.getImplClass() + ".class";
+        try (InputStream input = classLoader == null
+            ? ClassLoader.getSystemResourceAsStream(resource)
+            : classLoader.getResourceAsStream(resource)
+        ) {
+            if (input == null) {
+                return Optional.empty();
+            }
+            final Optional<MethodCode> methodCode = MethodCode.read(input, serializedLambda.getImplMethodName(), serializedLambda.getImplMethodSignature());
+            methodCode.ifPresent(cached::set);
+            return methodCode;
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+}
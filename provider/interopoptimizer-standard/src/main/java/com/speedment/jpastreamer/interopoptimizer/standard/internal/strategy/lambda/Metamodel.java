@@ -0,0 +1,109 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.field.Field;
+
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The fields of the generated metamodel class of an entity (e.g. {@code Film$}
+ * for {@code Film}) indexed by the names of the entity fields and getters
+ * they represent.
+ */
+final class Metamodel {
+
+    private static final ClassValue<Metamodel> METAMODELS = new ClassValue<Metamodel>() {
+        @Override
+        protected Metamodel computeValue(final Class<?> entityClass) {
+            return new Metamodel(entityClass);
+        }
+    };
+
+    private final Map<String, Field<?>> fieldsByName = new HashMap<>();
+    private final Map<String, Field<?>> fieldsByGetter = new HashMap<>();
+
+    private Metamodel(final Class<?> entityClass) {
+        requireNonNull(entityClass);
+
+        final Class<?> metamodelClass;
+        try {
+            metamodelClass = Class.forName(entityClass.getName() + "$", true, entityClass.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return;
+        }
+
+        for (java.lang.reflect.Field metamodelField : metamodelClass.getFields()) {
+            if (!Modifier.isStatic(metamodelField.getModifiers()) || !Field.class.isAssignableFrom(metamodelField.getType())) {
+                continue;
+            }
+            final Field<?> field;
+            try {
+                field = (Field<?>) metamodelField.get(null);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            if (field == null || field.table() != entityClass) {
+                continue;
+            }
+            final String columnName = field.columnName();
+            fieldsByName.put(columnName, field);
+            for (String javaName : new String[]{ucfirst(columnName), camelCase(columnName)}) {
+                fieldsByGetter.put("get" + javaName, field);
+                fieldsByGetter.put("is" + javaName, field);
+            }
+        }
+    }
+
+    /**
+     * Returns the Metamodel of the provided {@code entityClass}, which has no
+     * fields if the entity has no generated metamodel class.
+     */
+    static Metamodel of(final Class<?> entityClass) {
+        return METAMODELS.get(entityClass);
+    }
+
+    /**
+     * Returns the field whose values are read by the provided {@code getter}
+     * or {@link Optional#empty()} if there is no such field.
+     */
+    Optional<Field<?>> field(final Symbol.Getter getter) {
+        return Optional.ofNullable(getter.isField()
+            ? fieldsByName.get(getter.name())
+            : fieldsByGetter.get(getter.name())
+        );
+    }
+
+    private static String ucfirst(final String name) {
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String camelCase(final String name) {
+        final StringBuilder result = new StringBuilder(name.length());
+        boolean upper = true;
+        for (char c : name.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                result.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * The bytecode of a method together with the constant pool of the class
+ * declaring it, as read from a class file.
+ */
+final class MethodCode {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    private final int[] tags;
+    private final Object[] entries;
+    private final byte[] code;
+
+    private MethodCode(final int[] tags, final Object[] entries, final byte[] code) {
+        this.tags = requireNonNull(tags);
+        this.entries = requireNonNull(entries);
+        this.code = requireNonNull(code);
+    }
+
+    byte[] code() {
+        return code;
+    }
+
+    /**
+     * Returns the value of the loadable constant at the provided {@code index}
+     * of the constant pool.
+     *
+     * @throws UnsupportedOperationException if the constant is not a number or a String
+     */
+    Object constant(final int index) {
+        switch (tags[index]) {
+            case INTEGER:
+            case FLOAT:
+            case LONG:
+            case DOUBLE:
+                return entries[index];
+            case STRING:
+                return entries[(int) entries[index]];
+            default:
+                throw new UnsupportedOperationException("Constant of tag " + tags[index]);
+        }
+    }
+
+    /**
+     * Returns the field or method referred to by the entry at the provided
+     * {@code index} of the constant pool.
+     */
+    MemberRef memberRef(final int index) {
+        final int[] ref = (int[]) entries[index];
+        final int[] nameAndType = (int[]) entries[ref[1]];
+        return new MemberRef(
+            className(ref[0]),
+            (String) entries[nameAndType[0]],
+            (String) entries[nameAndType[1]]
+        );
+    }
+
+    private String className(final int index) {
+        return (String) entries[(int) entries[index]];
+    }
+
+    /**
+     * Reads the code of the method having the provided {@code name} and
+     * {@code descriptor} from the provided class file {@code input}, or returns
+     * {@link Optional#empty()} if there is no such method or it has no code.
+     */
+    static Optional<MethodCode> read(final InputStream input, final String name, final String descriptor) throws IOException {
+        final DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor_version
+        in.readUnsignedShort(); // major_version
+
+        final int constantPoolCount = in.readUnsignedShort();
+        final int[] tags = new int[constantPoolCount];
+        final Object[] entries = new Object[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            final int tag = in.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case UTF8:
+                    entries[i] = in.readUTF();
+                    break;
+                case INTEGER:
+                    entries[i] = in.readInt();
+                    break;
+                case FLOAT:
+                    entries[i] = in.readFloat();
+                    break;
+                case LONG:
+                    entries[i++] = in.readLong();
+                    break;
+                case DOUBLE:
+                    entries[i++] = in.readDouble();
+                    break;
+                case CLASS:
+                case STRING:
+                case METHOD_TYPE:
+                case MODULE:
+                case PACKAGE:
+                    entries[i] = in.readUnsignedShort();
+                    break;
+                case FIELD_REF:
+                case METHOD_REF:
+                case INTERFACE_METHOD_REF:
+                case NAME_AND_TYPE:
+                case DYNAMIC:
+                case INVOKE_DYNAMIC:
+                    entries[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                    break;
+                case METHOD_HANDLE:
+                    in.readUnsignedByte();
+                    entries[i] = in.readUnsignedShort();
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        in.readUnsignedShort(); // access_flags
+        in.readUnsignedShort(); // this_class
+        in.readUnsignedShort(); // super_class
+        skipFully(in, 2L * in.readUnsignedShort()); // interfaces
+
+        final int fieldsCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldsCount; i++) {
+            in.readUnsignedShort(); // access_flags
+            in.readUnsignedShort(); // name_index
+            in.readUnsignedShort(); // descriptor_index
+            skipAttributes(in);
+        }
+
+        final int methodsCount = in.readUnsignedShort();
+        for (int i = 0; i < methodsCount; i++) {
+            in.readUnsignedShort(); // access_flags
+            final String methodName = (String) entries[in.readUnsignedShort()];
+            final String methodDescriptor = (String) entries[in.readUnsignedShort()];
+            final int attributesCount = in.readUnsignedShort();
+            for (int j = 0; j < attributesCount; j++) {
+                final String attributeName = (String) entries[in.readUnsignedShort()];
+                final long length = in.readInt() & 0xFFFFFFFFL;
+                if (name.equals(methodName) && descriptor.equals(methodDescriptor) && "Code".equals(attributeName)) {
+                    in.readUnsignedShort(); // max_stack
+                    in.readUnsignedShort(); // max_locals
+                    final byte[] code = new byte[in.readInt()];
+                    in.readFully(code);
+                    return Optional.of(new MethodCode(tags, entries, code));
+                }
+                skipFully(in, length);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private static void skipAttributes(final DataInputStream in) throws IOException {
+        final int attributesCount = in.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            in.readUnsignedShort(); // attribute_name_index
+            skipFully(in, in.readInt() & 0xFFFFFFFFL);
+        }
+    }
+
+    private static void skipFully(final DataInputStream in, final long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                // Skip may return zero before the end of the stream
+                in.readByte();
+                remaining--;
+            } else {
+                remaining -= skipped;
+            }
+        }
+    }
+
+    /**
+     * A field or method as referred to by an instruction.
+     */
+    static final class MemberRef {
+
+        private final String owner;
+        private final String name;
+        private final String descriptor;
+
+        MemberRef(final String owner, final String name, final String descriptor) {
+            this.owner = requireNonNull(owner);
+            this.name = requireNonNull(name);
+            this.descriptor = requireNonNull(descriptor);
+        }
+
+        /**
+         * Returns the internal name of the class declaring the member
+         * (e.g. {@code java/lang/String}).
+         */
+        String owner() {
+            return owner;
+        }
+
+        String name() {
+            return name;
+        }
+
+        String descriptor() {
+            return descriptor;
+        }
+    }
+}
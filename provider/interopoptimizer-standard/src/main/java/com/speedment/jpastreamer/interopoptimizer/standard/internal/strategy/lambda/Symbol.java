@@ -0,0 +1,154 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A value on the operand stack or in a local variable of an interpreted method.
+ */
+abstract class Symbol {
+
+    private Symbol() {}
+
+    /**
+     * An entity passed as a parameter to the functional interface.
+     */
+    static final class Entity extends Symbol {
+
+        private final int parameter;
+
+        Entity(final int parameter) {
+            this.parameter = parameter;
+        }
+
+        int parameter() {
+            return parameter;
+        }
+    }
+
+    /**
+     * A value that is known when the method is interpreted, such as a literal
+     * or a captured argument.
+     */
+    static final class Constant extends Symbol {
+
+        private final Object value;
+
+        Constant(final Object value) {
+            this.value = value;
+        }
+
+        Object value() {
+            return value;
+        }
+    }
+
+    /**
+     * The value of a property of an entity, as read using a getter method or
+     * a field of the entity.
+     */
+    static final class Getter extends Symbol {
+
+        private final int parameter;
+        private final String name;
+        private final boolean field;
+        private final String declaredType;
+        private final String type;
+
+        Getter(final int parameter, final String name, final boolean field, final String declaredType, final String type) {
+            this.parameter = parameter;
+            this.name = requireNonNull(name);
+            this.field = field;
+            this.declaredType = requireNonNull(declaredType);
+            this.type = requireNonNull(type);
+        }
+
+        /**
+         * Returns the index of the functional interface parameter whose property is read.
+         */
+        int parameter() {
+            return parameter;
+        }
+
+        /**
+         * Returns the name of the getter method or field.
+         */
+        String name() {
+            return name;
+        }
+
+        /**
+         * Returns if the property is read from a field rather than using a getter method.
+         */
+        boolean isField() {
+            return field;
+        }
+
+        /**
+         * Returns the descriptor of the type of the property.
+         */
+        String declaredType() {
+            return declaredType;
+        }
+
+        /**
+         * Returns the descriptor of the type of the value after any unboxing or widening.
+         */
+        String type() {
+            return type;
+        }
+
+        Getter withType(final String type) {
+            return new Getter(parameter, name, field, declaredType, type);
+        }
+    }
+
+    /**
+     * The result of comparing two values, which is negative, zero or positive.
+     */
+    static final class Comparison extends Symbol {
+
+        private final Symbol left;
+        private final Symbol right;
+
+        Comparison(final Symbol left, final Symbol right) {
+            this.left = requireNonNull(left);
+            this.right = requireNonNull(right);
+        }
+
+        Symbol left() {
+            return left;
+        }
+
+        Symbol right() {
+            return right;
+        }
+    }
+
+    /**
+     * A boolean value that is the result of evaluating a formula.
+     */
+    static final class Condition extends Symbol {
+
+        private final Formula formula;
+
+        Condition(final Formula formula) {
+            this.formula = requireNonNull(formula);
+        }
+
+        Formula formula() {
+            return formula;
+        }
+    }
+}
@@ -13,6 +13,8 @@
 module jpastreamer.interopoptimizer.standard {
     requires transitive jpastreamer.interopoptimizer;
     requires jpastreamer.rootfactory;
+    requires jpastreamer.field;
+    requires jpastreamer.streamconfiguration;
 
     exports com.speedment.jpastreamer.interopoptimizer.standard;
 
@@ -12,11 +12,17 @@
  */
 package com.speedment.jpastreamer.interopoptimizer.standard;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
+import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizer;
 import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizerFactory;
+import com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.TranslateLambdas;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 final class StandardIntermediateOperationOptimizerFactoryTest {
 
     @Test
@@ -25,4 +31,19 @@ final class StandardIntermediateOperationOptimizerFactoryTest {
 
         assertNotNull(intermediateOperationOptimizerFactory.stream());
     }
+
+    @Test
+    void translatingLambdas() {
+        final IntermediateOperationOptimizerFactory intermediateOperationOptimizerFactory = new StandardIntermediateOperationOptimizerFactory();
+        final StreamConfiguration<String> configuration = StreamConfiguration.of(String.class);
+
+        final List<IntermediateOperationOptimizer> disabled = intermediateOperationOptimizerFactory.stream(configuration).collect(Collectors.toList());
+        assertFalse(disabled.stream().anyMatch(TranslateLambdas.class::isInstance));
+        assertEquals(intermediateOperationOptimizerFactory.stream().count(), disabled.size());
+
+        // Lambdas are translated before any other optimization
+        final List<IntermediateOperationOptimizer> enabled = intermediateOperationOptimizerFactory.stream(configuration.translatingLambdas()).collect(Collectors.toList());
+        assertTrue(enabled.get(0) instanceof TranslateLambdas);
+        assertEquals(disabled.size() + 1, enabled.size());
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceLoader;
+
+final class HoistFiltersTest {
+
+    private static final IntField<Film> LENGTH = IntField.create(Film.class, "length", Film::getLength, false);
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+
+    @Test
+    void hoistPastSortedAndPeek() {
+        final IntermediateOperation<?, ?> sorted = operationFactory.createSorted(Comparator.comparing(Film::getLength).reversed());
+        final IntermediateOperation<?, ?> peek = operationFactory.createPeek(film -> {});
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(LENGTH.greaterThan(60));
+
+        assertEquals(Arrays.asList(filter, sorted, peek), optimize(sorted, peek, filter));
+    }
+
+    @Test
+    void retainOtherOperations() {
+        final IntermediateOperation<?, ?> skip = operationFactory.createSkip(10);
+        final IntermediateOperation<?, ?> sorted = operationFactory.acquireSorted();
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(LENGTH.greaterThan(60));
+        final IntermediateOperation<?, ?> lambdaFilter = operationFactory.createFilter(film -> true);
+        final IntermediateOperation<?, ?> lambdaSorted = operationFactory.createSorted(Comparator.comparing(Film::getLength));
+
+        assertEquals(Arrays.asList(skip, filter, sorted), optimize(skip, sorted, filter));
+        assertEquals(Arrays.asList(lambdaSorted, lambdaFilter), optimize(lambdaSorted, lambdaFilter));
+    }
+
+    private List<IntermediateOperation<?, ?>> optimize(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().addAll(Arrays.asList(operations));
+        return new HoistFilters().optimize(pipeline).intermediateOperations();
+    }
+
+    private static final class Film {
+        private int length;
+
+        public int getLength() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.DoubleIntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntIntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.pipeline.intermediate.LongIntermediateOperationFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+final class HoistSkipAndLimitTest {
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+    private final IntIntermediateOperationFactory intOperationFactory = RootFactory.getOrThrow(IntIntermediateOperationFactory.class, ServiceLoader::load);
+    private final HoistSkipAndLimit hoistSkipAndLimit = new HoistSkipAndLimit(
+        operationFactory,
+        intOperationFactory,
+        RootFactory.getOrThrow(LongIntermediateOperationFactory.class, ServiceLoader::load),
+        RootFactory.getOrThrow(DoubleIntermediateOperationFactory.class, ServiceLoader::load)
+    );
+
+    @Test
+    void hoistPastMapAndPeek() {
+        final IntermediateOperation<?, ?> map = operationFactory.createMap(Film::getTitle);
+        final IntermediateOperation<?, ?> peek = operationFactory.createPeek(title -> {});
+        final IntermediateOperation<?, ?> skip = operationFactory.createSkip(10);
+        final IntermediateOperation<?, ?> limit = operationFactory.createLimit(20);
+
+        assertEquals(Arrays.asList(skip, limit, map, peek), optimize(map, peek, skip, limit));
+    }
+
+    @Test
+    void hoistPastMapToInt() {
+        final IntermediateOperation<?, ?> mapToInt = operationFactory.createMapToInt(Film::getLength);
+        final IntermediateOperation<?, ?> limit = intOperationFactory.createLimit(20);
+
+        final List<IntermediateOperation<?, ?>> operations = optimize(mapToInt, limit);
+
+        assertEquals(IntermediateOperationType.LIMIT, operations.get(0).type());
+        assertEquals(Stream.class, operations.get(0).streamType());
+        assertEquals(20L, operations.get(0).arguments()[0]);
+        assertEquals(mapToInt, operations.get(1));
+        assertEquals(IntStream.class, operations.get(1).returnType());
+    }
+
+    @Test
+    void hoistPastMapToObj() {
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(film -> true);
+        final IntermediateOperation<?, ?> mapToInt = operationFactory.createMapToInt(Film::getLength);
+        final IntermediateOperation<?, ?> intFilter = intOperationFactory.createFilter(length -> length > 60);
+        final IntermediateOperation<?, ?> intMap = intOperationFactory.createMap(length -> length / 60);
+        final IntermediateOperation<?, ?> mapToObj = intOperationFactory.createMapToObj(Integer::toString);
+        final IntermediateOperation<?, ?> skip = operationFactory.createSkip(10);
+
+        final List<IntermediateOperation<?, ?>> operations = optimize(filter, mapToInt, intFilter, intMap, mapToObj, skip);
+
+        // The skip operation is not hoisted past the filter and is replaced by a skip of the int stream
+        assertEquals(Arrays.asList(filter, mapToInt, intFilter), operations.subList(0, 3));
+        assertEquals(IntermediateOperationType.SKIP, operations.get(3).type());
+        assertEquals(IntStream.class, operations.get(3).streamType());
+        assertEquals(IntStream.class, operations.get(3).returnType());
+        assertEquals(10L, operations.get(3).arguments()[0]);
+        assertEquals(Arrays.asList(intMap, mapToObj), operations.subList(4, 6));
+    }
+
+    @Test
+    void hoistUntilSorted() {
+        final IntermediateOperation<?, ?> sorted = operationFactory.acquireSorted();
+        final IntermediateOperation<?, ?> map = operationFactory.createMap(Film::getTitle);
+        final IntermediateOperation<?, ?> peek = operationFactory.createPeek(title -> {});
+        final IntermediateOperation<?, ?> skip = operationFactory.createSkip(10);
+        final IntermediateOperation<?, ?> limit = operationFactory.createLimit(20);
+
+        assertEquals(Arrays.asList(sorted, skip, limit, map, peek), optimize(sorted, map, skip, peek, limit));
+    }
+
+    @Test
+    void retainOtherOperations() {
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(film -> true);
+        final IntermediateOperation<?, ?> distinct = operationFactory.acquireDistinct();
+        final IntermediateOperation<?, ?> sorted = operationFactory.acquireSorted();
+        final IntermediateOperation<?, ?> limit = operationFactory.createLimit(20);
+
+        assertEquals(Arrays.asList(filter, limit), optimize(filter, limit));
+        assertEquals(Arrays.asList(distinct, limit), optimize(distinct, limit));
+        assertEquals(Arrays.asList(sorted, limit), optimize(sorted, limit));
+    }
+
+    private List<IntermediateOperation<?, ?>> optimize(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().addAll(Arrays.asList(operations));
+        return hoistSkipAndLimit.optimize(pipeline).intermediateOperations();
+    }
+
+    private static final class Film {
+        private String title;
+        private int length;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+}
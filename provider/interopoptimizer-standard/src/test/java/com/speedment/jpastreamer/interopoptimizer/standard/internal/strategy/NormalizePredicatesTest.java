@@ -0,0 +1,173 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.field.StringField;
+import com.speedment.jpastreamer.field.internal.predicate.AlwaysFalsePredicate;
+import com.speedment.jpastreamer.field.internal.predicate.AlwaysTruePredicate;
+import com.speedment.jpastreamer.field.predicate.CombinedPredicate;
+import com.speedment.jpastreamer.field.predicate.FieldPredicate;
+import com.speedment.jpastreamer.field.predicate.Inclusion;
+import com.speedment.jpastreamer.field.predicate.PredicateType;
+import com.speedment.jpastreamer.field.predicate.trait.HasInclusion;
+import com.speedment.jpastreamer.field.trait.HasArg0;
+import com.speedment.jpastreamer.field.trait.HasArg1;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+
+final class NormalizePredicatesTest {
+
+    private static final IntField<Film> LENGTH = IntField.create(Film.class, "length", Film::getLength, false);
+    private static final StringField<Film> TITLE = StringField.create(Film.class, "title", Film::getTitle, false);
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+    private final NormalizePredicates normalizePredicates = new NormalizePredicates(operationFactory);
+
+    @Test
+    void equalitiesToIn() {
+        final Predicate<Object> predicate = normalizedPredicate(
+            LENGTH.equal(1).or(TITLE.startsWith("A")).or(LENGTH.equal(2)).or(LENGTH.in(3, 1))
+        );
+
+        final CombinedPredicate<?> combinedPredicate = (CombinedPredicate<?>) predicate;
+        assertEquals(CombinedPredicate.Type.OR, combinedPredicate.getType());
+        assertEquals(2, combinedPredicate.size());
+
+        final FieldPredicate<?> in = (FieldPredicate<?>) combinedPredicate.stream().findFirst().get();
+        assertEquals(PredicateType.IN, in.getPredicateType());
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), ((HasArg0<?>) in).get0());
+    }
+
+    @Test
+    void boundsToBetween() {
+        final Predicate<Object> predicate = normalizedPredicate(
+            LENGTH.greaterThan(60).and(LENGTH.lessOrEqual(180)).and(LENGTH.greaterOrEqual(30)).and(LENGTH.lessOrEqual(200))
+        );
+
+        final FieldPredicate<?> between = (FieldPredicate<?>) predicate;
+        assertEquals(PredicateType.BETWEEN, between.getPredicateType());
+        assertEquals(60, ((HasArg0<?>) between).get0());
+        assertEquals(180, ((HasArg1<?>) between).get1());
+        assertEquals(Inclusion.START_EXCLUSIVE_END_INCLUSIVE, ((HasInclusion) between).getInclusion());
+    }
+
+    @Test
+    void tightestBound() {
+        final Predicate<Object> predicate = normalizedPredicate(
+            TITLE.startsWith("A").and(LENGTH.lessThan(120).and(LENGTH.lessOrEqual(100)))
+        );
+
+        final CombinedPredicate<?> combinedPredicate = (CombinedPredicate<?>) predicate;
+        assertEquals(2, combinedPredicate.size());
+
+        final FieldPredicate<?> lessOrEqual = (FieldPredicate<?>) combinedPredicate.stream().skip(1).findFirst().get();
+        assertEquals(PredicateType.LESS_OR_EQUAL, lessOrEqual.getPredicateType());
+        assertEquals(100, ((HasArg0<?>) lessOrEqual).get0());
+    }
+
+    @Test
+    void alwaysTrue() {
+        final Pipeline<Film> pipeline = optimize(operationFactory.createFilter(
+            new AlwaysTruePredicate<>(LENGTH).and(LENGTH.greaterThan(60))
+        ));
+
+        final FieldPredicate<?> greaterThan = (FieldPredicate<?>) pipeline.intermediateOperations().getFirst().arguments()[0];
+        assertEquals(PredicateType.GREATER_THAN, greaterThan.getPredicateType());
+
+        assertTrue(optimize(operationFactory.createFilter(new AlwaysTruePredicate<>(LENGTH).or(LENGTH.greaterThan(60))))
+            .intermediateOperations().isEmpty());
+    }
+
+    @Test
+    void alwaysFalse() {
+        final List<IntermediateOperation<?, ?>> operations = optimize(
+            operationFactory.createFilter(LENGTH.greaterThan(120).and(LENGTH.lessThan(60))),
+            operationFactory.createSorted(TITLE.comparator())
+        ).intermediateOperations();
+
+        assertEquals(IntermediateOperationType.LIMIT, operations.get(0).type());
+        assertEquals(0L, operations.get(0).arguments()[0]);
+        assertEquals(IntermediateOperationType.SORTED, operations.get(1).type());
+
+        final IntermediateOperation<?, ?> peek = operationFactory.createPeek(film -> {});
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(new AlwaysFalsePredicate<>(LENGTH));
+        assertSame(filter, optimize(peek, filter).intermediateOperations().get(1));
+    }
+
+    @Test
+    void retainsStringBounds() {
+        // The database orders strings by collation, which may well place "a" before "B"
+        final IntermediateOperation<?, ?> contradiction = operationFactory.createFilter(
+            TITLE.greaterThan("a").and(TITLE.lessThan("B"))
+        );
+        assertSame(contradiction, optimize(contradiction).intermediateOperations().getFirst());
+
+        final IntermediateOperation<?, ?> bounds = operationFactory.createFilter(
+            TITLE.greaterThan("a").and(TITLE.greaterThan("b"))
+        );
+        assertSame(bounds, optimize(bounds).intermediateOperations().getFirst());
+    }
+
+    @Test
+    void unchanged() {
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(
+            LENGTH.greaterThan(60).and(TITLE.startsWith("A")).or(LENGTH.equal(10))
+        );
+
+        assertSame(filter, optimize(filter).intermediateOperations().getFirst());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<Object> normalizedPredicate(final Predicate<Film> predicate) {
+        final Pipeline<Film> pipeline = optimize(operationFactory.createFilter(predicate));
+
+        assertEquals(1, pipeline.intermediateOperations().size());
+        return (Predicate<Object>) pipeline.intermediateOperations().getFirst().arguments()[0];
+    }
+
+    private Pipeline<Film> optimize(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().addAll(Arrays.asList(operations));
+        return normalizePredicates.optimize(pipeline);
+    }
+
+    private static final class Film {
+        private String title;
+        private int length;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+}
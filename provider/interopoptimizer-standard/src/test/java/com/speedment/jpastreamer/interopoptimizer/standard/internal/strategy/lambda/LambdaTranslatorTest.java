@@ -0,0 +1,109 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.interopoptimizer.standard.internal.strategy.lambda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.speedment.jpastreamer.field.comparator.FieldComparator;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+final class LambdaTranslatorTest {
+
+    private static final List<Film> FILMS = Arrays.asList(
+        new Film("ACADEMY DINOSAUR", 86),
+        new Film("ACE GOLDFINGER", 48),
+        new Film("AFFAIR PREJUDICE", 117),
+        new Film("BANGER PINOCCHIO", 113),
+        new Film("CHICAGO NORTH", 185),
+        new Film("ZORRO ARK", 50)
+    );
+
+    @Test
+    void comparison() {
+        assertTranslated((Predicate<Film> & Serializable) f -> f.getLength() > 100);
+        assertTranslated((Predicate<Film> & Serializable) f -> 100 >= f.getLength());
+        assertTranslated((Predicate<Film> & Serializable) f -> f.getLength() != 48);
+    }
+
+    @Test
+    void connectives() {
+        assertTranslated((Predicate<Film> & Serializable) f -> f.getLength() > 100 && f.getTitle().startsWith("A"));
+        assertTranslated((Predicate<Film> & Serializable) f -> f.getLength() < 50 || f.getLength() > 150);
+        assertTranslated((Predicate<Film> & Serializable) f -> !(f.getLength() < 50 || f.getTitle().contains("O")));
+    }
+
+    @Test
+    void strings() {
+        assertTranslated((Predicate<Film> & Serializable) f -> "ZORRO ARK".equals(f.getTitle()));
+        assertTranslated((Predicate<Film> & Serializable) f -> !"ZORRO ARK".equals(f.getTitle()));
+        assertTranslated((Predicate<Film> & Serializable) f -> f.getTitle().endsWith("ARK"));
+        assertTranslated((Predicate<Film> & Serializable) f -> f.getTitle() != null && f.getTitle().compareTo("B") < 0);
+    }
+
+    @Test
+    void capturedArguments() {
+        final int length = FILMS.get(3).getLength();
+        final String prefix = FILMS.get(3).getTitle().substring(0, 6);
+        assertTranslated((Predicate<Film> & Serializable) f -> f.getLength() == length && f.getTitle().startsWith(prefix));
+    }
+
+    @Test
+    void untranslatable() {
+        final Predicate<Film> notSerializable = f -> f.getLength() > 100;
+        assertFalse(LambdaTranslator.toPredicate(notSerializable, Film.class).isPresent());
+
+        final Predicate<Film> unsupported = (Predicate<Film> & Serializable) f -> f.getTitle().hashCode() > 0;
+        assertFalse(LambdaTranslator.toPredicate(unsupported, Film.class).isPresent());
+
+        final Predicate<Film> inexact = (Predicate<Film> & Serializable) f -> f.getLength() > 100.5;
+        assertFalse(LambdaTranslator.toPredicate(inexact, Film.class).isPresent());
+    }
+
+    @Test
+    void comparator() {
+        assertTranslated((Comparator<Film> & Serializable) (a, b) -> a.getTitle().compareTo(b.getTitle()));
+        assertTranslated((Comparator<Film> & Serializable) (a, b) -> Integer.compare(b.getLength(), a.getLength()));
+
+        final Comparator<Film> mixed = (Comparator<Film> & Serializable) (a, b) -> a.getTitle().compareTo(b.getTitle() + "");
+        assertFalse(LambdaTranslator.toComparator(mixed, Film.class).isPresent());
+    }
+
+    private static void assertTranslated(final Predicate<Film> predicate) {
+        final Optional<SpeedmentPredicate<Film>> translated = LambdaTranslator.toPredicate(predicate, Film.class);
+        assertTrue(translated.isPresent());
+        assertEquals(
+            FILMS.stream().filter(predicate).collect(Collectors.toList()),
+            FILMS.stream().filter(translated.get()).collect(Collectors.toList())
+        );
+    }
+
+    private static void assertTranslated(final Comparator<Film> comparator) {
+        final Optional<FieldComparator<Film>> translated = LambdaTranslator.toComparator(comparator, Film.class);
+        assertTrue(translated.isPresent());
+        assertEquals(
+            FILMS.stream().sorted(comparator).collect(Collectors.toList()),
+            FILMS.stream().sorted(translated.get()).collect(Collectors.toList())
+        );
+    }
+}
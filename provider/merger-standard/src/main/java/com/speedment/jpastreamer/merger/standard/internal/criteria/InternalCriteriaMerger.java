@@ -14,6 +14,8 @@ package com.speedment.jpastreamer.merger.standard.internal.criteria;
 
 import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.DISTINCT;
 import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.FILTER;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.MAP;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.MAP_TO;
 import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.SORTED;
 import static java.util.Objects.requireNonNull;
 
@@ -24,6 +26,7 @@ import com.speedment.jpastreamer.merger.standard.internal.criteria.result.Intern
 import com.speedment.jpastreamer.merger.standard.internal.criteria.strategy.DistinctCriteriaModifier;
 import com.speedment.jpastreamer.merger.standard.internal.criteria.strategy.FilterCriteriaModifier;
 import com.speedment.jpastreamer.merger.standard.internal.criteria.strategy.CriteriaModifier;
+import com.speedment.jpastreamer.merger.standard.internal.criteria.strategy.MapCriteriaModifier;
 import com.speedment.jpastreamer.merger.standard.internal.criteria.strategy.SortedCriteriaModifier;
 import com.speedment.jpastreamer.merger.standard.internal.reference.IntermediateOperationReference;
 import com.speedment.jpastreamer.merger.standard.internal.tracker.MergingTracker;
@@ -41,6 +44,8 @@ public final class InternalCriteriaMerger implements CriteriaMerger {
         registerMergingStrategy(FILTER, FilterCriteriaModifier.INSTANCE);
         registerMergingStrategy(DISTINCT, DistinctCriteriaModifier.INSTANCE);
         registerMergingStrategy(SORTED, SortedCriteriaModifier.INSTANCE);
+        registerMergingStrategy(MAP, MapCriteriaModifier.INSTANCE);
+        registerMergingStrategy(MAP_TO, MapCriteriaModifier.INSTANCE);
     }
 
     @Override
@@ -59,6 +64,12 @@ public final class InternalCriteriaMerger implements CriteriaMerger {
             final IntermediateOperation<?, ?> operation = intermediateOperations.get(i);
             final IntermediateOperationType operationType = operation.type();
 
+            if (isProjected(mergingTracker) && operationType != DISTINCT) {
+                // Subsequent operations are applied to column values rather than entities
+                // although the values directly following the projection may be distinct
+                break;
+            }
+
             if (mergingTracker.mergedOperations().contains(operationType)) {
                 continue;
             }
@@ -75,6 +86,9 @@ public final class InternalCriteriaMerger implements CriteriaMerger {
             criteriaModifier.modifyCriteria(operationReference, criteria, mergingTracker);
         }
 
+        mergingTracker.forReplacement()
+            .forEach(intermediateOperations::set);
+
         mergingTracker.forRemoval()
             .stream()
             .sorted(Comparator.reverseOrder())
@@ -83,6 +97,10 @@ public final class InternalCriteriaMerger implements CriteriaMerger {
         return new InternalCriteriaMergeResult<>(pipeline, criteria);
     }
 
+    private boolean isProjected(final MergingTracker mergingTracker) {
+        return mergingTracker.mergedOperations().contains(MAP) || mergingTracker.mergedOperations().contains(MAP_TO);
+    }
+
     private void registerMergingStrategy(final IntermediateOperationType operationType, final CriteriaModifier criteriaModifier) {
         mergingStrategies.put(operationType, criteriaModifier);
     }
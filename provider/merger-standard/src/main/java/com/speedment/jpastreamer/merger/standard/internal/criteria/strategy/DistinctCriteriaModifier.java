@@ -13,6 +13,10 @@
 package com.speedment.jpastreamer.merger.standard.internal.criteria.strategy;
 
 import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.DISTINCT;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.LIMIT;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.MAP;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.MAP_TO;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.SKIP;
 import static java.util.Objects.requireNonNull;
 
 import com.speedment.jpastreamer.criteria.Criteria;
@@ -21,6 +25,8 @@ import com.speedment.jpastreamer.merger.standard.internal.tracker.MergingTracker
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
 
+import java.util.Optional;
+
 public enum DistinctCriteriaModifier implements CriteriaModifier {
 
     INSTANCE;
@@ -43,6 +49,24 @@ public enum DistinctCriteriaModifier implements CriteriaModifier {
             return;
         }
 
+        if (mergingTracker.mergedOperations().contains(MAP_TO)) {
+            // The column values are unboxed before they are distinct
+            return;
+        }
+
+        if (mergingTracker.mergedOperations().contains(MAP) && !criteria.getQuery().getOrderList().isEmpty()) {
+            // The order of distinct column values can not be expressed by columns that are not selected
+            return;
+        }
+
+        for (Optional<IntermediateOperationReference> previous = operationReference.previous(); previous.isPresent(); previous = previous.get().previous()) {
+            final IntermediateOperationType previousType = previous.get().get().type();
+            if (!mergingTracker.forRemoval().contains(previous.get().index()) && (previousType == SKIP || previousType == LIMIT)) {
+                // The distinct elements of a skipped or limited stream are not the skipped or limited distinct elements
+                return;
+            }
+        }
+
         criteria.getQuery().distinct(true);
 
         mergingTracker.markAsMerged(operationType);
@@ -17,25 +17,40 @@ import static java.util.Objects.requireNonNull;
 
 import com.speedment.jpastreamer.criteria.Criteria;
 import com.speedment.jpastreamer.criteria.PredicateFactory;
+import com.speedment.jpastreamer.field.predicate.CombinedPredicate;
+import com.speedment.jpastreamer.field.predicate.FieldPredicate;
 import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
 import com.speedment.jpastreamer.merger.standard.internal.reference.IntermediateOperationReference;
 import com.speedment.jpastreamer.merger.standard.internal.tracker.MergingTracker;
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
 import com.speedment.jpastreamer.rootfactory.RootFactory;
 
 import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
 
+/**
+ * Merges a filter operation whose predicate is a {@link SpeedmentPredicate}
+ * into the {@code WHERE} clause of the query.
+ * <p>
+ * If the predicate is a conjunction of which only some predicates can be
+ * expressed in the query, those predicates are merged and the filter operation
+ * is replaced by an operation that filters using the remaining predicates.
+ */
 public enum FilterCriteriaModifier implements CriteriaModifier {
 
     INSTANCE;
 
     private final PredicateFactory predicateFactory;
+    private final IntermediateOperationFactory intermediateOperationFactory;
 
     FilterCriteriaModifier() {
         this.predicateFactory = RootFactory.getOrThrow(PredicateFactory.class, ServiceLoader::load);
+        this.intermediateOperationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
     }
 
     @Override
@@ -56,14 +71,88 @@ public enum FilterCriteriaModifier implements CriteriaModifier {
             return;
         }
 
-        this.<ENTITY>getPredicate(operation).ifPresent(speedmentPredicate -> {
+        final Optional<SpeedmentPredicate<ENTITY>> optionalPredicate = getPredicate(operation);
+
+        if (!optionalPredicate.isPresent()) {
+            return;
+        }
+
+        final SpeedmentPredicate<ENTITY> speedmentPredicate = optionalPredicate.get();
+
+        if (isMergeable(speedmentPredicate)) {
             final Predicate predicate = predicateFactory.createPredicate(criteria, speedmentPredicate);
             criteria.getQuery().where(predicate);
 
             mergingTracker.markAsMerged(operationType);
             mergingTracker.markForRemoval(operationReference.index());
+            return;
+        }
+
+        if (!(speedmentPredicate instanceof CombinedPredicate)
+            || ((CombinedPredicate<ENTITY>) speedmentPredicate).getType() != CombinedPredicate.Type.AND
+        ) {
+            return;
+        }
+
+        final List<SpeedmentPredicate<ENTITY>> mergeable = new ArrayList<>();
+        final List<java.util.function.Predicate<? super ENTITY>> residual = new ArrayList<>();
+        splitConjunction((CombinedPredicate<ENTITY>) speedmentPredicate, mergeable, residual);
+
+        if (mergeable.isEmpty()) {
+            return;
+        }
+
+        final Predicate[] predicates = mergeable.stream()
+            .map(predicate -> predicateFactory.createPredicate(criteria, predicate))
+            .toArray(Predicate[]::new);
+        criteria.getQuery().where(predicates);
+
+        final java.util.function.Predicate<? super ENTITY> residualPredicate = residual.size() == 1
+            ? residual.get(0)
+            : CombinedPredicate.and(residual);
+
+        mergingTracker.markAsMerged(operationType);
+        mergingTracker.markForReplacement(operationReference.index(), intermediateOperationFactory.createFilter(residualPredicate));
+    }
+
+    /**
+     * Returns if the provided {@code predicate} and all the predicates it is
+     * combined from can be expressed in the query.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> boolean isMergeable(final java.util.function.Predicate<? super T> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            return true;
+        }
+
+        if (predicate instanceof CombinedPredicate) {
+            return ((CombinedPredicate<T>) predicate).stream().allMatch(this::isMergeable);
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds the predicates of the provided {@code conjunction}, including those of nested
+     * conjunctions, to either the {@code mergeable} or the {@code residual} predicates.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void splitConjunction(
+        final CombinedPredicate<T> conjunction,
+        final List<SpeedmentPredicate<T>> mergeable,
+        final List<java.util.function.Predicate<? super T>> residual
+    ) {
+        conjunction.stream().forEach(predicate -> {
+            if (isMergeable(predicate)) {
+                mergeable.add((SpeedmentPredicate<T>) predicate);
+            } else if (predicate instanceof CombinedPredicate && ((CombinedPredicate<T>) predicate).getType() == CombinedPredicate.Type.AND) {
+                splitConjunction((CombinedPredicate<T>) predicate, mergeable, residual);
+            } else {
+                residual.add(predicate);
+            }
         });
     }
+
     @SuppressWarnings("unchecked")
     private <T> Optional<SpeedmentPredicate<T>> getPredicate(final IntermediateOperation<?, ?> operation) {
         final Object[] arguments = operation.arguments();
@@ -0,0 +1,149 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.merger.standard.internal.criteria.strategy;
+
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.LIMIT;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.MAP;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.MAP_TO;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.SKIP;
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.field.DoubleField;
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.field.LongField;
+import com.speedment.jpastreamer.merger.standard.internal.reference.IntermediateOperationReference;
+import com.speedment.jpastreamer.merger.standard.internal.tracker.MergingTracker;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Merges a map operation whose function is a {@link Field} into the select list
+ * of the query, whereby the query yields the values of the column rather than
+ * entities. A map operation to a primitive stream is replaced by an operation
+ * that unboxes the values of the column.
+ * <p>
+ * The operation is only merged if all the preceding operations have been merged
+ * or are skip and limit operations.
+ */
+public enum MapCriteriaModifier implements CriteriaModifier {
+
+    INSTANCE;
+
+    private final IntermediateOperationFactory intermediateOperationFactory;
+
+    MapCriteriaModifier() {
+        this.intermediateOperationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public <ENTITY> void modifyCriteria(
+        final IntermediateOperationReference operationReference,
+        final Criteria<ENTITY, ?> criteria,
+        final MergingTracker mergingTracker
+    ) {
+        requireNonNull(operationReference);
+        requireNonNull(criteria);
+        requireNonNull(mergingTracker);
+
+        final IntermediateOperation<?, ?> operation = operationReference.get();
+
+        final IntermediateOperationType operationType = operation.type();
+
+        if ((operationType != MAP && operationType != MAP_TO) || operation.streamType() != Stream.class) {
+            return;
+        }
+
+        for (Optional<IntermediateOperationReference> previous = operationReference.previous(); previous.isPresent(); previous = previous.get().previous()) {
+            final IntermediateOperationType previousType = previous.get().get().type();
+            if (!mergingTracker.forRemoval().contains(previous.get().index())
+                // Skipping or limiting the entities before selecting their column values is the same as
+                // skipping or limiting the column values
+                && previousType != SKIP && previousType != LIMIT
+            ) {
+                // The operation is applied to the result of an operation that is not merged
+                return;
+            }
+        }
+
+        if (criteria.getQuery().getSelection() != criteria.getRoot()
+            // Distinct entities may have equal column values
+            || criteria.getQuery().isDistinct()
+            // Fetched associations must be selected together with their owner
+            || !criteria.getRoot().getFetches().isEmpty()
+        ) {
+            return;
+        }
+
+        final Optional<Field<?>> optionalField = getField(operation);
+
+        if (!optionalField.isPresent()) {
+            return;
+        }
+
+        ((CriteriaQuery) criteria.getQuery()).select(criteria.getRoot().get(optionalField.get().columnName()));
+
+        if (operationType == MAP) {
+            mergingTracker.markForRemoval(operationReference.index());
+        } else {
+            mergingTracker.markForReplacement(operationReference.index(), unboxing(operation));
+        }
+
+        mergingTracker.markAsMerged(operationType);
+    }
+
+    private Optional<Field<?>> getField(final IntermediateOperation<?, ?> operation) {
+        final Object[] arguments = operation.arguments();
+
+        if (arguments.length != 1 || !(arguments[0] instanceof Field)) {
+            return Optional.empty();
+        }
+
+        final Object field = arguments[0];
+        final Class<?> returnType = operation.returnType();
+
+        if (operation.type() == MAP
+            || (returnType == IntStream.class && field instanceof IntField)
+            || (returnType == LongStream.class && field instanceof LongField)
+            || (returnType == DoubleStream.class && field instanceof DoubleField)
+        ) {
+            return Optional.of((Field<?>) field);
+        }
+
+        return Optional.empty();
+    }
+
+    private IntermediateOperation<?, ?> unboxing(final IntermediateOperation<?, ?> operation) {
+        final Class<?> returnType = operation.returnType();
+
+        if (returnType == IntStream.class) {
+            return intermediateOperationFactory.<Integer>createMapToInt(Integer::intValue);
+        }
+        if (returnType == LongStream.class) {
+            return intermediateOperationFactory.<Long>createMapToLong(Long::longValue);
+        }
+        return intermediateOperationFactory.<Double>createMapToDouble(Double::doubleValue);
+    }
+}
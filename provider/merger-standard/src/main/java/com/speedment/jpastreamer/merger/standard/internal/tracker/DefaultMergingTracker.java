@@ -12,18 +12,23 @@
  */
 package com.speedment.jpastreamer.merger.standard.internal.tracker;
 
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
 
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 public final class DefaultMergingTracker implements MergingTracker {
 
     private final Set<IntermediateOperationType> mergedOperations = new HashSet<>();
     private final Set<Integer> forRemoval = new HashSet<>();
+    private final Map<Integer, IntermediateOperation<?, ?>> forReplacement = new HashMap<>();
 
     @Override
     public Set<IntermediateOperationType> mergedOperations() {
@@ -44,4 +49,14 @@ public final class DefaultMergingTracker implements MergingTracker {
     public void markForRemoval(int idx) {
         forRemoval.add(idx);
     }
+
+    @Override
+    public Map<Integer, IntermediateOperation<?, ?>> forReplacement() {
+        return unmodifiableMap(forReplacement);
+    }
+
+    @Override
+    public void markForReplacement(int idx, IntermediateOperation<?, ?> replacement) {
+        forReplacement.put(idx, requireNonNull(replacement));
+    }
 }
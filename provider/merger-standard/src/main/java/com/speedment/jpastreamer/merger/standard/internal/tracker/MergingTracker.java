@@ -12,8 +12,10 @@
  */
 package com.speedment.jpastreamer.merger.standard.internal.tracker;
 
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -56,6 +58,25 @@ public interface MergingTracker {
      */
     void markForRemoval(int idx);
 
+    /**
+     * Returns a {@code Map} of indices that should be used as reference points to
+     * operations that need to be replaced in the pipeline after the merge cycle
+     * is finished, and the operations to replace them with.
+     *
+     * @return {@code Map} of indices used as reference points to operations that need
+     *         to be replaced and their replacements
+     */
+    Map<Integer, IntermediateOperation<?, ?>> forReplacement();
+
+    /**
+     * Marks a specific operation for replacement by storing its index in the pipeline
+     * together with the provided {@code replacement}.
+     *
+     * @param idx to be marked for replacement
+     * @param replacement to replace the operation with
+     */
+    void markForReplacement(int idx, IntermediateOperation<?, ?> replacement);
+
     /**
      * Creates and returns a new {@code MergingTracker} instance.
      *
@@ -0,0 +1,96 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.merger.standard.internal.criteria.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.speedment.jpastreamer.merger.standard.internal.criteria.InternalCriteriaMerger;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+final class DistinctCriteriaModifierTest {
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+
+    private MockCriteria mockCriteria;
+
+    @BeforeEach
+    void setup() {
+        mockCriteria = new MockCriteria();
+    }
+
+    @Test
+    void mergesDistinct() {
+        assertTrue(merge(operationFactory.acquireDistinct()).isEmpty());
+        assertTrue(mockCriteria.query().isDistinct());
+    }
+
+    @Test
+    void mergesAfterProjection() {
+        assertTrue(merge(operationFactory.createMap(Film$.title), operationFactory.acquireDistinct()).isEmpty());
+        assertTrue(mockCriteria.isProjected());
+        assertTrue(mockCriteria.query().isDistinct());
+    }
+
+    @Test
+    void retainsAfterOrderedProjection() {
+        final IntermediateOperation<?, ?> distinct = operationFactory.acquireDistinct();
+        final List<IntermediateOperation<?, ?>> operations = merge(
+            operationFactory.createSorted(Film$.length.comparator()),
+            operationFactory.createMap(Film$.title),
+            distinct
+        );
+
+        assertEquals(Arrays.asList(distinct), operations);
+        assertTrue(mockCriteria.isProjected());
+        assertFalse(mockCriteria.query().isDistinct());
+    }
+
+    @Test
+    void retainsAfterSkip() {
+        final IntermediateOperation<?, ?> skip = operationFactory.createSkip(10);
+        final IntermediateOperation<?, ?> distinct = operationFactory.acquireDistinct();
+
+        assertEquals(Arrays.asList(skip, distinct), merge(skip, distinct));
+        assertFalse(mockCriteria.query().isDistinct());
+    }
+
+    @Test
+    void retainsAfterUnboxingProjection() {
+        final IntermediateOperation<?, ?> distinct = operationFactory.acquireDistinct();
+        final List<IntermediateOperation<?, ?>> operations = merge(operationFactory.createMapToInt(Film$.length), distinct);
+
+        assertTrue(mockCriteria.isProjected());
+        assertEquals(2, operations.size());
+        assertSame(distinct, operations.get(1));
+        assertFalse(mockCriteria.query().isDistinct());
+    }
+
+    private List<IntermediateOperation<?, ?>> merge(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().addAll(Arrays.asList(operations));
+        new InternalCriteriaMerger().merge(pipeline, mockCriteria.criteria());
+        return pipeline.intermediateOperations();
+    }
+
+}
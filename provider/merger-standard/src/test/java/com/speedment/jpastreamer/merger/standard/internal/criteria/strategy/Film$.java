@@ -0,0 +1,33 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.merger.standard.internal.criteria.strategy;
+
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.field.StringField;
+
+final class Film$ {
+
+    public static final StringField<Film> title = StringField.create(
+            Film.class,
+            "title",
+            Film::getTitle,
+            false
+    );
+
+    public static final IntField<Film> length = IntField.create(
+            Film.class,
+            "length",
+            Film::getLength,
+            false
+    );
+}
@@ -0,0 +1,129 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.merger.standard.internal.criteria.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.speedment.jpastreamer.field.predicate.CombinedPredicate;
+import com.speedment.jpastreamer.merger.standard.internal.criteria.InternalCriteriaMerger;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+
+final class FilterCriteriaModifierTest {
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+
+    private final Predicate<Film> longTitle = film -> film.getTitle().length() > 10;
+    private final Predicate<Film> evenLength = film -> film.getLength() % 2 == 0;
+
+    private MockCriteria mockCriteria;
+
+    @BeforeEach
+    void setup() {
+        mockCriteria = new MockCriteria();
+    }
+
+    @Test
+    void mergesFieldPredicate() {
+        assertTrue(merge(operationFactory.createFilter(Film$.length.greaterThan(100))).isEmpty());
+        assertEquals(1, mockCriteria.restrictions().size());
+    }
+
+    @Test
+    void mergesCombinedFieldPredicates() {
+        assertTrue(merge(operationFactory.createFilter(Film$.length.greaterThan(100).or(Film$.title.startsWith("A")))).isEmpty());
+        assertEquals(1, mockCriteria.restrictions().size());
+    }
+
+    @Test
+    void retainsLambda() {
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(longTitle);
+
+        assertEquals(Arrays.asList(filter), merge(filter));
+        assertTrue(mockCriteria.restrictions().isEmpty());
+    }
+
+    @Test
+    void retainsPartialDisjunction() {
+        // Neither disjunct alone restricts the rows of the query
+        final IntermediateOperation<?, ?> filter = operationFactory.createFilter(Film$.length.greaterThan(100).or(longTitle));
+
+        assertEquals(Arrays.asList(filter), merge(filter));
+        assertTrue(mockCriteria.restrictions().isEmpty());
+    }
+
+    @Test
+    void splitsPartialConjunction() {
+        final List<IntermediateOperation<?, ?>> operations = merge(operationFactory.createFilter(Film$.length.greaterThan(100).and(longTitle)));
+
+        assertEquals(1, mockCriteria.restrictions().size());
+        assertResidual(operations, longTitle);
+    }
+
+    @Test
+    void splitsNestedConjunction() {
+        final List<IntermediateOperation<?, ?>> operations = merge(operationFactory.createFilter(
+            Film$.length.greaterThan(100).and(longTitle).and(Film$.title.startsWith("A").and(evenLength))
+        ));
+
+        assertEquals(2, mockCriteria.restrictions().size());
+        assertEquals(1, operations.size());
+        final Object residual = operations.get(0).arguments()[0];
+        assertTrue(residual instanceof CombinedPredicate);
+        final CombinedPredicate<?> conjunction = (CombinedPredicate<?>) residual;
+        assertEquals(CombinedPredicate.Type.AND, conjunction.getType());
+        assertArrayEquals(new Object[] {longTitle, evenLength}, conjunction.stream().toArray());
+    }
+
+    @Test
+    void replacesAtIndexAfterRemovals() {
+        // The sorted operation at index 0 is removed after the filter at index 1 is replaced
+        final IntermediateOperation<?, ?> skip = operationFactory.createSkip(10);
+        final List<IntermediateOperation<?, ?>> operations = merge(
+            operationFactory.createSorted(Film$.length.comparator()),
+            operationFactory.createFilter(Film$.length.greaterThan(100).and(longTitle)),
+            skip
+        );
+
+        assertEquals(2, operations.size());
+        assertResidual(operations.subList(0, 1), longTitle);
+        assertSame(skip, operations.get(1));
+        assertEquals(1, mockCriteria.query().getOrderList().size());
+    }
+
+    private static void assertResidual(final List<IntermediateOperation<?, ?>> operations, final Predicate<Film> expected) {
+        assertEquals(1, operations.size());
+        assertEquals(IntermediateOperationType.FILTER, operations.get(0).type());
+        assertSame(expected, operations.get(0).arguments()[0]);
+    }
+
+    private List<IntermediateOperation<?, ?>> merge(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().addAll(Arrays.asList(operations));
+        new InternalCriteriaMerger().merge(pipeline, mockCriteria.criteria());
+        return pipeline.intermediateOperations();
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.merger.standard.internal.criteria.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.speedment.jpastreamer.merger.standard.internal.criteria.InternalCriteriaMerger;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.IntStream;
+
+final class MapCriteriaModifierTest {
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+
+    private MockCriteria mockCriteria;
+
+    @BeforeEach
+    void setup() {
+        mockCriteria = new MockCriteria();
+    }
+
+    @Test
+    void mergesFieldMap() {
+        final List<IntermediateOperation<?, ?>> operations = merge(operationFactory.createMap(Film$.title));
+
+        assertTrue(operations.isEmpty());
+        assertTrue(mockCriteria.isProjected());
+    }
+
+    @Test
+    void mergesAfterMergedAndSkippedOperations() {
+        final IntermediateOperation<?, ?> skip = operationFactory.createSkip(10);
+        final List<IntermediateOperation<?, ?>> operations = merge(
+            operationFactory.createFilter(Film$.length.greaterThan(100)),
+            skip,
+            operationFactory.createMap(Film$.title)
+        );
+
+        assertEquals(Arrays.asList(skip), operations);
+        assertTrue(mockCriteria.isProjected());
+    }
+
+    @Test
+    void retainsAfterUnmergedOperation() {
+        final IntermediateOperation<?, ?> filter = operationFactory.<Film>createFilter(film -> film.getLength() > 100);
+        final IntermediateOperation<?, ?> map = operationFactory.createMap(Film$.title);
+        final List<IntermediateOperation<?, ?>> operations = merge(filter, map);
+
+        assertEquals(Arrays.asList(filter, map), operations);
+        assertFalse(mockCriteria.isProjected());
+    }
+
+    @Test
+    void retainsLambdaMap() {
+        final IntermediateOperation<?, ?> map = operationFactory.createMap(Film::getTitle);
+
+        assertEquals(Arrays.asList(map), merge(map));
+        assertFalse(mockCriteria.isProjected());
+    }
+
+    @Test
+    void retainsAfterDistinct() {
+        // Distinct entities may have equal column values
+        final IntermediateOperation<?, ?> map = operationFactory.createMap(Film$.title);
+
+        assertEquals(Arrays.asList(map), merge(operationFactory.acquireDistinct(), map));
+        assertFalse(mockCriteria.isProjected());
+    }
+
+    @Test
+    void unboxesPrimitiveMap() {
+        final List<IntermediateOperation<?, ?>> operations = merge(operationFactory.createMapToInt(Film$.length));
+
+        assertTrue(mockCriteria.isProjected());
+        assertEquals(1, operations.size());
+        final IntermediateOperation<?, ?> unboxing = operations.get(0);
+        assertEquals(IntermediateOperationType.MAP_TO, unboxing.type());
+        assertEquals(IntStream.class, unboxing.returnType());
+    }
+
+    private List<IntermediateOperation<?, ?>> merge(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().addAll(Arrays.asList(operations));
+        new InternalCriteriaMerger().merge(pipeline, mockCriteria.criteria());
+        return pipeline.intermediateOperations();
+    }
+
+}
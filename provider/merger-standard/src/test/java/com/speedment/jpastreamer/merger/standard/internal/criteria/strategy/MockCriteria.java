@@ -0,0 +1,98 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.merger.standard.internal.criteria.strategy;
+
+import static org.mockito.Mockito.*;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.criteria.CriteriaFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A Criteria over {@link Film}s backed by mocks whereby the query retains
+ * its selection, distinct flag and order list as they are modified.
+ */
+final class MockCriteria {
+
+    private final Criteria<Film, Film> criteria;
+    private Selection<?> selection;
+    private boolean distinct;
+    private List<Order> orders;
+
+    @SuppressWarnings("unchecked")
+    MockCriteria() {
+        final CriteriaBuilder builder = mock(CriteriaBuilder.class, RETURNS_MOCKS);
+        final Root<Film> root = mock(Root.class, RETURNS_MOCKS);
+        final CriteriaQuery<Film> query = mock(CriteriaQuery.class);
+
+        selection = root;
+        orders = Collections.emptyList();
+        when(query.getSelection()).thenAnswer(invocation -> selection);
+        when(query.select(any())).thenAnswer(invocation -> {
+            selection = invocation.getArgument(0);
+            return query;
+        });
+        when(query.isDistinct()).thenAnswer(invocation -> distinct);
+        when(query.distinct(anyBoolean())).thenAnswer(invocation -> {
+            distinct = invocation.getArgument(0);
+            return query;
+        });
+        when(query.getOrderList()).thenAnswer(invocation -> orders);
+        when(query.orderBy(anyList())).thenAnswer(invocation -> {
+            orders = new ArrayList<>(invocation.<List<Order>>getArgument(0));
+            return query;
+        });
+
+        criteria = RootFactory.getOrThrow(CriteriaFactory.class, ServiceLoader::load).createCriteria(builder, query, root);
+    }
+
+    Criteria<Film, Film> criteria() {
+        return criteria;
+    }
+
+    CriteriaQuery<Film> query() {
+        return criteria.getQuery();
+    }
+
+    boolean isProjected() {
+        return selection != criteria.getRoot();
+    }
+
+    /**
+     * Returns the restrictions of the last invocation of {@code where} or an
+     * empty list if the query is not restricted.
+     */
+    List<Object> restrictions() {
+        return mockingDetails(criteria.getQuery()).getInvocations().stream()
+            .filter(invocation -> invocation.getMethod().getName().equals("where"))
+            .reduce((first, second) -> second)
+            .map(invocation -> invocation.getRawArguments()[0])
+            .map(argument -> argument instanceof Object[]
+                ? Stream.of((Object[]) argument).collect(Collectors.toList())
+                : Collections.singletonList(argument))
+            .orElse(Collections.emptyList());
+    }
+
+}
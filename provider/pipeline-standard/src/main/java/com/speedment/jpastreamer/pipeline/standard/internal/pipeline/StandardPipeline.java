@@ -81,7 +81,7 @@ final class StandardPipeline<T> implements Pipeline<T> {
 
     @Override
     public void ordered(boolean flag) {
-        this.unordered = flag;
+        this.unordered = !flag;
     }
 
     @Override
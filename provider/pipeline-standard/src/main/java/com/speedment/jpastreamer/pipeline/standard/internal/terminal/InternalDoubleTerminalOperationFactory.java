@@ -52,13 +52,13 @@ public class InternalDoubleTerminalOperationFactory implements DoubleTerminalOpe
             DoubleStream::max);
 
     private static final TerminalOperation<DoubleStream, OptionalDouble> AVERAGE = new ApplyTerminalOperation<>(
-            TerminalOperationType.MAX,
+            TerminalOperationType.AVERAGE,
             DoubleStream.class,
             OptionalDouble.class,
             DoubleStream::average);
 
     private static final TerminalOperation<DoubleStream, DoubleSummaryStatistics> SUMMARY_STATISTICS = new ApplyTerminalOperation<>(
-            TerminalOperationType.MAX,
+            TerminalOperationType.SUMMARY_STATISTICS,
             DoubleStream.class,
             DoubleSummaryStatistics.class,
             DoubleStream::summaryStatistics);
@@ -22,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class StandardPipelineTest {
@@ -49,6 +50,18 @@ class StandardPipelineTest {
         assertTrue(s.contains("collect("));
     }
 
+    @Test
+    void ordered() {
+        final Pipeline<String> pipeline = new StandardPipeline<>(String.class);
+        assertFalse(pipeline.isUnordered());
+
+        pipeline.ordered(false);
+        assertTrue(pipeline.isUnordered());
+
+        pipeline.ordered(true);
+        assertFalse(pipeline.isUnordered());
+    }
+
     private static final class StringLengthGreaterThanThree implements Predicate<String> {
         @Override
         public boolean test(String s) {
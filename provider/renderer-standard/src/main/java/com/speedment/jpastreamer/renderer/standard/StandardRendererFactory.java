@@ -12,6 +12,7 @@
  */
 package com.speedment.jpastreamer.renderer.standard;
 
+import com.speedment.jpastreamer.renderer.EntityManagerPool;
 import com.speedment.jpastreamer.renderer.Renderer;
 import com.speedment.jpastreamer.renderer.RendererFactory;
 import com.speedment.jpastreamer.renderer.standard.internal.InternalRendererFactory;
@@ -26,4 +27,19 @@ public final class StandardRendererFactory implements RendererFactory {
     public Renderer createRenderer(final EntityManagerFactory entityManagerFactory) {
         return delegate.createRenderer(entityManagerFactory);
     }
+
+    @Override
+    public Renderer createRenderer(final EntityManagerPool entityManagerPool) {
+        return delegate.createRenderer(entityManagerPool);
+    }
+
+    @Override
+    public Renderer createRenderer(final EntityManagerFactory entityManagerFactory, final int queryCacheCapacity) {
+        return delegate.createRenderer(entityManagerFactory, queryCacheCapacity);
+    }
+
+    @Override
+    public Renderer createRenderer(final EntityManagerPool entityManagerPool, final int queryCacheCapacity) {
+        return delegate.createRenderer(entityManagerPool, queryCacheCapacity);
+    }
 }
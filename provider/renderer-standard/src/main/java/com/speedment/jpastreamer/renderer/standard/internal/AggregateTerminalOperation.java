@@ -0,0 +1,100 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperation;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationType;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.BaseStream;
+
+/**
+ * A TerminalOperation that replaces an aggregating terminal operation whose
+ * result has already been computed by the database. The stream the operation
+ * is applied to is not consumed.
+ *
+ * @param <S> stream type
+ * @param <R> result type
+ */
+final class AggregateTerminalOperation<S extends BaseStream<?, S>, R> implements TerminalOperation<S, R> {
+
+    private final TerminalOperation<S, R> original;
+    private final R result;
+
+    AggregateTerminalOperation(final TerminalOperation<S, R> original, final R result) {
+        this.original = requireNonNull(original);
+        this.result = requireNonNull(result);
+    }
+
+    @Override
+    public TerminalOperationType type() {
+        return original.type();
+    }
+
+    @Override
+    public Class<? super S> streamType() {
+        return original.streamType();
+    }
+
+    @Override
+    public Class<? super R> returnType() {
+        return original.returnType();
+    }
+
+    @Override
+    public Object[] arguments() {
+        return original.arguments();
+    }
+
+    @Override
+    public Function<S, R> function() {
+        return s -> result;
+    }
+
+    @Override
+    public ToLongFunction<S> toLongFunction() {
+        return s -> ((Number) result).longValue();
+    }
+
+    @Override
+    public ToIntFunction<S> toIntFunction() {
+        return s -> ((Number) result).intValue();
+    }
+
+    @Override
+    public ToDoubleFunction<S> toDoubleFunction() {
+        return s -> ((Number) result).doubleValue();
+    }
+
+    @Override
+    public Predicate<S> predicate() {
+        throw new ClassCastException("Unable to apply predicate() because a terminal operation of type " + type() + " does not have a predicate()");
+    }
+
+    @Override
+    public Consumer<S> consumer() {
+        throw new ClassCastException("Unable to apply consumer() because a terminal operation of type " + type() + " does not have a consumer()");
+    }
+
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+}
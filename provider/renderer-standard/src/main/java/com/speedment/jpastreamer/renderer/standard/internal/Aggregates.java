@@ -0,0 +1,302 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.exception.JPAStreamerException;
+import com.speedment.jpastreamer.field.DoubleField;
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.field.LongField;
+import com.speedment.jpastreamer.field.collector.AggregateCollector;
+import com.speedment.jpastreamer.field.collector.AggregateType;
+import com.speedment.jpastreamer.field.collector.FieldCollector;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationType;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Utility methods that convert the {@code COUNT}, {@code SUM}, {@code MIN}
+ * and {@code MAX} of a column, as computed by the database, into the result
+ * of the corresponding primitive stream terminal operation or aggregate
+ * collector.
+ */
+final class Aggregates {
+
+    private Aggregates() {}
+
+    /**
+     * Returns the result of the terminal operation of the provided {@code type}
+     * applied to a primitive stream of the provided {@code streamType} with
+     * elements having the provided aggregate values. The {@code sum}, {@code min}
+     * and {@code max} are {@code null} if there are no elements.
+     */
+    static Object result(
+        final TerminalOperationType type,
+        final Class<?> streamType,
+        final long count,
+        final Number sum,
+        final Number min,
+        final Number max
+    ) {
+        switch (type) {
+            case SUM_INT:
+                return sum == null ? 0 : sum.intValue();
+            case SUM_LONG:
+                return sum == null ? 0L : sum.longValue();
+            case SUM_DOUBLE:
+                return sum == null ? 0d : sum.doubleValue();
+            case MIN:
+                return optional(streamType, min);
+            case MAX:
+                return optional(streamType, max);
+            case AVERAGE:
+                // Derived from the sum as AVG of an integral column is truncated by some databases
+                return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum.doubleValue() / count);
+            case SUMMARY_STATISTICS:
+                return summaryStatistics(streamType, count, sum, min, max);
+            default:
+                throw new JPAStreamerException("Unable to aggregate " + type);
+        }
+    }
+
+    /**
+     * Returns the result of an aggregate collector of the provided {@code type}
+     * over the provided {@code field} applied to the {@code count} elements of a
+     * group. The {@code value} is the sum, minimum or maximum of the field as
+     * required by the type and is {@code null} for {@link AggregateType#COUNT}.
+     */
+    static Object groupResult(
+        final AggregateType type,
+        final Field<?> field,
+        final long count,
+        final Object value
+    ) {
+        switch (type) {
+            case COUNT:
+                return count;
+            case SUM:
+                return sum(field, (Number) value);
+            case AVERAGE:
+                // Derived from the sum as AVG of an integral column is truncated by some databases
+                return value == null ? 0d : ((Number) value).doubleValue() / count;
+            case MIN:
+            case MAX:
+                return Optional.ofNullable(value);
+            default:
+                throw new JPAStreamerException("Unable to aggregate " + type);
+        }
+    }
+
+    /**
+     * Returns the map of groups produced by the provided {@code fieldCollector}
+     * given the rows of a {@code GROUP BY} query that selects the grouping
+     * column, the number of elements of the group and, unless the downstream
+     * collector counts, the sum, minimum or maximum of the aggregated column.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> groups(final FieldCollector<?, ?, ?> fieldCollector, final List<Object[]> rows) {
+        final AggregateCollector<?, ?, ?> downstream = (AggregateCollector<?, ?, ?>) fieldCollector.getDownstream()
+            .orElseThrow(() -> new JPAStreamerException("The groups of " + fieldCollector.getField().columnName() + " are not aggregated"));
+        final Field<?> aggregatedField = downstream.getField().orElse(null);
+
+        final Map<Object, Object> groups = (Map<Object, Object>) fieldCollector.getMapFactory()
+            .orElseThrow(() -> new JPAStreamerException("The groups of " + fieldCollector.getField().columnName() + " are not keyed by its value"))
+            .get();
+        for (Object[] row : rows) {
+            // Mirrors the behavior of the collector
+            final Object key = Objects.requireNonNull(row[0], "element cannot be mapped to a null key");
+            final long count = ((Number) row[1]).longValue();
+            groups.put(key, groupResult(downstream.getAggregateType(), aggregatedField, count, row.length > 2 ? row[2] : null));
+        }
+        return groups;
+    }
+
+    private static Object sum(final Field<?> field, final Number sum) {
+        if (field instanceof IntField) {
+            return sum == null ? 0 : sum.intValue();
+        }
+        if (field instanceof LongField) {
+            return sum == null ? 0L : sum.longValue();
+        }
+        if (field instanceof DoubleField) {
+            return sum == null ? 0d : sum.doubleValue();
+        }
+        throw new JPAStreamerException("Unable to sum " + field.columnName());
+    }
+
+    private static Object optional(final Class<?> streamType, final Number value) {
+        if (streamType == IntStream.class) {
+            return value == null ? OptionalInt.empty() : OptionalInt.of(value.intValue());
+        }
+        if (streamType == LongStream.class) {
+            return value == null ? OptionalLong.empty() : OptionalLong.of(value.longValue());
+        }
+        if (streamType == DoubleStream.class) {
+            return value == null ? OptionalDouble.empty() : OptionalDouble.of(value.doubleValue());
+        }
+        throw new JPAStreamerException("Unable to aggregate a " + streamType.getSimpleName());
+    }
+
+    private static Object summaryStatistics(
+        final Class<?> streamType,
+        final long count,
+        final Number sum,
+        final Number min,
+        final Number max
+    ) {
+        if (streamType == IntStream.class) {
+            return count == 0
+                ? new IntSummaryStatistics()
+                : intSummaryStatistics(count, sum.longValue(), min.intValue(), max.intValue());
+        }
+        if (streamType == LongStream.class) {
+            return count == 0
+                ? new LongSummaryStatistics()
+                : longSummaryStatistics(count, sum.longValue(), min.longValue(), max.longValue());
+        }
+        if (streamType == DoubleStream.class) {
+            return count == 0
+                ? new DoubleSummaryStatistics()
+                : doubleSummaryStatistics(count, sum.doubleValue(), min.doubleValue(), max.doubleValue());
+        }
+        throw new JPAStreamerException("Unable to aggregate a " + streamType.getSimpleName());
+    }
+
+    /**
+     * Returns IntSummaryStatistics having the provided aggregate values.
+     * <p>
+     * Statistics can not be created from aggregate values in Java 8, so
+     * statistics for a number of values between {@code min} and {@code max}
+     * yielding the same aggregates are accumulated in logarithmic time.
+     */
+    static IntSummaryStatistics intSummaryStatistics(final long count, final long sum, final int min, final int max) {
+        final IntSummaryStatistics statistics = new IntSummaryStatistics();
+        statistics.accept(min);
+        if (count == 1) {
+            return statistics;
+        }
+        statistics.accept(max);
+        final long remaining = count - 2;
+        if (remaining > 0) {
+            final long rest = sum - min - max;
+            final long quotient = Math.floorDiv(rest, remaining);
+            final long remainder = Math.floorMod(rest, remaining);
+            statistics.combine(repeatInt((int) quotient, remaining - remainder));
+            statistics.combine(repeatInt((int) (quotient + 1), remainder));
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns LongSummaryStatistics having the provided aggregate values.
+     *
+     * @see #intSummaryStatistics(long, long, int, int)
+     */
+    static LongSummaryStatistics longSummaryStatistics(final long count, final long sum, final long min, final long max) {
+        final LongSummaryStatistics statistics = new LongSummaryStatistics();
+        statistics.accept(min);
+        if (count == 1) {
+            return statistics;
+        }
+        statistics.accept(max);
+        final long remaining = count - 2;
+        if (remaining > 0) {
+            final long rest = sum - min - max;
+            final long quotient = Math.floorDiv(rest, remaining);
+            final long remainder = Math.floorMod(rest, remaining);
+            statistics.combine(repeatLong(quotient, remaining - remainder));
+            statistics.combine(repeatLong(quotient + 1, remainder));
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns DoubleSummaryStatistics having the provided aggregate values
+     * subject to rounding of the sum.
+     *
+     * @see #intSummaryStatistics(long, long, int, int)
+     */
+    static DoubleSummaryStatistics doubleSummaryStatistics(final long count, final double sum, final double min, final double max) {
+        final DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        statistics.accept(min);
+        if (count == 1) {
+            return statistics;
+        }
+        statistics.accept(max);
+        final long remaining = count - 2;
+        if (remaining > 0) {
+            statistics.combine(repeatDouble((sum - min - max) / remaining, remaining));
+        }
+        return statistics;
+    }
+
+    private static IntSummaryStatistics repeatInt(final int value, final long times) {
+        final IntSummaryStatistics result = new IntSummaryStatistics();
+        IntSummaryStatistics power = new IntSummaryStatistics();
+        power.accept(value);
+        for (long n = times; n > 0; n >>= 1) {
+            if ((n & 1) == 1) {
+                result.combine(power);
+            }
+            final IntSummaryStatistics doubled = new IntSummaryStatistics();
+            doubled.combine(power);
+            doubled.combine(power);
+            power = doubled;
+        }
+        return result;
+    }
+
+    private static LongSummaryStatistics repeatLong(final long value, final long times) {
+        final LongSummaryStatistics result = new LongSummaryStatistics();
+        LongSummaryStatistics power = new LongSummaryStatistics();
+        power.accept(value);
+        for (long n = times; n > 0; n >>= 1) {
+            if ((n & 1) == 1) {
+                result.combine(power);
+            }
+            final LongSummaryStatistics doubled = new LongSummaryStatistics();
+            doubled.combine(power);
+            doubled.combine(power);
+            power = doubled;
+        }
+        return result;
+    }
+
+    private static DoubleSummaryStatistics repeatDouble(final double value, final long times) {
+        final DoubleSummaryStatistics result = new DoubleSummaryStatistics();
+        DoubleSummaryStatistics power = new DoubleSummaryStatistics();
+        power.accept(value);
+        for (long n = times; n > 0; n >>= 1) {
+            if ((n & 1) == 1) {
+                result.combine(power);
+            }
+            final DoubleSummaryStatistics doubled = new DoubleSummaryStatistics();
+            doubled.combine(power);
+            doubled.combine(power);
+            power = doubled;
+        }
+        return result;
+    }
+}
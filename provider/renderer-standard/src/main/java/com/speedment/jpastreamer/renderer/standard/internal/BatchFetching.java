@@ -0,0 +1,97 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration.JoinStrategy;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility methods that load the fields joined using
+ * {@link JoinStrategy#BATCH_FETCH} into batches of entities using one query
+ * per batch and field rather than one query per entity and field.
+ */
+final class BatchFetching {
+
+    /**
+     * The number of entities per batch fetch query unless a chunk size is configured.
+     */
+    static final int BATCH_FETCH_SIZE = 100;
+
+    private BatchFetching() {}
+
+    /**
+     * Returns a Stream that loads the fields joined using {@link JoinStrategy#BATCH_FETCH} into
+     * each batch of entities read from the provided {@code stream} before the entities are delivered.
+     */
+    static <E> Stream<E> withBatchFetching(
+        final Stream<E> stream,
+        final Class<E> entityClass,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager
+    ) {
+        final List<Field<E>> fields = streamConfiguration.joins().stream()
+            .filter(joinConfiguration -> joinConfiguration.joinStrategy() == JoinStrategy.BATCH_FETCH)
+            .map(StreamConfiguration.JoinConfiguration::field)
+            .collect(Collectors.toList());
+
+        // Projected entities are not managed by the persistence context
+        if (fields.isEmpty() || streamConfiguration.selections().isPresent()) {
+            return stream;
+        }
+
+        final Optional<SingularAttribute<? super E, ?>> oIdAttribute = Identifiers.idAttribute(entityManager.getMetamodel().entity(entityClass));
+        if (!oIdAttribute.isPresent()) {
+            return stream;
+        }
+
+        final String idName = oIdAttribute.get().getName();
+        final PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        final int batchSize = streamConfiguration.chunkSize().orElse(BATCH_FETCH_SIZE);
+
+        return StreamSupport.stream(new BatchingSpliterator<>(stream.spliterator(), batchSize, batch -> {
+            // Column values of a projected pipeline are not entities
+            final List<Object> ids = batch.stream()
+                .filter(entityClass::isInstance)
+                .map(persistenceUnitUtil::getIdentifier)
+                .collect(Collectors.toList());
+
+            if (ids.isEmpty() || !entityManager.isOpen()) {
+                return;
+            }
+
+            final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+            for (final Field<E> field : fields) {
+                // The field is loaded into the entities of the persistence context, so the result is not used
+                final CriteriaQuery<E> query = builder.createQuery(entityClass);
+                final Root<E> root = query.from(entityClass);
+                root.fetch(field.columnName(), JoinType.LEFT);
+                query.select(root).distinct(true).where(root.get(idName).in(ids));
+                entityManager.createQuery(query).getResultList();
+            }
+        }), false).onClose(stream::close);
+    }
+}
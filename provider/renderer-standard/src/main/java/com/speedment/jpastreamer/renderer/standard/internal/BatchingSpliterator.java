@@ -0,0 +1,75 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator that reads elements from an underlying Spliterator in
+ * batches of a certain size and invokes a batch action with each batch
+ * before its elements are delivered.
+ * <p>
+ * The next batch is not read until all the elements of the previous batch
+ * have been delivered.
+ *
+ * @param <E> element type
+ */
+final class BatchingSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+
+    private final Spliterator<E> delegate;
+    private final int batchSize;
+    private final Consumer<List<E>> batchAction;
+    private final List<E> batch;
+
+    private int index;
+
+    BatchingSpliterator(
+        final Spliterator<E> delegate,
+        final int batchSize,
+        final Consumer<List<E>> batchAction
+    ) {
+        super(requireNonNull(delegate).estimateSize(), delegate.characteristics() & (Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL));
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.batchAction = requireNonNull(batchAction);
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super E> action) {
+        requireNonNull(action);
+        if (index == batch.size()) {
+            batch.clear();
+            index = 0;
+            while (batch.size() < batchSize && delegate.tryAdvance(batch::add)) {
+                // Reads the next batch
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            batchAction.accept(batch);
+        }
+        action.accept(batch.get(index++));
+        return true;
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility methods that compute {@code sorted(comparator).limit(maxSize)} of a
+ * stream by retaining only the {@code maxSize} first elements in a bounded
+ * heap rather than sorting all the elements of the stream.
+ * <p>
+ * The elements are consumed in encounter order and elements that compare
+ * equal retain their encounter order, just as with a stable sort.
+ */
+final class BoundedSort {
+
+    /**
+     * Larger limits are not bounded by a heap as they can not be held in a
+     * single collection anyway.
+     */
+    static final long MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private BoundedSort() {}
+
+    /**
+     * Returns a stream of the {@code maxSize} first elements of the provided
+     * {@code stream} in the order of the provided {@code comparator}. The
+     * provided {@code stream} is not consumed until a terminal operation is
+     * invoked on the returned stream.
+     */
+    static <T> Stream<T> sortedLimit(final Stream<T> stream, final Comparator<? super T> comparator, final long maxSize) {
+        requireNonNull(stream);
+        requireNonNull(comparator);
+        if (maxSize < 0 || maxSize > MAX_SIZE) {
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        }
+
+        return StreamSupport.stream(
+            () -> first(stream, comparator, (int) maxSize).spliterator(),
+            Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED,
+            stream.isParallel()
+        ).onClose(stream::close);
+    }
+
+    private static <T> List<T> first(final Stream<T> stream, final Comparator<? super T> comparator, final int maxSize) {
+        if (maxSize == 0) {
+            return new ArrayList<>();
+        }
+
+        // Elements that compare equal are ordered by their position in the stream
+        final Comparator<Entry<T>> order = Comparator.<Entry<T>, T>comparing(entry -> entry.element, comparator)
+            .thenComparingLong(entry -> entry.position);
+
+        // The head of the heap is the last of the retained elements
+        final PriorityQueue<Entry<T>> heap = new PriorityQueue<>(Math.min(maxSize, 1024) + 1, order.reversed());
+
+        final long[] position = {0};
+        stream.sequential().forEachOrdered(element -> {
+            final Entry<T> entry = new Entry<>(element, position[0]++);
+            if (heap.size() < maxSize) {
+                heap.add(entry);
+            } else if (order.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        });
+
+        final List<Entry<T>> entries = new ArrayList<>(heap);
+        entries.sort(order);
+
+        final List<T> elements = new ArrayList<>(entries.size());
+        entries.forEach(entry -> elements.add(entry.element));
+        return elements;
+    }
+
+    private static final class Entry<T> {
+
+        private final T element;
+        private final long position;
+
+        private Entry(final T element, final long position) {
+            this.element = element;
+            this.position = position;
+        }
+    }
+}
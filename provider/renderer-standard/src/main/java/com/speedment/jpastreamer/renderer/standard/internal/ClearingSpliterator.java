@@ -0,0 +1,66 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator that invokes a clear action every time a certain
+ * number of elements have been delivered by an underlying Spliterator.
+ * <p>
+ * The clear action is invoked before the next element is read
+ * and thus, the elements previously delivered are allowed to be
+ * fully processed by downstream operations before being cleared.
+ *
+ * @param <E> element type
+ */
+final class ClearingSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+
+    private final Spliterator<E> delegate;
+    private final int clearInterval;
+    private final Runnable clearAction;
+
+    private long count;
+
+    ClearingSpliterator(
+        final Spliterator<E> delegate,
+        final int clearInterval,
+        final Runnable clearAction
+    ) {
+        super(requireNonNull(delegate).estimateSize(), delegate.characteristics() & (Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL));
+        if (clearInterval < 1) {
+            throw new IllegalArgumentException("The clear interval must be positive: " + clearInterval);
+        }
+        this.delegate = delegate;
+        this.clearInterval = clearInterval;
+        this.clearAction = requireNonNull(clearAction);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super E> action) {
+        requireNonNull(action);
+        if (count > 0 && count % clearInterval == 0) {
+            clearAction.run();
+        }
+        if (delegate.tryAdvance(action)) {
+            count++;
+            return true;
+        }
+        return false;
+    }
+
+}
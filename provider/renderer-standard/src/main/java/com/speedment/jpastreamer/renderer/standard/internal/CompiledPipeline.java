@@ -0,0 +1,172 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.field.comparator.CombinedComparator;
+import com.speedment.jpastreamer.field.comparator.FieldComparator;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A query that has been compiled from a pipeline of a certain
+ * {@link PipelineShape} together with the information needed to reapply
+ * it to other pipelines of the same shape.
+ * <p>
+ * Operations are referred to by their index in the original, unoptimized,
+ * pipeline.
+ */
+final class CompiledPipeline {
+
+    static final int NO_INDEX = -1;
+
+    private final Criteria<?, ?> criteria;
+    private final Class<?> resultType;
+    private final boolean count;
+    private final int[] mergedPredicateIndexes;
+    private final int[] remainingIndexes;
+    private final int firstResultIndex;
+    private final int firstResult;
+    private final int maxResultsIndex;
+    private final int maxResults;
+
+    CompiledPipeline(
+        final Criteria<?, ?> criteria,
+        final boolean count,
+        final int[] mergedPredicateIndexes,
+        final int[] remainingIndexes,
+        final int firstResultIndex,
+        final int firstResult,
+        final int maxResultsIndex,
+        final int maxResults
+    ) {
+        this.criteria = requireNonNull(criteria);
+        this.resultType = requireNonNull(criteria.getQuery().getResultType());
+        this.count = count;
+        this.mergedPredicateIndexes = mergedPredicateIndexes.clone();
+        this.remainingIndexes = remainingIndexes.clone();
+        this.firstResultIndex = firstResultIndex;
+        this.firstResult = firstResult;
+        this.maxResultsIndex = maxResultsIndex;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Returns the compiled Criteria. The query parameters of the Criteria
+     * hold the values of the pipeline that was originally compiled.
+     * <p>
+     * Criteria objects are not thread-safe whereas a cached CompiledPipeline
+     * is shared by all threads rendering pipelines of its shape. The Criteria
+     * is never modified once compiled and is only read while holding its own
+     * monitor.
+     *
+     * @return the compiled Criteria
+     */
+    Criteria<?, ?> criteria() {
+        return criteria;
+    }
+
+    /**
+     * Returns the result type of the compiled query.
+     *
+     * @return the result type of the compiled query
+     */
+    Class<?> resultType() {
+        return resultType;
+    }
+
+    /**
+     * Returns if the compiled query is a count query.
+     *
+     * @return if the compiled query is a count query
+     */
+    boolean isCount() {
+        return count;
+    }
+
+    /**
+     * Returns the predicates that have been merged into the compiled
+     * query in the order their parameters appear in the query.
+     *
+     * @param operations of an unoptimized pipeline of the same shape
+     * @return the predicates that have been merged into the compiled query
+     */
+    @SuppressWarnings("unchecked")
+    List<SpeedmentPredicate<Object>> mergedPredicates(final List<IntermediateOperation<?, ?>> operations) {
+        return Arrays.stream(mergedPredicateIndexes)
+            .mapToObj(index -> (SpeedmentPredicate<Object>) operations.get(index).arguments()[0])
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the operations that are not merged into the compiled query
+     * and thus shall be applied to the query results.
+     *
+     * @param operations of an unoptimized pipeline of the same shape
+     * @return the operations that are not merged into the compiled query
+     */
+    List<IntermediateOperation<?, ?>> remainingOperations(final List<IntermediateOperation<?, ?>> operations) {
+        return Arrays.stream(remainingIndexes)
+            .mapToObj(operations::get)
+            .collect(Collectors.toList());
+    }
+
+    int firstResult(final List<IntermediateOperation<?, ?>> operations) {
+        return firstResultIndex == NO_INDEX ? firstResult : intArgument(operations.get(firstResultIndex));
+    }
+
+    int maxResults(final List<IntermediateOperation<?, ?>> operations) {
+        return maxResultsIndex == NO_INDEX ? maxResults : intArgument(operations.get(maxResultsIndex));
+    }
+
+    /**
+     * Returns if the provided {@code operation}, having been merged into a
+     * compiled query, can be reapplied to other pipelines of the same shape.
+     * <p>
+     * The values of a merged filter or sort are derived from its field predicate or
+     * comparator. A lambda that has been translated into a predicate or comparator
+     * has captured values that are neither part of the shape nor derivable from the
+     * lambda. For example, a translated {@code f -> f.getRating().equals(rating)} may
+     * be rendered with the captured rating as a literal.
+     *
+     * @param operation that has been merged into a compiled query
+     * @return if the operation can be reapplied to other pipelines of the same shape
+     */
+    static boolean isReapplicable(final IntermediateOperation<?, ?> operation) {
+        final Object[] arguments = operation.arguments();
+        switch (operation.type()) {
+            case FILTER:
+                return arguments.length == 1 && arguments[0] instanceof SpeedmentPredicate;
+            case SORTED:
+                return arguments.length == 0
+                    || (arguments.length == 1 && (arguments[0] instanceof FieldComparator || arguments[0] instanceof CombinedComparator));
+            default:
+                return true;
+        }
+    }
+
+    static int intArgument(final IntermediateOperation<?, ?> operation) {
+        final Object[] arguments = operation.arguments();
+        if (arguments.length == 1 && arguments[0] instanceof Long) {
+            return (int) (long) (Long) arguments[0];
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of {@link CompiledPipeline}s keyed on {@link PipelineShape}
+ * whereby the least recently used entry is evicted when the cache is full.
+ * <p>
+ * This class is thread-safe. The {@link CompiledPipeline}s held by the cache
+ * are shared by rendering threads and guard their Criteria as described in
+ * {@link CompiledPipeline#criteria()}.
+ */
+final class CompiledPipelineCache implements QueryCacheMetrics {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final Map<PipelineShape, CompiledPipeline> cache;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    CompiledPipelineCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.cache = new LinkedHashMap<PipelineShape, CompiledPipeline>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<PipelineShape, CompiledPipeline> eldest) {
+                if (size() > CompiledPipelineCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    Optional<CompiledPipeline> get(final PipelineShape shape) {
+        requireNonNull(shape);
+        final CompiledPipeline compiledPipeline;
+        synchronized (cache) {
+            compiledPipeline = cache.get(shape);
+        }
+        if (compiledPipeline == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return Optional.ofNullable(compiledPipeline);
+    }
+
+    void put(final PipelineShape shape, final CompiledPipeline compiledPipeline) {
+        requireNonNull(shape);
+        requireNonNull(compiledPipeline);
+        synchronized (cache) {
+            cache.put(shape, compiledPipeline);
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledPipelineCache{" +
+                "capacity=" + capacity +
+                ", size=" + size() +
+                ", hits=" + hitCount() +
+                ", misses=" + missCount() +
+                ", evictions=" + evictionCount() +
+                '}';
+    }
+
+}
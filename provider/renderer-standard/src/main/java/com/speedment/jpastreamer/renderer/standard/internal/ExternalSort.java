@@ -0,0 +1,354 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.exception.JPAStreamerException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility methods that compute {@code sorted(comparator)} and
+ * {@code distinct()} of a stream while holding at most a given number of
+ * elements in memory.
+ * <p>
+ * Whenever the threshold is reached, the elements held in memory are sorted
+ * into a run that is written to a temporary file. The runs are merged once
+ * all elements have been read and the files are deleted when the returned
+ * stream is closed. The elements of a stream that spills must be
+ * {@link Serializable}.
+ */
+final class ExternalSort {
+
+    /**
+     * The number of elements after which the back references of the object
+     * stream of a run are reset so that written elements can be collected.
+     */
+    private static final int RESET_INTERVAL = 1024;
+
+    private ExternalSort() {}
+
+    /**
+     * Returns a stream of the elements of the provided {@code stream} sorted
+     * by the provided {@code comparator}. Elements that compare equal retain
+     * their encounter order. The provided {@code stream} is not consumed until
+     * a terminal operation is invoked on the returned stream.
+     */
+    static <T> Stream<T> sorted(final Stream<T> stream, final Comparator<? super T> comparator, final int spillThreshold) {
+        requireNonNull(stream);
+        requireNonNull(comparator);
+        requirePositive(spillThreshold);
+
+        final Runs<T> runs = new Runs<>(comparator, spillThreshold);
+        return stream(() -> {
+            stream.sequential().forEachOrdered(runs::add);
+            return runs.iterator();
+        }, stream, runs::close);
+    }
+
+    /**
+     * Returns a stream of the distinct elements of the provided {@code stream}
+     * in encounter order. The provided {@code stream} is not consumed until a
+     * terminal operation is invoked on the returned stream.
+     */
+    static <T> Stream<T> distinct(final Stream<T> stream, final int spillThreshold) {
+        requireNonNull(stream);
+        requirePositive(spillThreshold);
+
+        // Equal elements have the same hash code and are thus adjacent in runs
+        // ordered by hash code, where the first occurrence precedes the others
+        final Runs<Entry<T>> byHash = new Runs<>(
+            Comparator.<Entry<T>>comparingInt(entry -> Objects.hashCode(entry.element)).thenComparingLong(entry -> entry.position),
+            spillThreshold
+        );
+        final Runs<Entry<T>> byPosition = new Runs<>(Comparator.<Entry<T>>comparingLong(entry -> entry.position), spillThreshold);
+
+        return stream(() -> {
+            final Map<T, Long> firstPositions = new LinkedHashMap<>();
+            final long[] position = {0};
+            stream.sequential().forEachOrdered(element -> {
+                firstPositions.putIfAbsent(element, position[0]++);
+                if (firstPositions.size() == spillThreshold) {
+                    // Adding the entries spills them as a run
+                    firstPositions.forEach((key, value) -> byHash.add(new Entry<>(key, value)));
+                    firstPositions.clear();
+                }
+            });
+
+            if (!byHash.isSpilled()) {
+                return firstPositions.keySet().iterator();
+            }
+
+            firstPositions.forEach((key, value) -> byHash.add(new Entry<>(key, value)));
+            firstPositions.clear();
+
+            final List<Entry<T>> sameHash = new ArrayList<>();
+            for (final Iterator<Entry<T>> iterator = byHash.iterator(); iterator.hasNext();) {
+                final Entry<T> entry = iterator.next();
+                if (!sameHash.isEmpty() && Objects.hashCode(sameHash.get(0).element) != Objects.hashCode(entry.element)) {
+                    sameHash.forEach(byPosition::add);
+                    sameHash.clear();
+                }
+                if (sameHash.stream().noneMatch(other -> Objects.equals(other.element, entry.element))) {
+                    sameHash.add(entry);
+                }
+            }
+            sameHash.forEach(byPosition::add);
+            byHash.close();
+
+            final Iterator<Entry<T>> iterator = byPosition.iterator();
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return iterator.next().element;
+                }
+            };
+        }, stream, () -> {
+            byHash.close();
+            byPosition.close();
+        });
+    }
+
+    private static void requirePositive(final int spillThreshold) {
+        if (spillThreshold < 1) {
+            throw new IllegalArgumentException(Integer.toString(spillThreshold));
+        }
+    }
+
+    private static <T> Stream<T> stream(final Supplier<Iterator<T>> supplier, final Stream<?> source, final Runnable cleaner) {
+        return StreamSupport.stream(
+            () -> Spliterators.spliteratorUnknownSize(supplier.get(), Spliterator.ORDERED),
+            Spliterator.ORDERED,
+            source.isParallel()
+        ).onClose(cleaner).onClose(source::close);
+    }
+
+    private static final class Entry<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final T element;
+        private final long position;
+
+        private Entry(final T element, final long position) {
+            this.element = element;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Sorted runs of which all but the last are spilled to temporary files.
+     */
+    private static final class Runs<T> {
+
+        private final Comparator<? super T> comparator;
+        private final int spillThreshold;
+        private final List<T> buffer;
+        private final List<Path> files;
+        private final List<ObjectInputStream> inputs;
+
+        private Runs(final Comparator<? super T> comparator, final int spillThreshold) {
+            this.comparator = comparator;
+            this.spillThreshold = spillThreshold;
+            this.buffer = new ArrayList<>();
+            this.files = new ArrayList<>();
+            this.inputs = new ArrayList<>();
+        }
+
+        private void add(final T element) {
+            buffer.add(element);
+            if (buffer.size() == spillThreshold) {
+                spill();
+            }
+        }
+
+        private boolean isSpilled() {
+            return !files.isEmpty();
+        }
+
+        private void spill() {
+            buffer.sort(comparator);
+            try {
+                final Path file = Files.createTempFile("jpastreamer-", ".run");
+                files.add(file);
+                try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(Channels.newOutputStream(
+                    FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                )))) {
+                    output.writeInt(buffer.size());
+                    for (int i = 0; i < buffer.size(); i++) {
+                        output.writeObject(buffer.get(i));
+                        if ((i + 1) % RESET_INTERVAL == 0) {
+                            output.reset();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new JPAStreamerException("Unable to spill sorted elements to a temporary file", e);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Returns an iterator over the merged runs where equal elements of an
+         * earlier run precede those of a later run.
+         */
+        private Iterator<T> iterator() {
+            buffer.sort(comparator);
+            if (files.isEmpty()) {
+                return buffer.iterator();
+            }
+
+            final PriorityQueue<Cursor<T>> cursors = new PriorityQueue<>(files.size() + 1,
+                Comparator.<Cursor<T>, T>comparing(cursor -> cursor.head, comparator).thenComparingInt(cursor -> cursor.run)
+            );
+            for (int run = 0; run < files.size(); run++) {
+                final Cursor<T> cursor = new Cursor<>(run, open(files.get(run)));
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            final Cursor<T> last = new Cursor<>(files.size(), buffer.iterator());
+            if (last.advance()) {
+                cursors.add(last);
+            }
+
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return !cursors.isEmpty();
+                }
+
+                @Override
+                public T next() {
+                    final Cursor<T> cursor = cursors.poll();
+                    if (cursor == null) {
+                        throw new NoSuchElementException();
+                    }
+                    final T head = cursor.head;
+                    if (cursor.advance()) {
+                        cursors.add(cursor);
+                    }
+                    return head;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private Iterator<T> open(final Path file) {
+            try {
+                final ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(Channels.newInputStream(
+                    FileChannel.open(file, StandardOpenOption.READ)
+                )));
+                inputs.add(input);
+
+                final int size = input.readInt();
+                return new Iterator<T>() {
+                    private int remaining = size;
+
+                    @Override
+                    public boolean hasNext() {
+                        return remaining > 0;
+                    }
+
+                    @Override
+                    public T next() {
+                        if (remaining == 0) {
+                            throw new NoSuchElementException();
+                        }
+                        remaining--;
+                        try {
+                            return (T) input.readObject();
+                        } catch (IOException | ClassNotFoundException e) {
+                            throw new JPAStreamerException("Unable to read sorted elements from a temporary file", e);
+                        }
+                    }
+                };
+            } catch (IOException e) {
+                throw new JPAStreamerException("Unable to read sorted elements from a temporary file", e);
+            }
+        }
+
+        /**
+         * Closes and deletes the temporary files.
+         */
+        private void close() {
+            buffer.clear();
+            for (final ObjectInputStream input : inputs) {
+                try {
+                    input.close();
+                } catch (IOException ignored) {
+                    // The file is deleted anyway
+                }
+            }
+            inputs.clear();
+            for (final Path file : files) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // The temporary file is left for the operating system to remove
+                }
+            }
+            files.clear();
+        }
+    }
+
+    private static final class Cursor<T> {
+
+        private final int run;
+        private final Iterator<T> iterator;
+        private T head;
+
+        private Cursor(final int run, final Iterator<T> iterator) {
+            this.run = run;
+            this.iterator = iterator;
+        }
+
+        private boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            head = iterator.next();
+            return true;
+        }
+    }
+}
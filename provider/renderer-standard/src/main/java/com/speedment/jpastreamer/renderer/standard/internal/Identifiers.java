@@ -0,0 +1,63 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Utility methods for the identifiers of the entities read by a query.
+ */
+final class Identifiers {
+
+    private Identifiers() {}
+
+    /**
+     * Returns the identifier attribute of the provided {@code entityType} or
+     * {@link Optional#empty()} if the entities are not identified by a single
+     * attribute.
+     */
+    static <E> Optional<SingularAttribute<? super E, ?>> idAttribute(final EntityType<E> entityType) {
+        if (!entityType.hasSingleIdAttribute()) {
+            return Optional.empty();
+        }
+        return entityType.getSingularAttributes().stream()
+            .filter(SingularAttribute::isId)
+            .findFirst();
+    }
+
+    /**
+     * Orders the rows of the query of the provided {@code criteria} by the
+     * identifier of the entities after any other order. The rows of a query
+     * without a total order may be returned in any order, so that consecutive
+     * pages read with first and max results could overlap or leave gaps.
+     */
+    static <E> void orderById(final Criteria<E, ?> criteria) {
+        final Optional<SingularAttribute<? super E, ?>> oIdAttribute = idAttribute(criteria.getRoot().getModel());
+        if (!oIdAttribute.isPresent()) {
+            return;
+        }
+
+        final CriteriaQuery<?> query = criteria.getQuery();
+        final List<Order> orders = new ArrayList<>(query.getOrderList());
+        orders.add(criteria.getBuilder().asc(criteria.getRoot().get(oIdAttribute.get().getName())));
+        query.orderBy(orders);
+    }
+}
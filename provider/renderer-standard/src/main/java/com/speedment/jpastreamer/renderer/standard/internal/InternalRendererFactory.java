@@ -12,6 +12,7 @@
  */
 package com.speedment.jpastreamer.renderer.standard.internal;
 
+import com.speedment.jpastreamer.renderer.EntityManagerPool;
 import com.speedment.jpastreamer.renderer.Renderer;
 import com.speedment.jpastreamer.renderer.RendererFactory;
 
@@ -23,4 +24,19 @@ public final class InternalRendererFactory implements RendererFactory {
     public Renderer createRenderer(final EntityManagerFactory entityManagerFactory) {
         return new StandardRenderer(entityManagerFactory);
     }
+
+    @Override
+    public Renderer createRenderer(final EntityManagerPool entityManagerPool) {
+        return new StandardRenderer(entityManagerPool);
+    }
+
+    @Override
+    public Renderer createRenderer(final EntityManagerFactory entityManagerFactory, final int queryCacheCapacity) {
+        return new StandardRenderer(entityManagerFactory, queryCacheCapacity);
+    }
+
+    @Override
+    public Renderer createRenderer(final EntityManagerPool entityManagerPool, final int queryCacheCapacity) {
+        return new StandardRenderer(entityManagerPool, queryCacheCapacity);
+    }
 }
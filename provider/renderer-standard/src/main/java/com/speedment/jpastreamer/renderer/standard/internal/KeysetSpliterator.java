@@ -0,0 +1,107 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A Spliterator that reads elements in chunks using seek (keyset) pagination
+ * whereby each chunk starts right after the key of the last element of the
+ * previous chunk.
+ * <p>
+ * Only the current chunk is held in memory. When a new chunk is read,
+ * the previous chunk is handed to the chunk releaser.
+ *
+ * @param <E> element type
+ * @param <K> key type
+ */
+final class KeysetSpliterator<E, K> extends Spliterators.AbstractSpliterator<E> {
+
+    private final int chunkSize;
+    private final Function<K, List<E>> chunkReader;
+    private final Function<E, K> keyExtractor;
+    private final Consumer<List<E>> chunkReleaser;
+
+    private List<E> chunk;
+    private Iterator<E> iterator;
+    private boolean lastChunk;
+
+    /**
+     * Creates a new KeysetSpliterator.
+     *
+     * @param chunkSize     the maximum number of elements per chunk
+     * @param chunkReader   reading the chunk of elements following the
+     *                      provided key or the first chunk if the key
+     *                      is {@code null}
+     * @param keyExtractor  extracting the key from an element
+     * @param chunkReleaser invoked with each chunk that has been consumed
+     */
+    KeysetSpliterator(
+        final int chunkSize,
+        final Function<K, List<E>> chunkReader,
+        final Function<E, K> keyExtractor,
+        final Consumer<List<E>> chunkReleaser
+    ) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.chunkReader = requireNonNull(chunkReader);
+        this.keyExtractor = requireNonNull(keyExtractor);
+        this.chunkReleaser = requireNonNull(chunkReleaser);
+        this.chunk = Collections.emptyList();
+        this.iterator = chunk.iterator();
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super E> action) {
+        requireNonNull(action);
+        while (!iterator.hasNext()) {
+            if (lastChunk) {
+                release();
+                return false;
+            }
+            readNextChunk();
+        }
+        action.accept(iterator.next());
+        return true;
+    }
+
+    private void readNextChunk() {
+        final K lastKey = chunk.isEmpty()
+            ? null
+            : keyExtractor.apply(chunk.get(chunk.size() - 1));
+
+        release();
+        chunk = chunkReader.apply(lastKey);
+        iterator = chunk.iterator();
+        lastChunk = chunk.size() < chunkSize;
+    }
+
+    private void release() {
+        if (!chunk.isEmpty()) {
+            chunkReleaser.accept(chunk);
+            chunk = Collections.emptyList();
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility methods that read the entities of a query in chunks using seek
+ * queries ordered by the primary key, so that only a chunk of entities is
+ * held by the persistence context at any time.
+ */
+final class KeysetStreams {
+
+    private KeysetStreams() {}
+
+    /**
+     * Returns a Stream that reads entities in chunks using seek queries
+     * ordered by the primary key (i.e. {@code WHERE id > :last ORDER BY id})
+     * or {@link Optional#empty()} if chunking is not configured or is not
+     * applicable to the provided {@code criteria}.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static <E> Optional<Stream<E>> stream(
+        final Criteria<E, E> criteria,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager
+    ) {
+        final OptionalInt chunkSize = streamConfiguration.chunkSize();
+        if (!chunkSize.isPresent()
+            || streamConfiguration.selections().isPresent()
+            || Queries.isFetchJoined(streamConfiguration)
+            // Entity graphs may be fetch joined as well
+            || streamConfiguration.graph().isPresent()
+            || !criteria.getQuery().getOrderList().isEmpty()
+        ) {
+            return Optional.empty();
+        }
+
+        final EntityType<E> entityType = criteria.getRoot().getModel();
+        final Optional<SingularAttribute<? super E, ?>> oIdAttribute = Identifiers.idAttribute(entityType);
+
+        if (!oIdAttribute.isPresent() || !Comparable.class.isAssignableFrom(Queries.wrapperType(oIdAttribute.get().getJavaType()))) {
+            return Optional.empty();
+        }
+
+        final CriteriaBuilder builder = criteria.getBuilder();
+        final CriteriaQuery<E> query = criteria.getQuery();
+        final Path<Comparable> idPath = criteria.getRoot().get(oIdAttribute.get().getName());
+
+        query.orderBy(builder.asc(idPath));
+        final TypedQuery<E> firstQuery = Queries.createQuery(criteria, entityManager);
+
+        final ParameterExpression<Comparable> lastKey = builder.parameter((Class<Comparable>) Queries.wrapperType(oIdAttribute.get().getJavaType()));
+        final Predicate restriction = query.getRestriction();
+        final Predicate seek = builder.greaterThan(idPath, lastKey);
+        query.where(restriction == null ? seek : builder.and(restriction, seek));
+        final TypedQuery<E> nextQuery = Queries.createQuery(criteria, entityManager);
+
+        firstQuery.setMaxResults(chunkSize.getAsInt());
+        nextQuery.setMaxResults(chunkSize.getAsInt());
+        Queries.applyGraph(firstQuery, entityType.getJavaType(), streamConfiguration, entityManager);
+        Queries.applyGraph(nextQuery, entityType.getJavaType(), streamConfiguration, entityManager);
+
+        final PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        final KeysetSpliterator<E, Comparable> spliterator = new KeysetSpliterator<>(
+            chunkSize.getAsInt(),
+            key -> key == null
+                ? firstQuery.getResultList()
+                : nextQuery.setParameter(lastKey, key).getResultList(),
+            entity -> (Comparable) persistenceUnitUtil.getIdentifier(entity),
+            chunk -> detachAll(chunk, entityManager)
+        );
+
+        return Optional.of(StreamSupport.stream(spliterator, false));
+    }
+
+    private static <E> void detachAll(final List<E> entities, final EntityManager entityManager) {
+        if (entityManager.isOpen()) {
+            entities.forEach(entityManager::detach);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.criteria.CriteriaFactory;
+import com.speedment.jpastreamer.merger.QueryMerger;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Utility methods for pages of entities that are read by first selecting the
+ * identifiers of the page and then the entities having those identifiers.
+ * <p>
+ * A fetch join of a collection yields several rows per entity so the JPA provider can not
+ * limit the rows to a page of entities but would read all the entities and page them in memory.
+ */
+final class PagedStreams {
+
+    private PagedStreams() {}
+
+    /**
+     * Returns a Stream of a page of fetch joined entities that is read by first selecting the
+     * identifiers of the page and then the entities having those identifiers or {@link Optional#empty()}
+     * if the entities are neither fetch joined nor read using an entity graph or the pipeline has no
+     * limit operation. The skip and limit operations are merged into the query of the identifiers
+     * using the provided {@code queryMerger}.
+     * <p>
+     * A page without a limit could hold any number of identifiers, all of which would be bound to a
+     * single {@code IN} predicate, so such pipelines are read by a single query.
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Optional<Stream<E>> stream(
+        final Criteria<E, E> criteria,
+        final Pipeline<E> pipeline,
+        final QueryMerger queryMerger,
+        final CriteriaFactory criteriaFactory,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager
+    ) {
+        if ((!Queries.isFetchJoined(streamConfiguration) && !streamConfiguration.graph().isPresent())
+            || streamConfiguration.selections().isPresent()
+            // A limit operation is always merged into the query as its max results
+            || !Queries.hasLimit(pipeline)
+        ) {
+            return Optional.empty();
+        }
+
+        final Optional<SingularAttribute<? super E, ?>> oIdAttribute = Identifiers.idAttribute(criteria.getRoot().getModel());
+
+        if (!oIdAttribute.isPresent()) {
+            return Optional.empty();
+        }
+
+        final String idName = oIdAttribute.get().getName();
+
+        // Consecutive pages of identifiers neither overlap nor leave gaps only if they are totally ordered
+        Identifiers.orderById(criteria);
+
+        final Criteria<E, Object> idCriteria = createIdCriteria(
+            criteria,
+            idName,
+            (Class<Object>) Queries.wrapperType(oIdAttribute.get().getJavaType()),
+            criteriaFactory,
+            entityManager
+        );
+        final TypedQuery<Object> idQuery = Queries.createQuery(idCriteria, entityManager);
+        queryMerger.merge(pipeline, idQuery);
+
+        final List<Object> ids = idQuery.getResultList();
+        if (ids.isEmpty()) {
+            return Optional.of(Stream.empty());
+        }
+
+        final CriteriaQuery<E> query = criteria.getQuery();
+        final Predicate restriction = query.getRestriction();
+        final Predicate page = criteria.getRoot().get(idName).in(ids);
+        query.where(restriction == null ? page : criteria.getBuilder().and(restriction, page));
+
+        final PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        final TypedQuery<E> typedQuery = Queries.createQuery(criteria, entityManager);
+        Queries.applyGraph(typedQuery, pipeline.root(), streamConfiguration, entityManager);
+
+        return Optional.of(inPageOrder(ids, typedQuery.getResultList(), persistenceUnitUtil::getIdentifier));
+    }
+
+    /**
+     * Returns a Stream of the entities of the provided {@code rows} in the
+     * order of the provided page of {@code ids}. A fetch join of a collection
+     * yields a row per element of the collection, so an entity is returned
+     * only once however many rows it has. Identifiers of entities that are not
+     * among the rows, e.g. because they were removed after the identifiers
+     * were read, are skipped.
+     */
+    static <E> Stream<E> inPageOrder(
+        final List<?> ids,
+        final List<E> rows,
+        final Function<? super E, Object> identifier
+    ) {
+        requireNonNull(ids);
+        requireNonNull(rows);
+        requireNonNull(identifier);
+
+        final Map<Object, E> entities = new HashMap<>();
+        rows.forEach(entity -> entities.putIfAbsent(identifier.apply(entity), entity));
+
+        return ids.stream()
+            .map(entities::get)
+            .filter(Objects::nonNull);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Criteria<T, Object> createIdCriteria(
+        final Criteria<T, T> criteria,
+        final String idName,
+        final Class<Object> idType,
+        final CriteriaFactory criteriaFactory,
+        final EntityManager entityManager
+    ) {
+        final CriteriaQuery<T> criteriaQuery = criteria.getQuery();
+
+        final Criteria<T, Object> idCriteria = criteriaFactory.createCriteria(
+            entityManager,
+            criteriaQuery.getResultType(),
+            idType
+        );
+
+        criteria.getQueryParameters().forEach(idCriteria::addQueryParameter);
+
+        idCriteria.getRoot().alias(criteria.getRoot().getAlias());
+
+        final CriteriaQuery<Object> idQuery = idCriteria.getQuery();
+
+        // The entities are selected without their fetch joins
+        idQuery.select(idCriteria.getRoot().get(idName));
+
+        if (criteriaQuery.getRestriction() != null) {
+            idQuery.where(criteriaQuery.getRestriction());
+        }
+
+        idQuery.distinct(criteriaQuery.isDistinct());
+        idQuery.orderBy(criteriaQuery.getOrderList());
+
+        return idCriteria;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A Spliterator that delivers the elements of a number of partitions, each
+ * provided by a Stream that is opened lazily when first needed.
+ * <p>
+ * Partitions that are not yet opened can be split off to other Spliterators
+ * whereby the partitions can be read in parallel. Each partition Stream is closed
+ * as soon as it is exhausted and any remaining open Streams are closed by
+ * {@link #close()}.
+ *
+ * @param <E> element type
+ */
+final class PartitionedSpliterator<E> implements Spliterator<E> {
+
+    private final List<Supplier<Stream<E>>> partitions;
+    private final Set<Stream<E>> openStreams;
+    private int index; // next unopened partition
+    private final int fence; // one past the last partition
+
+    private Stream<E> currentStream;
+    private Spliterator<E> current;
+
+    PartitionedSpliterator(final List<Supplier<Stream<E>>> partitions) {
+        this(new ArrayList<>(requireNonNull(partitions)), ConcurrentHashMap.newKeySet(), 0, partitions.size());
+    }
+
+    private PartitionedSpliterator(
+        final List<Supplier<Stream<E>>> partitions,
+        final Set<Stream<E>> openStreams,
+        final int index,
+        final int fence
+    ) {
+        this.partitions = partitions;
+        this.openStreams = openStreams;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super E> action) {
+        requireNonNull(action);
+        while (true) {
+            if (current == null) {
+                if (index >= fence) {
+                    return false;
+                }
+                currentStream = requireNonNull(partitions.get(index++).get());
+                openStreams.add(currentStream);
+                current = currentStream.spliterator();
+            }
+            if (current.tryAdvance(action)) {
+                return true;
+            }
+            openStreams.remove(currentStream);
+            currentStream.close();
+            currentStream = null;
+            current = null;
+        }
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        final int unopened = fence - index;
+        // Keep at least one partition unless another partition is already being read
+        if (unopened < (current == null ? 2 : 1)) {
+            return null;
+        }
+        // Hands off the first half of the unopened partitions (rounded up)
+        final int split = index + (unopened + 1) / 2;
+        final Spliterator<E> prefix = new PartitionedSpliterator<>(partitions, openStreams, index, split);
+        index = split;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return index >= fence && current == null ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.NONNULL;
+    }
+
+    /**
+     * Closes all partition Streams that are still open, including
+     * partitions opened by Spliterators split off from this one.
+     */
+    void close() {
+        final List<Stream<E>> streams = new ArrayList<>(openStreams);
+        openStreams.removeAll(streams);
+        RuntimeException exception = null;
+        for (Stream<E> stream : streams) {
+            try {
+                stream.close();
+            } catch (RuntimeException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+}
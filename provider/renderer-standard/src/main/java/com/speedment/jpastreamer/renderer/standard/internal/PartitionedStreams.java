@@ -0,0 +1,156 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility methods that read the entities of a parallel pipeline from
+ * disjoint ranges of an integral primary key, each using an EntityManager
+ * of its own.
+ */
+final class PartitionedStreams {
+
+    private PartitionedStreams() {}
+
+    /**
+     * Returns a parallel Stream that reads entities from disjoint ranges of the primary key
+     * using a separate EntityManager for each range or {@link Optional#empty()} if the
+     * pipeline is not parallel or partitioning is not applicable to the provided {@code criteria}.
+     * <p>
+     * The EntityManagers of the partitions are acquired and released using the provided
+     * {@code acquire} and {@code release} functions and the result stream of each partition
+     * is decorated by the provided {@code source} function. The provided {@code entityManager}
+     * is released once the bounds of the ranges have been read.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static <E> Optional<Stream<E>> stream(
+        final Criteria<E, E> criteria,
+        final Pipeline<E> pipeline,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager,
+        final Supplier<EntityManager> acquire,
+        final Consumer<EntityManager> release,
+        final BiFunction<Stream<E>, EntityManager, Stream<E>> source
+    ) {
+        if (!pipeline.isParallel()
+            || !criteria.getQuery().getOrderList().isEmpty()
+            || (criteria.getQuery().isDistinct() && streamConfiguration.selections().isPresent())
+        ) {
+            return Optional.empty();
+        }
+
+        final Optional<SingularAttribute<? super E, ?>> oIdAttribute = Identifiers.idAttribute(criteria.getRoot().getModel());
+
+        if (!oIdAttribute.isPresent() || !isIntegral(Queries.wrapperType(oIdAttribute.get().getJavaType()))) {
+            return Optional.empty();
+        }
+
+        final Class<? extends Number> idType = (Class<? extends Number>) Queries.wrapperType(oIdAttribute.get().getJavaType());
+        final String idName = oIdAttribute.get().getName();
+        final CriteriaBuilder builder = criteria.getBuilder();
+
+        final CriteriaQuery<Object[]> boundsQuery = builder.createQuery(Object[].class);
+        final Root<E> boundsRoot = boundsQuery.from(pipeline.root());
+        boundsQuery.multiselect(builder.min(boundsRoot.get(idName)), builder.max(boundsRoot.get(idName)));
+        final Object[] bounds = entityManager.createQuery(boundsQuery).getSingleResult();
+
+        if (bounds[0] == null || bounds[1] == null) {
+            // There are no entities
+            return Optional.of(Stream.empty());
+        }
+
+        final long min = ((Number) bounds[0]).longValue();
+        final long max = ((Number) bounds[1]).longValue();
+        final long span;
+        try {
+            span = Math.addExact(Math.subtractExact(max, min), 1);
+        } catch (ArithmeticException e) {
+            return Optional.empty();
+        }
+
+        final int partitions = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), span));
+        final long partitionSize = (span + partitions - 1) / partitions;
+
+        final CriteriaQuery<E> query = criteria.getQuery();
+        final Path<Comparable> idPath = criteria.getRoot().get(idName);
+        final ParameterExpression<Comparable> lowerBound = builder.parameter((Class<Comparable>) (Class) idType);
+        final ParameterExpression<Comparable> upperBound = builder.parameter((Class<Comparable>) (Class) idType);
+        final Predicate restriction = query.getRestriction();
+        final Predicate range = builder.and(builder.greaterThanOrEqualTo(idPath, lowerBound), builder.lessThanOrEqualTo(idPath, upperBound));
+        query.where(restriction == null ? range : builder.and(restriction, range));
+
+        final List<Supplier<Stream<E>>> partitionSuppliers = new ArrayList<>(partitions);
+        for (long from = min; from <= max && from >= min; from += partitionSize) {
+            final long to = max - from < partitionSize ? max : from + partitionSize - 1;
+            final Comparable lower = (Comparable) narrow(from, idType);
+            final Comparable upper = (Comparable) narrow(to, idType);
+            partitionSuppliers.add(() -> {
+                final EntityManager partitionEntityManager = acquire.get();
+                try {
+                    final TypedQuery<E> typedQuery;
+                    // Partitions are opened concurrently and share the same criteria query
+                    synchronized (query) {
+                        typedQuery = Queries.createQuery(criteria, partitionEntityManager);
+                    }
+                    typedQuery.setParameter(lowerBound, lower).setParameter(upperBound, upper);
+                    Queries.applyGraph(typedQuery, pipeline.root(), streamConfiguration, partitionEntityManager);
+                    final Stream<E> stream = typedQuery.getResultStream()
+                        .onClose(() -> release.accept(partitionEntityManager));
+                    return source.apply(stream, partitionEntityManager);
+                } catch (RuntimeException e) {
+                    release.accept(partitionEntityManager);
+                    throw e;
+                }
+            });
+        }
+
+        // The bounds have been read and partitions use EntityManagers of their own
+        release.accept(entityManager);
+
+        final PartitionedSpliterator<E> spliterator = new PartitionedSpliterator<>(partitionSuppliers);
+        return Optional.of(StreamSupport.stream(spliterator, true).onClose(spliterator::close));
+    }
+
+    private static boolean isIntegral(final Class<?> type) {
+        return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+    }
+
+    private static Number narrow(final long value, final Class<? extends Number> type) {
+        if (type == Integer.class) return (int) value;
+        if (type == Short.class) return (short) value;
+        if (type == Byte.class) return (byte) value;
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.renderer.EntityManagerPool;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * An EntityManagerPool that creates a new EntityManager upon each
+ * acquisition and closes it upon release.
+ */
+final class PerRenderEntityManagerPool implements EntityManagerPool {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    PerRenderEntityManagerPool(final EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = requireNonNull(entityManagerFactory);
+    }
+
+    @Override
+    public EntityManager acquire() {
+        return entityManagerFactory.createEntityManager();
+    }
+
+    @Override
+    public void release(final EntityManager entityManager) {
+        if (entityManager.isOpen()) {
+            entityManager.close();
+        }
+    }
+
+}
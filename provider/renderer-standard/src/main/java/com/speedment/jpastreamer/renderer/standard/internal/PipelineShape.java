@@ -0,0 +1,191 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.field.collector.AggregateCollector;
+import com.speedment.jpastreamer.field.collector.FieldCollector;
+import com.speedment.jpastreamer.field.comparator.CombinedComparator;
+import com.speedment.jpastreamer.field.comparator.FieldComparator;
+import com.speedment.jpastreamer.field.predicate.CombinedPredicate;
+import com.speedment.jpastreamer.field.predicate.FieldPredicate;
+import com.speedment.jpastreamer.field.predicate.PredicateType;
+import com.speedment.jpastreamer.field.predicate.trait.HasInclusion;
+import com.speedment.jpastreamer.field.trait.HasArg0;
+import com.speedment.jpastreamer.field.trait.HasArg1;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The normalized shape of a Pipeline, comprising the entity class, whether
+ * the pipeline is unordered, the stream configuration, the operation types
+ * and the structure of operation arguments but not the parameter values of
+ * predicates, skip or limit operations.
+ * <p>
+ * Two pipelines with equal shapes are rendered into equal queries that only
+ * differ in the values bound to query parameters.
+ */
+final class PipelineShape {
+
+    private final List<Object> elements;
+    private final int hashCode;
+
+    private PipelineShape(final List<Object> elements) {
+        this.elements = elements;
+        this.hashCode = elements.hashCode();
+    }
+
+    static PipelineShape of(final Pipeline<?> pipeline, final StreamConfiguration<?> streamConfiguration) {
+        requireNonNull(pipeline);
+        requireNonNull(streamConfiguration);
+
+        final List<Object> elements = new ArrayList<>();
+        elements.add(pipeline.root());
+        // Order affecting operations are removed from unordered pipelines
+        elements.add(pipeline.isUnordered());
+        elements.add(streamConfiguration);
+        elements.add(streamConfiguration.selections().map(projection -> projection.fields().stream()
+            .map(PipelineShape::field)
+            .collect(Collectors.toList()))
+            .orElse(Collections.emptyList()));
+        elements.add(pipeline.terminatingOperation().type());
+        elements.add(Arrays.stream(pipeline.terminatingOperation().arguments())
+            .map(PipelineShape::argument)
+            .collect(Collectors.toList()));
+        pipeline.intermediateOperations().stream()
+            .map(PipelineShape::operation)
+            .forEach(elements::add);
+
+        return new PipelineShape(elements);
+    }
+
+    private static Object operation(final IntermediateOperation<?, ?> operation) {
+        final IntermediateOperationType type = operation.type();
+        if (type == IntermediateOperationType.SKIP || type == IntermediateOperationType.LIMIT) {
+            // The value is bound when the query is executed
+            return type;
+        }
+        return Arrays.asList(
+            type,
+            Arrays.stream(operation.arguments())
+                .map(PipelineShape::argument)
+                .collect(Collectors.toList())
+        );
+    }
+
+    private static Object argument(final Object argument) {
+        if (argument instanceof FieldPredicate) {
+            final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) argument;
+            final PredicateType predicateType = fieldPredicate.getPredicateType();
+            final List<Object> shape = new ArrayList<>(Arrays.asList(
+                predicateType,
+                field(fieldPredicate.getField())
+            ));
+            if (predicateType == PredicateType.IN || predicateType == PredicateType.NOT_IN) {
+                // Sets are rendered as literals
+                shape.add(((HasArg0<?>) fieldPredicate).get0());
+            } else {
+                if (fieldPredicate instanceof HasArg0) {
+                    shape.add(valueClass(((HasArg0<?>) fieldPredicate).get0()));
+                }
+                if (fieldPredicate instanceof HasArg1) {
+                    shape.add(valueClass(((HasArg1<?>) fieldPredicate).get1()));
+                }
+            }
+            if (fieldPredicate instanceof HasInclusion) {
+                shape.add(((HasInclusion) fieldPredicate).getInclusion());
+            }
+            return shape;
+        }
+        if (argument instanceof CombinedPredicate) {
+            final CombinedPredicate<?> combinedPredicate = (CombinedPredicate<?>) argument;
+            return Arrays.asList(
+                combinedPredicate.getType(),
+                combinedPredicate.stream()
+                    .map(PipelineShape::argument)
+                    .collect(Collectors.toList())
+            );
+        }
+        if (argument instanceof FieldComparator) {
+            final FieldComparator<?> fieldComparator = (FieldComparator<?>) argument;
+            return Arrays.asList(
+                field(fieldComparator.getField()),
+                fieldComparator.getNullOrder(),
+                fieldComparator.isReversed()
+            );
+        }
+        if (argument instanceof FieldCollector) {
+            // Groups of field values may be rendered as a GROUP BY clause
+            final FieldCollector<?, ?, ?> fieldCollector = (FieldCollector<?, ?, ?>) argument;
+            return Arrays.asList(
+                field(fieldCollector.getField()),
+                fieldCollector.getDownstream().map(PipelineShape::argument).orElse(null)
+            );
+        }
+        if (argument instanceof AggregateCollector) {
+            final AggregateCollector<?, ?, ?> aggregateCollector = (AggregateCollector<?, ?, ?>) argument;
+            return Arrays.asList(
+                aggregateCollector.getAggregateType(),
+                aggregateCollector.getField().map(PipelineShape::field).orElse(null)
+            );
+        }
+        if (argument instanceof Field) {
+            // Fields mapped to primitive streams may be rendered as aggregated columns
+            return field((Field<?>) argument);
+        }
+        if (argument instanceof CombinedComparator) {
+            return ((CombinedComparator<?>) argument).stream()
+                .map(PipelineShape::argument)
+                .collect(Collectors.toList());
+        }
+        // Arguments that are not rendered into the query are retained as is in the pipeline
+        return valueClass(argument);
+    }
+
+    private static Object field(final Field<?> field) {
+        return Arrays.asList(field.table(), field.columnName());
+    }
+
+    private static Class<?> valueClass(final Object value) {
+        return value == null ? null : value.getClass();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final PipelineShape that = (PipelineShape) o;
+        return hashCode == that.hashCode && elements.equals(that.elements);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineShape{" + elements + '}';
+    }
+}
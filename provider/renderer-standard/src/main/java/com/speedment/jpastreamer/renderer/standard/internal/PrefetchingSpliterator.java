@@ -0,0 +1,170 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * A Spliterator that reads the elements of an underlying Stream in a
+ * background thread and hands them over to the consumer via a bounded buffer.
+ * <p>
+ * The background thread is started upon the first traversal and stays at most
+ * {@code depth} elements ahead of the consumer. Any exception thrown
+ * by the underlying Stream is rethrown to the consumer.
+ * <p>
+ * The underlying Stream is closed by {@link #close()} once the background
+ * thread has stopped so that the underlying Stream is never accessed
+ * by two threads at the same time.
+ *
+ * @param <E> element type
+ */
+final class PrefetchingSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final long OFFER_TIMEOUT_MILLIS = 10;
+
+    private static final Object NULL = new Object();
+    private static final Object END = new Object();
+
+    private final Stream<E> source;
+    private final BlockingQueue<Object> buffer;
+    private final CountDownLatch stopped;
+
+    private volatile boolean closed;
+    private Thread producer;
+    private boolean exhausted;
+
+    PrefetchingSpliterator(final Stream<E> source, final int depth) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        if (depth < 1) {
+            throw new IllegalArgumentException("The prefetch depth must be positive: " + depth);
+        }
+        this.source = requireNonNull(source);
+        this.buffer = new ArrayBlockingQueue<>(depth);
+        this.stopped = new CountDownLatch(1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(final Consumer<? super E> action) {
+        requireNonNull(action);
+        if (exhausted) {
+            return false;
+        }
+        if (producer == null) {
+            start();
+        }
+        final Object item;
+        try {
+            item = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next element", e);
+        }
+        if (item == END) {
+            exhausted = true;
+            return false;
+        }
+        if (item instanceof Failure) {
+            exhausted = true;
+            final Throwable cause = ((Failure) item).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        action.accept(item == NULL ? null : (E) item);
+        return true;
+    }
+
+    /**
+     * Stops the background thread, if started, and then closes the underlying Stream.
+     */
+    void close() {
+        closed = true;
+        if (producer != null) {
+            // Makes room for a producer waiting to hand over an element
+            buffer.clear();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    stopped.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        source.close();
+    }
+
+    private void start() {
+        producer = new Thread(this::produce, "jpastreamer-prefetch-" + THREAD_COUNTER.incrementAndGet());
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce() {
+        try {
+            final Spliterator<E> spliterator = source.spliterator();
+            boolean more = true;
+            while (more && !closed) {
+                more = spliterator.tryAdvance(e -> hand(e == null ? NULL : e));
+            }
+            hand(END);
+        } catch (Throwable t) {
+            hand(new Failure(t));
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    private void hand(final Object item) {
+        try {
+            while (!closed) {
+                if (buffer.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+    }
+
+    private static final class Failure {
+
+        private final Throwable cause;
+
+        private Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+}
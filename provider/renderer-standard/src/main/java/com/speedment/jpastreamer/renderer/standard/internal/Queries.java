@@ -0,0 +1,113 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration.JoinStrategy;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Optional;
+
+/**
+ * Utility methods shared by the strategies that render a pipeline into one
+ * or more queries.
+ */
+final class Queries {
+
+    private Queries() {}
+
+    /**
+     * Returns a new TypedQuery of the query of the provided {@code criteria}
+     * with the parameters of the criteria bound.
+     */
+    @SuppressWarnings("unchecked")
+    static <E, R> TypedQuery<R> createQuery(final Criteria<E, R> criteria, final EntityManager entityManager) {
+        final TypedQuery<R> typedQuery = entityManager.createQuery(criteria.getQuery());
+
+        criteria.getQueryParameters().forEach(
+            queryParameter -> typedQuery.setParameter(queryParameter.getParameterExpression(), queryParameter.getValue())
+        );
+
+        return typedQuery;
+    }
+
+    /**
+     * Applies the entity graph configured by the provided {@code streamConfiguration} to the
+     * provided {@code typedQuery} if the query reads entities of the configured entity class.
+     */
+    static <E> void applyGraph(
+        final TypedQuery<?> typedQuery,
+        final Class<?> resultType,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager
+    ) {
+        final Optional<StreamConfiguration.GraphConfiguration<E>> oGraphConfiguration = streamConfiguration.graph();
+        // Projected entities are constructed from their columns
+        if (!oGraphConfiguration.isPresent()
+            || resultType != streamConfiguration.entityClass()
+            || streamConfiguration.selections().isPresent()
+        ) {
+            return;
+        }
+
+        final StreamConfiguration.GraphConfiguration<E> graphConfiguration = oGraphConfiguration.get();
+        final EntityGraph<?> entityGraph;
+        if (graphConfiguration.name().isPresent()) {
+            entityGraph = entityManager.getEntityGraph(graphConfiguration.name().get());
+        } else {
+            final EntityGraph<E> fieldGraph = entityManager.createEntityGraph(streamConfiguration.entityClass());
+            graphConfiguration.fields().forEach(field -> fieldGraph.addAttributeNodes(field.columnName()));
+            entityGraph = fieldGraph;
+        }
+
+        typedQuery.setHint(graphConfiguration.graphType().hint(), entityGraph);
+    }
+
+    static boolean isFetchJoined(final StreamConfiguration<?> streamConfiguration) {
+        return streamConfiguration.joins().stream()
+            .anyMatch(joinConfiguration -> joinConfiguration.joinStrategy() == JoinStrategy.FETCH_JOIN);
+    }
+
+    static boolean hasSkipOrLimit(final Pipeline<?> pipeline) {
+        return pipeline.intermediateOperations().stream()
+            .map(IntermediateOperation::type)
+            .anyMatch(type -> type == IntermediateOperationType.SKIP || type == IntermediateOperationType.LIMIT);
+    }
+
+    static boolean hasLimit(final Pipeline<?> pipeline) {
+        return pipeline.intermediateOperations().stream()
+            .map(IntermediateOperation::type)
+            .anyMatch(type -> type == IntermediateOperationType.LIMIT);
+    }
+
+    static Class<?> wrapperType(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == float.class) return Float.class;
+        if (type == double.class) return Double.class;
+        return type;
+    }
+}
@@ -16,53 +16,154 @@ import static java.util.Objects.requireNonNull;
 
 import com.speedment.jpastreamer.criteria.Criteria;
 import com.speedment.jpastreamer.criteria.CriteriaFactory;
+import com.speedment.jpastreamer.criteria.PredicateFactory;
+import com.speedment.jpastreamer.criteria.QueryParameter;
+import com.speedment.jpastreamer.exception.JPAStreamerException;
+import com.speedment.jpastreamer.field.DoubleField;
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.field.LongField;
+import com.speedment.jpastreamer.field.collector.AggregateCollector;
+import com.speedment.jpastreamer.field.collector.AggregateType;
+import com.speedment.jpastreamer.field.collector.FieldCollector;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
 import com.speedment.jpastreamer.interopoptimizer.IntermediateOperationOptimizerFactory;
+import com.speedment.jpastreamer.termopoptimizer.TerminalOperationOptimizerFactory;
 import com.speedment.jpastreamer.merger.CriteriaMerger;
 import com.speedment.jpastreamer.merger.MergerFactory;
 import com.speedment.jpastreamer.merger.QueryMerger;
 import com.speedment.jpastreamer.pipeline.Pipeline;
 import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperation;
 import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationType;
 import com.speedment.jpastreamer.projection.Projection;
+import com.speedment.jpastreamer.renderer.EntityManagerPool;
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
 import com.speedment.jpastreamer.renderer.RenderResult;
 import com.speedment.jpastreamer.renderer.Renderer;
 import com.speedment.jpastreamer.rootfactory.RootFactory;
 import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration.JoinStrategy;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CompoundSelection;
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 final class StandardRenderer implements Renderer {
 
-    private final EntityManager entityManager;
+    private final EntityManagerPool entityManagerPool;
+    private final Set<EntityManager> leasedEntityManagers;
     private final CriteriaFactory criteriaFactory;
 
     private final IntermediateOperationOptimizerFactory intermediateOperationOptimizerFactory;
+    private final TerminalOperationOptimizerFactory terminalOperationOptimizerFactory;
 
     private final MergerFactory mergerFactory;
+    private final PredicateFactory predicateFactory;
+    private final CompiledPipelineCache compiledPipelineCache;
 
     StandardRenderer(final EntityManagerFactory entityManagerFactory) {
-        this.entityManager = requireNonNull(entityManagerFactory).createEntityManager();
+        this(entityManagerFactory, CompiledPipelineCache.DEFAULT_CAPACITY);
+    }
+
+    StandardRenderer(final EntityManagerPool entityManagerPool) {
+        this(entityManagerPool, CompiledPipelineCache.DEFAULT_CAPACITY);
+    }
+
+    StandardRenderer(final EntityManagerFactory entityManagerFactory, final int queryCacheCapacity) {
+        this(new PerRenderEntityManagerPool(entityManagerFactory), queryCacheCapacity);
+    }
+
+    StandardRenderer(final EntityManagerPool entityManagerPool, final int queryCacheCapacity) {
+        this.entityManagerPool = requireNonNull(entityManagerPool);
+        this.leasedEntityManagers = ConcurrentHashMap.newKeySet();
         this.criteriaFactory = RootFactory.getOrThrow(CriteriaFactory.class, ServiceLoader::load);
         this.intermediateOperationOptimizerFactory = RootFactory.getOrThrow(IntermediateOperationOptimizerFactory.class, ServiceLoader::load);
+        this.terminalOperationOptimizerFactory = RootFactory.getOrThrow(TerminalOperationOptimizerFactory.class, ServiceLoader::load);
         this.mergerFactory = RootFactory.getOrThrow(MergerFactory.class, ServiceLoader::load);
+        this.predicateFactory = RootFactory.getOrThrow(PredicateFactory.class, ServiceLoader::load);
+        this.compiledPipelineCache = new CompiledPipelineCache(queryCacheCapacity);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <E, T, S extends BaseStream<T, S>> RenderResult<E, T, S> render(final Pipeline<E> pipeline, final StreamConfiguration<E> streamConfiguration) {
-        optimizePipeline(pipeline);
+        // Each rendered stream leases its own persistence context that is released when the stream is closed
+        final EntityManager entityManager = acquire();
+        try {
+            final RenderResult<E, T, S> renderResult = render(pipeline, streamConfiguration, entityManager);
+            return new StandardRenderResult<>(
+                    renderResult.root(),
+                    renderResult.stream().onClose(() -> release(entityManager)),
+                    renderResult.terminalOperation()
+            );
+        } catch (RuntimeException e) {
+            release(entityManager);
+            throw e;
+        }
+    }
 
+    @SuppressWarnings("unchecked")
+    private <E, T, S extends BaseStream<T, S>> RenderResult<E, T, S> render(
+        final Pipeline<E> pipeline,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager
+    ) {
         final Class<E> entityClass = pipeline.root();
 
+        // Keyset-chunked and partitioned queries are modified for each chunk or partition and can not be reused
+        final boolean cacheable = !streamConfiguration.chunkSize().isPresent() && !pipeline.isParallel();
+        final PipelineShape shape = cacheable ? PipelineShape.of(pipeline, streamConfiguration) : null;
+
+        if (cacheable) {
+            final Optional<CompiledPipeline> oCompiledPipeline = compiledPipelineCache.get(shape);
+            if (oCompiledPipeline.isPresent()) {
+                final CompiledPipeline compiledPipeline = oCompiledPipeline.get();
+                final Optional<TypedQuery<?>> oTypedQuery = createQuery(compiledPipeline, pipeline, entityManager);
+                if (oTypedQuery.isPresent()) {
+                    if (compiledPipeline.isCount()) {
+                        return countResult(pipeline, (Stream<Long>) oTypedQuery.get().getResultStream());
+                    }
+                    Queries.applyGraph(oTypedQuery.get(), compiledPipeline.resultType(), streamConfiguration, entityManager);
+                    return renderResult(pipeline, streamConfiguration, source((Stream<E>) oTypedQuery.get().getResultStream(), pipeline, streamConfiguration, entityManager));
+                }
+            }
+        }
+
+        final List<IntermediateOperation<?, ?>> originalOperations = new ArrayList<>(pipeline.intermediateOperations());
+
+        optimizePipeline(pipeline, streamConfiguration);
+
+        if (isEmptyResult(pipeline)) {
+            // The remaining operations are applied to the empty stream without querying the database
+            return renderResult(pipeline, streamConfiguration, Stream.empty());
+        }
+
         final CriteriaMerger criteriaMerger = mergerFactory.createCriteriaMerger();
         final QueryMerger queryMerger = mergerFactory.createQueryMerger();
 
@@ -81,46 +182,594 @@ final class StandardRenderer implements Renderer {
             criteria.getQuery().select(criteria.getRoot());
         }
 
-        streamConfiguration.joins()
+        streamConfiguration.joins().stream()
+                .filter(joinConfiguration -> joinConfiguration.joinStrategy() == JoinStrategy.FETCH_JOIN)
                 .forEach(joinConfiguration -> criteria.getRoot().fetch(joinConfiguration.field().columnName(), joinConfiguration.joinType()));
 
+        final Selection<?> selection = criteria.getQuery().getSelection();
+        final List<IntermediateOperation<?, ?>> mergeableOperations = new ArrayList<>(pipeline.intermediateOperations());
+
         criteriaMerger.merge(pipeline, criteria);
 
-        if (pipeline.terminatingOperation().type() == TerminalOperationType.COUNT && pipeline.intermediateOperations().isEmpty()) {
-            final Criteria<E, Long> countCriteria = createCountCriteria(criteria);
+        // A map operation with a field has been merged into the select list
+        final boolean projected = criteria.getQuery().getSelection() != selection;
 
-            final TypedQuery<Long> typedQuery = entityManager.createQuery(countCriteria.getQuery());
+        final Optional<Field<E>> oAggregatedField = aggregatedField(pipeline, mergeableOperations, projected, streamConfiguration);
+        if (oAggregatedField.isPresent()) {
+            return aggregateResult(criteria, oAggregatedField.get(), pipeline, entityManager);
+        }
 
-            countCriteria.getQueryParameters().forEach(
-                queryParameter -> typedQuery.setParameter(queryParameter.getParameterExpression(), queryParameter.getValue())
-            );
+        final Optional<FieldCollector<E, ?, ?>> oGroupingCollector = groupingCollector(pipeline, streamConfiguration);
+        if (oGroupingCollector.isPresent()) {
+            return groupingResult(criteria, oGroupingCollector.get(), pipeline, entityManager);
+        }
 
-            return (RenderResult<E, T, S>) new StandardRenderResult<>(
-                    entityClass,
-                    typedQuery.getResultStream(),
-                    pipeline.terminatingOperation()
+        // COUNT(DISTINCT column) would not count a null value, so distinct values are counted as they are streamed
+        if (pipeline.terminatingOperation().type() == TerminalOperationType.COUNT
+            && isSkipAndLimitOnly(pipeline)
+            && !(projected && criteria.getQuery().isDistinct())
+        ) {
+            final Criteria<E, Long> countCriteria = createCountCriteria(criteria, entityManager);
+
+            final TypedQuery<Long> typedQuery = Queries.createQuery(countCriteria, entityManager);
+
+            if (cacheable) {
+                compile(countCriteria, true, originalOperations, pipeline, typedQuery)
+                    .ifPresent(compiledPipeline -> compiledPipelineCache.put(shape, compiledPipeline));
+            }
+
+            // Any remaining skip and limit operations are applied to the count
+            return countResult(pipeline, typedQuery.getResultStream());
+        }
+
+        // Column values can neither be seeked past nor partitioned by their identifiers
+        final Optional<Stream<E>> oKeysetStream = projected
+            ? Optional.empty()
+            : KeysetStreams.stream(criteria, streamConfiguration, entityManager);
+        final Optional<Stream<E>> oPartitionedStream = projected || oKeysetStream.isPresent()
+            ? Optional.empty()
+            : PartitionedStreams.stream(
+                criteria,
+                pipeline,
+                streamConfiguration,
+                entityManager,
+                this::acquire,
+                this::release,
+                (stream, partitionEntityManager) -> decorate(stream, pipeline, streamConfiguration, partitionEntityManager)
             );
+        final Optional<Stream<E>> oPagedStream = projected || oKeysetStream.isPresent() || oPartitionedStream.isPresent()
+            ? Optional.empty()
+            : PagedStreams.stream(criteria, pipeline, queryMerger, criteriaFactory, streamConfiguration, entityManager);
+
+        final Stream<E> resultStream;
+        if (oKeysetStream.isPresent()) {
+            // Skip and limit operations are retained in the pipeline and applied lazily
+            resultStream = source(oKeysetStream.get(), pipeline, streamConfiguration, entityManager);
+        } else if (oPartitionedStream.isPresent()) {
+            // Skip and limit operations are retained in the pipeline and applied to the combined partitions
+            resultStream = oPartitionedStream.get();
+        } else if (oPagedStream.isPresent()) {
+            // Skip and limit operations have been merged into the query of the identifiers
+            resultStream = source(oPagedStream.get(), pipeline, streamConfiguration, entityManager);
+        } else {
+            if (streamConfiguration.ordersById()
+                && Queries.hasSkipOrLimit(pipeline)
+                && !(projected && criteria.getQuery().isDistinct())
+            ) {
+                // Skip and limit are merged into the query and read a page that is stable across queries
+                Identifiers.orderById(criteria);
+            }
+
+            // The result type of a query must match its selection
+            final Criteria<E, ?> renderedCriteria = projected
+                ? createProjectedCriteria(criteria, entityManager)
+                : criteria;
+
+            final TypedQuery<?> typedQuery = Queries.createQuery(renderedCriteria, entityManager);
+            queryMerger.merge(pipeline, typedQuery);
+            Queries.applyGraph(typedQuery, renderedCriteria.getQuery().getResultType(), streamConfiguration, entityManager);
+
+            if (cacheable) {
+                compile(renderedCriteria, false, originalOperations, pipeline, typedQuery)
+                    .ifPresent(compiledPipeline -> compiledPipelineCache.put(shape, compiledPipeline));
+            }
+
+            resultStream = source((Stream<E>) typedQuery.getResultStream(), pipeline, streamConfiguration, entityManager);
         }
 
-        final TypedQuery<E> typedQuery = entityManager.createQuery(criteria.getQuery());
+        return renderResult(pipeline, streamConfiguration, resultStream);
+    }
 
-        criteria.getQueryParameters().forEach(
-            queryParameter -> typedQuery.setParameter(queryParameter.getParameterExpression(), queryParameter.getValue())
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private <E, T, S extends BaseStream<T, S>> RenderResult<E, T, S> countResult(
+        final Pipeline<E> pipeline,
+        final Stream<Long> countStream
+    ) {
+        final List<IntermediateOperation<?, ?>> operations = new ArrayList<>(pipeline.intermediateOperations());
+        return (RenderResult<E, T, S>) new StandardRenderResult(
+                Long.class,
+                countStream.map(count -> countAfter(count, operations)),
+                pipeline.terminatingOperation()
         );
+    }
 
-        queryMerger.merge(pipeline, typedQuery);
+    /**
+     * Returns the field that is mapped to a primitive stream and then aggregated by
+     * the terminal operation of the provided optimized {@code pipeline} or
+     * {@link Optional#empty()} if the pipeline has other remaining operations or
+     * does not end with a sum, average, min, max or summaryStatistics operation.
+     * <p>
+     * For example, {@code filter(Film$.rating.equal("G")).mapToInt(Film$.length).sum()}
+     * has the aggregated field {@code Film$.length} once the filter has been merged.
+     * <p>
+     * If the operation mapping to the primitive stream has been merged into the
+     * select list, it is the last of the provided {@code mergeableOperations}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> Optional<Field<E>> aggregatedField(
+        final Pipeline<E> pipeline,
+        final List<IntermediateOperation<?, ?>> mergeableOperations,
+        final boolean projected,
+        final StreamConfiguration<E> streamConfiguration
+    ) {
+        final List<IntermediateOperation<?, ?>> operations = pipeline.intermediateOperations();
+        if (operations.size() != 1) {
+            return Optional.empty();
+        }
 
-        final Stream<E> baseStream = typedQuery.getResultStream();
-        final S replayed = replay(baseStream, pipeline);
+        final IntermediateOperation<?, ?> operation = projected
+            ? mergeableOperations.get(mergeableOperations.size() - 1)
+            : operations.get(0);
+        if (operation.type() != IntermediateOperationType.MAP_TO
+            || operation.arguments().length != 1
+            // Fetch joins may repeat the aggregated rows
+            || Queries.isFetchJoined(streamConfiguration)
+        ) {
+            return Optional.empty();
+        }
+
+        switch (pipeline.terminatingOperation().type()) {
+            case SUM_INT:
+            case SUM_LONG:
+            case SUM_DOUBLE:
+            case AVERAGE:
+            case SUMMARY_STATISTICS:
+            case MIN:
+            case MAX:
+                break;
+            default:
+                return Optional.empty();
+        }
+
+        final Object mapper = operation.arguments()[0];
+        final Class<?> streamType = pipeline.terminatingOperation().streamType();
+        if ((streamType == IntStream.class && mapper instanceof IntField)
+            || (streamType == LongStream.class && mapper instanceof LongField)
+            || (streamType == DoubleStream.class && mapper instanceof DoubleField)
+        ) {
+            return Optional.of((Field<E>) mapper);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns a RenderResult with the terminal operation of the provided {@code pipeline}
+     * replaced by its result as computed by a single aggregate query over the
+     * {@code field} restricted by the provided merged {@code criteria}.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private <E, T, S extends BaseStream<T, S>> RenderResult<E, T, S> aggregateResult(
+        final Criteria<E, E> criteria,
+        final Field<E> field,
+        final Pipeline<E> pipeline,
+        final EntityManager entityManager
+    ) {
+        final Criteria<E, Object[]> aggregateCriteria = createAggregateCriteria(criteria, field, entityManager);
+        final Object[] aggregates = Queries.createQuery(aggregateCriteria, entityManager).getSingleResult();
+
+        final TerminalOperation<?, ?> terminalOperation = pipeline.terminatingOperation();
+        final Class<?> streamType = terminalOperation.streamType();
+        final Object result = Aggregates.result(
+            terminalOperation.type(),
+            streamType,
+            ((Number) aggregates[0]).longValue(),
+            (Number) aggregates[1],
+            (Number) aggregates[2],
+            (Number) aggregates[3]
+        );
+
+        final BaseStream<?, ?> stream;
+        if (streamType == IntStream.class) {
+            stream = IntStream.empty();
+        } else if (streamType == LongStream.class) {
+            stream = LongStream.empty();
+        } else {
+            stream = DoubleStream.empty();
+        }
+
+        return (RenderResult<E, T, S>) new StandardRenderResult(
+            pipeline.root(),
+            stream,
+            new AggregateTerminalOperation(terminalOperation, result)
+        );
+    }
+
+    /**
+     * Returns the collector of the provided optimized {@code pipeline} if it groups
+     * entities by the value of a field and aggregates each group using an
+     * {@link AggregateCollector} or {@link Optional#empty()} if the pipeline has
+     * remaining operations or does not collect such groups.
+     * <p>
+     * For example, {@code filter(Film$.length.greaterThan(60)).collect(groupingBy(Film$.rating, counting()))}
+     * has such a collector once the filter has been merged.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> Optional<FieldCollector<E, ?, ?>> groupingCollector(final Pipeline<E> pipeline, final StreamConfiguration<E> streamConfiguration) {
+        final TerminalOperation<?, ?> terminalOperation = pipeline.terminatingOperation();
+        if (terminalOperation.type() != TerminalOperationType.COLLECT
+            || terminalOperation.arguments().length != 1
+            || !(terminalOperation.arguments()[0] instanceof FieldCollector)
+            || !pipeline.intermediateOperations().isEmpty()
+            // Fetch joins may repeat the grouped rows
+            || Queries.isFetchJoined(streamConfiguration)
+        ) {
+            return Optional.empty();
+        }
+
+        final FieldCollector<E, ?, ?> fieldCollector = (FieldCollector<E, ?, ?>) terminalOperation.arguments()[0];
+        if (!fieldCollector.getMapFactory().isPresent()) {
+            return Optional.empty();
+        }
+
+        return fieldCollector.getDownstream()
+            .filter(AggregateCollector.class::isInstance)
+            .map(downstream -> (AggregateCollector<?, ?, ?>) downstream)
+            .filter(downstream -> downstream.getAggregateType() == AggregateType.COUNT || downstream.getField().isPresent())
+            .map(downstream -> fieldCollector);
+    }
+
+    /**
+     * Returns a RenderResult with the terminal operation of the provided {@code pipeline}
+     * replaced by the map of groups produced by the provided {@code fieldCollector} as
+     * computed by a single {@code GROUP BY} query restricted by the provided merged
+     * {@code criteria}.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private <E, T, S extends BaseStream<T, S>> RenderResult<E, T, S> groupingResult(
+        final Criteria<E, E> criteria,
+        final FieldCollector<E, ?, ?> fieldCollector,
+        final Pipeline<E> pipeline,
+        final EntityManager entityManager
+    ) {
+        final AggregateCollector<E, ?, ?> downstream = (AggregateCollector<E, ?, ?>) fieldCollector.getDownstream().get();
+        final Criteria<E, Object[]> groupingCriteria = createGroupingCriteria(criteria, fieldCollector.getField(), downstream, entityManager);
+
+        final Map<Object, Object> groups = Aggregates.groups(fieldCollector, Queries.createQuery(groupingCriteria, entityManager).getResultList());
+
+        return (RenderResult<E, T, S>) new StandardRenderResult(
+            pipeline.root(),
+            Stream.empty(),
+            new AggregateTerminalOperation(pipeline.terminatingOperation(), groups)
+        );
+    }
+
+    /**
+     * Returns if the provided optimized {@code pipeline} is known not to produce any
+     * elements from the query, which is the case if it starts with a {@code limit(0)}
+     * operation preceded only by operations without side effects. For example, a
+     * filter that never holds is optimized into such an operation.
+     */
+    private static boolean isEmptyResult(final Pipeline<?> pipeline) {
+        for (IntermediateOperation<?, ?> operation : pipeline.intermediateOperations()) {
+            switch (operation.type()) {
+                case LIMIT: {
+                    if (operation.arguments().length == 1 && Long.valueOf(0).equals(operation.arguments()[0])) {
+                        return true;
+                    }
+                    break;
+                }
+                case FILTER:
+                case SORTED:
+                case DISTINCT:
+                case SKIP:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSkipAndLimitOnly(final Pipeline<?> pipeline) {
+        return pipeline.intermediateOperations().stream()
+            .map(IntermediateOperation::type)
+            .allMatch(type -> type == IntermediateOperationType.SKIP || type == IntermediateOperationType.LIMIT);
+    }
+
+    /**
+     * Returns the number of elements remaining after applying the provided skip
+     * and limit {@code operations} to a stream of {@code count} elements.
+     */
+    private static long countAfter(final long count, final List<IntermediateOperation<?, ?>> operations) {
+        long result = count;
+        for (IntermediateOperation<?, ?> operation : operations) {
+            final long n = (Long) operation.arguments()[0];
+            switch (operation.type()) {
+                case SKIP:
+                    result = Math.max(0, result - n);
+                    break;
+                case LIMIT:
+                    result = Math.min(result, n);
+                    break;
+                default:
+                    throw new JPAStreamerException("Unable to count after " + operation.type());
+            }
+        }
+        return result;
+    }
+
+    private static long count(final BaseStream<?, ?> stream) {
+        if (stream instanceof Stream) {
+            return ((Stream<?>) stream).count();
+        }
+        if (stream instanceof IntStream) {
+            return ((IntStream) stream).count();
+        }
+        if (stream instanceof LongStream) {
+            return ((LongStream) stream).count();
+        }
+        if (stream instanceof DoubleStream) {
+            return ((DoubleStream) stream).count();
+        }
+        long count = 0;
+        for (final Iterator<?> iterator = stream.iterator(); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E, T, S extends BaseStream<T, S>> RenderResult<E, T, S> renderResult(
+        final Pipeline<E> pipeline,
+        final StreamConfiguration<E> streamConfiguration,
+        final Stream<E> resultStream
+    ) {
+        final Stream<E> baseStream = pipeline.isParallel()
+            ? resultStream.parallel()
+            : resultStream;
+
+        final S replayed = replay(baseStream, pipeline, streamConfiguration.spillThreshold());
+
+        if (pipeline.terminatingOperation().type() == TerminalOperationType.COUNT) {
+            // Operations not affecting the count may have been removed, including operations
+            // changing the stream type, so the replayed stream is counted here rather than
+            // by the terminal operation
+            return (RenderResult<E, T, S>) new StandardRenderResult<>(
+                    Long.class,
+                    Stream.of(replayed).map(StandardRenderer::count).onClose(replayed::close),
+                    pipeline.terminatingOperation()
+            );
+        }
 
         return new StandardRenderResult<>(
-                entityClass,
+                pipeline.root(),
                 replayed,
                 pipeline.terminatingOperation()
         );
     }
 
-    private <T> Criteria<T, Long> createCountCriteria(final Criteria<T, T> criteria) {
+    /**
+     * Creates a query from the provided {@code compiledPipeline} bound to the parameter
+     * values of the provided unoptimized {@code pipeline} and replaces the operations of the
+     * pipeline with the operations that are not merged into the query.
+     * <p>
+     * If the parameter values cannot be derived, {@link Optional#empty()} is returned
+     * and the pipeline is left untouched.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Optional<TypedQuery<?>> createQuery(
+        final CompiledPipeline compiledPipeline,
+        final Pipeline<?> pipeline,
+        final EntityManager entityManager
+    ) {
+        final List<IntermediateOperation<?, ?>> operations = pipeline.intermediateOperations();
+        final Criteria<?, ?> compiledCriteria = compiledPipeline.criteria();
+
+        final TypedQuery<?> typedQuery;
+        // The compiled Criteria is shared by all threads rendering pipelines of the same shape
+        synchronized (compiledCriteria) {
+            final Optional<List<Object>> oValues = parameterValues(compiledCriteria, compiledPipeline.mergedPredicates(operations));
+            if (!oValues.isPresent() || oValues.get().size() != compiledCriteria.getQueryParameters().size()) {
+                return Optional.empty();
+            }
+
+            typedQuery = entityManager.createQuery(compiledCriteria.getQuery());
+            final List<QueryParameter> queryParameters = compiledCriteria.getQueryParameters();
+            for (int i = 0; i < queryParameters.size(); i++) {
+                typedQuery.setParameter(queryParameters.get(i).getParameterExpression(), oValues.get().get(i));
+            }
+        }
+
+        final int firstResult = compiledPipeline.firstResult(operations);
+        if (firstResult != typedQuery.getFirstResult()) {
+            typedQuery.setFirstResult(firstResult);
+        }
+        final int maxResults = compiledPipeline.maxResults(operations);
+        if (maxResults != typedQuery.getMaxResults()) {
+            typedQuery.setMaxResults(maxResults);
+        }
+
+        final List<IntermediateOperation<?, ?>> remainingOperations = compiledPipeline.remainingOperations(operations);
+        operations.clear();
+        operations.addAll(remainingOperations);
+
+        return Optional.of(typedQuery);
+    }
+
+    /**
+     * Compiles the provided rendered {@code criteria} into a CompiledPipeline that can be
+     * reused for pipelines of the same shape or returns {@link Optional#empty()} if the
+     * query cannot be reapplied by only rebinding parameter values.
+     */
+    private Optional<CompiledPipeline> compile(
+        final Criteria<?, ?> criteria,
+        final boolean count,
+        final List<IntermediateOperation<?, ?>> originalOperations,
+        final Pipeline<?> optimizedPipeline,
+        final TypedQuery<?> typedQuery
+    ) {
+        final List<IntermediateOperation<?, ?>> remaining = optimizedPipeline.intermediateOperations();
+        final int[] remainingIndexes = new int[remaining.size()];
+        for (int i = 0; i < remaining.size(); i++) {
+            remainingIndexes[i] = indexOf(originalOperations, remaining.get(i));
+            if (remainingIndexes[i] == CompiledPipeline.NO_INDEX) {
+                // The operation was created by an optimizer
+                return Optional.empty();
+            }
+        }
+
+        final List<Integer> mergedPredicateIndexes = new ArrayList<>();
+        int firstResultIndex = CompiledPipeline.NO_INDEX;
+        int maxResultsIndex = CompiledPipeline.NO_INDEX;
+        for (int i = 0; i < originalOperations.size(); i++) {
+            final IntermediateOperation<?, ?> operation = originalOperations.get(i);
+            if (indexOf(remaining, operation) != CompiledPipeline.NO_INDEX) {
+                continue;
+            }
+            if (!CompiledPipeline.isReapplicable(operation)) {
+                return Optional.empty();
+            }
+            switch (operation.type()) {
+                case FILTER: {
+                    mergedPredicateIndexes.add(i);
+                    break;
+                }
+                case SKIP: {
+                    if (firstResultIndex != CompiledPipeline.NO_INDEX || CompiledPipeline.intArgument(operation) != typedQuery.getFirstResult()) {
+                        return Optional.empty();
+                    }
+                    firstResultIndex = i;
+                    break;
+                }
+                case LIMIT: {
+                    if (maxResultsIndex != CompiledPipeline.NO_INDEX || CompiledPipeline.intArgument(operation) != typedQuery.getMaxResults()) {
+                        return Optional.empty();
+                    }
+                    maxResultsIndex = i;
+                    break;
+                }
+                default: // The operation is rendered as part of the query structure
+            }
+        }
+
+        final CompiledPipeline compiledPipeline = new CompiledPipeline(
+            criteria,
+            count,
+            mergedPredicateIndexes.stream().mapToInt(Integer::intValue).toArray(),
+            remainingIndexes,
+            firstResultIndex,
+            typedQuery.getFirstResult(),
+            maxResultsIndex,
+            typedQuery.getMaxResults()
+        );
+
+        // Verify that the parameter values can be derived from the original operations
+        final List<Object> expected = criteria.getQueryParameters().stream()
+            .map(queryParameter -> ((QueryParameter<?>) queryParameter).getValue())
+            .collect(Collectors.toList());
+
+        return parameterValues(criteria, compiledPipeline.mergedPredicates(originalOperations))
+            .filter(expected::equals)
+            .map(values -> compiledPipeline);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<List<Object>> parameterValues(
+        final Criteria<?, ?> criteria,
+        final List<SpeedmentPredicate<Object>> predicates
+    ) {
+        final Criteria<Object, ?> scratch = criteriaFactory.createCriteria(
+            criteria.getBuilder(),
+            criteria.getQuery(),
+            (Root<Object>) criteria.getRoot()
+        );
+
+        try {
+            predicates.forEach(predicate -> predicateFactory.createPredicate(scratch, predicate));
+        } catch (JPAStreamerException e) {
+            return Optional.empty();
+        }
+
+        return Optional.of(scratch.getQueryParameters().stream()
+            .map(queryParameter -> ((QueryParameter<?>) queryParameter).getValue())
+            .collect(Collectors.toList()));
+    }
+
+    private static int indexOf(final List<IntermediateOperation<?, ?>> operations, final IntermediateOperation<?, ?> operation) {
+        for (int i = 0; i < operations.size(); i++) {
+            if (operations.get(i) == operation) {
+                return i;
+            }
+        }
+        return CompiledPipeline.NO_INDEX;
+    }
+
+    private EntityManager acquire() {
+        final EntityManager entityManager = entityManagerPool.acquire();
+        leasedEntityManagers.add(entityManager);
+        return entityManager;
+    }
+
+    private void release(final EntityManager entityManager) {
+        if (leasedEntityManagers.remove(entityManager)) {
+            entityManagerPool.release(entityManager);
+        }
+    }
+
+    /**
+     * Returns a Stream of the provided query result {@code stream} with clearing
+     * and prefetching applied as configured by the provided {@code streamConfiguration}.
+     */
+    private <E> Stream<E> source(
+        final Stream<E> stream,
+        final Pipeline<E> pipeline,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager
+    ) {
+        final Stream<E> clearingStream = decorate(stream, pipeline, streamConfiguration, entityManager);
+        final OptionalInt prefetchDepth = streamConfiguration.prefetchDepth();
+        if (!prefetchDepth.isPresent() || pipeline.isParallel()) {
+            return clearingStream;
+        }
+        // Clearing is applied in the prefetching thread that is the only thread using the EntityManager
+        final PrefetchingSpliterator<E> spliterator = new PrefetchingSpliterator<>(clearingStream, prefetchDepth.getAsInt());
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Returns a Stream of the provided query result {@code stream} with batch fetching
+     * and clearing applied as configured by the provided {@code streamConfiguration}.
+     */
+    private <E> Stream<E> decorate(
+        final Stream<E> stream,
+        final Pipeline<E> pipeline,
+        final StreamConfiguration<E> streamConfiguration,
+        final EntityManager entityManager
+    ) {
+        return withClearing(BatchFetching.withBatchFetching(stream, pipeline.root(), streamConfiguration, entityManager), streamConfiguration, entityManager);
+    }
+
+    private <E> Stream<E> withClearing(final Stream<E> stream, final StreamConfiguration<E> streamConfiguration, final EntityManager entityManager) {
+        final OptionalInt clearInterval = streamConfiguration.clearInterval();
+        if (!clearInterval.isPresent()) {
+            return stream;
+        }
+        return StreamSupport.stream(new ClearingSpliterator<>(stream.spliterator(), clearInterval.getAsInt(), entityManager::clear), false)
+            .onClose(stream::close);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Criteria<T, Long> createCountCriteria(final Criteria<T, T> criteria, final EntityManager entityManager) {
         final CriteriaQuery<T> criteriaQuery = criteria.getQuery();
 
         final Criteria<T, Long> countCriteria = criteriaFactory.createCriteria(
@@ -147,31 +796,191 @@ final class StandardRenderer implements Renderer {
         return countCriteria;
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> Criteria<T, Object> createProjectedCriteria(final Criteria<T, T> criteria, final EntityManager entityManager) {
+        final CriteriaQuery<T> criteriaQuery = criteria.getQuery();
+        final Selection<?> column = criteriaQuery.getSelection();
+
+        final Criteria<T, Object> projectedCriteria = criteriaFactory.createCriteria(
+            entityManager,
+            criteriaQuery.getResultType(),
+            (Class<Object>) Queries.wrapperType(column.getJavaType())
+        );
+
+        criteria.getQueryParameters().forEach(projectedCriteria::addQueryParameter);
+
+        projectedCriteria.getRoot().alias(criteria.getRoot().getAlias());
+
+        final CriteriaQuery<Object> projectedQuery = projectedCriteria.getQuery();
+
+        projectedQuery.select(column);
+
+        if (criteriaQuery.getRestriction() != null) {
+            projectedQuery.where(criteriaQuery.getRestriction());
+        }
+
+        projectedQuery.distinct(criteriaQuery.isDistinct());
+        projectedQuery.orderBy(criteriaQuery.getOrderList());
+
+        return projectedCriteria;
+    }
+
     @SuppressWarnings({"rawtypes", "unchecked"})
-    private <E, T, S extends BaseStream<T, S>> S replay(final Stream<E> stream, final Pipeline<E> pipeline) {
-        return pipeline.intermediateOperations().stream()
-                .sequential()
-                .reduce(
-                        (S) stream,
-                        (S s, IntermediateOperation io) -> (S) io.function().apply(s),
-                        (a, b) -> a
-                );
+    private <T> Criteria<T, Object[]> createAggregateCriteria(
+        final Criteria<T, T> criteria,
+        final Field<T> field,
+        final EntityManager entityManager
+    ) {
+        final CriteriaQuery<T> criteriaQuery = criteria.getQuery();
+
+        final Criteria<T, Object[]> aggregateCriteria = criteriaFactory.createCriteria(
+            entityManager,
+            criteriaQuery.getResultType(),
+            Object[].class
+        );
+
+        criteria.getQueryParameters().forEach(aggregateCriteria::addQueryParameter);
+
+        aggregateCriteria.getRoot().alias(criteria.getRoot().getAlias());
 
-        /*
-        S decorated = (S) stream;
-        for (IntermediateOperation intermediateOperation : pipeline.intermediateOperations()) {
-            decorated = (S) intermediateOperation.function().apply(decorated);
+        final CriteriaBuilder builder = aggregateCriteria.getBuilder();
+        final Expression<Number> column = aggregateCriteria.getRoot().get(field.columnName());
+        final Expression<? extends Number> sum = field instanceof IntField
+            ? builder.sumAsLong((Expression<Integer>) (Expression) column)
+            : builder.sum(column);
+
+        final CriteriaQuery<Object[]> aggregateQuery = aggregateCriteria.getQuery();
+        aggregateQuery.multiselect(builder.count(aggregateCriteria.getRoot()), sum, builder.min(column), builder.max(column));
+
+        if (criteriaQuery.getRestriction() != null) {
+            aggregateQuery.where(criteriaQuery.getRestriction());
         }
-        return decorated;
-        */
+
+        return aggregateCriteria;
     }
 
-    private <T> void optimizePipeline(final Pipeline<T> pipeline) {
-        intermediateOperationOptimizerFactory.stream().forEach(intermediateOperationOptimizer -> intermediateOperationOptimizer.optimize(pipeline));
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private <T> Criteria<T, Object[]> createGroupingCriteria(
+        final Criteria<T, T> criteria,
+        final Field<T> groupingField,
+        final AggregateCollector<T, ?, ?> aggregateCollector,
+        final EntityManager entityManager
+    ) {
+        final CriteriaQuery<T> criteriaQuery = criteria.getQuery();
+
+        final Criteria<T, Object[]> groupingCriteria = criteriaFactory.createCriteria(
+            entityManager,
+            criteriaQuery.getResultType(),
+            Object[].class
+        );
+
+        criteria.getQueryParameters().forEach(groupingCriteria::addQueryParameter);
+
+        groupingCriteria.getRoot().alias(criteria.getRoot().getAlias());
+
+        final CriteriaBuilder builder = groupingCriteria.getBuilder();
+        final Path<?> key = groupingCriteria.getRoot().get(groupingField.columnName());
+
+        final List<Selection<?>> selections = new ArrayList<>();
+        selections.add(key);
+        selections.add(builder.count(groupingCriteria.getRoot()));
+
+        final Optional<Field<T>> oAggregatedField = aggregateCollector.getField();
+        if (oAggregatedField.isPresent()) {
+            final Expression<Comparable> column = groupingCriteria.getRoot().get(oAggregatedField.get().columnName());
+            switch (aggregateCollector.getAggregateType()) {
+                case SUM:
+                case AVERAGE:
+                    selections.add(oAggregatedField.get() instanceof IntField
+                        ? builder.sumAsLong((Expression<Integer>) (Expression) column)
+                        : builder.sum((Expression<Number>) (Expression) column));
+                    break;
+                case MIN:
+                    selections.add(builder.least(column));
+                    break;
+                case MAX:
+                    selections.add(builder.greatest(column));
+                    break;
+                default:
+                    throw new JPAStreamerException("Unable to aggregate " + aggregateCollector.getAggregateType());
+            }
+        }
+
+        final CriteriaQuery<Object[]> groupingQuery = groupingCriteria.getQuery();
+        groupingQuery.multiselect(selections);
+        groupingQuery.groupBy(key);
+
+        if (criteriaQuery.getRestriction() != null) {
+            groupingQuery.where(criteriaQuery.getRestriction());
+        }
+
+        return groupingCriteria;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private <E, T, S extends BaseStream<T, S>> S replay(final Stream<E> stream, final Pipeline<E> pipeline, final OptionalInt spillThreshold) {
+        final List<IntermediateOperation<?, ?>> operations = pipeline.intermediateOperations();
+
+        BaseStream<?, ?> decorated = stream;
+        for (int i = 0; i < operations.size(); i++) {
+            final IntermediateOperation intermediateOperation = operations.get(i);
+
+            if (i + 1 < operations.size() && isBoundedSort(intermediateOperation, operations.get(i + 1), spillThreshold)) {
+                // Only the first elements are retained rather than sorting all the elements
+                decorated = BoundedSort.sortedLimit((Stream<Object>) decorated, comparator(intermediateOperation), (Long) operations.get(++i).arguments()[0]);
+                continue;
+            }
+
+            if (spillThreshold.isPresent() && isSorted(intermediateOperation)) {
+                decorated = ExternalSort.sorted((Stream<Object>) decorated, comparator(intermediateOperation), spillThreshold.getAsInt());
+                continue;
+            }
+
+            if (spillThreshold.isPresent() && intermediateOperation.type() == IntermediateOperationType.DISTINCT && intermediateOperation.streamType() == Stream.class) {
+                decorated = ExternalSort.distinct((Stream<Object>) decorated, spillThreshold.getAsInt());
+                continue;
+            }
+
+            decorated = (BaseStream<?, ?>) intermediateOperation.function().apply(decorated);
+        }
+        return (S) decorated;
+    }
+
+    private static boolean isBoundedSort(final IntermediateOperation<?, ?> sorted, final IntermediateOperation<?, ?> limit, final OptionalInt spillThreshold) {
+        return isSorted(sorted)
+            && limit.type() == IntermediateOperationType.LIMIT
+            && limit.streamType() == Stream.class
+            && limit.arguments().length == 1
+            && limit.arguments()[0] instanceof Long
+            && (Long) limit.arguments()[0] <= (spillThreshold.isPresent() ? spillThreshold.getAsInt() : BoundedSort.MAX_SIZE);
+    }
+
+    private static boolean isSorted(final IntermediateOperation<?, ?> sorted) {
+        return sorted.type() == IntermediateOperationType.SORTED
+            && sorted.streamType() == Stream.class
+            && (sorted.arguments().length == 0 || sorted.arguments()[0] instanceof Comparator);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Comparator<Object> comparator(final IntermediateOperation<?, ?> sorted) {
+        return sorted.arguments().length == 0
+            ? (Comparator) Comparator.naturalOrder()
+            : (Comparator<Object>) sorted.arguments()[0];
+    }
+
+    private <T> void optimizePipeline(final Pipeline<T> pipeline, final StreamConfiguration<T> streamConfiguration) {
+        // Operations added by the terminal operation optimizer are subject to intermediate operation optimization
+        terminalOperationOptimizerFactory.get().optimize(pipeline);
+        intermediateOperationOptimizerFactory.stream(streamConfiguration).forEach(intermediateOperationOptimizer -> intermediateOperationOptimizer.optimize(pipeline));
+    }
+
+    @Override
+    public Optional<QueryCacheMetrics> queryCacheMetrics() {
+        return Optional.of(compiledPipelineCache);
     }
 
     @Override
     public void close() {
-        entityManager.close();
+        leasedEntityManagers.forEach(this::release);
     }
 }
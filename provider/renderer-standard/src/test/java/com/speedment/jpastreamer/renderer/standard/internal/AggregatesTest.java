@@ -0,0 +1,185 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.field.IntField;
+import com.speedment.jpastreamer.field.collector.AggregateCollector;
+import com.speedment.jpastreamer.field.collector.AggregateType;
+import com.speedment.jpastreamer.field.collector.FieldCollector;
+import com.speedment.jpastreamer.field.collector.FieldCollectors;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class AggregatesTest {
+
+    @Test
+    void sum() {
+        assertEquals(15, Aggregates.result(TerminalOperationType.SUM_INT, IntStream.class, 5, 15L, 1, 5));
+        assertEquals(15L, Aggregates.result(TerminalOperationType.SUM_LONG, LongStream.class, 5, 15L, 1L, 5L));
+        assertEquals(1.5, Aggregates.result(TerminalOperationType.SUM_DOUBLE, DoubleStream.class, 2, 1.5, 0.5, 1.0));
+    }
+
+    @Test
+    void sumOfNothing() {
+        assertEquals(0, Aggregates.result(TerminalOperationType.SUM_INT, IntStream.class, 0, null, null, null));
+        assertEquals(0L, Aggregates.result(TerminalOperationType.SUM_LONG, LongStream.class, 0, null, null, null));
+        assertEquals(0d, Aggregates.result(TerminalOperationType.SUM_DOUBLE, DoubleStream.class, 0, null, null, null));
+    }
+
+    @Test
+    void sumIntOverflows() {
+        final long sum = (long) Integer.MAX_VALUE + 1;
+        assertEquals(IntStream.of(Integer.MAX_VALUE, 1).sum(), Aggregates.result(TerminalOperationType.SUM_INT, IntStream.class, 2, sum, 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void minMax() {
+        assertEquals(OptionalInt.of(1), Aggregates.result(TerminalOperationType.MIN, IntStream.class, 5, 15L, 1, 5));
+        assertEquals(OptionalLong.of(5), Aggregates.result(TerminalOperationType.MAX, LongStream.class, 5, 15L, 1L, 5L));
+        assertEquals(OptionalDouble.empty(), Aggregates.result(TerminalOperationType.MIN, DoubleStream.class, 0, null, null, null));
+    }
+
+    @Test
+    void average() {
+        assertEquals(IntStream.of(1, 2).average(), Aggregates.result(TerminalOperationType.AVERAGE, IntStream.class, 2, 3L, 1, 2));
+        assertEquals(OptionalDouble.empty(), Aggregates.result(TerminalOperationType.AVERAGE, LongStream.class, 0, null, null, null));
+    }
+
+    @Test
+    void intSummaryStatistics() {
+        final int[] values = {3, 9, -2, 7, 7, 4, 0, 11};
+        final IntSummaryStatistics expected = IntStream.of(values).summaryStatistics();
+        final IntSummaryStatistics actual = (IntSummaryStatistics) Aggregates.result(
+            TerminalOperationType.SUMMARY_STATISTICS,
+            IntStream.class,
+            expected.getCount(),
+            expected.getSum(),
+            expected.getMin(),
+            expected.getMax()
+        );
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void longSummaryStatistics() {
+        final LongSummaryStatistics expected = LongStream.rangeClosed(-1_000, 1_000_003).summaryStatistics();
+        final LongSummaryStatistics actual = Aggregates.longSummaryStatistics(
+            expected.getCount(),
+            expected.getSum(),
+            expected.getMin(),
+            expected.getMax()
+        );
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void doubleSummaryStatistics() {
+        final DoubleSummaryStatistics expected = DoubleStream.of(0.5, 2.25, 1.0, 8.0).summaryStatistics();
+        final DoubleSummaryStatistics actual = Aggregates.doubleSummaryStatistics(
+            expected.getCount(),
+            expected.getSum(),
+            expected.getMin(),
+            expected.getMax()
+        );
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum(), 1e-9);
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+    }
+
+    @Test
+    void singleElementSummaryStatistics() {
+        assertEquals(IntStream.of(42).summaryStatistics().toString(), Aggregates.intSummaryStatistics(1, 42, 42, 42).toString());
+    }
+
+    @Test
+    void emptySummaryStatistics() {
+        assertEquals(
+            new IntSummaryStatistics().toString(),
+            Aggregates.result(TerminalOperationType.SUMMARY_STATISTICS, IntStream.class, 0, null, null, null).toString()
+        );
+    }
+
+    @Test
+    void groups() {
+        final List<Film> films = Arrays.asList(film("A", 90), film("B", 120), film("A", 60), film("C", 75), film("A", 105));
+        final IntField<Film> length = IntField.create(Film.class, "length", Film::getLength, false);
+
+        assertGroups(films, FieldCollectors.counting(), group -> null);
+        assertGroups(films, FieldCollectors.summingInt(length), group -> group.stream().mapToLong(Film::getLength).sum());
+        assertGroups(films, FieldCollectors.averagingInt(length), group -> group.stream().mapToLong(Film::getLength).sum());
+        assertGroups(films, FieldCollectors.minBy(Film$.length), group -> group.stream().map(Film::getLength).min(Integer::compare).get());
+        assertGroups(films, FieldCollectors.maxBy(Film$.length), group -> group.stream().map(Film::getLength).max(Integer::compare).get());
+    }
+
+    @Test
+    void groupsWithNullKey() {
+        final FieldCollector<Film, ?, ?> collector = (FieldCollector<Film, ?, ?>) FieldCollectors.groupingBy(Film$.title, FieldCollectors.counting());
+        assertThrows(NullPointerException.class, () -> Aggregates.groups(collector, Collections.singletonList(new Object[] {null, 1L})));
+    }
+
+    /**
+     * Asserts that the groups computed from the rows that a {@code GROUP BY}
+     * query would return equal the groups computed in memory. The provided
+     * {@code value} is the SUM, MIN or MAX the query selects for a group.
+     */
+    private static <R> void assertGroups(final List<Film> films, final AggregateCollector<Film, ?, R> downstream, final Function<List<Film>, Object> value) {
+        final Collector<Film, ?, Map<String, R>> collector = FieldCollectors.groupingBy(Film$.title, downstream);
+
+        final List<Object[]> rows = new ArrayList<>();
+        films.stream()
+            .collect(Collectors.groupingBy(Film::getTitle))
+            .forEach((title, group) -> rows.add(downstream.getAggregateType() == AggregateType.COUNT
+                ? new Object[] {title, (long) group.size()}
+                : new Object[] {title, (long) group.size(), value.apply(group)}
+            ));
+
+        assertEquals(films.stream().collect(collector), Aggregates.groups((FieldCollector<?, ?, ?>) collector, rows));
+    }
+
+    private static Film film(final String title, final int length) {
+        final Film film = new Film();
+        film.title = title;
+        film.length = length;
+        return film;
+    }
+
+    @Test
+    void groupResult() {
+        assertEquals(3L, Aggregates.groupResult(AggregateType.COUNT, null, 3, null));
+        assertEquals(2.5, Aggregates.groupResult(AggregateType.AVERAGE, Film$.length, 2, 5L));
+        assertEquals(Optional.of("A"), Aggregates.groupResult(AggregateType.MIN, Film$.title, 2, "A"));
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class BatchingSpliteratorTest {
+
+    @Test
+    void actsOnEachBatchBeforeDelivery() {
+        final List<String> events = new ArrayList<>();
+        final BatchingSpliterator<Integer> spliterator = new BatchingSpliterator<>(
+            IntStream.rangeClosed(1, 7).boxed().spliterator(),
+            3,
+            batch -> events.add("batch " + batch)
+        );
+
+        StreamSupport.stream(spliterator, false).forEach(i -> events.add(Integer.toString(i)));
+
+        assertEquals(
+            Arrays.asList("batch [1, 2, 3]", "1", "2", "3", "batch [4, 5, 6]", "4", "5", "6", "batch [7]", "7"),
+            events
+        );
+    }
+
+    @Test
+    void actsOncePerBatch() {
+        final List<List<Integer>> batches = new ArrayList<>();
+        final BatchingSpliterator<Integer> spliterator = new BatchingSpliterator<>(
+            IntStream.range(0, 6).boxed().spliterator(),
+            3,
+            batch -> batches.add(new ArrayList<>(batch))
+        );
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), StreamSupport.stream(spliterator, false).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5)), batches);
+
+        // An exhausted source yields no empty batch
+        assertFalse(spliterator.tryAdvance(i -> fail("No more elements")));
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    void shortCircuitingDoesNotReadNextBatch() {
+        final List<Integer> read = new ArrayList<>();
+        final List<List<Integer>> batches = new ArrayList<>();
+        final BatchingSpliterator<Integer> spliterator = new BatchingSpliterator<>(
+            IntStream.range(0, 10).boxed().peek(read::add).spliterator(),
+            3,
+            batch -> batches.add(new ArrayList<>(batch))
+        );
+
+        assertEquals(Arrays.asList(0, 1, 2), StreamSupport.stream(spliterator, false).limit(3).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(0, 1, 2), read);
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void illegalBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchingSpliterator<Integer>(IntStream.range(0, 1).boxed().spliterator(), 0, batch -> {}));
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class BoundedSortTest {
+
+    private static final List<String> WORDS = Arrays.asList("pear", "fig", "apple", "kiwi", "plum", "date", "lime", "banana");
+
+    @Test
+    void sortedLimit() {
+        final Comparator<String> comparator = Comparator.naturalOrder();
+
+        assertEquals(
+            WORDS.stream().sorted(comparator).limit(3).collect(Collectors.toList()),
+            BoundedSort.sortedLimit(WORDS.stream(), comparator, 3).collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void stable() {
+        final Comparator<String> comparator = Comparator.comparingInt(String::length).reversed();
+
+        assertEquals(
+            Arrays.asList("banana", "apple", "pear", "kiwi", "plum"),
+            BoundedSort.sortedLimit(WORDS.stream(), comparator, 5).collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void fewerElements() {
+        assertEquals(
+            WORDS.stream().sorted().collect(Collectors.toList()),
+            BoundedSort.sortedLimit(WORDS.stream(), Comparator.naturalOrder(), 100).collect(Collectors.toList())
+        );
+        assertEquals(Collections.emptyList(), BoundedSort.sortedLimit(WORDS.stream(), Comparator.naturalOrder(), 0).collect(Collectors.toList()));
+    }
+
+    @Test
+    void lazy() {
+        final AtomicBoolean consumed = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        final Stream<String> stream = BoundedSort.sortedLimit(
+            WORDS.stream().peek(word -> consumed.set(true)).onClose(() -> closed.set(true)),
+            Comparator.naturalOrder(),
+            3
+        );
+        assertFalse(consumed.get());
+
+        assertEquals(3, stream.count());
+        assertTrue(consumed.get());
+
+        stream.close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void illegalMaxSize() {
+        assertThrows(IllegalArgumentException.class, () -> BoundedSort.sortedLimit(WORDS.stream(), Comparator.naturalOrder(), -1));
+    }
+}
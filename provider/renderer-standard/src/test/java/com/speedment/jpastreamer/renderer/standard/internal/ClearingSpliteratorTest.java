@@ -0,0 +1,57 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class ClearingSpliteratorTest {
+
+    @Test
+    void clearsEveryInterval() {
+        final List<String> events = new ArrayList<>();
+        final ClearingSpliterator<Integer> spliterator = new ClearingSpliterator<>(
+            IntStream.rangeClosed(1, 7).boxed().spliterator(),
+            3,
+            () -> events.add("clear")
+        );
+
+        StreamSupport.stream(spliterator, false).forEach(i -> events.add(Integer.toString(i)));
+
+        assertEquals(Arrays.asList("1", "2", "3", "clear", "4", "5", "6", "clear", "7"), events);
+    }
+
+    @Test
+    void deliversAllElements() {
+        final ClearingSpliterator<Integer> spliterator = new ClearingSpliterator<>(
+            IntStream.range(0, 100).boxed().spliterator(),
+            1,
+            () -> {}
+        );
+        assertEquals(100, StreamSupport.stream(spliterator, false).collect(Collectors.toList()).size());
+    }
+
+    @Test
+    void illegalClearInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new ClearingSpliterator<>(IntStream.range(0, 1).boxed().spliterator(), 0, () -> {}));
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationFactory;
+import com.speedment.jpastreamer.renderer.QueryCacheMetrics;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.ServiceLoader;
+
+final class CompiledPipelineCacheTest {
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final TerminalOperationFactory terminalFactory = RootFactory.getOrThrow(TerminalOperationFactory.class, ServiceLoader::load);
+
+    @Test
+    void illegalCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new CompiledPipelineCache(0));
+    }
+
+    @Test
+    void hitsAndMisses() {
+        final CompiledPipelineCache cache = new CompiledPipelineCache(2);
+        final PipelineShape shape = shape(StreamConfiguration.of(Film.class));
+
+        assertFalse(cache.get(shape).isPresent());
+        final CompiledPipeline compiledPipeline = compiledPipeline();
+        cache.put(shape, compiledPipeline);
+        assertSame(compiledPipeline, cache.get(shape).orElseThrow(AssertionError::new));
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void metrics() {
+        final CompiledPipelineCache cache = new CompiledPipelineCache(16);
+        final PipelineShape shape = shape(StreamConfiguration.of(Film.class));
+        cache.put(shape, compiledPipeline());
+        cache.get(shape);
+        cache.get(shape);
+        cache.get(shape(StreamConfiguration.of(Film.class).joining(Film$.title)));
+
+        final QueryCacheMetrics metrics = cache;
+        assertEquals(16, metrics.capacity());
+        assertEquals(1, metrics.size());
+        assertEquals(2, metrics.hitCount());
+        assertEquals(1, metrics.missCount());
+        assertEquals(0, metrics.evictionCount());
+        assertEquals(2.0 / 3, metrics.hitRatio());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        final CompiledPipelineCache cache = new CompiledPipelineCache(2);
+        final PipelineShape first = shape(StreamConfiguration.of(Film.class));
+        final PipelineShape second = shape(StreamConfiguration.of(Film.class).joining(Film$.title));
+        final PipelineShape third = shape(StreamConfiguration.of(Film.class).joining(Film$.length));
+
+        cache.put(first, compiledPipeline());
+        cache.put(second, compiledPipeline());
+        cache.get(first);
+        cache.put(third, compiledPipeline());
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertTrue(cache.get(first).isPresent());
+        assertFalse(cache.get(second).isPresent());
+        assertTrue(cache.get(third).isPresent());
+    }
+
+    private PipelineShape shape(final StreamConfiguration<Film> configuration) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.terminatingOperation(terminalFactory.acquireCount());
+        return PipelineShape.of(pipeline, configuration);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompiledPipeline compiledPipeline() {
+        final CriteriaQuery<Film> query = mock(CriteriaQuery.class);
+        when(query.getResultType()).thenReturn(Film.class);
+        final Criteria<Film, Film> criteria = mock(Criteria.class);
+        when(criteria.getQuery()).thenReturn(query);
+        return new CompiledPipeline(criteria, false, new int[0], new int[0], CompiledPipeline.NO_INDEX, 0, CompiledPipeline.NO_INDEX, Integer.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.ServiceLoader;
+
+final class CompiledPipelineTest {
+
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+
+    @Test
+    void fieldOperationsAreReapplicable() {
+        assertTrue(CompiledPipeline.isReapplicable(operationFactory.createFilter(Film$.title.equal("A"))));
+        assertTrue(CompiledPipeline.isReapplicable(operationFactory.createFilter(Film$.title.equal("A").or(Film$.title.isNull()))));
+        assertTrue(CompiledPipeline.isReapplicable(operationFactory.createSorted(Film$.length)));
+        assertTrue(CompiledPipeline.isReapplicable(operationFactory.createSorted(Film$.length.thenComparing(Film$.title.comparator()))));
+        assertTrue(CompiledPipeline.isReapplicable(operationFactory.createSkip(10)));
+        assertTrue(CompiledPipeline.isReapplicable(operationFactory.acquireDistinct()));
+    }
+
+    @Test
+    void translatedLambdasAreNotReapplicable() {
+        // A translated lambda may be rendered with its captured values as literals
+        final String a = "A";
+        final String b = "B";
+        assertFalse(CompiledPipeline.isReapplicable(operationFactory.<Film>createFilter(film -> film.getTitle().equals(a) || film.getTitle().equals(b))));
+        assertFalse(CompiledPipeline.isReapplicable(operationFactory.createSorted(Comparator.comparing(Film::getTitle))));
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import com.speedment.jpastreamer.exception.JPAStreamerException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class ExternalSortTest {
+
+    private static final List<String> WORDS = IntStream.range(0, 1000)
+        .mapToObj(i -> Integer.toString(i * 7919 % 257))
+        .collect(Collectors.toList());
+
+    @Test
+    void sorted() {
+        final Comparator<String> comparator = Comparator.comparingInt(String::length);
+
+        for (int spillThreshold : new int[] {1, 10, 100, 10_000}) {
+            try (Stream<String> sorted = ExternalSort.sorted(WORDS.stream(), comparator, spillThreshold)) {
+                assertEquals(WORDS.stream().sorted(comparator).collect(Collectors.toList()), sorted.collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    void distinct() {
+        for (int spillThreshold : new int[] {1, 10, 100, 10_000}) {
+            try (Stream<String> distinct = ExternalSort.distinct(WORDS.stream(), spillThreshold)) {
+                assertEquals(WORDS.stream().distinct().collect(Collectors.toList()), distinct.collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    void distinctCollidingHashCodes() {
+        // "Aa" and "BB" have the same hash code
+        final List<String> words = Arrays.asList("Aa", "BB", "Aa", "x", null, "BB", "AaAa", "BBBB", null, "AaBB");
+
+        try (Stream<String> distinct = ExternalSort.distinct(words.stream(), 2)) {
+            assertEquals(Arrays.asList("Aa", "BB", "x", null, "AaAa", "BBBB", "AaBB"), distinct.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void notSerializable() {
+        try (Stream<Object> sorted = ExternalSort.sorted(
+            Stream.of(new Object(), new Object(), new Object()),
+            Comparator.comparingInt(Object::hashCode),
+            2
+        )) {
+            assertThrows(JPAStreamerException.class, sorted::count);
+        }
+    }
+
+    @Test
+    void illegalSpillThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.sorted(WORDS.stream(), Comparator.naturalOrder(), 0));
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.distinct(WORDS.stream(), 0));
+    }
+}
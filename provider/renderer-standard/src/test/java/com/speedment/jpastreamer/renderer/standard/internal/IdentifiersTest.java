@@ -0,0 +1,111 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+final class IdentifiersTest {
+
+    private EntityType<Film> entityType;
+    private SingularAttribute<Film, ?> id;
+    private Criteria<Film, Film> criteria;
+    private CriteriaQuery<Film> query;
+    private CriteriaBuilder builder;
+    private Root<Film> root;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        final SingularAttribute<Film, ?> title = mock(SingularAttribute.class);
+        id = mock(SingularAttribute.class);
+        when(id.isId()).thenReturn(true);
+        when(id.getName()).thenReturn("filmId");
+
+        entityType = mock(EntityType.class);
+        when(entityType.hasSingleIdAttribute()).thenReturn(true);
+        when(entityType.getSingularAttributes()).thenReturn(new LinkedHashSet<>(Arrays.asList(title, id)));
+
+        root = mock(Root.class);
+        when(root.getModel()).thenReturn(entityType);
+        builder = mock(CriteriaBuilder.class);
+        query = mock(CriteriaQuery.class);
+
+        criteria = mock(Criteria.class);
+        when(criteria.getRoot()).thenReturn(root);
+        when(criteria.getBuilder()).thenReturn(builder);
+        when(criteria.getQuery()).thenReturn(query);
+    }
+
+    @Test
+    void idAttribute() {
+        assertSame(id, Identifiers.idAttribute(entityType).orElse(null));
+
+        when(entityType.hasSingleIdAttribute()).thenReturn(false);
+        assertFalse(Identifiers.idAttribute(entityType).isPresent());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void orderById() {
+        final Order byTitle = mock(Order.class);
+        final Order byId = mock(Order.class);
+        final Path<Object> idPath = mock(Path.class);
+        when(query.getOrderList()).thenReturn(Collections.singletonList(byTitle));
+        when(root.get("filmId")).thenReturn(idPath);
+        when(builder.asc(idPath)).thenReturn(byId);
+
+        Identifiers.orderById(criteria);
+
+        // The identifier breaks the ties of the other orders
+        verify(query).orderBy(Arrays.asList(byTitle, byId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unordered() {
+        final Order byId = mock(Order.class);
+        final Path<Object> idPath = mock(Path.class);
+        when(query.getOrderList()).thenReturn(Collections.emptyList());
+        when(root.get("filmId")).thenReturn(idPath);
+        when(builder.asc(idPath)).thenReturn(byId);
+
+        Identifiers.orderById(criteria);
+
+        verify(query).orderBy(Collections.singletonList(byId));
+    }
+
+    @Test
+    void compositeId() {
+        when(entityType.hasSingleIdAttribute()).thenReturn(false);
+
+        Identifiers.orderById(criteria);
+
+        verify(query, never()).orderBy(anyList());
+    }
+}
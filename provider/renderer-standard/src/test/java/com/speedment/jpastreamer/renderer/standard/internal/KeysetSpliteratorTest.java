@@ -0,0 +1,87 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class KeysetSpliteratorTest {
+
+    private static final List<Integer> TABLE = IntStream.rangeClosed(1, 10).boxed().collect(Collectors.toList());
+
+    @Test
+    void readsAllElementsInOrder() {
+        for (int chunkSize = 1; chunkSize <= 12; chunkSize++) {
+            assertEquals(TABLE, stream(chunkSize, new ArrayList<>(), new ArrayList<>()).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void readsChunksAfterLastKey() {
+        final List<Integer> keys = new ArrayList<>();
+        stream(4, keys, new ArrayList<>()).forEach(i -> {});
+        assertEquals(asList(null, 4, 8), keys);
+    }
+
+    @Test
+    void releasesConsumedChunks() {
+        final List<List<Integer>> released = new ArrayList<>();
+        stream(4, new ArrayList<>(), released).forEach(i -> {});
+        assertEquals(asList(asList(1, 2, 3, 4), asList(5, 6, 7, 8), asList(9, 10)), released);
+    }
+
+    @Test
+    void isLazy() {
+        final List<Integer> keys = new ArrayList<>();
+        assertEquals(asList(1, 2, 3), stream(3, keys, new ArrayList<>()).limit(3).collect(Collectors.toList()));
+        assertEquals(asList((Integer) null), keys);
+    }
+
+    @Test
+    void illegalChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new KeysetSpliterator<Integer, Integer>(0, k -> TABLE, i -> i, l -> {}));
+    }
+
+    private static Stream<Integer> stream(final int chunkSize, final List<Integer> keys, final List<List<Integer>> released) {
+        return StreamSupport.stream(new KeysetSpliterator<Integer, Integer>(
+            chunkSize,
+            key -> {
+                keys.add(key);
+                return TABLE.stream()
+                    .filter(i -> key == null || i > key)
+                    .limit(chunkSize)
+                    .collect(Collectors.toList());
+            },
+            i -> i,
+            released::add
+        ), false);
+    }
+
+    @SafeVarargs
+    private static <T> List<T> asList(final T... elements) {
+        final List<T> list = new ArrayList<>();
+        for (T element : elements) {
+            list.add(element);
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.speedment.jpastreamer.criteria.Criteria;
+import com.speedment.jpastreamer.criteria.CriteriaFactory;
+import com.speedment.jpastreamer.merger.QueryMerger;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+final class PagedStreamsTest {
+
+    @Test
+    void inPageOrder() {
+        final Film a = film("A");
+        final Film b = film("B");
+        final Film c = film("C");
+
+        // A fetch join yields a row per element of the fetched collection
+        final List<Film> rows = Arrays.asList(a, a, b, c, c, c);
+
+        assertEquals(Arrays.asList(c, a, b), page(Arrays.asList("C", "A", "B"), rows));
+    }
+
+    @Test
+    void removed() {
+        final Film a = film("A");
+
+        assertEquals(Collections.singletonList(a), page(Arrays.asList("A", "B"), Arrays.asList(a, a)));
+        assertTrue(page(Collections.singletonList("B"), Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    void pageBoundaries() {
+        final List<Film> films = IntStream.range(0, 10)
+            .mapToObj(i -> film(String.valueOf((char) ('A' + i))))
+            .collect(Collectors.toList());
+
+        // Each film has between one and three fetched rows, in reverse order of the identifiers
+        final List<Film> rows = new ArrayList<>();
+        for (int i = films.size() - 1; i >= 0; i--) {
+            for (int j = 0; j < Math.max(1, i % 4); j++) {
+                rows.add(films.get(i));
+            }
+        }
+
+        final List<String> ids = films.stream().map(Film::getTitle).sorted().collect(Collectors.toList());
+        final List<Film> read = new ArrayList<>();
+        for (int skip = 0; skip < ids.size(); skip += 3) {
+            final List<String> pageIds = ids.subList(skip, Math.min(skip + 3, ids.size()));
+            final List<Film> pageRows = rows.stream()
+                .filter(film -> pageIds.contains(film.getTitle()))
+                .collect(Collectors.toList());
+
+            final List<Film> page = page(pageIds, pageRows);
+            assertEquals(pageIds.size(), page.size());
+            read.addAll(page);
+        }
+
+        // The pages neither overlap nor leave gaps
+        assertEquals(films, read);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipOnly() {
+        final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+        final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.createSkip(10));
+
+        final Criteria<Film, Film> criteria = mock(Criteria.class);
+        final QueryMerger queryMerger = mock(QueryMerger.class);
+        final EntityManager entityManager = mock(EntityManager.class);
+
+        // The identifiers of all but the skipped entities would be read into a single IN predicate
+        assertFalse(PagedStreams.stream(
+            criteria,
+            pipeline,
+            queryMerger,
+            mock(CriteriaFactory.class),
+            StreamConfiguration.of(Film.class).withFetchGraph(Film$.title),
+            entityManager
+        ).isPresent());
+        assertEquals(1, pipeline.intermediateOperations().size());
+        verifyNoInteractions(criteria, queryMerger, entityManager);
+    }
+
+    private static List<Film> page(final List<String> ids, final List<Film> rows) {
+        return PagedStreams.inPageOrder(ids, rows, Film::getTitle).collect(Collectors.toList());
+    }
+
+    private static Film film(final String title) {
+        final Film film = new Film();
+        film.title = title;
+        return film;
+    }
+}
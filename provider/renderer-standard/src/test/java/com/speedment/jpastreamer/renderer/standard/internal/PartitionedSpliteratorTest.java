@@ -0,0 +1,105 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PartitionedSpliteratorTest {
+
+    private static final int PARTITIONS = 8;
+    private static final int PARTITION_SIZE = 1_000;
+
+    @Test
+    void parallelSum() {
+        final Set<Integer> closed = ConcurrentHashMap.newKeySet();
+        final PartitionedSpliterator<Long> spliterator = new PartitionedSpliterator<>(partitions(new AtomicInteger(), closed));
+
+        final long sum = StreamSupport.stream(spliterator, true)
+            .mapToLong(Long::longValue)
+            .sum();
+
+        final long n = (long) PARTITIONS * PARTITION_SIZE;
+        assertEquals(n * (n - 1) / 2, sum);
+        assertEquals(PARTITIONS, closed.size());
+    }
+
+    @Test
+    void opensPartitionsLazily() {
+        final AtomicInteger opened = new AtomicInteger();
+        final PartitionedSpliterator<Long> spliterator = new PartitionedSpliterator<>(partitions(opened, ConcurrentHashMap.newKeySet()));
+
+        assertEquals(0, opened.get());
+        assertTrue(spliterator.tryAdvance(l -> {}));
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void trySplit() {
+        final PartitionedSpliterator<Long> spliterator = new PartitionedSpliterator<>(partitions(new AtomicInteger(), ConcurrentHashMap.newKeySet()));
+
+        final Spliterator<Long> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+
+        final List<Long> prefixElements = new ArrayList<>();
+        prefix.forEachRemaining(prefixElements::add);
+        final List<Long> suffixElements = new ArrayList<>();
+        spliterator.forEachRemaining(suffixElements::add);
+
+        assertEquals(PARTITIONS / 2 * PARTITION_SIZE, prefixElements.size());
+        assertEquals(PARTITIONS / 2 * PARTITION_SIZE, suffixElements.size());
+        assertTrue(prefixElements.get(prefixElements.size() - 1) < suffixElements.get(0));
+        assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    void closeClosesOpenPartitions() {
+        final Set<Integer> closed = ConcurrentHashMap.newKeySet();
+        final PartitionedSpliterator<Long> spliterator = new PartitionedSpliterator<>(partitions(new AtomicInteger(), closed));
+        final Spliterator<Long> prefix = spliterator.trySplit();
+
+        assertTrue(prefix.tryAdvance(l -> {}));
+        assertTrue(spliterator.tryAdvance(l -> {}));
+        assertTrue(closed.isEmpty());
+
+        spliterator.close();
+        assertEquals(2, closed.size());
+    }
+
+    private static List<Supplier<Stream<Long>>> partitions(final AtomicInteger opened, final Set<Integer> closed) {
+        final List<Supplier<Stream<Long>>> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            final int partition = i;
+            partitions.add(() -> {
+                opened.incrementAndGet();
+                return LongStream.range((long) partition * PARTITION_SIZE, (long) (partition + 1) * PARTITION_SIZE)
+                    .boxed()
+                    .onClose(() -> closed.add(partition));
+            });
+        }
+        return partitions;
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.speedment.jpastreamer.field.collector.FieldCollectors;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ServiceLoader;
+
+final class PipelineShapeTest {
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+    private final TerminalOperationFactory terminalFactory = RootFactory.getOrThrow(TerminalOperationFactory.class, ServiceLoader::load);
+    private final StreamConfiguration<Film> configuration = StreamConfiguration.of(Film.class);
+
+    @Test
+    void sameShapeWithDifferentValues() {
+        final PipelineShape first = shape(
+            operationFactory.createFilter(Film$.title.startsWith("A")),
+            operationFactory.createSorted(Film$.length),
+            operationFactory.createSkip(10),
+            operationFactory.createLimit(20)
+        );
+        final PipelineShape second = shape(
+            operationFactory.createFilter(Film$.title.startsWith("B")),
+            operationFactory.createSorted(Film$.length),
+            operationFactory.createSkip(30),
+            operationFactory.createLimit(40)
+        );
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void differentPredicateType() {
+        assertNotEquals(
+            shape(operationFactory.createFilter(Film$.title.startsWith("A"))),
+            shape(operationFactory.createFilter(Film$.title.endsWith("A")))
+        );
+    }
+
+    @Test
+    void differentField() {
+        assertNotEquals(
+            shape(operationFactory.createFilter(Film$.title.isNull())),
+            shape(operationFactory.createFilter(Film$.length.isNull()))
+        );
+    }
+
+    @Test
+    void differentComparator() {
+        assertNotEquals(
+            shape(operationFactory.createSorted(Film$.length)),
+            shape(operationFactory.createSorted(Film$.length.reversed()))
+        );
+    }
+
+    @Test
+    void differentOperations() {
+        assertNotEquals(
+            shape(operationFactory.createSkip(1)),
+            shape(operationFactory.createLimit(1))
+        );
+        assertNotEquals(
+            shape(operationFactory.createFilter(Film$.length.greaterThan(1))),
+            shape(operationFactory.createFilter(Film$.length.greaterThan(1)), operationFactory.createLimit(1))
+        );
+    }
+
+    @Test
+    void differentConfiguration() {
+        final Pipeline<Film> pipeline = pipeline();
+        assertNotEquals(
+            PipelineShape.of(pipeline, configuration),
+            PipelineShape.of(pipeline, configuration.joining(Film$.title))
+        );
+    }
+
+    @Test
+    void differentOrdering() {
+        // The sorted operation of an unordered pipeline is removed before the query is rendered
+        final Pipeline<Film> unordered = pipeline(operationFactory.createSorted(Film$.title));
+        unordered.ordered(false);
+
+        assertNotEquals(
+            PipelineShape.of(pipeline(operationFactory.createSorted(Film$.title)), configuration),
+            PipelineShape.of(unordered, configuration)
+        );
+    }
+
+    @Test
+    void differentCollector() {
+        final Pipeline<Film> counting = pipeline();
+        counting.terminatingOperation(terminalFactory.createCollect(FieldCollectors.groupingBy(Film$.title, FieldCollectors.counting())));
+        final Pipeline<Film> otherCounting = pipeline();
+        otherCounting.terminatingOperation(terminalFactory.createCollect(FieldCollectors.groupingBy(Film$.title, FieldCollectors.counting())));
+        final Pipeline<Film> min = pipeline();
+        min.terminatingOperation(terminalFactory.createCollect(FieldCollectors.groupingBy(Film$.title, FieldCollectors.minBy(Film$.length))));
+        final Pipeline<Film> otherKey = pipeline();
+        otherKey.terminatingOperation(terminalFactory.createCollect(FieldCollectors.groupingBy(Film$.length, FieldCollectors.counting())));
+
+        assertEquals(PipelineShape.of(counting, configuration), PipelineShape.of(otherCounting, configuration));
+        assertNotEquals(PipelineShape.of(counting, configuration), PipelineShape.of(min, configuration));
+        assertNotEquals(PipelineShape.of(counting, configuration), PipelineShape.of(otherKey, configuration));
+    }
+
+    private PipelineShape shape(final IntermediateOperation<?, ?>... operations) {
+        return PipelineShape.of(pipeline(operations), configuration);
+    }
+
+    private Pipeline<Film> pipeline(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        for (IntermediateOperation<?, ?> operation : operations) {
+            pipeline.intermediateOperations().add(operation);
+        }
+        pipeline.terminatingOperation(terminalFactory.acquireCount());
+        return pipeline;
+    }
+
+}
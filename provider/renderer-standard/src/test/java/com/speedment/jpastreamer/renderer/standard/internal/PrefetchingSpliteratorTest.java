@@ -0,0 +1,99 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PrefetchingSpliteratorTest {
+
+    @Test
+    void deliversAllElementsInOrder() {
+        final List<Integer> expected = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+        try (Stream<Integer> stream = prefetching(expected.stream(), 16)) {
+            assertEquals(expected, stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void readsInBackgroundThread() {
+        final AtomicReference<Thread> readingThread = new AtomicReference<>();
+        try (Stream<Integer> stream = prefetching(Stream.of(1, 2, 3).peek(i -> readingThread.set(Thread.currentThread())), 1)) {
+            assertEquals(6, stream.mapToInt(Integer::intValue).sum());
+        }
+        assertNotNull(readingThread.get());
+        assertNotSame(Thread.currentThread(), readingThread.get());
+    }
+
+    @Test
+    void staysWithinDepth() throws InterruptedException {
+        final int depth = 4;
+        final AtomicInteger reads = new AtomicInteger();
+        try (Stream<Integer> stream = prefetching(Stream.iterate(0, i -> i + 1).peek(i -> reads.incrementAndGet()), depth)) {
+            assertEquals(0, stream.findFirst().orElseThrow(IllegalStateException::new));
+            Thread.sleep(100);
+            // The buffered elements, the consumed element and an element waiting to be buffered
+            assertTrue(reads.get() <= depth + 2, "reads: " + reads.get());
+        }
+    }
+
+    @Test
+    void closesSourceOnShortCircuit() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final Stream<Integer> stream = prefetching(Stream.iterate(0, i -> i + 1).onClose(() -> closed.set(true)), 2);
+        assertEquals(10, stream.skip(10).findFirst().orElseThrow(IllegalStateException::new));
+        stream.close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void closesUnconsumedSource() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        prefetching(Stream.of(1).onClose(() -> closed.set(true)), 2).close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void rethrowsException() {
+        final Stream<Integer> source = Stream.of(1, 2, 3).map(i -> {
+            if (i == 2) {
+                throw new IllegalArgumentException();
+            }
+            return i;
+        });
+        try (Stream<Integer> stream = prefetching(source, 8)) {
+            assertThrows(IllegalArgumentException.class, () -> stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void illegalDepth() {
+        assertThrows(IllegalArgumentException.class, () -> new PrefetchingSpliterator<>(Stream.empty(), 0));
+    }
+
+    private static <E> Stream<E> prefetching(final Stream<E> source, final int depth) {
+        final PrefetchingSpliterator<E> spliterator = new PrefetchingSpliterator<>(source, depth);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer.standard.internal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+final class QueriesTest {
+
+    private final StreamConfiguration<Film> configuration = StreamConfiguration.of(Film.class);
+
+    private TypedQuery<?> typedQuery;
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setup() {
+        typedQuery = mock(TypedQuery.class);
+        entityManager = mock(EntityManager.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetchGraphOfFields() {
+        final EntityGraph<Film> graph = mock(EntityGraph.class);
+        when(entityManager.createEntityGraph(Film.class)).thenReturn(graph);
+
+        Queries.applyGraph(typedQuery, Film.class, configuration.withFetchGraph(Film$.title, Film$.length), entityManager);
+
+        verify(graph).addAttributeNodes("title");
+        verify(graph).addAttributeNodes("length");
+        verify(typedQuery).setHint("javax.persistence.fetchgraph", graph);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadGraphOfFields() {
+        final EntityGraph<Film> graph = mock(EntityGraph.class);
+        when(entityManager.createEntityGraph(Film.class)).thenReturn(graph);
+
+        Queries.applyGraph(typedQuery, Film.class, configuration.withLoadGraph(Film$.title), entityManager);
+
+        verify(graph).addAttributeNodes("title");
+        verify(typedQuery).setHint("javax.persistence.loadgraph", graph);
+    }
+
+    @Test
+    void namedGraph() {
+        final EntityGraph<?> graph = mock(EntityGraph.class);
+        doReturn(graph).when(entityManager).getEntityGraph("film.language");
+
+        Queries.applyGraph(typedQuery, Film.class, configuration.withLoadGraph("film.language"), entityManager);
+        verify(typedQuery).setHint("javax.persistence.loadgraph", graph);
+
+        Queries.applyGraph(typedQuery, Film.class, configuration.withFetchGraph("film.language"), entityManager);
+        verify(typedQuery).setHint("javax.persistence.fetchgraph", graph);
+
+        verify(entityManager, never()).createEntityGraph(Film.class);
+    }
+
+    @Test
+    void noGraph() {
+        Queries.applyGraph(typedQuery, Film.class, configuration, entityManager);
+
+        verifyNoInteractions(typedQuery, entityManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void otherResultType() {
+        // Columns and aggregates are not entities
+        Queries.applyGraph(typedQuery, Long.class, configuration.withFetchGraph(Film$.title), entityManager);
+
+        verify(typedQuery, never()).setHint(anyString(), any());
+        verifyNoInteractions(entityManager);
+    }
+
+}
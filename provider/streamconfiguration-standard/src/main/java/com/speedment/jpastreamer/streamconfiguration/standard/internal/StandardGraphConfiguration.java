@@ -0,0 +1,95 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.streamconfiguration.standard.internal;
+
+import com.speedment.jpastreamer.field.Field;
+import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+final class StandardGraphConfiguration<T> implements StreamConfiguration.GraphConfiguration<T> {
+
+    private final StreamConfiguration.GraphType graphType;
+    private final String name;
+    private final Set<Field<T>> fields;
+
+    StandardGraphConfiguration(final StreamConfiguration.GraphType graphType, final String name) {
+        this.graphType = requireNonNull(graphType);
+        this.name = requireNonNull(name);
+        this.fields = Collections.emptySet();
+    }
+
+    StandardGraphConfiguration(final StreamConfiguration.GraphType graphType, final Set<Field<T>> fields) {
+        this.graphType = requireNonNull(graphType);
+        this.name = null;
+        this.fields = new LinkedHashSet<>(fields);
+        if (this.fields.isEmpty()) {
+            throw new IllegalArgumentException("The fields of an entity graph must not be empty");
+        }
+        this.fields.forEach(Objects::requireNonNull);
+    }
+
+    @Override
+    public StreamConfiguration.GraphType graphType() {
+        return graphType;
+    }
+
+    @Override
+    public Optional<String> name() {
+        return Optional.ofNullable(name);
+    }
+
+    @Override
+    public Set<Field<T>> fields() {
+        return Collections.unmodifiableSet(fields);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StandardGraphConfiguration<?> that = (StandardGraphConfiguration<?>) o;
+
+        if (graphType != that.graphType) return false;
+        if (!Objects.equals(name, that.name)) return false;
+        return fields.equals(that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = graphType.hashCode();
+        result = 31 * result + Objects.hashCode(name);
+        result = 31 * result + fields.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final String graphText = name != null
+            ? name
+            : fields.stream()
+                .map(Field::columnName)
+                .collect(Collectors.joining(", "));
+
+        return graphType.name().toLowerCase() + " graph " + graphText;
+    }
+
+}
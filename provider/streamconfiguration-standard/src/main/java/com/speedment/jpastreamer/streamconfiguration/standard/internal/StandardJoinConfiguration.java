@@ -23,10 +23,16 @@ final class StandardJoinConfiguration<T> implements StreamConfiguration.JoinConf
 
     private final Field<T> field;
     private final JoinType joinType;
+    private final StreamConfiguration.JoinStrategy joinStrategy;
 
     StandardJoinConfiguration(final Field<T> field, final JoinType joinType) {
+        this(field, joinType, StreamConfiguration.JoinStrategy.FETCH_JOIN);
+    }
+
+    StandardJoinConfiguration(final Field<T> field, final JoinType joinType, final StreamConfiguration.JoinStrategy joinStrategy) {
         this.field = requireNonNull(field);
         this.joinType = requireNonNull(joinType);
+        this.joinStrategy = requireNonNull(joinStrategy);
     }
 
     @Override
@@ -39,6 +45,11 @@ final class StandardJoinConfiguration<T> implements StreamConfiguration.JoinConf
         return joinType;
     }
 
+    @Override
+    public StreamConfiguration.JoinStrategy joinStrategy() {
+        return joinStrategy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -47,18 +58,23 @@ final class StandardJoinConfiguration<T> implements StreamConfiguration.JoinConf
         StandardJoinConfiguration<?> that = (StandardJoinConfiguration<?>) o;
 
         if (!field.equals(that.field)) return false;
-        return joinType == that.joinType;
+        if (joinType != that.joinType) return false;
+        return joinStrategy == that.joinStrategy;
     }
 
     @Override
     public int hashCode() {
         int result = field.hashCode();
         result = 31 * result + joinType.hashCode();
+        result = 31 * result + joinStrategy.hashCode();
         return result;
     }
 
     @Override
     public String toString() {
+        if (joinStrategy == StreamConfiguration.JoinStrategy.BATCH_FETCH) {
+            return "batch fetch on " + field.columnName();
+        }
         return label(joinType) + " on " + field.columnName();
     }
 
@@ -21,7 +21,9 @@ import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 import javax.persistence.criteria.JoinType;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,17 +32,38 @@ public final class StandardStreamConfiguration<T> implements StreamConfiguration
     private final Class<T> entityClass;
     private final Projection<T> projection;
     private final Set<JoinConfiguration<T>> joinConfigurations;
+    private final int chunkSize; // 0 means no chunking
+    private final int clearInterval; // 0 means no clearing
+    private final int prefetchDepth; // 0 means no prefetching
+    private final int spillThreshold; // 0 means no spilling
+    private final GraphConfiguration<T> graphConfiguration; // null means the default fetch plan
+    private final boolean translateLambdas;
+    private final boolean orderById;
 
     public StandardStreamConfiguration(final Class<T> entityClass) {
         this.entityClass = requireNonNull(entityClass);
         this.projection = null;
         this.joinConfigurations = Collections.emptySet();
+        this.chunkSize = 0;
+        this.clearInterval = 0;
+        this.prefetchDepth = 0;
+        this.spillThreshold = 0;
+        this.graphConfiguration = null;
+        this.translateLambdas = false;
+        this.orderById = false;
     }
 
-    private StandardStreamConfiguration(final Class<T> entityClass, Projection<T> projection, final Set<JoinConfiguration<T>> joinConfigurations) {
+    private StandardStreamConfiguration(final Class<T> entityClass, Projection<T> projection, final Set<JoinConfiguration<T>> joinConfigurations, final int chunkSize, final int clearInterval, final int prefetchDepth, final int spillThreshold, final GraphConfiguration<T> graphConfiguration, final boolean translateLambdas, final boolean orderById) {
         this.entityClass = entityClass;
         this.projection = projection;
         this.joinConfigurations = new HashSet<>(joinConfigurations);
+        this.chunkSize = chunkSize;
+        this.clearInterval = clearInterval;
+        this.prefetchDepth = prefetchDepth;
+        this.spillThreshold = spillThreshold;
+        this.graphConfiguration = graphConfiguration;
+        this.translateLambdas = translateLambdas;
+        this.orderById = orderById;
     }
 
     @Override
@@ -59,7 +82,16 @@ public final class StandardStreamConfiguration<T> implements StreamConfiguration
         requireNonNull(joinType);
         final Set<JoinConfiguration<T>> newJoins = new HashSet<>(joinConfigurations);
         newJoins.add(new StandardJoinConfiguration<>(field, joinType));
-        return new StandardStreamConfiguration<>(entityClass, projection, newJoins);
+        return new StandardStreamConfiguration<>(entityClass, projection, newJoins, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, orderById);
+    }
+
+    @Override
+    public StreamConfiguration<T> joining(final Field<T> field, final JoinStrategy joinStrategy) {
+        requireNonNull(field);
+        requireNonNull(joinStrategy);
+        final Set<JoinConfiguration<T>> newJoins = new HashSet<>(joinConfigurations);
+        newJoins.add(new StandardJoinConfiguration<>(field, JoinType.LEFT, joinStrategy));
+        return new StandardStreamConfiguration<>(entityClass, projection, newJoins, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, orderById);
     }
 
     @Override
@@ -70,7 +102,98 @@ public final class StandardStreamConfiguration<T> implements StreamConfiguration
     @Override
     public StreamConfiguration<T> selecting(Projection<T> projection) {
         requireNonNull(projection);
-        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations);
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, orderById);
+    }
+
+    @Override
+    public OptionalInt chunkSize() {
+        return chunkSize == 0 ? OptionalInt.empty() : OptionalInt.of(chunkSize);
+    }
+
+    @Override
+    public StreamConfiguration<T> chunking(final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, orderById);
+    }
+
+    @Override
+    public OptionalInt clearInterval() {
+        return clearInterval == 0 ? OptionalInt.empty() : OptionalInt.of(clearInterval);
+    }
+
+    @Override
+    public StreamConfiguration<T> clearing(final int clearInterval) {
+        if (clearInterval < 1) {
+            throw new IllegalArgumentException("The clear interval must be positive: " + clearInterval);
+        }
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, orderById);
+    }
+
+    @Override
+    public OptionalInt prefetchDepth() {
+        return prefetchDepth == 0 ? OptionalInt.empty() : OptionalInt.of(prefetchDepth);
+    }
+
+    @Override
+    public StreamConfiguration<T> prefetching(final int prefetchDepth) {
+        if (prefetchDepth < 1) {
+            throw new IllegalArgumentException("The prefetch depth must be positive: " + prefetchDepth);
+        }
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, orderById);
+    }
+
+    @Override
+    public OptionalInt spillThreshold() {
+        return spillThreshold == 0 ? OptionalInt.empty() : OptionalInt.of(spillThreshold);
+    }
+
+    @Override
+    public StreamConfiguration<T> spilling(final int spillThreshold) {
+        if (spillThreshold < 1) {
+            throw new IllegalArgumentException("The spill threshold must be positive: " + spillThreshold);
+        }
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, orderById);
+    }
+
+    @Override
+    public boolean translatesLambdas() {
+        return translateLambdas;
+    }
+
+    @Override
+    public StreamConfiguration<T> translatingLambdas() {
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, true, orderById);
+    }
+
+    @Override
+    public boolean ordersById() {
+        return orderById;
+    }
+
+    @Override
+    public StreamConfiguration<T> orderingById() {
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, graphConfiguration, translateLambdas, true);
+    }
+
+    @Override
+    public Optional<GraphConfiguration<T>> graph() {
+        return Optional.ofNullable(graphConfiguration);
+    }
+
+    @Override
+    public StreamConfiguration<T> withGraph(final GraphType graphType, final Set<Field<T>> fields) {
+        requireNonNull(graphType);
+        requireNonNull(fields);
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, new StandardGraphConfiguration<>(graphType, fields), translateLambdas, orderById);
+    }
+
+    @Override
+    public StreamConfiguration<T> withGraph(final GraphType graphType, final String graphName) {
+        requireNonNull(graphType);
+        requireNonNull(graphName);
+        return new StandardStreamConfiguration<>(entityClass, projection, joinConfigurations, chunkSize, clearInterval, prefetchDepth, spillThreshold, new StandardGraphConfiguration<>(graphType, graphName), translateLambdas, orderById);
     }
 
     @Override
@@ -80,6 +203,13 @@ public final class StandardStreamConfiguration<T> implements StreamConfiguration
 
         final StandardStreamConfiguration<?> that = (StandardStreamConfiguration<?>) o;
 
+        if (chunkSize != that.chunkSize) return false;
+        if (clearInterval != that.clearInterval) return false;
+        if (prefetchDepth != that.prefetchDepth) return false;
+        if (spillThreshold != that.spillThreshold) return false;
+        if (translateLambdas != that.translateLambdas) return false;
+        if (orderById != that.orderById) return false;
+        if (!Objects.equals(graphConfiguration, that.graphConfiguration)) return false;
         if (!entityClass.equals(that.entityClass)) return false;
         return joinConfigurations.equals(that.joinConfigurations);
     }
@@ -88,6 +218,13 @@ public final class StandardStreamConfiguration<T> implements StreamConfiguration
     public int hashCode() {
         int result = entityClass.hashCode();
         result = 31 * result + joinConfigurations.hashCode();
+        result = 31 * result + chunkSize;
+        result = 31 * result + clearInterval;
+        result = 31 * result + prefetchDepth;
+        result = 31 * result + spillThreshold;
+        result = 31 * result + Objects.hashCode(graphConfiguration);
+        result = 31 * result + (translateLambdas ? 1 : 0);
+        result = 31 * result + (orderById ? 1 : 0);
         return result;
     }
 
@@ -101,9 +238,44 @@ public final class StandardStreamConfiguration<T> implements StreamConfiguration
                 .sorted()
                 .collect(Collectors.joining(", "));
 
+        final String chunkText = chunkSize == 0
+                ? ""
+                : " chunking " + chunkSize;
+
+        final String clearText = clearInterval == 0
+                ? ""
+                : " clearing " + clearInterval;
+
+        final String prefetchText = prefetchDepth == 0
+                ? ""
+                : " prefetching " + prefetchDepth;
+
+        final String spillText = spillThreshold == 0
+                ? ""
+                : " spilling " + spillThreshold;
+
+        final String graphText = graphConfiguration == null
+                ? ""
+                : " with " + graphConfiguration;
+
+        final String translateText = translateLambdas
+                ? " translating lambdas"
+                : "";
+
+        final String orderText = orderById
+                ? " ordering by id"
+                : "";
+
         return "StandardStreamConfiguration{" +
                 "of " + entityClass.getSimpleName() +
                 joinText +
+                chunkText +
+                clearText +
+                prefetchText +
+                spillText +
+                graphText +
+                translateText +
+                orderText +
                 '}';
     }
 }
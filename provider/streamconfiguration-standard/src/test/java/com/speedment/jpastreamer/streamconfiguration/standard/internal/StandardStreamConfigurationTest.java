@@ -52,6 +52,100 @@ final class StandardStreamConfigurationTest {
         assertNotSame(j1, j2);
     }
 
+    @Test
+    void batchFetchJoins() {
+        final StreamConfiguration<Film> batchFetching = initial.joining(Film$.title, StreamConfiguration.JoinStrategy.BATCH_FETCH);
+        final StreamConfiguration.JoinConfiguration<Film> join = batchFetching.joins().iterator().next();
+        assertEquals(StreamConfiguration.JoinStrategy.BATCH_FETCH, join.joinStrategy());
+        assertEquals(JoinType.LEFT, join.joinType());
+        assertNotEquals(initial.joining(Film$.title), batchFetching);
+        assertEquals(initial.joining(Film$.title), initial.joining(Film$.title, StreamConfiguration.JoinStrategy.FETCH_JOIN));
+    }
+
+    @Test
+    void chunkSize() {
+        assertFalse(initial.chunkSize().isPresent());
+        final StreamConfiguration<Film> chunked = initial.chunking(1000);
+        assertEquals(1000, chunked.chunkSize().getAsInt());
+        assertEquals(1000, chunked.joining(Film$.title).chunkSize().getAsInt());
+        assertNotEquals(initial, chunked);
+        assertThrows(IllegalArgumentException.class, () -> initial.chunking(0));
+    }
+
+    @Test
+    void clearInterval() {
+        assertFalse(initial.clearInterval().isPresent());
+        final StreamConfiguration<Film> clearing = initial.clearing(500);
+        assertEquals(500, clearing.clearInterval().getAsInt());
+        assertEquals(500, clearing.chunking(100).clearInterval().getAsInt());
+        assertNotEquals(initial, clearing);
+        assertThrows(IllegalArgumentException.class, () -> initial.clearing(-1));
+    }
+
+    @Test
+    void prefetchDepth() {
+        assertFalse(initial.prefetchDepth().isPresent());
+        final StreamConfiguration<Film> prefetching = initial.prefetching(64);
+        assertEquals(64, prefetching.prefetchDepth().getAsInt());
+        assertEquals(64, prefetching.clearing(100).prefetchDepth().getAsInt());
+        assertNotEquals(initial, prefetching);
+        assertThrows(IllegalArgumentException.class, () -> initial.prefetching(0));
+    }
+
+    @Test
+    void spillThreshold() {
+        assertFalse(initial.spillThreshold().isPresent());
+        final StreamConfiguration<Film> spilling = initial.spilling(100_000);
+        assertEquals(100_000, spilling.spillThreshold().getAsInt());
+        assertEquals(100_000, spilling.prefetching(64).spillThreshold().getAsInt());
+        assertNotEquals(initial, spilling);
+        assertThrows(IllegalArgumentException.class, () -> initial.spilling(0));
+    }
+
+    @Test
+    void translatesLambdas() {
+        assertFalse(initial.translatesLambdas());
+        final StreamConfiguration<Film> translating = initial.translatingLambdas();
+        assertTrue(translating.translatesLambdas());
+        assertTrue(translating.chunking(100).translatesLambdas());
+        assertTrue(translating.withLoadGraph("film.language").translatesLambdas());
+        assertNotEquals(initial, translating);
+        assertEquals(translating, initial.translatingLambdas());
+        assertEquals(translating.hashCode(), initial.translatingLambdas().hashCode());
+    }
+
+    @Test
+    void ordersById() {
+        assertFalse(initial.ordersById());
+        final StreamConfiguration<Film> ordering = initial.orderingById();
+        assertTrue(ordering.ordersById());
+        assertTrue(ordering.translatingLambdas().ordersById());
+        assertTrue(ordering.withFetchGraph(Film$.title).ordersById());
+        assertNotEquals(initial, ordering);
+        assertEquals(ordering, initial.orderingById());
+        assertEquals(ordering.hashCode(), initial.orderingById().hashCode());
+    }
+
+    @Test
+    void graph() {
+        assertFalse(initial.graph().isPresent());
+
+        final StreamConfiguration<Film> fetchGraph = initial.withFetchGraph(Film$.title, Film$.length);
+        final StreamConfiguration.GraphConfiguration<Film> graph = fetchGraph.graph().get();
+        assertEquals(StreamConfiguration.GraphType.FETCH, graph.graphType());
+        assertFalse(graph.name().isPresent());
+        assertEquals(Stream.of(Film$.title, Film$.length).collect(Collectors.toSet()), graph.fields());
+        assertEquals(fetchGraph, initial.withFetchGraph(Film$.title, Film$.length));
+
+        final StreamConfiguration<Film> loadGraph = fetchGraph.withLoadGraph("film.language");
+        assertEquals(StreamConfiguration.GraphType.LOAD, loadGraph.graph().get().graphType());
+        assertEquals("film.language", loadGraph.graph().get().name().get());
+        assertTrue(loadGraph.graph().get().fields().isEmpty());
+        assertNotEquals(fetchGraph, loadGraph);
+
+        assertThrows(IllegalArgumentException.class, () -> initial.withGraph(StreamConfiguration.GraphType.FETCH, Collections.emptySet()));
+    }
+
     @Test
     void testEquals() {
         final StreamConfiguration<Film> first = initial.joining(Film$.title).joining(Film$.length);
@@ -12,12 +12,24 @@
  */
 package com.speedment.jpastreamer.termopoptimizer.standard.internal;
 
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationFactory;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
 import com.speedment.jpastreamer.termopoptimizer.TerminalOperationOptimizer;
 import com.speedment.jpastreamer.termopoptimizer.TerminalOperationOptimizerFactory;
 
+import java.util.ServiceLoader;
+
 public final class InternalTerminalOperationOptimizerFactory implements TerminalOperationOptimizerFactory{
 
-    private final TerminalOperationOptimizer singleton = new StandardTerminalOperationOptimizer();
+    private final TerminalOperationOptimizer singleton;
+
+    public InternalTerminalOperationOptimizerFactory() {
+        this.singleton = new StandardTerminalOperationOptimizer(
+            RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load),
+            RootFactory.getOrThrow(TerminalOperationFactory.class, ServiceLoader::load)
+        );
+    }
 
     @Override
     public TerminalOperationOptimizer get() {
@@ -12,18 +12,267 @@
  */
 package com.speedment.jpastreamer.termopoptimizer.standard.internal;
 
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.MODIFIES_ORDER;
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.PRESERVES_ORDER;
+import static com.speedment.jpastreamer.pipeline.intermediate.Statement.PRESERVES_SIZE;
 import static java.util.Objects.requireNonNull;
 
+import com.speedment.jpastreamer.field.ReferenceField;
+import com.speedment.jpastreamer.field.comparator.CombinedComparator;
+import com.speedment.jpastreamer.field.comparator.FieldComparator;
+import com.speedment.jpastreamer.field.predicate.CombinedPredicate;
+import com.speedment.jpastreamer.field.predicate.FieldPredicate;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
 import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperation;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationFactory;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationType;
 import com.speedment.jpastreamer.termopoptimizer.TerminalOperationOptimizer;
 
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
 final class StandardTerminalOperationOptimizer implements TerminalOperationOptimizer {
 
+    private final IntermediateOperationFactory intermediateOperationFactory;
+    private final TerminalOperationFactory terminalOperationFactory;
+
+    StandardTerminalOperationOptimizer(
+        final IntermediateOperationFactory intermediateOperationFactory,
+        final TerminalOperationFactory terminalOperationFactory
+    ) {
+        this.intermediateOperationFactory = requireNonNull(intermediateOperationFactory);
+        this.terminalOperationFactory = requireNonNull(terminalOperationFactory);
+    }
+
     @Override
     public <T> Pipeline<T> optimize(Pipeline<T> pipeline) {
         requireNonNull(pipeline);
-        // For now, just return whatever we get.
+        switch (pipeline.terminatingOperation().type()) {
+            case COUNT:
+                removeOperationsNotAffectingCount(pipeline);
+                break;
+            case ANY_MATCH:
+            case ALL_MATCH:
+            case NONE_MATCH:
+                rewriteMatch(pipeline);
+                break;
+            case FIND_FIRST:
+            case FIND_ANY:
+                limitToFirst(pipeline);
+                break;
+            case MIN:
+            case MAX:
+                rewriteMinMax(pipeline);
+                break;
+            default:
+                break;
+        }
         return pipeline;
     }
 
+    /**
+     * Removes the operations ahead of a COUNT that neither change the number
+     * of elements nor are needed by a subsequent operation that can change the number
+     * of elements. Skip and limit operations are retained as their effect on the count
+     * depends on the number of elements only.
+     * <p>
+     * For example, {@code filter(f).map(m).sorted().skip(1).peek(p).count()} is
+     * reduced to {@code filter(f).skip(1).count()}.
+     */
+    private <T> void removeOperationsNotAffectingCount(final Pipeline<T> pipeline) {
+        final LinkedList<IntermediateOperation<?, ?>> intermediateOperations = pipeline.intermediateOperations();
+
+        for (int i = intermediateOperations.size() - 1; i >= 0; i--) {
+            final IntermediateOperationType type = intermediateOperations.get(i).type();
+
+            if (type == IntermediateOperationType.SKIP || type == IntermediateOperationType.LIMIT) {
+                continue;
+            }
+
+            final Set<?> statements = type.statements();
+            if (!statements.contains(PRESERVES_SIZE) && !statements.contains(MODIFIES_ORDER)) {
+                break;
+            }
+
+            intermediateOperations.remove(i);
+        }
+    }
+
+    /**
+     * Rewrites a match operation with a {@link SpeedmentPredicate} that can be
+     * expressed in the query into a filter followed by {@code limit(1)} whereby
+     * the predicate is merged into the query and at most one entity is read.
+     * <ul>
+     *     <li>{@code anyMatch(p)} becomes {@code filter(p).limit(1).anyMatch(e -> true)}</li>
+     *     <li>{@code noneMatch(p)} becomes {@code filter(p).limit(1).noneMatch(e -> true)}</li>
+     *     <li>{@code allMatch(p)} becomes {@code filter(p.negate()).limit(1).noneMatch(e -> true)}</li>
+     * </ul>
+     * The limit is merged into the query wherever it appears in the pipeline,
+     * so the match is only rewritten if all preceding operations are merged
+     * into the query as well.
+     * <p>
+     * The negation of a predicate of a reference field holds neither for a
+     * {@code null} value in Java nor for a {@code NULL} column in the database,
+     * so {@code allMatch} is only rewritten if its predicate solely tests
+     * primitive fields.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void rewriteMatch(final Pipeline<T> pipeline) {
+        final TerminalOperation<?, ?> terminalOperation = pipeline.terminatingOperation();
+        final Object[] arguments = terminalOperation.arguments();
+
+        if (terminalOperation.streamType() != Stream.class
+            || arguments.length != 1
+            || !isMergeable(arguments[0])
+            || !isMergeable(pipeline.intermediateOperations(), false)
+            || (terminalOperation.type() == TerminalOperationType.ALL_MATCH && !isPrimitive(arguments[0]))) {
+            return;
+        }
+
+        final SpeedmentPredicate<T> predicate = (SpeedmentPredicate<T>) arguments[0];
+        final TerminalOperationType type = terminalOperation.type();
+
+        final LinkedList<IntermediateOperation<?, ?>> intermediateOperations = pipeline.intermediateOperations();
+        intermediateOperations.add(intermediateOperationFactory.createFilter(type == TerminalOperationType.ALL_MATCH ? predicate.negate() : predicate));
+        intermediateOperations.add(intermediateOperationFactory.createLimit(1));
+
+        pipeline.terminatingOperation(type == TerminalOperationType.ANY_MATCH
+            ? terminalOperationFactory.<T>createAnyMatch(e -> true)
+            : terminalOperationFactory.<T>createNoneMatch(e -> true)
+        );
+    }
+
+    /**
+     * Appends {@code limit(1)} ahead of a find operation whereby at most one
+     * entity is read. Consecutive limits are later squashed into one.
+     * <p>
+     * The limit is merged into the query wherever it appears in the pipeline,
+     * so it is only appended if the preceding operations either are merged
+     * into the query or preserve the number and order of the elements. For
+     * example, {@code filter(e -> e.getLength() > 60).findFirst()} is retained.
+     */
+    private <T> void limitToFirst(final Pipeline<T> pipeline) {
+        if (pipeline.terminatingOperation().streamType() != Stream.class
+            || !isMergeable(pipeline.intermediateOperations(), true)) {
+            return;
+        }
+        pipeline.intermediateOperations().add(intermediateOperationFactory.createLimit(1));
+    }
+
+    /**
+     * Rewrites a min or max operation with a {@link FieldComparator} or
+     * {@link CombinedComparator} into a sort followed by {@code limit(1)} whereby
+     * the comparator can be merged into the query as an ORDER BY clause and
+     * at most one entity is read.
+     * <ul>
+     *     <li>{@code min(c)} becomes {@code sorted(c).limit(1).findFirst()}</li>
+     *     <li>{@code max(c)} becomes {@code sorted(c.reversed()).limit(1).findFirst()}</li>
+     * </ul>
+     * The operation is only rewritten if all preceding operations are filters
+     * that are merged into the query. A preceding sort would be combined with
+     * the appended sort, which would then no longer order by the comparator.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void rewriteMinMax(final Pipeline<T> pipeline) {
+        final TerminalOperation<?, ?> terminalOperation = pipeline.terminatingOperation();
+        final Object[] arguments = terminalOperation.arguments();
+
+        if (terminalOperation.streamType() != Stream.class
+            || arguments.length != 1
+            || !isMergeable(pipeline.intermediateOperations(), false)
+            || pipeline.intermediateOperations().stream().anyMatch(operation -> operation.type() == IntermediateOperationType.SORTED)) {
+            return;
+        }
+
+        final Comparator<T> comparator;
+        if (arguments[0] instanceof FieldComparator) {
+            final FieldComparator<T> fieldComparator = (FieldComparator<T>) arguments[0];
+            comparator = terminalOperation.type() == TerminalOperationType.MAX ? fieldComparator.reversed() : fieldComparator;
+        } else if (arguments[0] instanceof CombinedComparator) {
+            final CombinedComparator<T> combinedComparator = (CombinedComparator<T>) arguments[0];
+            comparator = terminalOperation.type() == TerminalOperationType.MAX ? combinedComparator.reversed() : combinedComparator;
+        } else {
+            return;
+        }
+
+        final LinkedList<IntermediateOperation<?, ?>> intermediateOperations = pipeline.intermediateOperations();
+        intermediateOperations.add(intermediateOperationFactory.createSorted(comparator));
+        intermediateOperations.add(intermediateOperationFactory.createLimit(1));
+
+        pipeline.terminatingOperation(terminalOperationFactory.<T>acquireFindFirst());
+    }
+
+    /**
+     * Returns if the provided {@code operations} are merged into the query in
+     * their entirety, i.e. consist of filters with predicates and sorts with
+     * comparators that can be expressed in the query. If {@code orderedTail} is
+     * {@code true}, they may also be followed by operations that preserve the
+     * number and order of the elements as well as by skip and limit operations.
+     */
+    private static boolean isMergeable(final List<IntermediateOperation<?, ?>> operations, final boolean orderedTail) {
+        boolean tail = false;
+        for (IntermediateOperation<?, ?> operation : operations) {
+            if (!tail && isMergeable(operation)) {
+                continue;
+            }
+            final IntermediateOperationType type = operation.type();
+            final Set<?> statements = type.statements();
+            if (!orderedTail || !(type == IntermediateOperationType.SKIP
+                || type == IntermediateOperationType.LIMIT
+                || (statements.contains(PRESERVES_SIZE) && statements.contains(PRESERVES_ORDER)))
+            ) {
+                return false;
+            }
+            tail = true;
+        }
+        return true;
+    }
+
+    private static boolean isMergeable(final IntermediateOperation<?, ?> operation) {
+        final Object[] arguments = operation.arguments();
+        if (arguments.length != 1) {
+            return false;
+        }
+        switch (operation.type()) {
+            case FILTER:
+                return isMergeable(arguments[0]);
+            case SORTED:
+                return arguments[0] instanceof FieldComparator || arguments[0] instanceof CombinedComparator;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns if the provided {@code predicate} and all the predicates it is
+     * combined from can be expressed in the query.
+     */
+    private static boolean isMergeable(final Object predicate) {
+        if (predicate instanceof FieldPredicate) {
+            return true;
+        }
+        if (predicate instanceof CombinedPredicate) {
+            return ((CombinedPredicate<?>) predicate).stream().allMatch(StandardTerminalOperationOptimizer::isMergeable);
+        }
+        return false;
+    }
+
+    /**
+     * Returns if the provided mergeable {@code predicate} and all the predicates
+     * it is combined from test fields that can not be {@code null}.
+     */
+    private static boolean isPrimitive(final Object predicate) {
+        if (predicate instanceof FieldPredicate) {
+            return !(((FieldPredicate<?>) predicate).getField() instanceof ReferenceField);
+        }
+        return ((CombinedPredicate<?>) predicate).stream().allMatch(StandardTerminalOperationOptimizer::isPrimitive);
+    }
+
 }
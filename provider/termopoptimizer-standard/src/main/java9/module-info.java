@@ -12,6 +12,8 @@
  */
 module jpastreamer.termopoptimizer.standard {
     requires transitive jpastreamer.termopoptimizer;
+    requires jpastreamer.rootfactory;
+    requires jpastreamer.field;
 
     exports com.speedment.jpastreamer.termopoptimizer.standard;
 
@@ -0,0 +1,349 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.termopoptimizer.standard.internal;
+
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.FILTER;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.LIMIT;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.MAP;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.SKIP;
+import static com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType.SORTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.speedment.jpastreamer.field.comparator.FieldComparator;
+import com.speedment.jpastreamer.field.predicate.SpeedmentPredicate;
+import com.speedment.jpastreamer.pipeline.Pipeline;
+import com.speedment.jpastreamer.pipeline.PipelineFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperation;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationFactory;
+import com.speedment.jpastreamer.pipeline.intermediate.IntermediateOperationType;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperation;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationFactory;
+import com.speedment.jpastreamer.pipeline.terminal.TerminalOperationType;
+import com.speedment.jpastreamer.rootfactory.RootFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+final class StandardTerminalOperationOptimizerTest {
+
+    private final PipelineFactory pipelineFactory = RootFactory.getOrThrow(PipelineFactory.class, ServiceLoader::load);
+    private final IntermediateOperationFactory operationFactory = RootFactory.getOrThrow(IntermediateOperationFactory.class, ServiceLoader::load);
+    private final TerminalOperationFactory terminalOperationFactory = RootFactory.getOrThrow(TerminalOperationFactory.class, ServiceLoader::load);
+
+    private final StandardTerminalOperationOptimizer optimizer = new StandardTerminalOperationOptimizer(operationFactory, terminalOperationFactory);
+
+    @Test
+    void removesTrailingSizePreservingOperations() {
+        final Pipeline<String> pipeline = countPipeline(
+            operationFactory.<String>createFilter(String::isEmpty),
+            operationFactory.createMap(String::length),
+            operationFactory.createPeek(i -> {})
+        );
+        optimizer.optimize(pipeline);
+        assertEquals(Arrays.asList(FILTER), types(pipeline));
+    }
+
+    @Test
+    void removesSortedAndRetainsSkipAndLimit() {
+        final Pipeline<String> pipeline = countPipeline(
+            operationFactory.<String>createFilter(String::isEmpty),
+            operationFactory.createSorted(Comparator.naturalOrder()),
+            operationFactory.createSkip(1),
+            operationFactory.createMap(String::length),
+            operationFactory.createLimit(10),
+            operationFactory.createPeek(s -> {})
+        );
+        optimizer.optimize(pipeline);
+        assertEquals(Arrays.asList(FILTER, SKIP, LIMIT), types(pipeline));
+    }
+
+    @Test
+    void retainsOperationsAheadOfFilter() {
+        final Pipeline<String> pipeline = countPipeline(
+            operationFactory.createMap(String::length),
+            operationFactory.<Integer>createFilter(i -> i > 3)
+        );
+        optimizer.optimize(pipeline);
+        assertEquals(Arrays.asList(MAP, FILTER), types(pipeline));
+    }
+
+    @Test
+    void ignoresOtherTerminalOperations() {
+        final Pipeline<String> pipeline = pipelineFactory.createPipeline(String.class);
+        pipeline.intermediateOperations().add(operationFactory.createMap(String::length));
+        pipeline.terminatingOperation(terminalOperationFactory.createCollect(Collectors.toList()));
+        optimizer.optimize(pipeline);
+        assertEquals(Arrays.asList(MAP), types(pipeline));
+    }
+
+    @Test
+    void rewritesAnyMatch() {
+        final SpeedmentPredicate<Film> isEmpty = Film$.title.isEmpty();
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.terminatingOperation(terminalOperationFactory.createAnyMatch(isEmpty));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER, LIMIT), types(pipeline));
+        assertSame(isEmpty, pipeline.intermediateOperations().getFirst().arguments()[0]);
+        assertEquals(1L, pipeline.intermediateOperations().getLast().arguments()[0]);
+        assertEquals(TerminalOperationType.ANY_MATCH, pipeline.terminatingOperation().type());
+        assertTrue(test(pipeline, "a", ""));
+        assertFalse(test(pipeline, "a", "b"));
+        assertFalse(test(pipeline));
+    }
+
+    @Test
+    void rewritesNoneMatch() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.terminatingOperation(terminalOperationFactory.createNoneMatch(Film$.title.isEmpty()));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER, LIMIT), types(pipeline));
+        assertEquals(TerminalOperationType.NONE_MATCH, pipeline.terminatingOperation().type());
+        assertTrue(test(pipeline, "a", "b"));
+        assertFalse(test(pipeline, "", "a"));
+    }
+
+    @Test
+    void rewritesAllMatch() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.terminatingOperation(terminalOperationFactory.createAllMatch(Film$.year.greaterThan(2000)));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER, LIMIT), types(pipeline));
+        assertEquals(TerminalOperationType.NONE_MATCH, pipeline.terminatingOperation().type());
+        assertTrue(testYears(pipeline, 2001, 2002));
+        assertTrue(testYears(pipeline));
+        assertFalse(testYears(pipeline, 2001, 2000));
+    }
+
+    @Test
+    void retainsAllMatchOfReferenceField() {
+        // No row would match the negated predicate for a NULL column, whereas the predicate does not hold for null
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.terminatingOperation(terminalOperationFactory.createAllMatch(Film$.title.isEmpty().and(Film$.year.greaterThan(2000))));
+        optimizer.optimize(pipeline);
+
+        assertTrue(pipeline.intermediateOperations().isEmpty());
+        assertEquals(TerminalOperationType.ALL_MATCH, pipeline.terminatingOperation().type());
+        assertFalse(test(pipeline, "", null));
+        assertFalse(Film$.title.isEmpty().negate().test(new Film()));
+    }
+
+    @Test
+    void rewritesMatchAfterMergeableOperations() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.createFilter(Film$.title.notEqual("b")));
+        pipeline.intermediateOperations().add(operationFactory.createSorted(Film$.title.comparator()));
+        pipeline.terminatingOperation(terminalOperationFactory.createAnyMatch(Film$.title.isEmpty()));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER, SORTED, FILTER, LIMIT), types(pipeline));
+        assertTrue(test(pipeline, "b", ""));
+        assertFalse(test(pipeline, "b", "a"));
+    }
+
+    @Test
+    void retainsMatchWithOtherPredicate() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.terminatingOperation(terminalOperationFactory.<Film>createAnyMatch(film -> film.getTitle().isEmpty()));
+        optimizer.optimize(pipeline);
+
+        assertTrue(pipeline.intermediateOperations().isEmpty());
+    }
+
+    @Test
+    void retainsMatchWithUnmergeableSpeedmentPredicate() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.terminatingOperation(terminalOperationFactory.createAnyMatch((SpeedmentPredicate<Film>) film -> film.getTitle().isEmpty()));
+        optimizer.optimize(pipeline);
+
+        assertTrue(pipeline.intermediateOperations().isEmpty());
+        assertEquals(TerminalOperationType.ANY_MATCH, pipeline.terminatingOperation().type());
+    }
+
+    @Test
+    void retainsMatchAfterUnmergeableFilter() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.<Film>createFilter(film -> film.getLength() > 60));
+        pipeline.terminatingOperation(terminalOperationFactory.createAnyMatch(Film$.title.equal("a")));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER), types(pipeline));
+        assertEquals(TerminalOperationType.ANY_MATCH, pipeline.terminatingOperation().type());
+    }
+
+    @Test
+    void limitsFindFirst() {
+        final Pipeline<String> pipeline = pipelineFactory.createPipeline(String.class);
+        pipeline.intermediateOperations().add(operationFactory.createSkip(2));
+        pipeline.terminatingOperation(terminalOperationFactory.acquireFindFirst());
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(SKIP, LIMIT), types(pipeline));
+        assertEquals(TerminalOperationType.FIND_FIRST, pipeline.terminatingOperation().type());
+    }
+
+    @Test
+    void limitsFindFirstAfterMergeableOperations() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.createFilter(Film$.length.greaterThan(60)));
+        pipeline.intermediateOperations().add(operationFactory.createSorted(Film$.title.comparator()));
+        pipeline.intermediateOperations().add(operationFactory.createMap(Film::getTitle));
+        pipeline.terminatingOperation(terminalOperationFactory.acquireFindFirst());
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER, SORTED, MAP, LIMIT), types(pipeline));
+    }
+
+    @Test
+    void retainsFindFirstAfterUnmergeableFilter() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.<Film>createFilter(film -> film.getLength() > 60));
+        pipeline.terminatingOperation(terminalOperationFactory.acquireFindFirst());
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER), types(pipeline));
+    }
+
+    @Test
+    void retainsFindFirstAfterUnmergeableSort() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.createSorted(Comparator.comparing(Film::getTitle)));
+        pipeline.terminatingOperation(terminalOperationFactory.acquireFindAny());
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(SORTED), types(pipeline));
+    }
+
+    @Test
+    void retainsFindFirstAfterFilterFollowingMap() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.createMap(Film::getTitle));
+        pipeline.intermediateOperations().add(operationFactory.<String>createFilter(String::isEmpty));
+        pipeline.terminatingOperation(terminalOperationFactory.acquireFindFirst());
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(MAP, FILTER), types(pipeline));
+    }
+
+    @Test
+    void rewritesMinAndMax() {
+        final Pipeline<Film> min = pipelineFactory.createPipeline(Film.class);
+        min.terminatingOperation(terminalOperationFactory.createMin(Film$.length.comparator()));
+        optimizer.optimize(min);
+
+        assertEquals(Arrays.asList(SORTED, LIMIT), types(min));
+        assertEquals(TerminalOperationType.FIND_FIRST, min.terminatingOperation().type());
+        assertFalse(((FieldComparator<?>) min.intermediateOperations().getFirst().arguments()[0]).isReversed());
+
+        final Pipeline<Film> max = pipelineFactory.createPipeline(Film.class);
+        max.terminatingOperation(terminalOperationFactory.createMax(Film$.length.comparator()));
+        optimizer.optimize(max);
+
+        assertEquals(Arrays.asList(SORTED, LIMIT), types(max));
+        assertTrue(((FieldComparator<?>) max.intermediateOperations().getFirst().arguments()[0]).isReversed());
+    }
+
+    @Test
+    void rewritesMinAfterMergeableFilter() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.createFilter(Film$.length.greaterThan(60)));
+        pipeline.terminatingOperation(terminalOperationFactory.createMin(Film$.length.comparator()));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER, SORTED, LIMIT), types(pipeline));
+    }
+
+    @Test
+    void retainsMinAfterSort() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.createSorted(Film$.title.comparator()));
+        pipeline.terminatingOperation(terminalOperationFactory.createMin(Film$.length.comparator()));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(SORTED), types(pipeline));
+        assertEquals(TerminalOperationType.MIN, pipeline.terminatingOperation().type());
+    }
+
+    @Test
+    void retainsMaxAfterUnmergeableFilter() {
+        final Pipeline<Film> pipeline = pipelineFactory.createPipeline(Film.class);
+        pipeline.intermediateOperations().add(operationFactory.<Film>createFilter(film -> film.getLength() > 60));
+        pipeline.terminatingOperation(terminalOperationFactory.createMax(Film$.length.comparator()));
+        optimizer.optimize(pipeline);
+
+        assertEquals(Arrays.asList(FILTER), types(pipeline));
+        assertEquals(TerminalOperationType.MAX, pipeline.terminatingOperation().type());
+    }
+
+    @Test
+    void retainsMinWithOtherComparator() {
+        final Pipeline<String> pipeline = pipelineFactory.createPipeline(String.class);
+        pipeline.terminatingOperation(terminalOperationFactory.<String>createMin(Comparator.naturalOrder()));
+        optimizer.optimize(pipeline);
+
+        assertTrue(pipeline.intermediateOperations().isEmpty());
+        assertEquals(TerminalOperationType.MIN, pipeline.terminatingOperation().type());
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static boolean test(final Pipeline<Film> pipeline, final String... titles) {
+        Stream stream = Stream.of(titles).map(title -> {
+            final Film film = new Film();
+            film.title = title;
+            return film;
+        });
+        for (IntermediateOperation operation : pipeline.intermediateOperations()) {
+            stream = (Stream) operation.function().apply(stream);
+        }
+        return ((TerminalOperation) pipeline.terminatingOperation()).predicate().test(stream);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static boolean testYears(final Pipeline<Film> pipeline, final int... years) {
+        Stream stream = IntStream.of(years).mapToObj(year -> {
+            final Film film = new Film();
+            film.year = year;
+            return film;
+        });
+        for (IntermediateOperation operation : pipeline.intermediateOperations()) {
+            stream = (Stream) operation.function().apply(stream);
+        }
+        return ((TerminalOperation) pipeline.terminatingOperation()).predicate().test(stream);
+    }
+
+    private Pipeline<String> countPipeline(final IntermediateOperation<?, ?>... operations) {
+        final Pipeline<String> pipeline = pipelineFactory.createPipeline(String.class);
+        pipeline.intermediateOperations().addAll(Arrays.asList(operations));
+        final TerminalOperation<?, ?> count = terminalOperationFactory.acquireCount();
+        pipeline.terminatingOperation(count);
+        return pipeline;
+    }
+
+    private static List<IntermediateOperationType> types(final Pipeline<?> pipeline) {
+        return pipeline.intermediateOperations().stream()
+            .map(IntermediateOperation::type)
+            .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer;
+
+import javax.persistence.EntityManager;
+
+/**
+ * An EntityManagerPool leases {@link EntityManager}s to a {@link Renderer}.
+ * <p>
+ * Each rendered stream acquires an EntityManager from the pool when it
+ * is rendered and releases it when the stream is closed. An EntityManager
+ * is never leased to more than one stream at the same time.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface EntityManagerPool {
+
+    /**
+     * Acquires and returns an EntityManager, potentially blocking
+     * until an EntityManager becomes available.
+     *
+     * @return an EntityManager that is exclusively leased to
+     *         the caller until it is released
+     * @throws IllegalStateException if no EntityManager could be acquired,
+     *         for example because none became available in due time
+     */
+    EntityManager acquire();
+
+    /**
+     * Releases the provided {@code entityManager} that was
+     * previously acquired from this pool.
+     *
+     * @param entityManager to release
+     */
+    void release(EntityManager entityManager);
+
+}
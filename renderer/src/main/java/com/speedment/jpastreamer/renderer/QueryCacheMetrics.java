@@ -0,0 +1,82 @@
+/*
+ * JPAstreamer - Express JPA queries with Java Streams
+ * Copyright (c) 2020-2020, Speedment, Inc. All Rights Reserved.
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * See: https://github.com/speedment/jpa-streamer/blob/master/LICENSE
+ */
+package com.speedment.jpastreamer.renderer;
+
+/**
+ * Metrics for a bounded cache of compiled queries held by a {@link Renderer}
+ * whereby pipelines of the same shape reuse the query of a previously
+ * rendered pipeline.
+ * <p>
+ * Values are sampled upon invocation and may be
+ * concurrently modified by rendering threads.
+ *
+ * @see Renderer#queryCacheMetrics()
+ * @see RendererFactory#createRenderer(EntityManagerPool, int)
+ */
+public interface QueryCacheMetrics {
+
+    /**
+     * Returns the maximum number of compiled queries held by the cache.
+     *
+     * @return the maximum number of compiled queries held by the cache
+     */
+    int capacity();
+
+    /**
+     * Returns the number of compiled queries currently held by the cache.
+     *
+     * @return the number of compiled queries currently held by the cache
+     */
+    int size();
+
+    /**
+     * Returns the total number of lookups that found a
+     * compiled query in the cache.
+     *
+     * @return the total number of lookups that found a
+     *         compiled query in the cache
+     */
+    long hitCount();
+
+    /**
+     * Returns the total number of lookups that found no
+     * compiled query in the cache.
+     *
+     * @return the total number of lookups that found no
+     *         compiled query in the cache
+     */
+    long missCount();
+
+    /**
+     * Returns the total number of compiled queries that were evicted
+     * from the cache because the cache was full.
+     *
+     * @return the total number of compiled queries that were evicted
+     *         from the cache because the cache was full
+     */
+    long evictionCount();
+
+    /**
+     * Returns the ratio of cache lookups that were hits or
+     * {@code 0} if there have been no lookups.
+     *
+     * @return the ratio of cache lookups that were hits or
+     *         {@code 0} if there have been no lookups
+     */
+    default double hitRatio() {
+        final long hitCount = hitCount();
+        final long lookups = hitCount + missCount();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+}
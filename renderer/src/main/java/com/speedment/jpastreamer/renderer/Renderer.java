@@ -15,6 +15,7 @@ package com.speedment.jpastreamer.renderer;
 import com.speedment.jpastreamer.pipeline.Pipeline;
 import com.speedment.jpastreamer.streamconfiguration.StreamConfiguration;
 
+import java.util.Optional;
 import java.util.stream.BaseStream;
 
 public interface Renderer {
@@ -32,6 +33,17 @@ public interface Renderer {
      */
     <E, T,  S extends BaseStream<T, S>> RenderResult<E, T, S> render(final Pipeline<E> pipeline, final StreamConfiguration<E> streamConfiguration);
 
+    /**
+     * Returns metrics for the cache of compiled queries held by this Renderer
+     * or {@link Optional#empty()} if this Renderer does not cache queries.
+     *
+     * @return metrics for the cache of compiled queries held by this Renderer
+     *         or {@link Optional#empty()} if this Renderer does not cache queries
+     */
+    default Optional<QueryCacheMetrics> queryCacheMetrics() {
+        return Optional.empty();
+    }
+
     /**
      * Used to release any dangling resources after the expiration period of the
      * Renderer instance.
@@ -25,4 +25,43 @@ public interface RendererFactory {
      *         is used for creating streams
      */
     Renderer createRenderer(final EntityManagerFactory entityManagerFactory);
+
+    /**
+     * Creates and returns a new {@code Renderer} whereby {@code EntityManager}s
+     * leased from the provided {@code entityManagerPool} are used to create streams.
+     *
+     * @param entityManagerPool to lease EntityManagers from when creating streams
+     * @return a new {@code Renderer} where {@code EntityManager}s leased from
+     *         the provided {@code entityManagerPool} are used for creating streams
+     */
+    Renderer createRenderer(final EntityManagerPool entityManagerPool);
+
+    /**
+     * Creates and returns a new {@code Renderer} whereby the provided {@code entityManagerFactory}
+     * is used to create streams and at most {@code queryCacheCapacity} compiled queries are cached.
+     *
+     * @param entityManagerFactory to be used for creating streams
+     * @param queryCacheCapacity the maximum number of compiled queries to cache
+     * @return a new {@code Renderer} where the provided {@code entityManagerFactory}
+     *         is used for creating streams
+     * @throws IllegalArgumentException if the provided {@code queryCacheCapacity}
+     *         is less than one
+     * @see Renderer#queryCacheMetrics()
+     */
+    Renderer createRenderer(final EntityManagerFactory entityManagerFactory, final int queryCacheCapacity);
+
+    /**
+     * Creates and returns a new {@code Renderer} whereby {@code EntityManager}s
+     * leased from the provided {@code entityManagerPool} are used to create streams
+     * and at most {@code queryCacheCapacity} compiled queries are cached.
+     *
+     * @param entityManagerPool to lease EntityManagers from when creating streams
+     * @param queryCacheCapacity the maximum number of compiled queries to cache
+     * @return a new {@code Renderer} where {@code EntityManager}s leased from
+     *         the provided {@code entityManagerPool} are used for creating streams
+     * @throws IllegalArgumentException if the provided {@code queryCacheCapacity}
+     *         is less than one
+     * @see Renderer#queryCacheMetrics()
+     */
+    Renderer createRenderer(final EntityManagerPool entityManagerPool, final int queryCacheCapacity);
 }
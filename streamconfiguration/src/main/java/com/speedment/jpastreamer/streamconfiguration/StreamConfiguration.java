@@ -17,9 +17,14 @@ import com.speedment.jpastreamer.projection.Projection;
 import com.speedment.jpastreamer.rootfactory.RootFactory;
 
 import javax.persistence.criteria.JoinType;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * StreamConfiguration instances are used
@@ -92,6 +97,29 @@ public interface StreamConfiguration<T> {
      */
     StreamConfiguration<T> joining(final Field<T> field, final JoinType joinType);
 
+    /**
+     * Creates and returns a new StreamConfiguration configured with
+     * the provided {@code field} so that it will be
+     * eagerly loaded when producing elements in the future Stream
+     * using the provided {@code joinStrategy} and {@link JoinType#LEFT}.
+     * <p>
+     * Using {@link JoinStrategy#BATCH_FETCH}, the entities are read
+     * without the field whereafter the field is loaded for each batch of
+     * entities using a single query restricted to the entities of the batch.
+     * For collections, this avoids repeating the columns of each entity for
+     * every element of its collection without resorting to N+1 queries.
+     * The batches are as large as the {@link #chunking(int) chunk size}
+     * if configured.
+     *
+     * @param field to join
+     * @param joinStrategy to load the field with
+     * @return a new StreamConfiguration configured with
+     * the provided {@code field} so that it will be
+     * eagerly loaded when producing elements in the future Stream
+     * using the provided {@code joinStrategy}
+     */
+    StreamConfiguration<T> joining(final Field<T> field, final JoinStrategy joinStrategy);
+
     /**
      * Returns the projected columns to use when creating entities or
      * {@link Optional#empty()} if no projection should be used.
@@ -130,6 +158,312 @@ public interface StreamConfiguration<T> {
      */
     StreamConfiguration<T> selecting(final Projection<T> projection);
 
+    /**
+     * Returns the number of entities to read per chunk when a future
+     * stream is read in keyset-chunked mode or {@link OptionalInt#empty()}
+     * if the stream shall be read using a single query.
+     *
+     * @return the number of entities to read per chunk when a future
+     * stream is read in keyset-chunked mode or {@link OptionalInt#empty()}
+     * if the stream shall be read using a single query
+     */
+    OptionalInt chunkSize();
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * a future Stream in chunks of at most {@code chunkSize} entities.
+     * <p>
+     * Instead of holding a single database cursor open for the lifetime
+     * of the Stream, each chunk is read using a separate seek query
+     * ordered by the primary key (i.e. {@code WHERE id > :last ORDER BY id})
+     * whereby memory consumption and connection hold times are bounded
+     * regardless of the size of the underlying table. Entities that are
+     * read are detached from the persistence context once the next
+     * chunk is read.
+     * <p>
+     * Chunked reading is only applicable to streams of entities having a
+     * single primary key attribute that are not projected, joined or
+     * sorted by the database. For other streams, this setting is ignored.
+     *
+     * @param chunkSize the maximum number of entities to read per chunk
+     * @return a new StreamConfiguration configured to read
+     * a future Stream in chunks of at most {@code chunkSize} entities
+     * @throws IllegalArgumentException if the provided {@code chunkSize}
+     *         is less than one
+     */
+    StreamConfiguration<T> chunking(final int chunkSize);
+
+    /**
+     * Returns the number of entities after which the persistence context
+     * of a future stream is cleared or {@link OptionalInt#empty()} if the
+     * persistence context shall be retained until the stream is closed.
+     *
+     * @return the number of entities after which the persistence context
+     * of a future stream is cleared or {@link OptionalInt#empty()} if the
+     * persistence context shall be retained until the stream is closed
+     */
+    OptionalInt clearInterval();
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to clear
+     * the persistence context of a future Stream every time
+     * {@code clearInterval} entities have been read.
+     * <p>
+     * Each Stream is rendered using its own persistence context that
+     * is released when the Stream is closed. For long-running streams,
+     * clearing the persistence context periodically keeps memory consumption
+     * bounded. Entities that have been cleared are detached and can
+     * thus no longer lazily load associations.
+     *
+     * @param clearInterval the number of entities to read between clearing
+     *                      the persistence context
+     * @return a new StreamConfiguration configured to clear
+     * the persistence context of a future Stream every time
+     * {@code clearInterval} entities have been read
+     * @throws IllegalArgumentException if the provided {@code clearInterval}
+     *         is less than one
+     */
+    StreamConfiguration<T> clearing(final int clearInterval);
+
+    /**
+     * Returns the number of entities that are read ahead of the consumer
+     * of a future stream by a background thread or {@link OptionalInt#empty()} if
+     * entities shall be read by the consuming thread.
+     *
+     * @return the number of entities that are read ahead of the consumer
+     * of a future stream by a background thread or {@link OptionalInt#empty()} if
+     * entities shall be read by the consuming thread
+     */
+    OptionalInt prefetchDepth();
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * entities of a future Stream in a background thread that stays at most
+     * {@code prefetchDepth} entities ahead of the consumer.
+     * <p>
+     * Prefetching lets database round trips overlap with the processing
+     * of previously read entities which reduces the total time of streams
+     * where each entity requires substantial processing. As the persistence
+     * context is used by the background thread while the Stream is consumed,
+     * the consumer should not lazily load associations of the entities.
+     * Prefetching is not applied to parallel Streams.
+     *
+     * @param prefetchDepth the maximum number of entities read
+     *                      ahead of the consumer
+     * @return a new StreamConfiguration configured to read
+     * entities of a future Stream in a background thread that stays at most
+     * {@code prefetchDepth} entities ahead of the consumer
+     * @throws IllegalArgumentException if the provided {@code prefetchDepth}
+     *         is less than one
+     */
+    StreamConfiguration<T> prefetching(final int prefetchDepth);
+
+    /**
+     * Returns the maximum number of elements that a sorting or distinct
+     * operation of a future stream, that is not performed by the database,
+     * holds in memory or {@link OptionalInt#empty()} if all elements
+     * shall be held in memory.
+     *
+     * @return the maximum number of elements that a sorting or distinct
+     * operation of a future stream holds in memory or {@link OptionalInt#empty()}
+     * if all elements shall be held in memory
+     */
+    OptionalInt spillThreshold();
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to let
+     * sorting and distinct operations of a future Stream, that are not
+     * performed by the database, hold at most {@code spillThreshold}
+     * elements in memory.
+     * <p>
+     * Whenever the threshold is reached, the elements held in memory
+     * are sorted and written to a temporary file. The files are merged
+     * once all elements have been read and deleted when the Stream is
+     * closed. This keeps memory consumption bounded when sorting or
+     * removing duplicates of more elements than fit in memory, for example
+     * elements mapped to objects that can not be sorted by the database.
+     * The elements of such operations must be {@link java.io.Serializable}.
+     *
+     * @param spillThreshold the maximum number of elements held in memory
+     *                       by each sorting or distinct operation
+     * @return a new StreamConfiguration configured to let sorting and
+     * distinct operations of a future Stream hold at most
+     * {@code spillThreshold} elements in memory
+     * @throws IllegalArgumentException if the provided {@code spillThreshold}
+     *         is less than one
+     */
+    StreamConfiguration<T> spilling(final int spillThreshold);
+
+    /**
+     * Returns if serializable lambdas used to filter and sort a future
+     * stream shall be translated into field predicates and comparators.
+     *
+     * @return if serializable lambdas used to filter and sort a future
+     * stream shall be translated into field predicates and comparators
+     */
+    boolean translatesLambdas();
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to translate
+     * serializable lambdas used to filter and sort a future Stream into
+     * field predicates and comparators.
+     * <p>
+     * Only serializable lambdas comparing properties of the entities to
+     * constants or captured values are translated, for example
+     * {@code (Predicate<Film> & Serializable) f -> f.getLength() > 120}.
+     * Translated lambdas can be merged into the query and are thus
+     * evaluated by the database. Lambdas that can not be translated are
+     * applied to the elements of the Stream as usual.
+     *
+     * @return a new StreamConfiguration configured to translate
+     * serializable lambdas used to filter and sort a future Stream into
+     * field predicates and comparators
+     */
+    StreamConfiguration<T> translatingLambdas();
+
+    /**
+     * Returns if the rows of queries reading a page of a future stream shall
+     * be ordered by the identifier of the entities after any other order.
+     *
+     * @return if the rows of queries reading a page of a future stream shall
+     * be ordered by the identifier of the entities after any other order
+     */
+    boolean ordersById();
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to order the
+     * rows of queries reading a page of a future Stream by the identifier of
+     * the entities after any other order.
+     * <p>
+     * Skip and limit operations are merged into the query as first and max
+     * results whenever possible. The rows of a query without a total order may
+     * be returned in any order, so that consecutive pages read by separate
+     * Streams could overlap or leave gaps unless they are ordered by the
+     * identifier.
+     *
+     * @return a new StreamConfiguration configured to order the rows of
+     * queries reading a page of a future Stream by the identifier of the
+     * entities after any other order
+     */
+    StreamConfiguration<T> orderingById();
+
+    /**
+     * Returns the entity graph to apply to the queries reading
+     * entities of a future stream or {@link Optional#empty()} if the
+     * default fetch plan of the entities shall be used.
+     *
+     * @return the entity graph to apply to the queries reading
+     * entities of a future stream or {@link Optional#empty()} if the
+     * default fetch plan of the entities shall be used
+     */
+    Optional<GraphConfiguration<T>> graph();
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * entities of a future Stream using a fetch graph of the provided
+     * fields.
+     * <p>
+     * The provided fields are loaded eagerly while all other associations
+     * are treated as lazy. This prevents the N+1 problem if the fields are
+     * accessed in elements in the future Stream.
+     *
+     * @param first field to load
+     * @param other fields to load
+     * @return a new StreamConfiguration configured to read
+     * entities of a future Stream using a fetch graph of the provided
+     * fields
+     */
+    @SuppressWarnings("unchecked")
+    default StreamConfiguration<T> withFetchGraph(final Field<T> first, final Field<T>... other) {
+        final Set<Field<T>> fields = Stream.concat(Stream.of(first), Arrays.stream(other))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        return withGraph(GraphType.FETCH, fields);
+    }
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * entities of a future Stream using the named entity graph with the
+     * provided {@code graphName} as a fetch graph.
+     *
+     * @param graphName name of the entity graph
+     * @return a new StreamConfiguration configured to read
+     * entities of a future Stream using the named entity graph with the
+     * provided {@code graphName} as a fetch graph
+     */
+    default StreamConfiguration<T> withFetchGraph(final String graphName) {
+        return withGraph(GraphType.FETCH, graphName);
+    }
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * entities of a future Stream using a load graph of the provided
+     * fields.
+     * <p>
+     * The provided fields are loaded eagerly in addition to the
+     * associations that are eager by default. This prevents the N+1
+     * problem if the fields are accessed in elements in the future Stream.
+     *
+     * @param first field to load
+     * @param other fields to load
+     * @return a new StreamConfiguration configured to read
+     * entities of a future Stream using a load graph of the provided
+     * fields
+     */
+    @SuppressWarnings("unchecked")
+    default StreamConfiguration<T> withLoadGraph(final Field<T> first, final Field<T>... other) {
+        final Set<Field<T>> fields = Stream.concat(Stream.of(first), Arrays.stream(other))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        return withGraph(GraphType.LOAD, fields);
+    }
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * entities of a future Stream using the named entity graph with the
+     * provided {@code graphName} as a load graph.
+     *
+     * @param graphName name of the entity graph
+     * @return a new StreamConfiguration configured to read
+     * entities of a future Stream using the named entity graph with the
+     * provided {@code graphName} as a load graph
+     */
+    default StreamConfiguration<T> withLoadGraph(final String graphName) {
+        return withGraph(GraphType.LOAD, graphName);
+    }
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * entities of a future Stream using an entity graph of the provided
+     * {@code fields} that is applied as the provided {@code graphType}.
+     * <p>
+     * The entity graph replaces any previously configured entity graph.
+     * It is not applied to projected streams.
+     *
+     * @param graphType how to apply the entity graph
+     * @param fields to load
+     * @return a new StreamConfiguration configured to read
+     * entities of a future Stream using an entity graph of the provided
+     * {@code fields} that is applied as the provided {@code graphType}
+     * @throws IllegalArgumentException if the provided {@code fields}
+     *         are empty
+     */
+    StreamConfiguration<T> withGraph(final GraphType graphType, final Set<Field<T>> fields);
+
+    /**
+     * Creates and returns a new StreamConfiguration configured to read
+     * entities of a future Stream using the named entity graph with the
+     * provided {@code graphName} that is applied as the provided {@code graphType}.
+     * <p>
+     * The entity graph replaces any previously configured entity graph.
+     * It is not applied to projected streams.
+     *
+     * @param graphType how to apply the entity graph
+     * @param graphName name of the entity graph
+     * @return a new StreamConfiguration configured to read
+     * entities of a future Stream using the named entity graph with the
+     * provided {@code graphName} that is applied as the provided {@code graphType}
+     */
+    StreamConfiguration<T> withGraph(final GraphType graphType, final String graphName);
+
     /**
      * Creates and returns a new StreamConfiguration that can be used
      * to configure streams.
@@ -167,6 +501,91 @@ public interface StreamConfiguration<T> {
          * @return the {@link JoinType} for this JoinConfiguration
          */
         JoinType joinType();
+
+        /**
+         * Returns the {@link JoinStrategy} for this JoinConfiguration.
+         *
+         * @return the {@link JoinStrategy} for this JoinConfiguration
+         */
+        JoinStrategy joinStrategy();
+    }
+
+    interface GraphConfiguration<T> {
+
+        /**
+         * Returns how the entity graph of this GraphConfiguration is applied.
+         *
+         * @return how the entity graph of this GraphConfiguration is applied
+         */
+        GraphType graphType();
+
+        /**
+         * Returns the name of the named entity graph of this GraphConfiguration
+         * or {@link Optional#empty()} if the entity graph consists of
+         * the {@link #fields()}.
+         *
+         * @return the name of the named entity graph of this GraphConfiguration
+         * or {@link Optional#empty()} if the entity graph consists of
+         * the {@link #fields()}
+         */
+        Optional<String> name();
+
+        /**
+         * Returns the fields of the entity graph of this GraphConfiguration
+         * which are empty if the entity graph is a named entity graph.
+         *
+         * @return the fields of the entity graph of this GraphConfiguration
+         */
+        Set<Field<T>> fields();
+    }
+
+    /**
+     * Ways of applying an entity graph to a query.
+     */
+    enum GraphType {
+
+        /**
+         * Attributes of the entity graph are eager and all other attributes are lazy.
+         */
+        FETCH("javax.persistence.fetchgraph"),
+
+        /**
+         * Attributes of the entity graph are eager and all other attributes
+         * use their default fetch type.
+         */
+        LOAD("javax.persistence.loadgraph");
+
+        private final String hint;
+
+        GraphType(final String hint) {
+            this.hint = hint;
+        }
+
+        /**
+         * Returns the name of the query hint applying an entity graph in this way.
+         *
+         * @return the name of the query hint applying an entity graph in this way
+         */
+        public String hint() {
+            return hint;
+        }
+    }
+
+    /**
+     * Strategies for eagerly loading a joined field.
+     */
+    enum JoinStrategy {
+
+        /**
+         * The field is fetch joined into the query reading the entities.
+         */
+        FETCH_JOIN,
+
+        /**
+         * The field is loaded for each batch of entities by a separate query
+         * restricted to the entities of the batch.
+         */
+        BATCH_FETCH
     }
 
 }